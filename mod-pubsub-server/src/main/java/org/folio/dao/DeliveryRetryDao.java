@@ -0,0 +1,43 @@
+package org.folio.dao;
+
+import io.vertx.core.Future;
+import org.folio.services.delivery.DeliveryRetry;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Data access object for delivery retries waiting until they are due
+ */
+public interface DeliveryRetryDao {
+
+  /**
+   * Saves delivery retry
+   *
+   * @param retry    delivery retry
+   * @param tenantId tenant id
+   * @return future completed when the retry is saved
+   */
+  Future<Void> save(DeliveryRetry retry, String tenantId);
+
+  /**
+   * Claims retries which are due, due date of claimed retries is moved to {@code leaseUntil} so that
+   * they are not claimed again, neither by this nor by another module instance, until the lease expires
+   *
+   * @param now        current time
+   * @param leaseUntil time claimed retries become due again if they are not deleted
+   * @param limit      maximum number of retries to claim
+   * @param tenantId   tenant id
+   * @return future with claimed retries
+   */
+  Future<List<DeliveryRetry>> claimDue(Date now, Date leaseUntil, int limit, String tenantId);
+
+  /**
+   * Deletes delivery retry
+   *
+   * @param id       retry id
+   * @param tenantId tenant id
+   * @return future with true if retry was deleted
+   */
+  Future<Boolean> delete(String id, String tenantId);
+}
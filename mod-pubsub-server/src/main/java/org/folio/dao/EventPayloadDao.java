@@ -0,0 +1,62 @@
+package org.folio.dao;
+
+import io.vertx.core.Future;
+
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Data access object for payloads of events published in claim-check mode
+ */
+public interface EventPayloadDao {
+
+  /**
+   * Saves event payload, payload of the same event is overwritten
+   *
+   * @param eventId        event id
+   * @param content        event payload
+   * @param expirationDate date after which payload can be removed
+   * @param tenantId       tenant id
+   * @return future with true if payload is saved
+   */
+  Future<Boolean> save(String eventId, String content, Date expirationDate, String tenantId);
+
+  /**
+   * Saves event payload unless it is stored already, expiration date of the stored payload is moved
+   * to {@code expirationDate} if it is earlier
+   *
+   * @param eventId        event id
+   * @param content        event payload
+   * @param expirationDate date before which payload must not be removed
+   * @param tenantId       tenant id
+   * @return future with true if payload is saved or retained
+   */
+  Future<Boolean> retain(String eventId, String content, Date expirationDate, String tenantId);
+
+  /**
+   * Searches for event payload
+   *
+   * @param eventId  event id
+   * @param tenantId tenant id
+   * @return future with optional payload
+   */
+  Future<Optional<String>> getByEventId(String eventId, String tenantId);
+
+  /**
+   * Deletes event payload
+   *
+   * @param eventId  event id
+   * @param tenantId tenant id
+   * @return future with true if payload was deleted
+   */
+  Future<Boolean> delete(String eventId, String tenantId);
+
+  /**
+   * Deletes payloads which expiration date has passed, payloads referred to by stored delivery retries are kept
+   * until the last of the retries is deleted
+   *
+   * @param tenantId tenant id
+   * @return future with number of deleted payloads
+   */
+  Future<Integer> deleteExpired(String tenantId);
+}
@@ -0,0 +1,27 @@
+package org.folio.dao;
+
+import io.vertx.core.Future;
+import org.folio.rest.jaxrs.model.RateLimitCollection;
+
+/**
+ * Data access object for publish rate limits, all limits of a tenant are stored together
+ */
+public interface RateLimitDao {
+
+  /**
+   * Searches for publish rate limits of the tenant
+   *
+   * @param tenantId tenant id
+   * @return future with rate limits, empty collection if limits were not set
+   */
+  Future<RateLimitCollection> get(String tenantId);
+
+  /**
+   * Replaces publish rate limits of the tenant
+   *
+   * @param rateLimits rate limits
+   * @param tenantId   tenant id
+   * @return future completed when limits are saved
+   */
+  Future<Void> save(RateLimitCollection rateLimits, String tenantId);
+}
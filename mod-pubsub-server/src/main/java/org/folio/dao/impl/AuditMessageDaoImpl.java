@@ -87,7 +87,8 @@ public class AuditMessageDaoImpl implements AuditMessageDao {
     Promise<RowSet<Row>> promise = Promise.promise();
     try {
       String query = format(INSERT_AUDIT_MESSAGE_PAYLOAD_QUERY, convertToPsqlStandard(tenantId), AUDIT_MESSAGE_PAYLOAD_TABLE);
-      pgClientFactory.getInstance(tenantId).execute(query, Tuple.of(UUID.fromString(auditMessagePayload.getEventId()), JsonObject.mapFrom(auditMessagePayload)),
+      pgClientFactory.getInstance(tenantId).execute(query, Tuple.of(UUID.fromString(auditMessagePayload.getEventId()),
+          new JsonObject().put("eventId", auditMessagePayload.getEventId()).put("content", auditMessagePayload.getContent())),
         promise);
     } catch (Exception e) {
       LOGGER.error("Error saving audit message payload for event with id {}", auditMessagePayload.getEventId(), e);
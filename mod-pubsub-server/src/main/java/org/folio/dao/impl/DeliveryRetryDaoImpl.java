@@ -0,0 +1,111 @@
+package org.folio.dao.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.json.Json;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.dao.DeliveryRetryDao;
+import org.folio.dao.PostgresClientFactory;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventMetadata;
+import org.folio.services.delivery.DeliveryRetry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static java.lang.String.format;
+import static org.folio.rest.persist.PostgresClient.convertToPsqlStandard;
+
+/**
+ * Implementation for the DeliveryRetryDao, works with PostgresClient to access data.
+ *
+ * @see DeliveryRetryDao
+ */
+@Repository
+public class DeliveryRetryDaoImpl implements DeliveryRetryDao {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final String TABLE_NAME = "delivery_retry";
+  private static final String INSERT_SQL = "INSERT INTO %s.%s (id, event_id, event_type, event_metadata, payload, " +
+    "payload_reference, subscriber_module_id, subscriber_callback, attempt, reason, due_date) " +
+    "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11)";
+  private static final String CLAIM_DUE_SQL = "UPDATE %1$s.%2$s SET due_date = $2 WHERE id IN " +
+    "(SELECT id FROM %1$s.%2$s WHERE due_date <= $1 ORDER BY due_date LIMIT $3 FOR UPDATE SKIP LOCKED) RETURNING *";
+  private static final String DELETE_BY_ID_SQL = "DELETE FROM %s.%s WHERE id = $1";
+
+  @Autowired
+  private PostgresClientFactory pgClientFactory;
+
+  @Override
+  public Future<Void> save(DeliveryRetry retry, String tenantId) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    try {
+      String query = format(INSERT_SQL, convertToPsqlStandard(tenantId), TABLE_NAME);
+      Event event = retry.event();
+      Tuple params = Tuple.of(UUID.fromString(retry.id()), event.getId(), event.getEventType(),
+        Json.encode(event.getEventMetadata()), retry.payload(), retry.payloadReference(), retry.subscriberModuleId(),
+        retry.subscriberCallback(), retry.attempt(), retry.reason(), toLocalDateTime(retry.dueDate()));
+      pgClientFactory.getInstance(tenantId).execute(query, params, promise);
+    } catch (Exception e) {
+      LOGGER.error("Error saving delivery retry of event with id {}", retry.event().getId(), e);
+      promise.fail(e);
+    }
+    return promise.future().mapEmpty();
+  }
+
+  @Override
+  public Future<List<DeliveryRetry>> claimDue(Date now, Date leaseUntil, int limit, String tenantId) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    try {
+      String query = format(CLAIM_DUE_SQL, convertToPsqlStandard(tenantId), TABLE_NAME);
+      Tuple params = Tuple.of(toLocalDateTime(now), toLocalDateTime(leaseUntil), limit);
+      pgClientFactory.getInstance(tenantId).execute(query, params, promise);
+    } catch (Exception e) {
+      LOGGER.error("Error claiming due delivery retries for tenant {}", tenantId, e);
+      promise.fail(e);
+    }
+    return promise.future().map(rowSet -> {
+      List<DeliveryRetry> retries = new ArrayList<>();
+      rowSet.forEach(row -> retries.add(mapRowToDeliveryRetry(row, tenantId)));
+      return retries;
+    });
+  }
+
+  @Override
+  public Future<Boolean> delete(String id, String tenantId) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    try {
+      String query = format(DELETE_BY_ID_SQL, convertToPsqlStandard(tenantId), TABLE_NAME);
+      pgClientFactory.getInstance(tenantId).execute(query, Tuple.of(UUID.fromString(id)), promise);
+    } catch (Exception e) {
+      LOGGER.error("Error deleting delivery retry with id {}", id, e);
+      promise.fail(e);
+    }
+    return promise.future().map(updateResult -> updateResult.rowCount() == 1);
+  }
+
+  private DeliveryRetry mapRowToDeliveryRetry(Row row, String tenantId) {
+    Event event = new Event()
+      .withId(row.getString("event_id"))
+      .withEventType(row.getString("event_type"))
+      .withEventMetadata(Json.decodeValue(row.getString("event_metadata"), EventMetadata.class));
+    return new DeliveryRetry(row.getUUID("id").toString(), tenantId, event, row.getString("payload"),
+      row.getString("payload_reference"), row.getString("subscriber_module_id"), row.getString("subscriber_callback"), row.getInteger("attempt"),
+      row.getString("reason"), Timestamp.valueOf(row.getLocalDateTime("due_date")));
+  }
+
+  private static LocalDateTime toLocalDateTime(Date date) {
+    return Timestamp.from(date.toInstant()).toLocalDateTime();
+  }
+}
@@ -140,6 +140,16 @@ public class EventDescriptorDaoImpl implements EventDescriptorDao {
     eventDescriptor.setEventTTL(descriptorAsJson.getInteger("eventTTL"));
     eventDescriptor.setSigned(descriptorAsJson.getBoolean("signed"));
     eventDescriptor.setTmp(descriptorAsJson.getBoolean("tmp"));
+    String partitionKey = descriptorAsJson.getString("partitionKey");
+    if (partitionKey != null) {
+      eventDescriptor.setPartitionKey(EventDescriptor.PartitionKey.fromValue(partitionKey));
+    }
+    eventDescriptor.setPartitionKeyPointer(descriptorAsJson.getString("partitionKeyPointer"));
+    String recordFormat = descriptorAsJson.getString("recordFormat");
+    if (recordFormat != null) {
+      eventDescriptor.setRecordFormat(EventDescriptor.RecordFormat.fromValue(recordFormat));
+    }
+    eventDescriptor.setProducerProfile(descriptorAsJson.getString("producerProfile"));
     return eventDescriptor;
   }
 
@@ -0,0 +1,114 @@
+package org.folio.dao.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.dao.EventPayloadDao;
+import org.folio.dao.PostgresClientFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+import static java.lang.String.format;
+import static org.folio.rest.persist.PostgresClient.convertToPsqlStandard;
+
+/**
+ * Implementation for the EventPayloadDao, works with PostgresClient to access data.
+ *
+ * @see EventPayloadDao
+ */
+@Repository
+public class EventPayloadDaoImpl implements EventPayloadDao {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final String TABLE_NAME = "event_payload";
+  private static final String UPSERT_SQL = "INSERT INTO %s.%s (event_id, content, expiration_date) VALUES ($1, $2, $3) " +
+    "ON CONFLICT (event_id) DO UPDATE SET content = EXCLUDED.content, expiration_date = EXCLUDED.expiration_date";
+  private static final String RETAIN_SQL = "INSERT INTO %1$s.%2$s (event_id, content, expiration_date) VALUES ($1, $2, $3) " +
+    "ON CONFLICT (event_id) DO UPDATE SET expiration_date = GREATEST(%2$s.expiration_date, EXCLUDED.expiration_date)";
+  private static final String GET_BY_EVENT_ID_SQL = "SELECT content FROM %s.%s WHERE event_id = $1";
+  private static final String DELETE_BY_EVENT_ID_SQL = "DELETE FROM %s.%s WHERE event_id = $1";
+  private static final String DELETE_EXPIRED_SQL = "DELETE FROM %1$s.%2$s WHERE expiration_date < $1 AND NOT EXISTS " +
+    "(SELECT 1 FROM %1$s.delivery_retry WHERE delivery_retry.payload_reference = %2$s.event_id::text)";
+
+  @Autowired
+  private PostgresClientFactory pgClientFactory;
+
+  @Override
+  public Future<Boolean> save(String eventId, String content, Date expirationDate, String tenantId) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    try {
+      String query = format(UPSERT_SQL, convertToPsqlStandard(tenantId), TABLE_NAME);
+      Tuple params = Tuple.of(UUID.fromString(eventId), content, Timestamp.from(expirationDate.toInstant()).toLocalDateTime());
+      pgClientFactory.getInstance(tenantId).execute(query, params, promise);
+    } catch (Exception e) {
+      LOGGER.error("Error saving payload of event with id {}", eventId, e);
+      promise.fail(e);
+    }
+    return promise.future().map(updateResult -> updateResult.rowCount() == 1);
+  }
+
+  @Override
+  public Future<Boolean> retain(String eventId, String content, Date expirationDate, String tenantId) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    try {
+      String query = format(RETAIN_SQL, convertToPsqlStandard(tenantId), TABLE_NAME);
+      Tuple params = Tuple.of(UUID.fromString(eventId), content, Timestamp.from(expirationDate.toInstant()).toLocalDateTime());
+      pgClientFactory.getInstance(tenantId).execute(query, params, promise);
+    } catch (Exception e) {
+      LOGGER.error("Error retaining payload of event with id {}", eventId, e);
+      promise.fail(e);
+    }
+    return promise.future().map(updateResult -> updateResult.rowCount() == 1);
+  }
+
+  @Override
+  public Future<Optional<String>> getByEventId(String eventId, String tenantId) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    try {
+      String query = format(GET_BY_EVENT_ID_SQL, convertToPsqlStandard(tenantId), TABLE_NAME);
+      pgClientFactory.getInstance(tenantId).selectRead(query, Tuple.of(UUID.fromString(eventId)), promise);
+    } catch (Exception e) {
+      LOGGER.error("Error retrieving payload of event with id {}", eventId, e);
+      promise.fail(e);
+    }
+    return promise.future().map(resultSet -> resultSet.rowCount() == 0
+      ? Optional.empty() : Optional.of(resultSet.iterator().next().getString("content")));
+  }
+
+  @Override
+  public Future<Boolean> delete(String eventId, String tenantId) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    try {
+      String query = format(DELETE_BY_EVENT_ID_SQL, convertToPsqlStandard(tenantId), TABLE_NAME);
+      pgClientFactory.getInstance(tenantId).execute(query, Tuple.of(UUID.fromString(eventId)), promise);
+    } catch (Exception e) {
+      LOGGER.error("Error deleting payload of event with id {}", eventId, e);
+      promise.fail(e);
+    }
+    return promise.future().map(updateResult -> updateResult.rowCount() == 1);
+  }
+
+  @Override
+  public Future<Integer> deleteExpired(String tenantId) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    try {
+      String query = format(DELETE_EXPIRED_SQL, convertToPsqlStandard(tenantId), TABLE_NAME);
+      pgClientFactory.getInstance(tenantId).execute(query, Tuple.of(LocalDateTime.now()), promise);
+    } catch (Exception e) {
+      LOGGER.error("Error deleting expired event payloads for tenant {}", tenantId, e);
+      promise.fail(e);
+    }
+    return promise.future().map(RowSet::rowCount);
+  }
+}
@@ -41,7 +41,7 @@ public class MessagingModuleDaoImpl implements MessagingModuleDao {
   private static final String TABLE_NAME = "messaging_module";
   private static final String MODULE_SCHEMA = "pubsub_config";
   private static final String GET_BY_SQL = "SELECT * FROM %s.%s %s";
-  private static final String INSERT_BATCH_SQL = "INSERT INTO %s.%s (id, event_type_id, module_id, tenant_id, role, activated, subscriber_callback) VALUES ($1, $2, $3, $4, $5, $6, $7)";
+  private static final String INSERT_BATCH_SQL = "INSERT INTO %s.%s (id, event_type_id, module_id, tenant_id, role, activated, subscriber_callback, delivery_lanes) VALUES ($1, $2, $3, $4, $5, $6, $7, $8)";
   private static final String DELETE_BY_ID_SQL = "DELETE FROM %s.%s WHERE id = $1";
   private static final String DELETE_BY_SQL = "DELETE FROM %s.%s %s";
   private static final String GET_ALL_SQL = "SELECT * FROM %s.%s";
@@ -100,7 +100,8 @@ public class MessagingModuleDaoImpl implements MessagingModuleDao {
       messagingModule.getTenantId(),
       messagingModule.getModuleRole().value(),
       messagingModule.getActivated(),
-      messagingModule.getSubscriberCallback() != null ? messagingModule.getSubscriberCallback() : EMPTY);
+      messagingModule.getSubscriberCallback() != null ? messagingModule.getSubscriberCallback() : EMPTY,
+      messagingModule.getDeliveryLanes() != null ? messagingModule.getDeliveryLanes() : 0);
   }
 
   @Override
@@ -132,7 +133,8 @@ public class MessagingModuleDaoImpl implements MessagingModuleDao {
       .withTenantId(row.getValue("tenant_id").toString())
       .withModuleRole(ModuleRole.valueOf(row.getString("role")))
       .withActivated(row.getBoolean("activated"))
-      .withSubscriberCallback(row.getString("subscriber_callback"));
+      .withSubscriberCallback(row.getString("subscriber_callback"))
+      .withDeliveryLanes(row.getInteger("delivery_lanes"));
   }
 
   private List<MessagingModule> mapResultSetToMessagingModuleList(RowSet<Row> resultSet) {
@@ -0,0 +1,68 @@
+package org.folio.dao.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.dao.PostgresClientFactory;
+import org.folio.dao.RateLimitDao;
+import org.folio.rest.jaxrs.model.RateLimitCollection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+
+import static java.lang.String.format;
+import static org.folio.rest.persist.PostgresClient.convertToPsqlStandard;
+
+/**
+ * Implementation for the RateLimitDao, works with PostgresClient to access data.
+ *
+ * @see RateLimitDao
+ */
+@Repository
+public class RateLimitDaoImpl implements RateLimitDao {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final String TABLE_NAME = "rate_limit";
+  private static final int ROW_ID = 1;
+  private static final String GET_SQL = "SELECT rate_limits FROM %s.%s WHERE id = $1";
+  private static final String UPSERT_SQL = "INSERT INTO %s.%s (id, rate_limits) VALUES ($1, $2) " +
+    "ON CONFLICT (id) DO UPDATE SET rate_limits = EXCLUDED.rate_limits";
+
+  @Autowired
+  private PostgresClientFactory pgClientFactory;
+
+  @Override
+  public Future<RateLimitCollection> get(String tenantId) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    try {
+      String query = format(GET_SQL, convertToPsqlStandard(tenantId), TABLE_NAME);
+      pgClientFactory.getInstance(tenantId).selectRead(query, Tuple.of(ROW_ID), promise);
+    } catch (Exception e) {
+      LOGGER.error("Error retrieving rate limits for tenant {}", tenantId, e);
+      promise.fail(e);
+    }
+    return promise.future().map(resultSet -> resultSet.rowCount() == 0
+      ? new RateLimitCollection().withRateLimits(new ArrayList<>()).withTotalRecords(0)
+      : new JsonObject(resultSet.iterator().next().getValue("rate_limits").toString()).mapTo(RateLimitCollection.class));
+  }
+
+  @Override
+  public Future<Void> save(RateLimitCollection rateLimits, String tenantId) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    try {
+      String query = format(UPSERT_SQL, convertToPsqlStandard(tenantId), TABLE_NAME);
+      pgClientFactory.getInstance(tenantId).execute(query, Tuple.of(ROW_ID, JsonObject.mapFrom(rateLimits)), promise);
+    } catch (Exception e) {
+      LOGGER.error("Error saving rate limits for tenant {}", tenantId, e);
+      promise.fail(e);
+    }
+    return promise.future().mapEmpty();
+  }
+}
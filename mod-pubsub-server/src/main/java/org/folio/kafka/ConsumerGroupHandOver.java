@@ -0,0 +1,114 @@
+package org.folio.kafka;
+
+import io.vertx.core.Future;
+import io.vertx.kafka.admin.ConsumerGroupListing;
+import io.vertx.kafka.admin.KafkaAdminClient;
+import io.vertx.kafka.client.common.TopicPartition;
+import io.vertx.kafka.client.consumer.OffsetAndMetadata;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.okapi.common.GenericCompositeFuture;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Hands committed offsets over between the consumer groups of the per-topic and the multiplexed consumer modes.
+ * Consumers start from the latest offset when their group has no committed offsets, so without the hand-over
+ * switching {@code kafka.consumer.multiplexed} would skip events published while the module restarts.
+ * Offsets are copied only for partitions which have no committed offsets in the target group yet, and Kafka accepts
+ * them only while the target group has no active members. A failed hand-over is logged and consumers start
+ * from {@code auto.offset.reset}.
+ */
+@Component
+public class ConsumerGroupHandOver {
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private final KafkaAdminClient adminClient;
+  private final KafkaConfig kafkaConfig;
+
+  public ConsumerGroupHandOver(@Autowired KafkaAdminClient adminClient,
+                               @Autowired KafkaConfig kafkaConfig) {
+    this.adminClient = adminClient;
+    this.kafkaConfig = kafkaConfig;
+  }
+
+  /**
+   * Copies offsets committed by the per-topic groups of the current module version to the multiplexed group
+   *
+   * @return future completed when the hand-over is finished or has failed
+   */
+  public Future<Void> toMultiplexedGroup() {
+    String env = kafkaConfig.getEnvId();
+    String groupId = PubSubConfig.getMultiplexedGroupId(env);
+    return adminClient.listConsumerGroups()
+      .map(groups -> groups.stream()
+        .map(ConsumerGroupListing::getGroupId)
+        .filter(id -> PubSubConfig.isTopicGroupId(env, id))
+        .toList())
+      .compose(this::getCommittedOffsets)
+      .compose(offsets -> copyOffsets(offsets, groupId))
+      .recover(e -> {
+        LOGGER.warn("toMultiplexedGroup:: Could not hand offsets of per-topic groups over to group {}", groupId, e);
+        return Future.succeededFuture();
+      });
+  }
+
+  /**
+   * Copies offsets of the topic committed by the multiplexed group to the per-topic group of the topic
+   *
+   * @param topic topic name, which is also the id of its per-topic group
+   * @return future completed when the hand-over is finished or has failed
+   */
+  public Future<Void> toTopicGroup(String topic) {
+    return adminClient.listConsumerGroupOffsets(PubSubConfig.getMultiplexedGroupId(kafkaConfig.getEnvId()))
+      .map(offsets -> filter(offsets, partition -> topic.equals(partition.getTopic())))
+      .compose(offsets -> copyOffsets(offsets, topic))
+      .recover(e -> {
+        LOGGER.warn("toTopicGroup:: Could not hand offsets of the multiplexed group over to group {}", topic, e);
+        return Future.succeededFuture();
+      });
+  }
+
+  private Future<Map<TopicPartition, OffsetAndMetadata>> getCommittedOffsets(List<String> groupIds) {
+    List<Future<Map<TopicPartition, OffsetAndMetadata>>> futures = groupIds.stream()
+      .map(adminClient::listConsumerGroupOffsets)
+      .toList();
+    return GenericCompositeFuture.all(futures)
+      .map(v -> {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        futures.forEach(future -> offsets.putAll(future.result()));
+        return offsets;
+      });
+  }
+
+  private Future<Void> copyOffsets(Map<TopicPartition, OffsetAndMetadata> offsets, String groupId) {
+    if (offsets.isEmpty()) {
+      return Future.succeededFuture();
+    }
+    return adminClient.listConsumerGroupOffsets(groupId)
+      .compose(committed -> {
+        Map<TopicPartition, OffsetAndMetadata> absent = filter(offsets, partition -> !committed.containsKey(partition));
+        if (absent.isEmpty()) {
+          return Future.succeededFuture();
+        }
+        LOGGER.info("copyOffsets:: Handing offsets of {} partitions over to group {}", absent.size(), groupId);
+        return adminClient.alterConsumerGroupOffsets(groupId, absent);
+      });
+  }
+
+  private static Map<TopicPartition, OffsetAndMetadata> filter(Map<TopicPartition, OffsetAndMetadata> offsets,
+                                                               Predicate<TopicPartition> predicate) {
+    Map<TopicPartition, OffsetAndMetadata> result = new HashMap<>();
+    offsets.forEach((partition, offset) -> {
+      if (predicate.test(partition)) {
+        result.put(partition, offset);
+      }
+    });
+    return result;
+  }
+}
@@ -0,0 +1,65 @@
+package org.folio.kafka;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.kafka.client.consumer.KafkaConsumerRecord;
+import io.vertx.kafka.client.producer.KafkaProducerRecord;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventDescriptor.RecordFormat;
+import org.folio.rest.jaxrs.model.MessagingModule;
+
+/**
+ * Converts events which could not be delivered to a subscriber to records of the dead letter topic.
+ * A dead letter record is written in {@link RecordFormat#HEADERS} format with the payload that was sent to
+ * the subscriber, so it can be read by {@link EventRecordCodec#decode}, the subscriber and the failure are
+ * described by additional headers. A payload stored in claim-check storage is not copied into the record,
+ * the record carries {@link EventRecordCodec#PAYLOAD_REFERENCE_HEADER} instead, like the record the event was received in.
+ */
+public final class DeadLetterRecords {
+
+  public static final String SUBSCRIBER_HEADER = "pubsub-dlq-subscriber";
+  public static final String CALLBACK_HEADER = "pubsub-dlq-callback";
+  public static final String REASON_HEADER = "pubsub-dlq-reason";
+  public static final String ATTEMPTS_HEADER = "pubsub-dlq-attempts";
+  public static final String FAILED_AT_HEADER = "pubsub-dlq-failed-at";
+
+  private DeadLetterRecords() {
+  }
+
+  /**
+   * Creates dead letter record
+   *
+   * @param topicName        dead letter topic name
+   * @param event            event
+   * @param payload          payload sent to the subscriber
+   * @param payloadReference claim-check reference of the payload, the payload is not written if it is not null
+   * @param subscriber       subscriber the event was not delivered to
+   * @param reason           reason of the last failed attempt
+   * @param attempts         number of delivery attempts
+   * @param failedAtMillis   time of the last failed attempt in milliseconds since epoch
+   * @return Kafka record
+   */
+  public static KafkaProducerRecord<String, Buffer> encode(String topicName, Event event, Buffer payload,
+                                                           String payloadReference, MessagingModule subscriber,
+                                                           String reason, int attempts, long failedAtMillis) {
+    KafkaProducerRecord<String, Buffer> kafkaRecord = EventRecordCodec.encode(topicName, event.getId(), event,
+        payloadReference == null ? payload : null)
+      .addHeader(SUBSCRIBER_HEADER, subscriber.getModuleId())
+      .addHeader(ATTEMPTS_HEADER, String.valueOf(attempts))
+      .addHeader(FAILED_AT_HEADER, String.valueOf(failedAtMillis));
+    if (payloadReference != null) {
+      kafkaRecord.addHeader(EventRecordCodec.PAYLOAD_REFERENCE_HEADER, payloadReference);
+    }
+    if (subscriber.getSubscriberCallback() != null) {
+      kafkaRecord.addHeader(CALLBACK_HEADER, subscriber.getSubscriberCallback());
+    }
+    return reason == null ? kafkaRecord : kafkaRecord.addHeader(REASON_HEADER, reason);
+  }
+
+  /**
+   * @param consumerRecord dead letter record
+   * @return id of the module the event was not delivered to, null if the record has no such header
+   */
+  public static String getSubscriberModuleId(KafkaConsumerRecord<String, Buffer> consumerRecord) {
+    return EventRecordCodec.getHeader(consumerRecord, SUBSCRIBER_HEADER);
+  }
+}
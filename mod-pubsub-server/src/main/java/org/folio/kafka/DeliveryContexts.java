@@ -0,0 +1,71 @@
+package org.folio.kafka;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Vert.x contexts of deployed consumer verticle instances. Subscriber consumers are created on these contexts
+ * in round-robin order, a Kafka consumer keeps the context it was created on, so its records and the callbacks
+ * of deliveries to subscribers are handled on the event loop of that verticle instance and deliveries of
+ * different consumers run on different cores.
+ */
+@Component
+public class DeliveryContexts {
+
+  private final List<Context> contexts = new CopyOnWriteArrayList<>();
+  private final AtomicInteger next = new AtomicInteger();
+
+  public void register(Context context) {
+    contexts.add(context);
+  }
+
+  public void unregister(Context context) {
+    contexts.remove(context);
+  }
+
+  public int size() {
+    return contexts.size();
+  }
+
+  /**
+   * Runs the action on the next registered context, or on the calling thread if no context is registered
+   *
+   * @param action action to run
+   * @return future completed with result of the action
+   */
+  public <T> Future<T> execute(Supplier<T> action) {
+    Context context = nextContext();
+    if (context == null) {
+      try {
+        return Future.succeededFuture(action.get());
+      } catch (Exception e) {
+        return Future.failedFuture(e);
+      }
+    }
+    Promise<T> promise = Promise.promise();
+    context.runOnContext(v -> {
+      try {
+        promise.complete(action.get());
+      } catch (Exception e) {
+        promise.fail(e);
+      }
+    });
+    return promise.future();
+  }
+
+  private Context nextContext() {
+    // contexts may be unregistered concurrently, so the index is checked against a snapshot
+    Object[] snapshot = contexts.toArray();
+    if (snapshot.length == 0) {
+      return null;
+    }
+    return (Context) snapshot[Math.floorMod(next.getAndIncrement(), snapshot.length)];
+  }
+}
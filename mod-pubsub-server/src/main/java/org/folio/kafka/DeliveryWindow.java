@@ -0,0 +1,60 @@
+package org.folio.kafka;
+
+/**
+ * Bounded window of records which delivery is in progress. When {@code maxInFlight} records are in flight
+ * the window pauses consumption, it is resumed once the number of records in flight drops to
+ * {@code resumeThreshold}, so a slow subscriber cannot make the consumer accumulate an unbounded number
+ * of pending HTTP requests.
+ */
+public class DeliveryWindow {
+
+  private final int maxInFlight;
+  private final int resumeThreshold;
+  private final Runnable pause;
+  private final Runnable resume;
+  private int inFlight;
+  private boolean paused;
+
+  /**
+   * @param maxInFlight     maximum number of records in flight, consumption is paused when it is reached
+   * @param resumeThreshold number of records in flight at which paused consumption is resumed
+   * @param pause           pauses consumption
+   * @param resume          resumes consumption
+   */
+  public DeliveryWindow(int maxInFlight, int resumeThreshold, Runnable pause, Runnable resume) {
+    this.maxInFlight = Math.max(1, maxInFlight);
+    this.resumeThreshold = Math.min(Math.max(0, resumeThreshold), this.maxInFlight - 1);
+    this.pause = pause;
+    this.resume = resume;
+  }
+
+  /**
+   * Registers a record which delivery has started, pauses consumption if the window is full
+   */
+  public synchronized void acquire() {
+    inFlight++;
+    if (!paused && inFlight >= maxInFlight) {
+      paused = true;
+      pause.run();
+    }
+  }
+
+  /**
+   * Registers a record which delivery is finished, resumes consumption if enough records are delivered
+   */
+  public synchronized void release() {
+    inFlight = Math.max(0, inFlight - 1);
+    if (paused && inFlight <= resumeThreshold) {
+      paused = false;
+      resume.run();
+    }
+  }
+
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  public synchronized boolean isPaused() {
+    return paused;
+  }
+}
@@ -0,0 +1,169 @@
+package org.folio.kafka;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import io.vertx.kafka.client.consumer.KafkaConsumerRecord;
+import io.vertx.kafka.client.producer.KafkaHeader;
+import io.vertx.kafka.client.producer.KafkaProducerRecord;
+import io.vertx.kafka.client.producer.impl.KafkaProducerRecordImpl;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventDescriptor.RecordFormat;
+import org.folio.rest.jaxrs.model.EventMetadata;
+
+/**
+ * Converts events to Kafka records and back.
+ * <p>
+ * Two record formats are supported:
+ * <ul>
+ *   <li>{@link RecordFormat#ENVELOPE} - record value is the whole event encoded as JSON</li>
+ *   <li>{@link RecordFormat#HEADERS} - event id, event type and event metadata are sent in record headers
+ *   and record value is the raw event payload, so a consumer does not need to parse the payload to route the event.
+ *   The tenant id is read from the metadata header, which a consumer decodes anyway for TTL checks and audit</li>
+ * </ul>
+ * Format of a received record is detected by {@link #FORMAT_HEADER}, records without this header are read as
+ * {@link RecordFormat#ENVELOPE}, so records written before the header format was introduced stay readable.
+ * <p>
+ * A record of an event which payload is stored in claim-check storage does not contain the payload in any format,
+ * it has {@link #PAYLOAD_REFERENCE_HEADER} with the event id instead.
+ * <p>
+ * The payload of a {@link RecordFormat#HEADERS} record is delivered to subscribers in the record value buffer itself.
+ * The payload of an {@link RecordFormat#ENVELOPE} record is an escaped string inside the event JSON, so it is
+ * decoded with the event and copied once into the buffer shared by all deliveries of the event.
+ * {@code EventRecordCodecBenchmark} compares both formats.
+ */
+public final class EventRecordCodec {
+
+  public static final String FORMAT_HEADER = "pubsub-record-format";
+  public static final String EVENT_ID_HEADER = "pubsub-event-id";
+  public static final String EVENT_TYPE_HEADER = "pubsub-event-type";
+  public static final String EVENT_METADATA_HEADER = "pubsub-event-metadata";
+  public static final String PAYLOAD_REFERENCE_HEADER = "pubsub-payload-ref";
+
+  private EventRecordCodec() {
+  }
+
+  /**
+   * Creates Kafka record for the event
+   *
+   * @param topicName topic name
+   * @param key       record key, may be null
+   * @param event     event
+   * @param format    record format, {@link RecordFormat#ENVELOPE} is used if null
+   * @return Kafka record
+   */
+  public static KafkaProducerRecord<String, Buffer> encode(String topicName, String key, Event event, RecordFormat format) {
+    return encode(topicName, key, event, format, false);
+  }
+
+  /**
+   * Creates Kafka record for the event
+   *
+   * @param topicName        topic name
+   * @param key              record key, may be null
+   * @param event            event
+   * @param format           record format, {@link RecordFormat#ENVELOPE} is used if null
+   * @param payloadOffloaded true if event payload is stored in claim-check storage and must not be sent to Kafka
+   * @return Kafka record
+   */
+  public static KafkaProducerRecord<String, Buffer> encode(String topicName, String key, Event event, RecordFormat format,
+                                                            boolean payloadOffloaded) {
+    KafkaProducerRecord<String, Buffer> kafkaRecord = format == RecordFormat.HEADERS
+      ? encodeWithHeaders(topicName, key, event, payloadOffloaded)
+      : new KafkaProducerRecordImpl<>(topicName, key, Json.encodeToBuffer(payloadOffloaded ? withoutPayload(event) : event));
+    return payloadOffloaded ? kafkaRecord.addHeader(PAYLOAD_REFERENCE_HEADER, event.getId()) : kafkaRecord;
+  }
+
+  /**
+   * Creates Kafka record in {@link RecordFormat#HEADERS} format with the given payload, the payload of the event is not used
+   *
+   * @param topicName topic name
+   * @param key       record key, may be null
+   * @param event     event
+   * @param payload   event payload
+   * @return Kafka record
+   */
+  public static KafkaProducerRecord<String, Buffer> encode(String topicName, String key, Event event, Buffer payload) {
+    return encodeWithHeaders(topicName, key, event, payload);
+  }
+
+  private static KafkaProducerRecord<String, Buffer> encodeWithHeaders(String topicName, String key, Event event,
+                                                                       boolean payloadOffloaded) {
+    Buffer payload = payloadOffloaded || event.getEventPayload() == null ? null : Buffer.buffer(event.getEventPayload());
+    return encodeWithHeaders(topicName, key, event, payload);
+  }
+
+  private static KafkaProducerRecord<String, Buffer> encodeWithHeaders(String topicName, String key, Event event, Buffer payload) {
+    return new KafkaProducerRecordImpl<>(topicName, key, payload)
+      .addHeader(FORMAT_HEADER, RecordFormat.HEADERS.value())
+      .addHeader(EVENT_ID_HEADER, event.getId())
+      .addHeader(EVENT_TYPE_HEADER, event.getEventType())
+      .addHeader(EVENT_METADATA_HEADER, Json.encodeToBuffer(event.getEventMetadata()));
+  }
+
+  /**
+   * Reads event from Kafka record
+   *
+   * @param consumerRecord Kafka record
+   * @return event with the payload to deliver to subscribers
+   */
+  public static EventRecord decode(KafkaConsumerRecord<String, Buffer> consumerRecord) {
+    String payloadReference = getHeader(consumerRecord, PAYLOAD_REFERENCE_HEADER);
+    if (!RecordFormat.HEADERS.value().equals(getHeader(consumerRecord, FORMAT_HEADER))) {
+      Event event = Json.decodeValue(consumerRecord.value(), Event.class);
+      return new EventRecord(event, event.getEventPayload() == null ? null : Buffer.buffer(event.getEventPayload()), payloadReference);
+    }
+    String metadata = getHeader(consumerRecord, EVENT_METADATA_HEADER);
+    Event event = new Event()
+      .withId(getHeader(consumerRecord, EVENT_ID_HEADER))
+      .withEventType(getHeader(consumerRecord, EVENT_TYPE_HEADER))
+      .withEventMetadata(metadata == null ? new EventMetadata() : Json.decodeValue(metadata, EventMetadata.class));
+    return new EventRecord(event, consumerRecord.value(), payloadReference);
+  }
+
+  private static Event withoutPayload(Event event) {
+    return new Event()
+      .withId(event.getId())
+      .withEventType(event.getEventType())
+      .withEventMetadata(event.getEventMetadata());
+  }
+
+  static String getHeader(KafkaConsumerRecord<String, Buffer> consumerRecord, String name) {
+    for (KafkaHeader header : consumerRecord.headers()) {
+      if (name.equals(header.key())) {
+        return header.value() == null ? null : header.value().toString();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Event read from Kafka record and its payload.
+   * For records in {@link RecordFormat#HEADERS} format the payload is not copied into the event.
+   */
+  public static class EventRecord {
+    private final Event event;
+    private final Buffer payload;
+    private final String payloadReference;
+
+    public EventRecord(Event event, Buffer payload, String payloadReference) {
+      this.event = event;
+      this.payload = payload;
+      this.payloadReference = payloadReference;
+    }
+
+    public Event getEvent() {
+      return event;
+    }
+
+    public Buffer getPayload() {
+      return payload;
+    }
+
+    /**
+     * @return id of the event which payload is stored in claim-check storage or null if the payload is sent in the record
+     */
+    public String getPayloadReference() {
+      return payloadReference;
+    }
+  }
+}
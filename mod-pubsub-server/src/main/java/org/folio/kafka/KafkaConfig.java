@@ -10,6 +10,9 @@ import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
 
 @Component
 public class KafkaConfig {
@@ -49,6 +52,10 @@ public class KafkaConfig {
   @Value("${ssl.endpoint.identification.algorithm:}")
   private String kafkaSslEndpointIdentificationAlgorithm;
 
+  public static final String PRODUCER_PROFILE_PREFIX = "kafka.producer.profile.";
+  private static final Set<String> NOT_CONFIGURABLE_PRODUCER_PROPS = Set.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+    ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG);
+
   public static final String KAFKA_SECURITY_PROTOCOL_DEFAULT = "PLAINTEXT";
   public static final String KAFKA_SSL_PROTOCOL_DEFAULT = "TLSv1.2";
   public static final String KAFKA_SSL_TRUSTSTORE_TYPE_DEFAULT = "JKS";
@@ -71,19 +78,70 @@ public class KafkaConfig {
     producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, getKafkaUrl());
     producerProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "true");
     producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringSerializer");
-    producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringSerializer");
+    producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, "io.vertx.kafka.client.serialization.BufferSerializer");
     producerProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, String.valueOf(getMaxRequestSize()));
     ensureSecurityProps(producerProps);
     return producerProps;
   }
 
+  /**
+   * Returns producer properties of the named profile. Profile properties are taken from
+   * {@code kafka.producer.profile.<profile>.<producer property>} module parameters and override default producer properties,
+   * bootstrap servers, serializers and security properties cannot be overridden.
+   * Idempotence, which is enabled by default, requires {@code acks=all}, so it is disabled for a profile which lowers
+   * {@code acks} unless the profile enables it explicitly, in which case the profile is rejected.
+   *
+   * @param profile profile name, default producer properties are returned if null
+   * @return producer properties
+   * @throws IllegalArgumentException if the profile lowers {@code acks} and enables idempotence
+   */
+  public Map<String, String> getProducerProps(String profile) {
+    Map<String, String> producerProps = getProducerProps();
+    if (profile != null) {
+      String prefix = PRODUCER_PROFILE_PREFIX + profile + ".";
+      MODULE_SPECIFIC_ARGS.forEach((key, value) -> {
+        String property = key.startsWith(prefix) ? key.substring(prefix.length()) : null;
+        if (property != null && !NOT_CONFIGURABLE_PRODUCER_PROPS.contains(property)) {
+          producerProps.put(property, value);
+        }
+      });
+      disableIdempotenceIfAcksLowered(profile, producerProps);
+      ensureSecurityProps(producerProps);
+    }
+    return producerProps;
+  }
+
+  private static void disableIdempotenceIfAcksLowered(String profile, Map<String, String> producerProps) {
+    String acks = producerProps.get(ProducerConfig.ACKS_CONFIG);
+    if (acks == null || "all".equalsIgnoreCase(acks) || "-1".equals(acks)) {
+      return;
+    }
+    String idempotenceParameter = PRODUCER_PROFILE_PREFIX + profile + "." + ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG;
+    if (Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.get(idempotenceParameter))) {
+      throw new IllegalArgumentException(String.format("Producer profile %s sets acks=%s, idempotence requires acks=all, " +
+        "set acks=all or remove %s", profile, acks, idempotenceParameter));
+    }
+    producerProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "false");
+  }
+
+  /**
+   * Checks if producer profile is configured in module parameters
+   *
+   * @param profile profile name
+   * @return true if there is at least one property of the profile
+   */
+  public boolean hasProducerProfile(String profile) {
+    String prefix = PRODUCER_PROFILE_PREFIX + profile + ".";
+    return profile != null && MODULE_SPECIFIC_ARGS.keySet().stream().anyMatch(key -> key.startsWith(prefix));
+  }
+
   public Map<String, String> getConsumerProps() {
     Map<String, String> consumerProps = new HashMap<>();
     consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, getKafkaUrl());
-    consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "true");
-    consumerProps.put(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG, "1000");
+    consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+    consumerProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
     consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
-    consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
+    consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, "io.vertx.kafka.client.serialization.BufferDeserializer");
     ensureSecurityProps(consumerProps);
     return consumerProps;
   }
@@ -0,0 +1,301 @@
+package org.folio.kafka;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.kafka.client.producer.KafkaProducer;
+import io.vertx.kafka.client.producer.KafkaProducerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.okapi.common.GenericCompositeFuture;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Registry of long-lived Kafka producers, one producer per topic and producer profile.
+ * Producers are created lazily on the first write to a topic and kept open, so that records
+ * of consecutive events are batched by the producer. A producer is closed when it has not been
+ * used for {@code kafka.producer.idle.timeout.ms} or when the application context is destroyed.
+ * <p>
+ * Groups of records that must be published atomically are written by a separate pool of at most
+ * {@code kafka.producer.transactional.pool.size} transactional producers, each producer runs
+ * one transaction at a time and transactions wait for a free producer in order of arrival.
+ * Transactional ids are stable for the module instance and pool slot: {@code pubsub-<env>-<instance>-<slot>},
+ * where the instance id is {@code kafka.producer.transactional.instance.id}, the {@code HOSTNAME} environment
+ * variable or the host name. A producer created for a slot after a failure or a restart of the instance has
+ * the same transactional id, so {@code initTransactions} fences the previous producer and aborts its open
+ * transaction. The instance id must be unique among running instances and should survive a restart,
+ * e.g. the pod name of a StatefulSet.
+ */
+@Component
+public class KafkaProducerManager {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final long IDLE_TIMEOUT_MS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("kafka.producer.idle.timeout.ms", "600000"));
+  private static final long IDLE_CHECK_INTERVAL_MS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("kafka.producer.idle.check.interval.ms", "60000"));
+  private static final int TRANSACTIONAL_POOL_SIZE =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("kafka.producer.transactional.pool.size", "2"));
+  private static final String TRANSACTIONAL_INSTANCE_ID =
+    MODULE_SPECIFIC_ARGS.get("kafka.producer.transactional.instance.id");
+
+  private final Vertx vertx;
+  private final KafkaConfig kafkaConfig;
+  private final long idleTimeoutMs;
+  private final Map<String, ProducerHolder> producers = new ConcurrentHashMap<>();
+  private final long idleCheckTimerId;
+  private final String transactionalIdPrefix;
+  private final Deque<TransactionalProducer> idleTransactionalProducers = new ArrayDeque<>();
+  private final Deque<Promise<TransactionalProducer>> pendingTransactions = new ArrayDeque<>();
+  private final Deque<Integer> freeTransactionalSlots = new ArrayDeque<>();
+
+  @Autowired
+  public KafkaProducerManager(Vertx vertx, KafkaConfig kafkaConfig) {
+    this(vertx, kafkaConfig, IDLE_TIMEOUT_MS, IDLE_CHECK_INTERVAL_MS);
+  }
+
+  KafkaProducerManager(Vertx vertx, KafkaConfig kafkaConfig, long idleTimeoutMs, long idleCheckIntervalMs) {
+    this.vertx = vertx;
+    this.kafkaConfig = kafkaConfig;
+    this.idleTimeoutMs = idleTimeoutMs;
+    this.transactionalIdPrefix = getTransactionalIdPrefix(kafkaConfig.getEnvId(), getInstanceId());
+    for (int slot = 0; slot < TRANSACTIONAL_POOL_SIZE; slot++) {
+      freeTransactionalSlots.add(slot);
+    }
+    this.idleCheckTimerId = vertx.setPeriodic(idleCheckIntervalMs, id -> closeIdleProducers());
+  }
+
+  /**
+   * Writes record to the topic using the producer with default settings registered for this topic,
+   * the producer is created if it does not exist yet
+   *
+   * @param topicName topic name
+   * @param record    record to write
+   * @return succeeded future if record was acknowledged by Kafka, failed future otherwise
+   */
+  public Future<Void> write(String topicName, KafkaProducerRecord<String, Buffer> record) {
+    return write(null, topicName, record);
+  }
+
+  /**
+   * Writes record to the topic using the producer of the profile registered for this topic,
+   * the producer is created if it does not exist yet
+   *
+   * @param profile   producer profile, see {@link KafkaConfig#getProducerProps(String)}, default settings are used if null
+   * @param topicName topic name
+   * @param record    record to write
+   * @return succeeded future if record was acknowledged by Kafka, failed future otherwise
+   */
+  public Future<Void> write(String profile, String topicName, KafkaProducerRecord<String, Buffer> record) {
+    ProducerHolder holder;
+    String producerKey = profile == null ? topicName : topicName + "@" + profile;
+    try {
+      holder = producers.compute(producerKey, (key, current) -> {
+        ProducerHolder result = current != null ? current : createProducer(topicName, profile);
+        result.acquire();
+        return result;
+      });
+    } catch (Exception e) {
+      LOGGER.error("Error creating producer for topic {}", topicName, e);
+      return Future.failedFuture(e);
+    }
+    return holder.producer.write(record)
+      .onComplete(ar -> holder.release());
+  }
+
+  /**
+   * Writes records in one Kafka transaction, records become visible to read_committed consumers
+   * only if all of them are written. The transaction is aborted if any record is not acknowledged.
+   *
+   * @param records records to write, each record carries its topic
+   * @return succeeded future if transaction is committed, failed future otherwise
+   */
+  public Future<Void> writeInTransaction(List<KafkaProducerRecord<String, Buffer>> records) {
+    return acquireTransactionalProducer()
+      .compose(transactional -> transactional.producer().beginTransaction()
+        .compose(v -> GenericCompositeFuture.all(records.stream()
+          .map(transactional.producer()::send)
+          .collect(Collectors.toList())))
+        .compose(v -> transactional.producer().commitTransaction())
+        .recover(e -> {
+          LOGGER.warn("writeInTransaction:: Aborting transaction of {} records", records.size(), e);
+          return transactional.producer().abortTransaction()
+            .onComplete(ar -> releaseTransactionalProducer(transactional, ar.succeeded()))
+            .transform(ar -> Future.<Void>failedFuture(e));
+        })
+        .onSuccess(v -> releaseTransactionalProducer(transactional, true)));
+  }
+
+  /**
+   * Closes all registered producers
+   */
+  @PreDestroy
+  public void closeAll() {
+    vertx.cancelTimer(idleCheckTimerId);
+    producers.forEach((topic, holder) -> producers.computeIfPresent(topic, (t, current) -> {
+      close(t, current);
+      return null;
+    }));
+    synchronized (this) {
+      idleTransactionalProducers.forEach(transactional -> transactional.producer().close()
+        .onFailure(e -> LOGGER.error("Error closing transactional producer", e)));
+      idleTransactionalProducers.clear();
+      pendingTransactions.forEach(promise -> promise.tryFail("Kafka producers are closed"));
+      pendingTransactions.clear();
+    }
+  }
+
+  private synchronized Future<TransactionalProducer> acquireTransactionalProducer() {
+    TransactionalProducer idle = idleTransactionalProducers.poll();
+    if (idle != null) {
+      return Future.succeededFuture(idle);
+    }
+    Integer slot = freeTransactionalSlots.poll();
+    if (slot != null) {
+      return createTransactionalProducer(slot);
+    }
+    Promise<TransactionalProducer> promise = Promise.promise();
+    pendingTransactions.add(promise);
+    return promise.future();
+  }
+
+  private Future<TransactionalProducer> createTransactionalProducer(int slot) {
+    String transactionalId = transactionalIdPrefix + slot;
+    try {
+      LOGGER.info("createTransactionalProducer:: Creating transactional producer {}", transactionalId);
+      Map<String, String> producerProps = kafkaConfig.getProducerProps();
+      producerProps.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, transactionalId);
+      KafkaProducer<String, Buffer> producer = KafkaProducer.create(vertx, producerProps);
+      return producer.initTransactions()
+        .map(v -> new TransactionalProducer(slot, producer))
+        .onFailure(e -> {
+          LOGGER.error("createTransactionalProducer:: Error initializing transactions of producer {}", transactionalId, e);
+          producer.close();
+          releaseTransactionalSlot(slot);
+        });
+    } catch (Exception e) {
+      LOGGER.error("createTransactionalProducer:: Error creating transactional producer {}", transactionalId, e);
+      releaseTransactionalSlot(slot);
+      return Future.failedFuture(e);
+    }
+  }
+
+  /**
+   * Returns producer to the pool or hands it over to the next pending transaction.
+   * A producer that failed to abort a transaction is in an unknown state and is closed, its slot is taken
+   * by a new producer with the same transactional id, which aborts the transaction left open.
+   */
+  private synchronized void releaseTransactionalProducer(TransactionalProducer transactional, boolean reusable) {
+    if (!reusable) {
+      transactional.producer().close().onFailure(e -> LOGGER.error("Error closing transactional producer", e));
+      releaseTransactionalSlot(transactional.slot());
+      return;
+    }
+    Promise<TransactionalProducer> pending = pendingTransactions.poll();
+    if (pending != null) {
+      pending.complete(transactional);
+    } else {
+      idleTransactionalProducers.add(transactional);
+    }
+  }
+
+  private synchronized void releaseTransactionalSlot(int slot) {
+    Promise<TransactionalProducer> pending = pendingTransactions.poll();
+    if (pending != null) {
+      createTransactionalProducer(slot).onComplete(pending);
+    } else {
+      freeTransactionalSlots.add(slot);
+    }
+  }
+
+  private static String getTransactionalIdPrefix(String envId, String instanceId) {
+    return "pubsub-" + envId + "-" + instanceId + "-";
+  }
+
+  private static String getInstanceId() {
+    if (TRANSACTIONAL_INSTANCE_ID != null) {
+      return TRANSACTIONAL_INSTANCE_ID;
+    }
+    String hostName = System.getenv("HOSTNAME");
+    if (hostName != null && !hostName.isBlank()) {
+      return hostName;
+    }
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      LOGGER.warn("getInstanceId:: Host name is not resolved, transactional ids are not stable across restarts", e);
+      return UUID.randomUUID().toString();
+    }
+  }
+
+  private ProducerHolder createProducer(String topicName, String profile) {
+    LOGGER.info("Creating producer for topic {} with {} profile", topicName, profile == null ? "default" : profile);
+    return new ProducerHolder(createKafkaProducer(kafkaConfig.getProducerProps(profile)));
+  }
+
+  protected KafkaProducer<String, Buffer> createKafkaProducer(Map<String, String> producerProps) {
+    return KafkaProducer.create(vertx, producerProps);
+  }
+
+  private void closeIdleProducers() {
+    long now = System.currentTimeMillis();
+    producers.forEach((topic, holder) -> producers.computeIfPresent(topic, (t, current) -> {
+      if (current.isIdle(now, idleTimeoutMs)) {
+        close(t, current);
+        return null;
+      }
+      return current;
+    }));
+  }
+
+  private void close(String topicName, ProducerHolder holder) {
+    LOGGER.info("Closing producer for topic {}", topicName);
+    holder.producer.close()
+      .onFailure(e -> LOGGER.error("Error closing producer for topic {}", topicName, e));
+  }
+
+  private static class ProducerHolder {
+    private final KafkaProducer<String, Buffer> producer;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    ProducerHolder(KafkaProducer<String, Buffer> producer) {
+      this.producer = producer;
+    }
+
+    void acquire() {
+      inFlight.incrementAndGet();
+      lastUsed = System.currentTimeMillis();
+    }
+
+    void release() {
+      inFlight.decrementAndGet();
+      lastUsed = System.currentTimeMillis();
+    }
+
+    boolean isIdle(long now, long idleTimeoutMs) {
+      return inFlight.get() == 0 && now - lastUsed > idleTimeoutMs;
+    }
+  }
+
+  private record TransactionalProducer(int slot, KafkaProducer<String, Buffer> producer) {
+  }
+}
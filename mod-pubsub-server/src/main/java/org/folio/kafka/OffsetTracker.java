@@ -0,0 +1,113 @@
+package org.folio.kafka;
+
+import io.vertx.kafka.client.common.TopicPartition;
+import io.vertx.kafka.client.consumer.OffsetAndMetadata;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks offsets of records received by a Kafka consumer with disabled auto-commit.
+ * A record is registered when it is received and marked as processed when its delivery is finished,
+ * records may finish in any order. For each partition the offset to commit is the one following the
+ * highest offset below which all received records are processed, so committed offsets never skip
+ * a record which is still being delivered and the consumer provides at-least-once delivery.
+ * <p>
+ * Offsets are not committed by the tracker itself, the consumer periodically takes
+ * {@link #getCommittableOffsets()} and reports them back by {@link #committed(Map)} once the commit succeeds.
+ */
+public class OffsetTracker {
+
+  private final Map<TopicPartition, PartitionOffsets> partitions = new HashMap<>();
+
+  /**
+   * Registers received record
+   *
+   * @param topic     topic of the record
+   * @param partition partition of the record
+   * @param offset    offset of the record
+   */
+  public synchronized void received(String topic, int partition, long offset) {
+    partitions.computeIfAbsent(new TopicPartition(topic, partition), k -> new PartitionOffsets())
+      .received(offset);
+  }
+
+  /**
+   * Marks previously received record as processed, offsets which were not registered are ignored
+   *
+   * @param topic     topic of the record
+   * @param partition partition of the record
+   * @param offset    offset of the record
+   */
+  public synchronized void processed(String topic, int partition, long offset) {
+    PartitionOffsets partitionOffsets = partitions.get(new TopicPartition(topic, partition));
+    if (partitionOffsets != null) {
+      partitionOffsets.processed(offset);
+    }
+  }
+
+  /**
+   * @return offsets to commit for partitions which have progressed since the last successful commit
+   */
+  public synchronized Map<TopicPartition, OffsetAndMetadata> getCommittableOffsets() {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    partitions.forEach((topicPartition, partitionOffsets) -> {
+      if (partitionOffsets.committable > partitionOffsets.committed) {
+        offsets.put(topicPartition, new OffsetAndMetadata(partitionOffsets.committable, null));
+      }
+    });
+    return offsets;
+  }
+
+  /**
+   * Remembers successfully committed offsets
+   *
+   * @param offsets committed offsets
+   */
+  public synchronized void committed(Map<TopicPartition, OffsetAndMetadata> offsets) {
+    offsets.forEach((topicPartition, offsetAndMetadata) -> {
+      PartitionOffsets partitionOffsets = partitions.get(topicPartition);
+      if (partitionOffsets != null) {
+        partitionOffsets.committed = Math.max(partitionOffsets.committed, offsetAndMetadata.getOffset());
+      }
+    });
+  }
+
+  /**
+   * Forgets offsets of partitions which are no longer assigned to the consumer,
+   * records of these partitions are consumed again from the last committed offset by the new owner
+   *
+   * @param topicPartitions revoked partitions
+   */
+  public synchronized void revoked(Collection<TopicPartition> topicPartitions) {
+    topicPartitions.forEach(partitions::remove);
+  }
+
+  private static final class PartitionOffsets {
+    private final Deque<Long> inFlight = new ArrayDeque<>();
+    private final Set<Long> processed = new HashSet<>();
+    private long committable = -1;
+    private long committed = -1;
+
+    void received(long offset) {
+      if (offset >= committable && (inFlight.isEmpty() || offset > inFlight.peekLast())) {
+        inFlight.addLast(offset);
+      }
+    }
+
+    void processed(long offset) {
+      if (inFlight.isEmpty() || offset < inFlight.peekFirst()) {
+        return;
+      }
+      processed.add(offset);
+      while (!inFlight.isEmpty() && processed.remove(inFlight.peekFirst())) {
+        committable = inFlight.pollFirst() + 1;
+      }
+    }
+  }
+}
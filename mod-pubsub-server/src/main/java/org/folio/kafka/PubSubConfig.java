@@ -7,6 +7,7 @@ import static java.lang.String.join;
 
 public class PubSubConfig {
   private static final String PUB_SUB_PREFIX = "pub-sub";
+  private static final String DEAD_LETTER_PREFIX = "pub-sub-dlq";
   private static final String TENANT_COLLECTION_TOPICS_ENV_VAR_NAME = "KAFKA_PRODUCER_TENANT_COLLECTION";
   private static final String TENANT_COLLECTION_MATCH_REGEX = "[A-Z][A-Z0-9]{0,30}";
   private static String tenantCollectionTopicQualifier;
@@ -15,6 +16,7 @@ public class PubSubConfig {
   private String eventType;
   private String groupId;
   private String topicName;
+  private String deadLetterTopicName;
 
   static {
     setTenantCollectionTopicsQualifier();
@@ -34,10 +36,45 @@ public class PubSubConfig {
     this.eventType = eventType;
     /* moduleNameWithVersion variable need for unique topic and group names for different pub-sub versions.
     It was encapsulated here, in constructor, for better creating/subscribing/sending events.*/
-    String moduleNameWithVersion = ModuleName.getModuleName().replace("_", "-") + "-" + ModuleName.getModuleVersion();
+    String moduleNameWithVersion = getModuleNameWithVersion();
     String topicQualifier = isTenantCollectionTopicsEnabled ? tenantCollectionTopicQualifier : tenant;
     this.groupId = join(".", env, PUB_SUB_PREFIX, topicQualifier, eventType, moduleNameWithVersion);
     this.topicName = join(".", env, PUB_SUB_PREFIX, topicQualifier, eventType, moduleNameWithVersion);
+    // dead letters are replayed after upgrades too, so the dead letter topic does not depend on the module version
+    this.deadLetterTopicName = join(".", env, DEAD_LETTER_PREFIX, topicQualifier, eventType, getModuleName());
+  }
+
+  /**
+   * Returns group id shared by consumers which read topics of all tenants and event types,
+   * used when subscriber consumers are multiplexed. Like the topics, the group id depends on the module version,
+   * so consumers of different module versions do not rebalance each other during upgrades.
+   *
+   * @param env environment id
+   * @return consumer group id
+   */
+  public static String getMultiplexedGroupId(String env) {
+    return join(".", env, PUB_SUB_PREFIX, getModuleNameWithVersion());
+  }
+
+  /**
+   * Checks whether the group id is the id of a per-topic consumer group of the current module version
+   *
+   * @param env     environment id
+   * @param groupId consumer group id
+   * @return true if the group consumes a single topic of the current module version
+   */
+  public static boolean isTopicGroupId(String env, String groupId) {
+    return groupId.startsWith(join(".", env, PUB_SUB_PREFIX, ""))
+      && groupId.endsWith("." + getModuleNameWithVersion())
+      && !groupId.equals(getMultiplexedGroupId(env));
+  }
+
+  private static String getModuleName() {
+    return ModuleName.getModuleName().replace("_", "-");
+  }
+
+  private static String getModuleNameWithVersion() {
+    return getModuleName() + "-" + ModuleName.getModuleVersion();
   }
 
   public static void setTenantCollectionTopicsQualifier(String value) {
@@ -67,4 +104,11 @@ public class PubSubConfig {
   public String getTopicName() {
     return topicName;
   }
+
+  /**
+   * @return name of the topic which keeps events that could not be delivered to subscribers
+   */
+  public String getDeadLetterTopicName() {
+    return deadLetterTopicName;
+  }
 }
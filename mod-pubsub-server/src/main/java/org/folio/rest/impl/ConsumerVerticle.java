@@ -0,0 +1,31 @@
+package org.folio.rest.impl;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.folio.kafka.DeliveryContexts;
+
+/**
+ * Verticle which event loop runs subscriber consumers and deliveries of their events.
+ * Deployed with {@code kafka.consumer.verticle.instances} instances, consumers are spread among the instances.
+ */
+public class ConsumerVerticle extends AbstractVerticle {
+
+  private final DeliveryContexts deliveryContexts;
+
+  public ConsumerVerticle(DeliveryContexts deliveryContexts) {
+    this.deliveryContexts = deliveryContexts;
+  }
+
+  @Override
+  public void start(Promise<Void> promise) {
+    deliveryContexts.register(context);
+    promise.handle(Future.succeededFuture());
+  }
+
+  @Override
+  public void stop(Promise<Void> promise) {
+    deliveryContexts.unregister(context);
+    promise.handle(Future.succeededFuture());
+  }
+}
@@ -8,6 +8,7 @@ import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.serviceproxy.ServiceBinder;
 import org.folio.config.ApplicationConfig;
+import org.folio.kafka.DeliveryContexts;
 import org.folio.liquibase.LiquibaseUtil;
 import org.folio.rest.resource.interfaces.InitAPI;
 import org.folio.services.StartupService;
@@ -15,12 +16,18 @@ import org.folio.services.audit.AuditService;
 import org.folio.spring.SpringContextUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
 public class InitAPIImpl implements InitAPI {
 
   private static final String MODULE_CONFIGURATION_SCHEMA = "pubsub_config";
+  private static final int CONSUMER_VERTICLE_INSTANCES =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("kafka.consumer.verticle.instances", "1"));
 
   @Autowired
   private StartupService startupService;
+  @Autowired
+  private DeliveryContexts deliveryContexts;
 
   @Override
   public void init(Vertx vertx, Context context, Handler<AsyncResult<Boolean>> handler) {
@@ -28,10 +35,11 @@ public class InitAPIImpl implements InitAPI {
       SpringContextUtil.init(vertx, context, ApplicationConfig.class);
       SpringContextUtil.autowireDependencies(this, context);
       LiquibaseUtil.initializeSchemaForModule(vertx, MODULE_CONFIGURATION_SCHEMA);
-      startupService.initSubscribers();
       initAuditService(vertx);
-      DeploymentOptions options = new DeploymentOptions().setWorker(true);
-      vertx.deployVerticle(new PublisherWorkerVerticle(), options)
+      DeploymentOptions consumerOptions = new DeploymentOptions().setInstances(Math.max(1, CONSUMER_VERTICLE_INSTANCES));
+      vertx.deployVerticle(() -> new ConsumerVerticle(deliveryContexts), consumerOptions)
+        .onSuccess(id -> startupService.initSubscribers())
+        .compose(id -> vertx.deployVerticle(new PublisherWorkerVerticle(), new DeploymentOptions().setWorker(true)))
         .onSuccess(v -> handler.handle(Future.succeededFuture(true)))
         .onFailure(e -> handler.handle(Future.failedFuture(e)));
     } catch (Exception e) {
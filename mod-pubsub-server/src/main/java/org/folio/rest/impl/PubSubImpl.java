@@ -6,15 +6,22 @@ import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.RoutingContext;
 
 import org.apache.commons.lang.time.DateFormatUtils;
 import org.apache.commons.lang.time.DateUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.folio.rest.annotations.Stream;
+import org.folio.rest.jaxrs.model.DeadLetterReplay;
 import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventCollection;
+import org.folio.kafka.KafkaConfig;
 import org.folio.rest.jaxrs.model.EventDescriptor;
 import org.folio.rest.jaxrs.model.MessagingModule;
 import org.folio.rest.jaxrs.model.PublisherDescriptor;
+import org.folio.rest.jaxrs.model.RateLimitCollection;
 import org.folio.rest.jaxrs.model.SubscriberDescriptor;
 import org.folio.rest.jaxrs.resource.Pubsub;
 import org.folio.rest.tools.utils.TenantTool;
@@ -23,9 +30,14 @@ import org.folio.rest.util.ExceptionHelper;
 import org.folio.rest.util.MessagingModuleFilter;
 import org.folio.rest.util.OkapiConnectionParams;
 import org.folio.services.AuditMessageService;
+import org.folio.services.DeadLetterService;
 import org.folio.services.EventDescriptorService;
 import org.folio.services.MessagingModuleService;
 import org.folio.services.PublisherService;
+import org.folio.services.delivery.CircuitBreakerRegistry;
+import org.folio.services.metrics.PubSubMetrics;
+import org.folio.services.publish.EventStreamPublisher;
+import org.folio.services.ratelimit.PublishRateLimiter;
 import org.folio.spring.SpringContextUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -33,12 +45,15 @@ import javax.ws.rs.BadRequestException;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.core.Response;
 
+import java.io.InputStream;
 import java.text.ParseException;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Map;
 
 import static java.lang.String.format;
+import static org.folio.rest.RestVerticle.STREAM_ABORT;
+import static org.folio.rest.RestVerticle.STREAM_COMPLETE;
 import static org.folio.rest.jaxrs.model.MessagingModule.ModuleRole.PUBLISHER;
 import static org.folio.rest.jaxrs.model.MessagingModule.ModuleRole.SUBSCRIBER;
 
@@ -56,6 +71,17 @@ public class PubSubImpl implements Pubsub {
   private AuditMessageService auditMessageService;
   @Autowired
   private PublisherService publishingService;
+  @Autowired
+  private PublishRateLimiter rateLimiter;
+  @Autowired
+  private PubSubMetrics metrics;
+  @Autowired
+  private DeadLetterService deadLetterService;
+  @Autowired
+  private CircuitBreakerRegistry circuitBreakers;
+  @Autowired
+  private KafkaConfig kafkaConfig;
+  private EventStreamPublisher eventStreamPublisher;
 
   public PubSubImpl(Vertx vertx, String tenantId) {  //NOSONAR
     SpringContextUtil.autowireDependencies(this, Vertx.currentContext());
@@ -199,6 +225,73 @@ public class PubSubImpl implements Pubsub {
     }
   }
 
+  @Override
+  public void postPubsubPublishBatch(EventCollection entity, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    LOGGER.debug("Received batch of {} events", entity.getEvents().size());
+    try {
+      publishingService.publishEvents(entity.getEvents(), tenantId)
+        .map(PostPubsubPublishBatchResponse::respond200WithApplicationJson)
+        .map(Response.class::cast)
+        .otherwise(ExceptionHelper::mapExceptionToResponse)
+        .onComplete(asyncResultHandler);
+    } catch (Exception e) {
+      LOGGER.error("Error publishing batch of events", e);
+      asyncResultHandler.handle(Future.succeededFuture(ExceptionHelper.mapExceptionToResponse(e)));
+    }
+  }
+
+  @Override
+  public void postPubsubPublishTransaction(EventCollection entity, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    LOGGER.debug("Received group of {} events to publish atomically", entity.getEvents().size());
+    try {
+      publishingService.publishEventsInTransaction(entity.getEvents(), tenantId)
+        .map(PostPubsubPublishTransactionResponse.respond204())
+        .map(Response.class::cast)
+        .otherwise(ExceptionHelper::mapExceptionToResponse)
+        .onComplete(asyncResultHandler);
+    } catch (Exception e) {
+      LOGGER.error("Error publishing group of events", e);
+      asyncResultHandler.handle(Future.succeededFuture(ExceptionHelper.mapExceptionToResponse(e)));
+    }
+  }
+
+  /**
+   * Publishes newline-delimited JSON stream of events.
+   * The method is invoked for each received chunk of the request body, a response is sent
+   * once the last chunk is received and all events of the stream are processed.
+   * The request is paused while too many events of the stream are being published.
+   */
+  @Stream
+  @Override
+  public void postPubsubPublishStream(InputStream entity, RoutingContext routingContext, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    try {
+      if (eventStreamPublisher == null) {
+        HttpServerRequest request = routingContext.request();
+        eventStreamPublisher = new EventStreamPublisher(publishingService, tenantId, kafkaConfig.getMaxRequestSize(),
+          request::pause, request::resume);
+      }
+      if (okapiHeaders.get(STREAM_ABORT) != null) {
+        LOGGER.warn("Publishing of events stream was aborted");
+        asyncResultHandler.handle(Future.succeededFuture(
+          ExceptionHelper.mapExceptionToResponse(new BadRequestException("Events stream was aborted"))));
+      } else if (okapiHeaders.get(STREAM_COMPLETE) == null) {
+        eventStreamPublisher.handleChunk(entity.readAllBytes());
+      } else {
+        if (entity != null) {
+          eventStreamPublisher.handleChunk(entity.readAllBytes());
+        }
+        eventStreamPublisher.complete()
+          .map(PostPubsubPublishStreamResponse::respond200WithApplicationJson)
+          .map(Response.class::cast)
+          .otherwise(ExceptionHelper::mapExceptionToResponse)
+          .onComplete(asyncResultHandler);
+      }
+    } catch (Exception e) {
+      LOGGER.error("Error publishing events stream", e);
+      asyncResultHandler.handle(Future.succeededFuture(ExceptionHelper.mapExceptionToResponse(e)));
+    }
+  }
+
   @Override
   public void deletePubsubEventTypesPublishersByEventTypeName(String eventTypeName, String moduleName, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     try {
@@ -281,6 +374,84 @@ public class PubSubImpl implements Pubsub {
     }
   }
 
+  @Override
+  public void getPubsubRateLimits(Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    try {
+      rateLimiter.getRateLimits(tenantId)
+        .map(GetPubsubRateLimitsResponse::respond200WithApplicationJson)
+        .map(Response.class::cast)
+        .otherwise(ExceptionHelper::mapExceptionToResponse)
+        .onComplete(asyncResultHandler);
+    } catch (Exception e) {
+      LOGGER.error("Failed to get publish rate limits", e);
+      asyncResultHandler.handle(Future.succeededFuture(ExceptionHelper.mapExceptionToResponse(e)));
+    }
+  }
+
+  @Override
+  public void putPubsubRateLimits(RateLimitCollection entity, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    try {
+      rateLimiter.updateRateLimits(entity, tenantId)
+        .map(PutPubsubRateLimitsResponse.respond204())
+        .map(Response.class::cast)
+        .otherwise(ExceptionHelper::mapExceptionToResponse)
+        .onComplete(asyncResultHandler);
+    } catch (Exception e) {
+      LOGGER.error("Failed to update publish rate limits", e);
+      asyncResultHandler.handle(Future.succeededFuture(ExceptionHelper.mapExceptionToResponse(e)));
+    }
+  }
+
+  @Override
+  public void getPubsubMetrics(Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    try {
+      asyncResultHandler.handle(Future.succeededFuture(GetPubsubMetricsResponse.respond200WithTextPlain(metrics.toPrometheus())));
+    } catch (Exception e) {
+      LOGGER.error("Failed to get metrics", e);
+      asyncResultHandler.handle(Future.succeededFuture(ExceptionHelper.mapExceptionToResponse(e)));
+    }
+  }
+
+  @Override
+  public void getPubsubDeadLetter(Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    try {
+      deadLetterService.getDeadLetterQueues(tenantId)
+        .map(GetPubsubDeadLetterResponse::respond200WithApplicationJson)
+        .map(Response.class::cast)
+        .otherwise(ExceptionHelper::mapExceptionToResponse)
+        .onComplete(asyncResultHandler);
+    } catch (Exception e) {
+      LOGGER.error("Failed to get dead letter queues", e);
+      asyncResultHandler.handle(Future.succeededFuture(ExceptionHelper.mapExceptionToResponse(e)));
+    }
+  }
+
+  @Override
+  public void postPubsubDeadLetterReplay(DeadLetterReplay entity, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    try {
+      OkapiConnectionParams params = new OkapiConnectionParams(okapiHeaders, vertxContext.owner());
+      deadLetterService.replay(entity, params)
+        .map(PostPubsubDeadLetterReplayResponse::respond200WithApplicationJson)
+        .map(Response.class::cast)
+        .otherwise(ExceptionHelper::mapExceptionToResponse)
+        .onComplete(asyncResultHandler);
+    } catch (Exception e) {
+      LOGGER.error("Failed to replay dead letter topic of event type '{}'", entity.getEventType(), e);
+      asyncResultHandler.handle(Future.succeededFuture(ExceptionHelper.mapExceptionToResponse(e)));
+    }
+  }
+
+  @Override
+  public void getPubsubCircuitBreakers(Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    try {
+      asyncResultHandler.handle(Future.succeededFuture(
+        GetPubsubCircuitBreakersResponse.respond200WithApplicationJson(circuitBreakers.getCircuitBreakers(tenantId))));
+    } catch (Exception e) {
+      LOGGER.error("Failed to get circuit breakers", e);
+      asyncResultHandler.handle(Future.succeededFuture(ExceptionHelper.mapExceptionToResponse(e)));
+    }
+  }
+
   @Override
   public void deletePubsubMessagingModules(String moduleId, String moduleRole, Map<String, String> okapiHeaders,
                                            Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
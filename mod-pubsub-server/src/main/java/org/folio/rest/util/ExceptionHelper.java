@@ -4,9 +4,11 @@ import io.vertx.core.Promise;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.rest.tools.utils.ValidationHelper;
+import org.folio.services.ratelimit.RateLimitExceededException;
 
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
@@ -32,6 +34,13 @@ public final class ExceptionHelper {
         .entity(throwable.getMessage())
         .build();
     }
+    if (throwable instanceof RateLimitExceededException) {
+      return Response.status(Status.TOO_MANY_REQUESTS)
+        .type(MediaType.TEXT_PLAIN)
+        .header(HttpHeaders.RETRY_AFTER, ((RateLimitExceededException) throwable).getRetryAfterSeconds())
+        .entity(throwable.getMessage())
+        .build();
+    }
     Promise<Response> validationPromise = Promise.promise();
     ValidationHelper.handleError(throwable, validationPromise);
     if (validationPromise.future().isComplete()) {
@@ -1,5 +1,6 @@
 package org.folio.rest.util;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
@@ -73,7 +74,8 @@ public final class RestUtil {
    *
    * @param url     - url for http request
    * @param method  - http method
-   * @param payload - body of request
+   * @param payload - body of request, {@link Buffer} and {@link String} payloads are sent as is,
+   *                other objects are serialized to json
    * @return - async http response
    */
   public static <T> Future<WrappedResponse> doRequest(OkapiConnectionParams params, String url,
@@ -97,7 +99,7 @@ public final class RestUtil {
       }
       LOGGER.info("Sending {} for {}", method.name(), requestUrl);
       if (method == HttpMethod.PUT || method == HttpMethod.POST) {
-        request.sendBuffer(Buffer.buffer(payload instanceof String ? (String) payload : new ObjectMapper().writeValueAsString(payload)), handleResponse(promise));
+        request.sendBuffer(toBuffer(payload), handleResponse(promise));
       } else {
         request.send(handleResponse(promise));
       }
@@ -109,6 +111,13 @@ public final class RestUtil {
     }
   }
 
+  private static <T> Buffer toBuffer(T payload) throws JsonProcessingException {
+    if (payload instanceof Buffer) {
+      return (Buffer) payload;
+    }
+    return Buffer.buffer(payload instanceof String ? (String) payload : new ObjectMapper().writeValueAsString(payload));
+  }
+
   private static Handler<AsyncResult<HttpResponse<Buffer>>> handleResponse(Promise<WrappedResponse> promise) {
     return ar -> {
       if (ar.succeeded()) {
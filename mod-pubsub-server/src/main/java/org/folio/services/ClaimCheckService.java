@@ -0,0 +1,59 @@
+package org.folio.services;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import org.folio.rest.jaxrs.model.Event;
+
+import java.util.Date;
+
+/**
+ * Stores payloads of oversized events outside of Kafka, so that Kafka records carry only a reference to the payload
+ */
+public interface ClaimCheckService {
+
+  /**
+   * Checks if payload of the event exceeds claim-check threshold and should be stored outside of Kafka
+   *
+   * @param event event to publish
+   * @return true if payload should be offloaded
+   */
+  boolean isOffloadRequired(Event event);
+
+  /**
+   * Stores event payload until it is delivered or the event TTL expires
+   *
+   * @param event    event with payload
+   * @param tenantId tenant id
+   * @return succeeded future if payload is stored, failed future otherwise
+   */
+  Future<Void> store(Event event, String tenantId);
+
+  /**
+   * Retrieves stored event payload
+   *
+   * @param eventId  event id
+   * @param tenantId tenant id
+   * @return future with payload, failed future with {@link javax.ws.rs.NotFoundException} if payload is expired or deleted
+   */
+  Future<Buffer> fetch(String eventId, String tenantId);
+
+  /**
+   * Keeps stored event payload at least until the given date, the payload is stored again if it was deleted meanwhile
+   *
+   * @param eventId  event id
+   * @param payload  event payload
+   * @param until    date before which the payload must not be deleted
+   * @param tenantId tenant id
+   * @return succeeded future if payload is retained, failed future otherwise
+   */
+  Future<Void> retain(String eventId, Buffer payload, Date until, String tenantId);
+
+  /**
+   * Deletes stored event payload
+   *
+   * @param eventId  event id
+   * @param tenantId tenant id
+   * @return future completed when payload is deleted
+   */
+  Future<Void> release(String eventId, String tenantId);
+}
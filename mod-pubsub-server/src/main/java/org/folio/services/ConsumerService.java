@@ -1,6 +1,7 @@
 package org.folio.services;
 
 import io.vertx.core.Future;
+import org.folio.kafka.EventRecordCodec;
 import org.folio.rest.util.OkapiConnectionParams;
 
 import java.util.List;
@@ -18,4 +19,17 @@ public interface ConsumerService {
    * @return succeeded future if subscribed, failed future otherwise
    */
   Future<Void> subscribe(List<String> eventTypes, OkapiConnectionParams params);
+
+  /**
+   * Delivers event to the subscriber module, failed delivery is retried and sent to the dead letter topic
+   * the same way as delivery of a received event
+   *
+   * @param eventRecord        event and its payload read from a dead letter record, a payload stored in claim-check
+   *                           storage is loaded by its reference
+   * @param subscriberModuleId id of the subscriber module
+   * @param params             Okapi connection params
+   * @return future succeeded if the first delivery attempt delivered the event to the subscriber,
+   * failed if the attempt failed or the delivery was deferred
+   */
+  Future<Void> redeliver(EventRecordCodec.EventRecord eventRecord, String subscriberModuleId, OkapiConnectionParams params);
 }
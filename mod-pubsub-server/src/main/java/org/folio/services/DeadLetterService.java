@@ -0,0 +1,31 @@
+package org.folio.services;
+
+import io.vertx.core.Future;
+import org.folio.rest.jaxrs.model.DeadLetterQueueCollection;
+import org.folio.rest.jaxrs.model.DeadLetterReplay;
+import org.folio.rest.jaxrs.model.DeadLetterReplayResult;
+import org.folio.rest.util.OkapiConnectionParams;
+
+/**
+ * Service for events which could not be delivered to subscribers after all retries
+ */
+public interface DeadLetterService {
+
+  /**
+   * Returns dead letter queues of event types the tenant has subscribers for
+   *
+   * @param tenantId tenant id
+   * @return dead letter queues with the number of events in each of them
+   */
+  Future<DeadLetterQueueCollection> getDeadLetterQueues(String tenantId);
+
+  /**
+   * Delivers events of the dead letter topic partition range to the subscribers they were not delivered to
+   * using the regular delivery with retries, events are replayed one by one not faster than the requested rate
+   *
+   * @param replay range to replay
+   * @param params Okapi connection params
+   * @return result of the replay
+   */
+  Future<DeadLetterReplayResult> replay(DeadLetterReplay replay, OkapiConnectionParams params);
+}
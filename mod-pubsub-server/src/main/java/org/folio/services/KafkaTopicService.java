@@ -10,7 +10,7 @@ import java.util.List;
 public interface KafkaTopicService {
 
   /**
-   * Creates Kafka topics for specified event types
+   * Creates Kafka topics and dead letter topics for specified event types
    *
    * @param eventTypes list of event types, for which topics should be created
    * @param tenantId   tenant id, for which topics should be created
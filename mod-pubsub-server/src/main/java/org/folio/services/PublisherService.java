@@ -2,6 +2,9 @@ package org.folio.services;
 
 import io.vertx.core.Future;
 import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.PublishResultCollection;
+
+import java.util.List;
 
 /**
  * Publishing Service
@@ -16,4 +19,24 @@ public interface PublisherService {
    * @return succeeded future if published event, failed future otherwise
    */
   Future<Void> publishEvent(Event event, String tenantId);
+
+  /**
+   * Publishes events to the appropriate topics in kafka.
+   * Failure to publish an event does not affect publishing of other events.
+   *
+   * @param events   events to publish
+   * @param tenantId tenant id
+   * @return future with publishing result of each event in the order of the specified events
+   */
+  Future<PublishResultCollection> publishEvents(List<Event> events, String tenantId);
+
+  /**
+   * Publishes events to the appropriate topics in kafka as one unit, either all events are published or none of them.
+   * Events are rejected together if any of them can not be published.
+   *
+   * @param events   events to publish
+   * @param tenantId tenant id
+   * @return succeeded future if all events are published, failed future otherwise
+   */
+  Future<Void> publishEventsInTransaction(List<Event> events, String tenantId);
 }
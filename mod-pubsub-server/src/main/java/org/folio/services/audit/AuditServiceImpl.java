@@ -22,8 +22,14 @@ public class AuditServiceImpl implements AuditService {
     auditMessageDao.saveAuditMessage(auditMessage.mapTo(AuditMessage.class));
   }
 
+  /**
+   * Saves audit message payload, the payload content is passed on as is instead of being mapped through Jackson,
+   * so it is serialized only once, when it is written to the database
+   */
   @Override
   public void saveAuditMessagePayload(JsonObject auditMessagePayload, String tenantId) {
-    auditMessageDao.saveAuditMessagePayload(auditMessagePayload.mapTo(AuditMessagePayload.class), tenantId);
+    auditMessageDao.saveAuditMessagePayload(new AuditMessagePayload()
+      .withEventId(auditMessagePayload.getString("eventId"))
+      .withContent(auditMessagePayload.getString("content")), tenantId);
   }
 }
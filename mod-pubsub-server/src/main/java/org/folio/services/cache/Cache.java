@@ -5,7 +5,9 @@ import static org.apache.commons.collections4.IterableUtils.isEmpty;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -40,6 +42,8 @@ public class Cache {
   private com.github.benmanes.caffeine.cache.Cache<String, ExpiryAwareToken> tenantRefreshToken;
   private com.github.benmanes.caffeine.cache.Cache<String, OkapiConnectionParams> knownOkapiParams;
   private MessagingModuleDao messagingModuleDao;
+  private volatile MessagingModuleIndex messagingModuleIndex;
+  private final AtomicLong messagingModulesVersion = new AtomicLong();
 
   @Setter
   private Consumer<ExpiryAwareToken> tokensRefreshFunction;
@@ -97,6 +101,40 @@ public class Cache {
     return promise.future();
   }
 
+  /**
+   * Returns routing index of messaging modules. The index is built once after messaging modules are loaded
+   * and is rebuilt after the next load once messaging modules are changed, see {@link #invalidate()}.
+   * An empty index is not kept, so that modules registered through another module instance are looked up again.
+   *
+   * @return future with routing index of messaging modules
+   */
+  public Future<MessagingModuleIndex> getMessagingModuleIndex() {
+    MessagingModuleIndex index = messagingModuleIndex;
+    if (index != null) {
+      return Future.succeededFuture(index);
+    }
+    long version = messagingModulesVersion.get();
+    return getMessagingModules().map(messagingModules -> {
+      MessagingModuleIndex newIndex = new MessagingModuleIndex(messagingModules);
+      if (newIndex.size() > 0 && messagingModulesVersion.get() == version) {
+        messagingModuleIndex = newIndex;
+      }
+      return newIndex;
+    });
+  }
+
+  /**
+   * Returns tenants which have messaging modules registered, the registry is stored in the module schema,
+   * so all tenants using pub-sub are returned regardless of whether they published or consumed since startup
+   *
+   * @return future with ids of tenants with registered messaging modules
+   */
+  public Future<Set<String>> getRegisteredTenants() {
+    return getMessagingModules().map(messagingModules -> messagingModules.stream()
+      .map(MessagingModule::getTenantId)
+      .collect(Collectors.toSet()));
+  }
+
   public boolean containsSubscription(String topic) {
     return subscriptions.getIfPresent(topic) != null;
   }
@@ -142,6 +180,8 @@ public class Cache {
   }
 
   public void invalidate() {
+    messagingModulesVersion.incrementAndGet();
+    messagingModuleIndex = null;
     loadingCache.synchronous().invalidateAll();
   }
 
@@ -157,6 +197,10 @@ public class Cache {
     return knownOkapiParams.getIfPresent(tenant);
   }
 
+  public Set<String> getKnownTenants() {
+    return Set.copyOf(knownOkapiParams.asMap().keySet());
+  }
+
   public void setKnownOkapiParams(String tenant, OkapiConnectionParams params) {
     knownOkapiParams.put(tenant, params);
   }
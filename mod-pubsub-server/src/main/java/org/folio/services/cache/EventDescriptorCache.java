@@ -0,0 +1,60 @@
+package org.folio.services.cache;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.dao.EventDescriptorDao;
+import org.folio.rest.jaxrs.model.EventDescriptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.vertx.core.Future;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * In-memory storage for event descriptors used on the publishing and delivery paths.
+ * Descriptors are kept as futures, so concurrent lookups of the same event type share one database query
+ * and are completed in the order they were requested.
+ */
+@Component
+public class EventDescriptorCache {
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final long EXPIRATION_SECONDS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("event.descriptor.cache.expiration.seconds", "60"));
+
+  private final EventDescriptorDao eventDescriptorDao;
+  private final com.github.benmanes.caffeine.cache.Cache<String, Future<Optional<EventDescriptor>>> eventDescriptors;
+
+  public EventDescriptorCache(@Autowired EventDescriptorDao eventDescriptorDao) {
+    this.eventDescriptorDao = eventDescriptorDao;
+    this.eventDescriptors = Caffeine.newBuilder()
+      .expireAfterWrite(EXPIRATION_SECONDS, TimeUnit.SECONDS)
+      .build();
+  }
+
+  /**
+   * Returns event descriptor of the event type,
+   * empty optional is returned if descriptor does not exist or cannot be loaded
+   *
+   * @param eventType event type
+   * @return future with optional of EventDescriptor
+   */
+  public Future<Optional<EventDescriptor>> get(String eventType) {
+    Future<Optional<EventDescriptor>> descriptor = eventDescriptors.get(eventType, eventDescriptorDao::getByEventType);
+    return descriptor.otherwise(e -> {
+      LOGGER.warn("get:: Error loading event descriptor for event type {}", eventType, e);
+      eventDescriptors.asMap().remove(eventType, descriptor);
+      return Optional.empty();
+    });
+  }
+
+  public void invalidate(String eventType) {
+    eventDescriptors.invalidate(eventType);
+  }
+}
@@ -0,0 +1,118 @@
+package org.folio.services.cache;
+
+import org.folio.rest.jaxrs.model.MessagingModule;
+import org.folio.rest.jaxrs.model.MessagingModule.ModuleRole;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable routing index of messaging modules keyed by tenant, event type, module role and module id.
+ * The index is built once from a snapshot of registered messaging modules, lookups are plain
+ * hash map reads that return precomputed unmodifiable lists, so routing an event neither scans
+ * all registered modules nor allocates.
+ */
+public final class MessagingModuleIndex {
+
+  public static final MessagingModuleIndex EMPTY = new MessagingModuleIndex(Collections.emptyList());
+
+  private final Map<String, Map<String, Map<ModuleRole, Route>>> routes;
+  private final int size;
+
+  public MessagingModuleIndex(Collection<MessagingModule> messagingModules) {
+    Map<String, Map<String, Map<ModuleRole, RouteBuilder>>> builders = new HashMap<>();
+    for (MessagingModule module : messagingModules) {
+      if (module.getTenantId() == null || module.getEventType() == null || module.getModuleRole() == null) {
+        continue;
+      }
+      builders.computeIfAbsent(module.getTenantId(), k -> new HashMap<>())
+        .computeIfAbsent(module.getEventType(), k -> new EnumMap<>(ModuleRole.class))
+        .computeIfAbsent(module.getModuleRole(), k -> new RouteBuilder())
+        .add(module);
+    }
+    Map<String, Map<String, Map<ModuleRole, Route>>> built = new HashMap<>();
+    builders.forEach((tenantId, byEventType) -> {
+      Map<String, Map<ModuleRole, Route>> tenantRoutes = new HashMap<>();
+      byEventType.forEach((eventType, byRole) -> {
+        Map<ModuleRole, Route> roleRoutes = new EnumMap<>(ModuleRole.class);
+        byRole.forEach((role, builder) -> roleRoutes.put(role, builder.build()));
+        tenantRoutes.put(eventType, roleRoutes);
+      });
+      built.put(tenantId, tenantRoutes);
+    });
+    this.routes = built;
+    this.size = messagingModules.size();
+  }
+
+  /**
+   * Returns messaging modules of the tenant registered in the role for the event type
+   *
+   * @param tenantId  tenant id
+   * @param eventType event type
+   * @param role      module role
+   * @return unmodifiable list of messaging modules, empty list if there are no such modules
+   */
+  public List<MessagingModule> get(String tenantId, String eventType, ModuleRole role) {
+    Route route = getRoute(tenantId, eventType, role);
+    return route == null ? Collections.emptyList() : route.modules;
+  }
+
+  /**
+   * Returns messaging modules with the module id of the tenant registered in the role for the event type
+   *
+   * @param tenantId  tenant id
+   * @param eventType event type
+   * @param role      module role
+   * @param moduleId  module id
+   * @return unmodifiable list of messaging modules, empty list if there are no such modules
+   */
+  public List<MessagingModule> get(String tenantId, String eventType, ModuleRole role, String moduleId) {
+    Route route = getRoute(tenantId, eventType, role);
+    List<MessagingModule> modules = route == null ? null : route.modulesById.get(moduleId);
+    return modules == null ? Collections.emptyList() : modules;
+  }
+
+  /**
+   * @return number of messaging modules the index was built from
+   */
+  public int size() {
+    return size;
+  }
+
+  private Route getRoute(String tenantId, String eventType, ModuleRole role) {
+    Map<String, Map<ModuleRole, Route>> tenantRoutes = routes.get(tenantId);
+    Map<ModuleRole, Route> roleRoutes = tenantRoutes == null ? null : tenantRoutes.get(eventType);
+    return roleRoutes == null ? null : roleRoutes.get(role);
+  }
+
+  private static final class Route {
+    private final List<MessagingModule> modules;
+    private final Map<String, List<MessagingModule>> modulesById;
+
+    private Route(List<MessagingModule> modules, Map<String, List<MessagingModule>> modulesById) {
+      this.modules = modules;
+      this.modulesById = modulesById;
+    }
+  }
+
+  private static final class RouteBuilder {
+    private final List<MessagingModule> modules = new ArrayList<>();
+    private final Map<String, List<MessagingModule>> modulesById = new HashMap<>();
+
+    void add(MessagingModule module) {
+      modules.add(module);
+      modulesById.computeIfAbsent(module.getModuleId(), k -> new ArrayList<>()).add(module);
+    }
+
+    Route build() {
+      Map<String, List<MessagingModule>> byId = new HashMap<>();
+      modulesById.forEach((moduleId, list) -> byId.put(moduleId, List.copyOf(list)));
+      return new Route(List.copyOf(modules), byId);
+    }
+  }
+}
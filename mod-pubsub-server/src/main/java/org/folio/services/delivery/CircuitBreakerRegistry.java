@@ -0,0 +1,194 @@
+package org.folio.services.delivery;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Vertx;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.jaxrs.model.CircuitBreaker.State;
+import org.folio.rest.jaxrs.model.CircuitBreakerCollection;
+import org.folio.rest.util.RestUtil;
+import org.folio.services.delivery.SubscriberCircuitBreaker.DeferredDelivery;
+import org.folio.services.metrics.PubSubMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Circuit breakers of subscriber callbacks keyed by tenant and callback. A callback which keeps failing
+ * is not sent deliveries while its breaker is open, they wait in the bounded deferred queue of the breaker
+ * and are sent once a trial delivery succeeds, so a subscriber which is down is probed by a single request
+ * per {@code pubsub.delivery.breaker.open.duration.ms} instead of all retries of all events.
+ * <p>
+ * Deliveries which fail with a connection error, a timeout, status 429 or 5xx are counted as failures,
+ * any other response shows the callback is reachable and counts as success.
+ */
+@Component
+public class CircuitBreakerRegistry {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  public static final String OPENED_COUNTER = "delivery.breaker.opened";
+  public static final String OPEN_GAUGE = "delivery.breaker.open";
+  public static final String DEFERRED_GAUGE = "delivery.breaker.deferred";
+
+  private static final boolean ENABLED =
+    Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.delivery.breaker.enabled", "true"));
+  private static final int FAILURE_THRESHOLD =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.delivery.breaker.failure.threshold", "5"));
+  private static final long OPEN_DURATION_MS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.delivery.breaker.open.duration.ms", "30000"));
+  private static final int HALF_OPEN_MAX_CALLS =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.delivery.breaker.half.open.max.calls", "1"));
+  private static final int MAX_DEFERRED =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.delivery.breaker.deferred.max", "1000"));
+
+  private final Vertx vertx;
+  private final PubSubMetrics metrics;
+  private final boolean enabled;
+  private final int failureThreshold;
+  private final long openDurationMs;
+  private final int halfOpenMaxCalls;
+  private final int maxDeferred;
+  private final LongSupplier clock;
+  private final Map<BreakerKey, SubscriberCircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+  @Autowired
+  public CircuitBreakerRegistry(Vertx vertx, PubSubMetrics metrics) {
+    this(vertx, metrics, ENABLED, FAILURE_THRESHOLD, OPEN_DURATION_MS, HALF_OPEN_MAX_CALLS, MAX_DEFERRED,
+      System::currentTimeMillis);
+  }
+
+  CircuitBreakerRegistry(Vertx vertx, PubSubMetrics metrics, boolean enabled, int failureThreshold,
+                         long openDurationMs, int halfOpenMaxCalls, int maxDeferred, LongSupplier clock) {
+    this.vertx = vertx;
+    this.metrics = metrics;
+    this.enabled = enabled;
+    this.failureThreshold = failureThreshold;
+    this.openDurationMs = openDurationMs;
+    this.halfOpenMaxCalls = halfOpenMaxCalls;
+    this.maxDeferred = maxDeferred;
+    this.clock = clock;
+    metrics.registerGauge(OPEN_GAUGE, () -> breakers.values().stream()
+      .filter(breaker -> breaker.getState() != State.CLOSED)
+      .count());
+    metrics.registerGauge(DEFERRED_GAUGE, () -> breakers.values().stream()
+      .mapToInt(SubscriberCircuitBreaker::getDeferredCount)
+      .sum());
+  }
+
+  /**
+   * Checks if a delivery may be sent to the subscriber callback
+   *
+   * @param tenantId           tenant id
+   * @param subscriberCallback subscriber callback
+   * @return true if delivery may be sent, false if it has to be deferred
+   */
+  public boolean tryAcquire(String tenantId, String subscriberCallback) {
+    return !enabled || getBreaker(tenantId, subscriberCallback).tryAcquire(clock.getAsLong());
+  }
+
+  /**
+   * Registers outcome of the delivery sent to the subscriber callback
+   *
+   * @param tenantId           tenant id
+   * @param subscriberCallback subscriber callback
+   * @param ar                 result of the delivery request
+   */
+  public void record(String tenantId, String subscriberCallback, AsyncResult<RestUtil.WrappedResponse> ar) {
+    if (isFailure(ar)) {
+      onFailure(tenantId, subscriberCallback);
+    } else {
+      onSuccess(tenantId, subscriberCallback);
+    }
+  }
+
+  /**
+   * Defers the delivery until the breaker of the subscriber callback lets deliveries through,
+   * the delivery runs on the context of the caller
+   *
+   * @param tenantId           tenant id
+   * @param subscriberCallback subscriber callback
+   * @param delivery           delivery, it has to acquire the breaker again when it runs
+   * @return false if the deferred queue of the breaker is full and the delivery was not deferred
+   */
+  public boolean defer(String tenantId, String subscriberCallback, Runnable delivery) {
+    return getBreaker(tenantId, subscriberCallback).defer(vertx.getOrCreateContext(), delivery);
+  }
+
+  /**
+   * @return time a breaker stays open before trial deliveries are sent
+   */
+  public long getOpenDurationMs() {
+    return openDurationMs;
+  }
+
+  /**
+   * @param tenantId tenant id
+   * @return circuit breakers of subscriber callbacks of the tenant
+   */
+  public CircuitBreakerCollection getCircuitBreakers(String tenantId) {
+    CircuitBreakerCollection collection = new CircuitBreakerCollection()
+      .withCircuitBreakers(breakers.entrySet().stream()
+        .filter(entry -> entry.getKey().tenantId().equals(tenantId))
+        .map(entry -> entry.getValue().toCircuitBreaker())
+        .collect(Collectors.toList()));
+    return collection.withTotalRecords(collection.getCircuitBreakers().size());
+  }
+
+  void onSuccess(String tenantId, String subscriberCallback) {
+    SubscriberCircuitBreaker breaker = breakers.get(new BreakerKey(tenantId, subscriberCallback));
+    if (breaker != null && breaker.onSuccess()) {
+      LOGGER.info("onSuccess:: Circuit breaker of {} for tenant {} is closed", subscriberCallback, tenantId);
+      breaker.drain().forEach(this::run);
+    }
+  }
+
+  void onFailure(String tenantId, String subscriberCallback) {
+    SubscriberCircuitBreaker breaker = getBreaker(tenantId, subscriberCallback);
+    if (breaker.onFailure(clock.getAsLong())) {
+      LOGGER.warn("onFailure:: Circuit breaker of {} for tenant {} is open, deliveries are deferred for {} ms",
+        subscriberCallback, tenantId, openDurationMs);
+      metrics.increment(OPENED_COUNTER);
+      vertx.setTimer(Math.max(1, openDurationMs), id -> probe(breaker));
+    }
+  }
+
+  private void probe(SubscriberCircuitBreaker breaker) {
+    DeferredDelivery trial = breaker.pollTrial(clock.getAsLong());
+    if (trial != null) {
+      run(trial);
+    }
+  }
+
+  private void run(DeferredDelivery deferredDelivery) {
+    deferredDelivery.context().runOnContext(v -> {
+      try {
+        deferredDelivery.delivery().run();
+      } catch (Exception e) {
+        LOGGER.warn("run:: Deferred delivery failed", e);
+      }
+    });
+  }
+
+  private SubscriberCircuitBreaker getBreaker(String tenantId, String subscriberCallback) {
+    return breakers.computeIfAbsent(new BreakerKey(tenantId, subscriberCallback),
+      key -> new SubscriberCircuitBreaker(subscriberCallback, failureThreshold, openDurationMs, halfOpenMaxCalls, maxDeferred));
+  }
+
+  private static boolean isFailure(AsyncResult<RestUtil.WrappedResponse> ar) {
+    if (ar.failed()) {
+      return true;
+    }
+    int statusCode = ar.result().getCode();
+    return statusCode == 429 || statusCode >= 500;
+  }
+
+  private record BreakerKey(String tenantId, String subscriberCallback) {
+  }
+}
@@ -0,0 +1,95 @@
+package org.folio.services.delivery;
+
+import io.vertx.core.Future;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.kafka.DeadLetterRecords;
+import org.folio.kafka.KafkaConfig;
+import org.folio.kafka.KafkaProducerManager;
+import org.folio.kafka.PubSubConfig;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.MessagingModule;
+import org.folio.services.ClaimCheckService;
+import org.folio.services.metrics.PubSubMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Publishes events which delivery to a subscriber failed after all retries to the dead letter topic
+ * of the tenant and event type, from where they can be replayed to the subscriber. A dead letter of an event
+ * published in claim-check mode refers to the stored payload, which is retained for
+ * {@code pubsub.dead.letter.payload.retention.ms}, so it should not be shorter than the retention of dead letter topics.
+ */
+@Component
+public class DeadLetterPublisher {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  public static final String DEAD_LETTERED_COUNTER = "delivery.dead.lettered";
+  public static final String FAILED_COUNTER = "delivery.dead.letter.failed";
+
+  private static final boolean ENABLED =
+    Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.delivery.dead.letter.enabled", "true"));
+  private static final long PAYLOAD_RETENTION_MS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.dead.letter.payload.retention.ms", "604800000"));
+
+  private final KafkaConfig kafkaConfig;
+  private final KafkaProducerManager producerManager;
+  private final ClaimCheckService claimCheckService;
+  private final PubSubMetrics metrics;
+
+  public DeadLetterPublisher(@Autowired KafkaConfig kafkaConfig,
+                             @Autowired KafkaProducerManager producerManager,
+                             @Autowired ClaimCheckService claimCheckService,
+                             @Autowired PubSubMetrics metrics) {
+    this.kafkaConfig = kafkaConfig;
+    this.producerManager = producerManager;
+    this.claimCheckService = claimCheckService;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Publishes event to the dead letter topic
+   *
+   * @param event      event
+   * @param payload    payload sent to the subscriber, a payload stored in claim-check storage is retained
+   *                   and only its reference is written
+   * @param subscriber subscriber the event was not delivered to
+   * @param tenantId   tenant id
+   * @param reason     reason of the last failed attempt
+   * @param attempts   number of delivery attempts
+   * @return future completed when the record is written to Kafka, succeeded future if dead letter topics are disabled,
+   * failed future if the record cannot be written
+   */
+  public Future<Void> publish(Event event, DeliveryPayload payload, MessagingModule subscriber, String tenantId,
+                              String reason, int attempts) {
+    if (!ENABLED) {
+      return Future.succeededFuture();
+    }
+    String topicName = new PubSubConfig(kafkaConfig.getEnvId(), tenantId, event.getEventType()).getDeadLetterTopicName();
+    Future<Void> retained = payload.isClaimed()
+      ? claimCheckService.retain(payload.getReference(), payload.getContent(),
+          new Date(System.currentTimeMillis() + PAYLOAD_RETENTION_MS), tenantId)
+      : Future.succeededFuture();
+    return retained
+      .compose(v -> producerManager.write(topicName, DeadLetterRecords.encode(topicName, event, payload.getContent(),
+        payload.getReference(), subscriber, reason, attempts, System.currentTimeMillis())))
+      .onSuccess(v -> {
+        if (payload.isClaimed()) {
+          payload.retain();
+        }
+        metrics.increment(DEAD_LETTERED_COUNTER);
+        LOGGER.info("publish:: {} event with id '{}' not delivered to {} is sent to dead letter topic {}",
+          event.getEventType(), event.getId(), subscriber.getModuleId(), topicName);
+      })
+      .onFailure(e -> {
+        metrics.increment(FAILED_COUNTER);
+        LOGGER.error("publish:: {} event with id '{}' not delivered to {} cannot be sent to dead letter topic {}",
+          event.getEventType(), event.getId(), subscriber.getModuleId(), topicName, e);
+      });
+  }
+}
@@ -0,0 +1,116 @@
+package org.folio.services.delivery;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Serial lanes of asynchronous tasks. A task starts once the previous task of the same lane is completed,
+ * either successfully or not, while tasks of different lanes run concurrently. A lane exists only while
+ * it has tasks, so the number of lanes kept is bounded by the number of lanes with pending tasks.
+ * Lanes may be shared by callers running on different event loops, a task is started on the context
+ * it was submitted from rather than on the one which completed the previous task of the lane.
+ */
+public class DeliveryLanes {
+
+  private final Map<Object, Future<Void>> tails = new HashMap<>();
+
+  /**
+   * Calculates lane of the key
+   *
+   * @param key   ordering key
+   * @param lanes number of lanes
+   * @return lane index from 0 to {@code lanes - 1}
+   */
+  public static int getLaneIndex(String key, int lanes) {
+    return Math.floorMod(key.hashCode(), lanes);
+  }
+
+  /**
+   * Runs the task after all tasks previously submitted to the lane are completed
+   *
+   * @param laneId lane id
+   * @param task   task
+   * @return future completed with the result of the task
+   */
+  public <T> Future<T> execute(Object laneId, Supplier<Future<T>> task) {
+    Context context = Vertx.currentContext();
+    Promise<T> result = Promise.promise();
+    Promise<Void> done = Promise.promise();
+    Future<Void> previous;
+    synchronized (this) {
+      previous = tails.put(laneId, done.future());
+    }
+    (previous == null ? Future.<Void>succeededFuture() : previous).onComplete(v -> runOn(context, () -> run(task)
+      .onComplete(result)
+      .onComplete(ar -> {
+        release(laneId, done.future());
+        done.complete();
+      })));
+    return result.future();
+  }
+
+  /**
+   * Reserves a turn in the lane. The turn comes once all tasks previously submitted to the lane are completed,
+   * tasks submitted after the reservation wait until the ticket is released
+   *
+   * @param laneId lane id
+   * @param key    ordering key the turn is reserved for
+   * @return ticket
+   */
+  public Ticket reserve(Object laneId, String key) {
+    Promise<Void> turn = Promise.promise();
+    Promise<Void> released = Promise.promise();
+    execute(laneId, () -> {
+      turn.complete();
+      return released.future();
+    });
+    return new Ticket(key, turn.future(), released);
+  }
+
+  public synchronized int size() {
+    return tails.size();
+  }
+
+  private synchronized void release(Object laneId, Future<Void> tail) {
+    tails.remove(laneId, tail);
+  }
+
+  private static void runOn(Context context, Runnable action) {
+    if (context == null || context == Vertx.currentContext()) {
+      action.run();
+    } else {
+      context.runOnContext(v -> action.run());
+    }
+  }
+
+  private static <T> Future<T> run(Supplier<Future<T>> task) {
+    try {
+      Future<T> future = task.get();
+      return future == null ? Future.succeededFuture() : future;
+    } catch (Exception e) {
+      return Future.failedFuture(e);
+    }
+  }
+
+  /**
+   * Reserved turn in a lane
+   *
+   * @param key      ordering key, null if the ticket does not order anything
+   * @param turn     future completed when the turn comes
+   * @param released promise completed when the ticket is released
+   */
+  public record Ticket(String key, Future<Void> turn, Promise<Void> released) {
+
+    public static final Ticket NONE = new Ticket(null, Future.succeededFuture(), Promise.promise());
+
+    public void release() {
+      released.tryComplete();
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package org.folio.services.delivery;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Payload of an event being delivered to subscribers. The payload of an event published in claim-check mode keeps
+ * the reference to the stored payload, so that dead letters carry the reference instead of the payload,
+ * and the stored payload is not deleted after delivery once something outside of this delivery refers to it.
+ */
+public final class DeliveryPayload {
+
+  private final Buffer content;
+  private final String reference;
+  private volatile boolean retained;
+
+  private DeliveryPayload(Buffer content, String reference) {
+    this.content = content;
+    this.reference = reference;
+  }
+
+  /**
+   * @param content payload sent in the Kafka record, may be null
+   * @return payload which is not stored in claim-check storage
+   */
+  public static DeliveryPayload inline(Buffer content) {
+    return new DeliveryPayload(content, null);
+  }
+
+  /**
+   * @param content   payload loaded from claim-check storage
+   * @param reference claim-check reference of the payload, which is the event id
+   * @return payload stored in claim-check storage
+   */
+  public static DeliveryPayload claimed(Buffer content, String reference) {
+    return new DeliveryPayload(content, reference);
+  }
+
+  public Buffer getContent() {
+    return content;
+  }
+
+  /**
+   * @return claim-check reference of the payload or null if the payload is not stored in claim-check storage
+   */
+  public String getReference() {
+    return reference;
+  }
+
+  public boolean isClaimed() {
+    return reference != null;
+  }
+
+  /**
+   * Marks the stored payload as referred to from outside of the delivery, so that it is left to expire
+   * instead of being deleted once the delivery is finished
+   */
+  public void retain() {
+    retained = true;
+  }
+
+  public boolean isRetained() {
+    return retained;
+  }
+}
@@ -0,0 +1,23 @@
+package org.folio.services.delivery;
+
+import org.folio.rest.jaxrs.model.Event;
+
+import java.util.Date;
+
+/**
+ * Delivery retry stored in the tenant schema until it is due
+ *
+ * @param id                 retry id
+ * @param tenantId           tenant id
+ * @param event              event without payload
+ * @param payload            payload sent to the subscriber, null if the payload is stored in claim-check storage
+ * @param payloadReference   claim-check reference of the payload or null if the payload is stored in the retry
+ * @param subscriberModuleId id of the subscriber module
+ * @param subscriberCallback subscriber callback
+ * @param attempt            number of delivery attempts made so far
+ * @param reason             reason of the last failed attempt
+ * @param dueDate            time the retry is due
+ */
+public record DeliveryRetry(String id, String tenantId, Event event, String payload, String payloadReference,
+                            String subscriberModuleId, String subscriberCallback, int attempt, String reason, Date dueDate) {
+}
@@ -0,0 +1,155 @@
+package org.folio.services.delivery;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.dao.DeliveryRetryDao;
+import org.folio.kafka.DeliveryContexts;
+import org.folio.okapi.common.GenericCompositeFuture;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.MessagingModule;
+import org.folio.services.cache.Cache;
+import org.folio.services.metrics.PubSubMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Delivery retries stored in the tenant schema, so that retries survive restarts of the module and
+ * take no memory while they wait. Every {@code pubsub.delivery.retry.poll.interval.ms} each module instance
+ * claims due retries of all tenants registered in pub-sub, not only of tenants active since startup,
+ * and passes them to the retry handler, a claimed retry is hidden from other instances for
+ * {@code pubsub.delivery.retry.lease.ms} and deleted once the handler completes, a retry which handling failed
+ * or was interrupted by a restart is claimed again when the lease expires.
+ * <p>
+ * A retry of an event published in claim-check mode stores the claim-check reference instead of a copy of the payload,
+ * the stored payload is kept until the last retry referring to it is deleted.
+ * <p>
+ * Retries are stored when {@code pubsub.delivery.retry.durable} is true, which is the default.
+ */
+@Component
+public class DurableRetryQueue {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  public static final String STORED_COUNTER = "delivery.retry.stored";
+  public static final String CLAIMED_COUNTER = "delivery.retry.claimed";
+
+  private static final boolean DURABLE =
+    Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.delivery.retry.durable", "true"));
+  private static final long POLL_INTERVAL_MS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.delivery.retry.poll.interval.ms", "1000"));
+  private static final int POLL_BATCH_SIZE =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.delivery.retry.poll.batch.size", "100"));
+  private static final long LEASE_MS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.delivery.retry.lease.ms", "300000"));
+
+  private final DeliveryRetryDao deliveryRetryDao;
+  private final Cache cache;
+  private final DeliveryContexts deliveryContexts;
+  private final PubSubMetrics metrics;
+  private final Set<String> pollingTenants = ConcurrentHashMap.newKeySet();
+  private volatile Function<DeliveryRetry, Future<Void>> retryHandler;
+
+  public DurableRetryQueue(@Autowired Vertx vertx,
+                           @Autowired DeliveryRetryDao deliveryRetryDao,
+                           @Autowired Cache cache,
+                           @Autowired DeliveryContexts deliveryContexts,
+                           @Autowired PubSubMetrics metrics) {
+    this.deliveryRetryDao = deliveryRetryDao;
+    this.cache = cache;
+    this.deliveryContexts = deliveryContexts;
+    this.metrics = metrics;
+    if (DURABLE) {
+      vertx.setPeriodic(POLL_INTERVAL_MS, id -> poll());
+    }
+  }
+
+  public boolean isEnabled() {
+    return DURABLE;
+  }
+
+  /**
+   * Sets handler of due retries, the handler returns a future completed when the retry attempt is finished,
+   * including storing of the next retry if the attempt failed
+   *
+   * @param retryHandler handler of due retries
+   */
+  public void setRetryHandler(Function<DeliveryRetry, Future<Void>> retryHandler) {
+    this.retryHandler = retryHandler;
+  }
+
+  /**
+   * Stores delivery retry, the claim-checked payload is marked as retained once the retry is stored
+   *
+   * @param event      event
+   * @param payload    payload sent to the subscriber
+   * @param subscriber subscriber the event was not delivered to
+   * @param tenantId   tenant id
+   * @param attempt    number of delivery attempts made so far
+   * @param reason     reason of the last failed attempt
+   * @param delayMs    delay before the retry
+   * @return future completed when the retry is stored
+   */
+  public Future<Void> enqueue(Event event, DeliveryPayload payload, MessagingModule subscriber, String tenantId,
+                              int attempt, String reason, long delayMs) {
+    String content = payload.isClaimed() || payload.getContent() == null ? null : payload.getContent().toString();
+    DeliveryRetry retry = new DeliveryRetry(UUID.randomUUID().toString(), tenantId, event, content,
+      payload.getReference(), subscriber.getModuleId(), subscriber.getSubscriberCallback(), attempt, reason,
+      new Date(System.currentTimeMillis() + delayMs));
+    return deliveryRetryDao.save(retry, tenantId)
+      .onSuccess(v -> {
+        if (payload.isClaimed()) {
+          payload.retain();
+        }
+        metrics.increment(STORED_COUNTER);
+      });
+  }
+
+  void poll() {
+    if (retryHandler == null) {
+      return;
+    }
+    cache.getRegisteredTenants()
+      .onFailure(e -> LOGGER.warn("poll:: Error loading registered tenants", e))
+      .onSuccess(tenants -> tenants.forEach(tenantId -> {
+        if (pollingTenants.add(tenantId)) {
+          claimDue(tenantId).onComplete(ar -> pollingTenants.remove(tenantId));
+        }
+      }));
+  }
+
+  private Future<Void> claimDue(String tenantId) {
+    long now = System.currentTimeMillis();
+    return deliveryRetryDao.claimDue(new Date(now), new Date(now + LEASE_MS), POLL_BATCH_SIZE, tenantId)
+      .onFailure(e -> LOGGER.warn("claimDue:: Error claiming due delivery retries for tenant {}", tenantId, e))
+      .compose(retries -> {
+        if (retries.isEmpty()) {
+          return Future.succeededFuture();
+        }
+        metrics.increment(CLAIMED_COUNTER, retries.size());
+        return handle(retries)
+          .compose(v -> retries.size() < POLL_BATCH_SIZE ? Future.succeededFuture() : claimDue(tenantId));
+      });
+  }
+
+  private Future<Void> handle(List<DeliveryRetry> retries) {
+    List<Future<Boolean>> futures = retries.stream()
+      .map(retry -> deliveryContexts.execute(() -> retryHandler.apply(retry))
+        .compose(handled -> handled)
+        .compose(v -> deliveryRetryDao.delete(retry.id(), retry.tenantId()))
+        .onFailure(e -> LOGGER.warn("handle:: Delivery retry of {} event with id '{}' to {} failed, it is retried after lease expiration",
+          retry.event().getEventType(), retry.event().getId(), retry.subscriberCallback(), e)))
+      .toList();
+    return GenericCompositeFuture.join(futures).<Void>mapEmpty().otherwiseEmpty();
+  }
+}
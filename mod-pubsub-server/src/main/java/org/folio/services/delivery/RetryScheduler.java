@@ -0,0 +1,133 @@
+package org.folio.services.delivery;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.services.metrics.PubSubMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Schedules delivery retries with exponential backoff and jitter. Pending retries are kept in a heap ordered
+ * by due time and a single Vert.x timer is armed for the earliest of them, so the cost of a pending retry
+ * is one heap entry regardless of how many retries are waiting. A retry runs on the context it was scheduled from.
+ * <p>
+ * Delay before retry {@code n} is {@code pubsub.delivery.retry.initial.delay.ms * 2^(n-1)}, capped by
+ * {@code pubsub.delivery.retry.max.delay.ms}, half of which is randomized so that retries of events
+ * rejected at the same moment do not hit the subscriber at the same moment again.
+ */
+@Component
+public class RetryScheduler {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  public static final String PENDING_GAUGE = "delivery.retry.pending";
+
+  private static final long INITIAL_DELAY_MS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.delivery.retry.initial.delay.ms", "1000"));
+  private static final long MAX_DELAY_MS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.delivery.retry.max.delay.ms", "60000"));
+
+  private final Vertx vertx;
+  private final PriorityQueue<ScheduledRetry> retries = new PriorityQueue<>();
+  private long sequence;
+  private long timerId = -1;
+  private long timerDueAt;
+
+  public RetryScheduler(@Autowired Vertx vertx,
+                        @Autowired PubSubMetrics metrics) {
+    this.vertx = vertx;
+    metrics.registerGauge(PENDING_GAUGE, this::size);
+  }
+
+  /**
+   * Calculates delay before the retry
+   *
+   * @param attempt number of the retry, starting from 1
+   * @return delay in milliseconds
+   */
+  public long getBackoffDelay(int attempt) {
+    return getBackoffDelay(attempt, INITIAL_DELAY_MS, MAX_DELAY_MS, ThreadLocalRandom.current().nextDouble());
+  }
+
+  static long getBackoffDelay(int attempt, long initialDelayMs, long maxDelayMs, double random) {
+    int shift = Math.min(Math.max(attempt - 1, 0), Long.numberOfLeadingZeros(Math.max(initialDelayMs, 1)) - 1);
+    long delay = Math.min(maxDelayMs, initialDelayMs << shift);
+    long half = delay / 2;
+    return delay - half + (long) (random * half);
+  }
+
+  /**
+   * Schedules the retry
+   *
+   * @param delayMs delay in milliseconds
+   * @param retry   retry, runs on the context of the caller
+   */
+  public void schedule(long delayMs, Runnable retry) {
+    Context context = vertx.getOrCreateContext();
+    long dueAt = now() + Math.max(0, delayMs);
+    synchronized (this) {
+      retries.add(new ScheduledRetry(dueAt, sequence++, context, retry));
+      if (timerId == -1 || dueAt < timerDueAt) {
+        arm(dueAt);
+      }
+    }
+  }
+
+  public synchronized int size() {
+    return retries.size();
+  }
+
+  private void fire(long firedTimerId) {
+    long now = now();
+    synchronized (this) {
+      if (firedTimerId == timerId) {
+        timerId = -1;
+      }
+      while (!retries.isEmpty() && retries.peek().dueAt() <= now) {
+        ScheduledRetry scheduledRetry = retries.poll();
+        scheduledRetry.context().runOnContext(v -> run(scheduledRetry.retry()));
+      }
+      if (!retries.isEmpty() && timerId == -1) {
+        arm(retries.peek().dueAt());
+      }
+    }
+  }
+
+  private void run(Runnable retry) {
+    try {
+      retry.run();
+    } catch (Exception e) {
+      LOGGER.warn("run:: Delivery retry failed", e);
+    }
+  }
+
+  private void arm(long dueAt) {
+    if (timerId != -1) {
+      vertx.cancelTimer(timerId);
+    }
+    timerDueAt = dueAt;
+    timerId = vertx.setTimer(Math.max(1, dueAt - now()), this::fire);
+  }
+
+  private static long now() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+  }
+
+  private record ScheduledRetry(long dueAt, long sequence, Context context, Runnable retry)
+    implements Comparable<ScheduledRetry> {
+
+    @Override
+    public int compareTo(ScheduledRetry other) {
+      int result = Long.compare(dueAt, other.dueAt);
+      return result != 0 ? result : Long.compare(sequence, other.sequence);
+    }
+  }
+}
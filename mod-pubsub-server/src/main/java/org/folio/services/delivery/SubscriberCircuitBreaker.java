@@ -0,0 +1,151 @@
+package org.folio.services.delivery;
+
+import io.vertx.core.Context;
+import org.folio.rest.jaxrs.model.CircuitBreaker;
+import org.folio.rest.jaxrs.model.CircuitBreaker.State;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Circuit breaker of a subscriber callback of a tenant. The breaker opens after {@code failureThreshold}
+ * deliveries failed in a row, while it is open deliveries are deferred. Once {@code openDurationMs} elapsed
+ * the breaker is half-open and lets up to {@code halfOpenMaxCalls} trial deliveries through, a successful trial
+ * closes the breaker and releases deferred deliveries, a failed one opens it again.
+ */
+final class SubscriberCircuitBreaker {
+
+  private final String subscriberCallback;
+  private final int failureThreshold;
+  private final long openDurationMs;
+  private final int halfOpenMaxCalls;
+  private final int maxDeferred;
+  private final Deque<DeferredDelivery> deferred = new ArrayDeque<>();
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private int halfOpenCalls;
+  private long openedAt;
+
+  SubscriberCircuitBreaker(String subscriberCallback, int failureThreshold, long openDurationMs,
+                           int halfOpenMaxCalls, int maxDeferred) {
+    this.subscriberCallback = subscriberCallback;
+    this.failureThreshold = Math.max(1, failureThreshold);
+    this.openDurationMs = openDurationMs;
+    this.halfOpenMaxCalls = Math.max(1, halfOpenMaxCalls);
+    this.maxDeferred = maxDeferred;
+  }
+
+  /**
+   * Checks if a delivery may be sent to the callback, moves open breaker to half-open once open duration elapsed
+   *
+   * @param now current time in milliseconds
+   * @return true if delivery may be sent, false if it has to be deferred
+   */
+  synchronized boolean tryAcquire(long now) {
+    if (state == State.OPEN && isOpenElapsed(now)) {
+      state = State.HALF_OPEN;
+      halfOpenCalls = 0;
+    }
+    if (state == State.HALF_OPEN && halfOpenCalls < halfOpenMaxCalls) {
+      halfOpenCalls++;
+      return true;
+    }
+    return state == State.CLOSED;
+  }
+
+  /**
+   * Registers successful delivery
+   *
+   * @return true if the breaker was closed by the delivery
+   */
+  synchronized boolean onSuccess() {
+    if (state == State.HALF_OPEN) {
+      state = State.CLOSED;
+      consecutiveFailures = 0;
+      return true;
+    }
+    if (state == State.CLOSED) {
+      consecutiveFailures = 0;
+    }
+    return false;
+  }
+
+  /**
+   * Registers failed delivery
+   *
+   * @param now current time in milliseconds
+   * @return true if the breaker was opened by the delivery
+   */
+  synchronized boolean onFailure(long now) {
+    if (state == State.OPEN) {
+      return false;
+    }
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+      state = State.OPEN;
+      openedAt = now;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Defers the delivery until the breaker lets deliveries through
+   *
+   * @return false if too many deliveries are deferred already
+   */
+  synchronized boolean defer(Context context, Runnable delivery) {
+    if (deferred.size() >= maxDeferred) {
+      return false;
+    }
+    deferred.addLast(new DeferredDelivery(context, delivery));
+    return true;
+  }
+
+  /**
+   * @return the oldest deferred delivery to be sent as a trial if the breaker is open and open duration elapsed,
+   * null otherwise
+   */
+  synchronized DeferredDelivery pollTrial(long now) {
+    return state == State.OPEN && isOpenElapsed(now) ? deferred.pollFirst() : null;
+  }
+
+  /**
+   * @return all deferred deliveries if the breaker is closed, empty list otherwise
+   */
+  synchronized List<DeferredDelivery> drain() {
+    if (state != State.CLOSED) {
+      return List.of();
+    }
+    List<DeferredDelivery> deliveries = new ArrayList<>(deferred);
+    deferred.clear();
+    return deliveries;
+  }
+
+  synchronized State getState() {
+    return state;
+  }
+
+  synchronized int getDeferredCount() {
+    return deferred.size();
+  }
+
+  synchronized CircuitBreaker toCircuitBreaker() {
+    return new CircuitBreaker()
+      .withSubscriberCallback(subscriberCallback)
+      .withState(state)
+      .withConsecutiveFailures(consecutiveFailures)
+      .withOpenedDate(openedAt > 0 ? new Date(openedAt) : null)
+      .withDeferredEvents(deferred.size());
+  }
+
+  private boolean isOpenElapsed(long now) {
+    return now - openedAt >= openDurationMs;
+  }
+
+  record DeferredDelivery(Context context, Runnable delivery) {
+  }
+}
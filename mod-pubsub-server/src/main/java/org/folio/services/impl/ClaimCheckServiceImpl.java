@@ -0,0 +1,134 @@
+package org.folio.services.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.dao.EventPayloadDao;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.services.ClaimCheckService;
+import org.folio.services.cache.Cache;
+import org.folio.services.metrics.PubSubMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.ws.rs.NotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Claim-check implementation storing event payloads in the tenant schema.
+ * Offloading is enabled when {@code event.payload.claim.check.threshold.bytes} is greater than 0.
+ * Payloads are deleted after delivery, payloads of events that were not delivered are deleted
+ * after the event TTL expires, payloads retained for dead letters are deleted when their retention expires.
+ */
+@Component
+public class ClaimCheckServiceImpl implements ClaimCheckService {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final int THRESHOLD_BYTES =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("event.payload.claim.check.threshold.bytes", "0"));
+  private static final long CLEANUP_INTERVAL_MS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("event.payload.claim.check.cleanup.interval.ms", "3600000"));
+  private static final int MAX_UTF8_BYTES_PER_CHAR = 3;
+
+  static final String STORED_COUNTER = "claim.check.stored";
+  static final String FETCHED_COUNTER = "claim.check.fetched";
+  static final String EXPIRED_COUNTER = "claim.check.expired";
+
+  private EventPayloadDao eventPayloadDao;
+  private PubSubMetrics metrics;
+  private Cache cache;
+  private final int thresholdBytes;
+
+  public ClaimCheckServiceImpl(@Autowired Vertx vertx,
+                               @Autowired EventPayloadDao eventPayloadDao,
+                               @Autowired PubSubMetrics metrics,
+                               @Autowired Cache cache) {
+    this(vertx, eventPayloadDao, metrics, cache, THRESHOLD_BYTES);
+  }
+
+  ClaimCheckServiceImpl(Vertx vertx, EventPayloadDao eventPayloadDao, PubSubMetrics metrics, Cache cache, int thresholdBytes) {
+    this.eventPayloadDao = eventPayloadDao;
+    this.metrics = metrics;
+    this.cache = cache;
+    this.thresholdBytes = thresholdBytes;
+    if (thresholdBytes > 0) {
+      vertx.setPeriodic(CLEANUP_INTERVAL_MS, id -> deleteExpiredPayloads());
+    }
+  }
+
+  @Override
+  public boolean isOffloadRequired(Event event) {
+    String payload = event.getEventPayload();
+    if (thresholdBytes <= 0 || payload == null || payload.length() <= thresholdBytes / MAX_UTF8_BYTES_PER_CHAR) {
+      return false;
+    }
+    return payload.length() > thresholdBytes || payload.getBytes(StandardCharsets.UTF_8).length > thresholdBytes;
+  }
+
+  @Override
+  public Future<Void> store(Event event, String tenantId) {
+    long ttlMinutes = event.getEventMetadata().getEventTTL() == null ? 1 : Math.max(1, event.getEventMetadata().getEventTTL());
+    Date expirationDate = new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(ttlMinutes));
+    return eventPayloadDao.save(event.getId(), event.getEventPayload(), expirationDate, tenantId)
+      .onSuccess(ar -> {
+        LOGGER.debug("store:: Payload of {} event with id '{}' is stored", event.getEventType(), event.getId());
+        metrics.increment(STORED_COUNTER);
+      })
+      .mapEmpty();
+  }
+
+  @Override
+  public Future<Buffer> fetch(String eventId, String tenantId) {
+    return eventPayloadDao.getByEventId(eventId, tenantId)
+      .compose(payload -> payload
+        .map(content -> {
+          metrics.increment(FETCHED_COUNTER);
+          return Future.succeededFuture(Buffer.buffer(content));
+        })
+        .orElseGet(() -> Future.failedFuture(new NotFoundException(
+          format("Payload of event with id '%s' is not found, it is either expired or already delivered", eventId)))));
+  }
+
+  @Override
+  public Future<Void> retain(String eventId, Buffer payload, Date until, String tenantId) {
+    return eventPayloadDao.retain(eventId, payload.toString(), until, tenantId)
+      .onSuccess(ar -> LOGGER.debug("retain:: Payload of event with id '{}' is retained until {}", eventId, until))
+      .mapEmpty();
+  }
+
+  @Override
+  public Future<Void> release(String eventId, String tenantId) {
+    return eventPayloadDao.delete(eventId, tenantId)
+      .onFailure(e -> LOGGER.warn("release:: Payload of event with id '{}' was not deleted, it will be deleted after expiration", eventId, e))
+      .mapEmpty();
+  }
+
+  /**
+   * Deletes expired payloads of all tenants registered in pub-sub, not only of tenants active since startup,
+   * so that payloads stored before a restart are deleted too
+   */
+  void deleteExpiredPayloads() {
+    cache.getRegisteredTenants()
+      .onFailure(e -> LOGGER.warn("deleteExpiredPayloads:: Error loading registered tenants", e))
+      .onSuccess(tenants -> tenants.forEach(this::deleteExpiredPayloads));
+  }
+
+  private void deleteExpiredPayloads(String tenantId) {
+    eventPayloadDao.deleteExpired(tenantId)
+      .onSuccess(count -> {
+        if (count > 0) {
+          LOGGER.info("deleteExpiredPayloads:: {} expired event payloads deleted for tenant {}", count, tenantId);
+          metrics.increment(EXPIRED_COUNTER, count);
+        }
+      })
+      .onFailure(e -> LOGGER.warn("deleteExpiredPayloads:: Error deleting expired event payloads for tenant {}", tenantId, e));
+  }
+}
@@ -0,0 +1,302 @@
+package org.folio.services.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.kafka.admin.KafkaAdminClient;
+import io.vertx.kafka.admin.ListOffsetsResultInfo;
+import io.vertx.kafka.admin.OffsetSpec;
+import io.vertx.kafka.admin.TopicDescription;
+import io.vertx.kafka.client.common.TopicPartition;
+import io.vertx.kafka.client.consumer.KafkaConsumer;
+import io.vertx.kafka.client.consumer.KafkaConsumerRecord;
+import io.vertx.kafka.client.consumer.KafkaConsumerRecords;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.dao.MessagingModuleDao;
+import org.folio.kafka.DeadLetterRecords;
+import org.folio.kafka.EventRecordCodec;
+import org.folio.kafka.KafkaConfig;
+import org.folio.kafka.PubSubConfig;
+import org.folio.rest.jaxrs.model.DeadLetterPartition;
+import org.folio.rest.jaxrs.model.DeadLetterQueue;
+import org.folio.rest.jaxrs.model.DeadLetterQueueCollection;
+import org.folio.rest.jaxrs.model.DeadLetterReplay;
+import org.folio.rest.jaxrs.model.DeadLetterReplayResult;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.MessagingModule;
+import org.folio.rest.util.MessagingModuleFilter;
+import org.folio.rest.util.OkapiConnectionParams;
+import org.folio.services.ConsumerService;
+import org.folio.services.DeadLetterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.ws.rs.BadRequestException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.folio.rest.jaxrs.model.MessagingModule.ModuleRole.SUBSCRIBER;
+
+@Component
+public class DeadLetterServiceImpl implements DeadLetterService {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final long MAX_REPLAY_RECORDS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.dead.letter.replay.max.records", "1000"));
+  private static final long MAX_REPLAY_DURATION_MS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.dead.letter.replay.max.duration.ms", "30000"));
+  private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+  private Vertx vertx;
+  private KafkaConfig kafkaConfig;
+  private KafkaAdminClient kafkaAdminClient;
+  private MessagingModuleDao messagingModuleDao;
+  private ConsumerService consumerService;
+  private long maxReplayDurationMs;
+
+  @Autowired
+  public DeadLetterServiceImpl(Vertx vertx,
+                               KafkaConfig kafkaConfig,
+                               KafkaAdminClient kafkaAdminClient,
+                               MessagingModuleDao messagingModuleDao,
+                               ConsumerService consumerService) {
+    this(vertx, kafkaConfig, kafkaAdminClient, messagingModuleDao, consumerService, MAX_REPLAY_DURATION_MS);
+  }
+
+  DeadLetterServiceImpl(Vertx vertx, KafkaConfig kafkaConfig, KafkaAdminClient kafkaAdminClient,
+                        MessagingModuleDao messagingModuleDao, ConsumerService consumerService,
+                        long maxReplayDurationMs) {
+    this.vertx = vertx;
+    this.kafkaConfig = kafkaConfig;
+    this.kafkaAdminClient = kafkaAdminClient;
+    this.messagingModuleDao = messagingModuleDao;
+    this.consumerService = consumerService;
+    this.maxReplayDurationMs = maxReplayDurationMs;
+  }
+
+  @Override
+  public Future<DeadLetterQueueCollection> getDeadLetterQueues(String tenantId) {
+    return messagingModuleDao.get(new MessagingModuleFilter().withTenantId(tenantId).withModuleRole(SUBSCRIBER))
+      .compose(subscribers -> kafkaAdminClient.listTopics()
+        .map(existingTopics -> {
+          Map<String, String> topicsByEventType = new TreeMap<>();
+          subscribers.stream()
+            .map(MessagingModule::getEventType)
+            .distinct()
+            .forEach(eventType -> {
+              String topic = new PubSubConfig(kafkaConfig.getEnvId(), tenantId, eventType).getDeadLetterTopicName();
+              if (existingTopics.contains(topic)) {
+                topicsByEventType.put(eventType, topic);
+              }
+            });
+          return topicsByEventType;
+        }))
+      .compose(topicsByEventType -> {
+        if (topicsByEventType.isEmpty()) {
+          return Future.succeededFuture(new DeadLetterQueueCollection().withTotalRecords(0));
+        }
+        return kafkaAdminClient.describeTopics(new ArrayList<>(topicsByEventType.values()))
+          .compose(descriptions -> {
+            List<TopicPartition> partitions = new ArrayList<>();
+            descriptions.values().forEach(description -> description.getPartitions()
+              .forEach(info -> partitions.add(new TopicPartition(description.getName(), info.getPartition()))));
+            return getOffsets(partitions, OffsetSpec.EARLIEST)
+              .compose(beginningOffsets -> getOffsets(partitions, OffsetSpec.LATEST)
+                .map(endOffsets -> buildDeadLetterQueues(topicsByEventType, descriptions, beginningOffsets, endOffsets)));
+          });
+      });
+  }
+
+  private Future<Map<TopicPartition, ListOffsetsResultInfo>> getOffsets(List<TopicPartition> partitions, OffsetSpec offsetSpec) {
+    Map<TopicPartition, OffsetSpec> request = new HashMap<>();
+    partitions.forEach(partition -> request.put(partition, offsetSpec));
+    return kafkaAdminClient.listOffsets(request);
+  }
+
+  private DeadLetterQueueCollection buildDeadLetterQueues(Map<String, String> topicsByEventType,
+                                                          Map<String, TopicDescription> descriptions,
+                                                          Map<TopicPartition, ListOffsetsResultInfo> beginningOffsets,
+                                                          Map<TopicPartition, ListOffsetsResultInfo> endOffsets) {
+    List<DeadLetterQueue> queues = new ArrayList<>();
+    topicsByEventType.forEach((eventType, topic) -> {
+      TopicDescription description = descriptions.get(topic);
+      if (description == null) {
+        return;
+      }
+      List<DeadLetterPartition> partitions = new ArrayList<>();
+      long depth = 0;
+      for (var info : description.getPartitions()) {
+        TopicPartition topicPartition = new TopicPartition(topic, info.getPartition());
+        long beginning = getOffset(beginningOffsets, topicPartition);
+        long end = getOffset(endOffsets, topicPartition);
+        depth += Math.max(0, end - beginning);
+        partitions.add(new DeadLetterPartition()
+          .withPartition(info.getPartition())
+          .withBeginningOffset(beginning)
+          .withEndOffset(end));
+      }
+      partitions.sort(Comparator.comparing(DeadLetterPartition::getPartition));
+      queues.add(new DeadLetterQueue()
+        .withEventType(eventType)
+        .withTopic(topic)
+        .withDepth(depth)
+        .withPartitions(partitions));
+    });
+    return new DeadLetterQueueCollection()
+      .withDeadLetterQueues(queues)
+      .withTotalRecords(queues.size());
+  }
+
+  private static long getOffset(Map<TopicPartition, ListOffsetsResultInfo> offsets, TopicPartition topicPartition) {
+    ListOffsetsResultInfo info = offsets.get(topicPartition);
+    return info == null ? 0 : info.getOffset();
+  }
+
+  @Override
+  public Future<DeadLetterReplayResult> replay(DeadLetterReplay replay, OkapiConnectionParams params) {
+    long fromOffset = replay.getFromOffset();
+    long toOffset = replay.getToOffset();
+    if (toOffset < fromOffset) {
+      return Future.failedFuture(new BadRequestException(
+        format("toOffset %s is less than fromOffset %s", toOffset, fromOffset)));
+    }
+    if (toOffset - fromOffset + 1 > MAX_REPLAY_RECORDS) {
+      return Future.failedFuture(new BadRequestException(
+        format("At most %s events can be replayed at once", MAX_REPLAY_RECORDS)));
+    }
+    String topic = new PubSubConfig(kafkaConfig.getEnvId(), params.getTenantId(), replay.getEventType()).getDeadLetterTopicName();
+    TopicPartition topicPartition = new TopicPartition(topic, replay.getPartition());
+    DeadLetterReplayResult result = new DeadLetterReplayResult()
+      .withEventType(replay.getEventType())
+      .withPartition(replay.getPartition())
+      .withFromOffset(fromOffset)
+      .withNextOffset(fromOffset)
+      .withReplayed(0)
+      .withFailed(0)
+      .withSkipped(0)
+      .withCompleted(false);
+    long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxReplayDurationMs);
+    long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / replay.getRatePerSecond());
+
+    LOGGER.info("replay:: Replaying offsets {}-{} of dead letter topic {} partition {}",
+      fromOffset, toOffset, topic, replay.getPartition());
+    KafkaConsumer<String, Buffer> consumer = createKafkaConsumer(topic);
+    return consumer.assign(topicPartition)
+      .compose(v -> consumer.seek(topicPartition, fromOffset))
+      .compose(v -> replayRecords(consumer, toOffset, intervalNanos, deadlineNanos, params, result))
+      .eventually(v -> consumer.close())
+      .map(result)
+      .onSuccess(r -> LOGGER.info("replay:: Replayed {} events of dead letter topic {} partition {}, failed {}, skipped {}, "
+        + "completed {}, next offset {}", r.getReplayed(), topic, r.getPartition(), r.getFailed(), r.getSkipped(),
+        r.getCompleted(), r.getNextOffset()))
+      .onFailure(e -> LOGGER.error("replay:: Failed to replay dead letter topic {} partition {}",
+        topic, replay.getPartition(), e));
+  }
+
+  protected KafkaConsumer<String, Buffer> createKafkaConsumer(String topic) {
+    Map<String, String> consumerProps = kafkaConfig.getConsumerProps();
+    consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, topic + ".replay." + UUID.randomUUID());
+    consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+    return KafkaConsumer.create(vertx, consumerProps);
+  }
+
+  /**
+   * Polls records until the end of the range or the end of the partition is reached and replays them.
+   * The replay runs within the request, so it stops once {@code pubsub.dead.letter.replay.max.duration.ms} elapsed,
+   * the result is not completed then and the rest of the range is replayed by the next request from the next offset.
+   */
+  private Future<Void> replayRecords(KafkaConsumer<String, Buffer> consumer, long toOffset, long intervalNanos,
+                                     long deadlineNanos, OkapiConnectionParams params, DeadLetterReplayResult result) {
+    return consumer.poll(POLL_TIMEOUT)
+      .compose(records -> {
+        if (records.isEmpty()) {
+          result.setCompleted(true);
+          return Future.succeededFuture();
+        }
+        return replayRecords(records, 0, toOffset, intervalNanos, deadlineNanos, params, result)
+          .compose(stopped -> Boolean.TRUE.equals(stopped)
+            ? Future.succeededFuture()
+            : replayRecords(consumer, toOffset, intervalNanos, deadlineNanos, params, result));
+      });
+  }
+
+  /**
+   * Replays polled records one by one
+   *
+   * @return future with true if the end of the range is reached or the replay duration elapsed
+   */
+  private Future<Boolean> replayRecords(KafkaConsumerRecords<String, Buffer> records, int index, long toOffset,
+                                        long intervalNanos, long deadlineNanos, OkapiConnectionParams params,
+                                        DeadLetterReplayResult result) {
+    if (index >= records.size()) {
+      return Future.succeededFuture(false);
+    }
+    KafkaConsumerRecord<String, Buffer> consumerRecord = records.recordAt(index);
+    if (consumerRecord.offset() > toOffset) {
+      result.setCompleted(true);
+      return Future.succeededFuture(true);
+    }
+    if (System.nanoTime() - deadlineNanos >= 0) {
+      return Future.succeededFuture(true);
+    }
+    result.setNextOffset(consumerRecord.offset() + 1);
+    long startNanos = System.nanoTime();
+    return replayRecord(consumerRecord, params, result)
+      .compose(v -> {
+        if (consumerRecord.offset() >= toOffset) {
+          result.setCompleted(true);
+          return Future.succeededFuture(true);
+        }
+        return delay(Math.min(intervalNanos - (System.nanoTime() - startNanos), deadlineNanos - System.nanoTime()))
+          .compose(d -> replayRecords(records, index + 1, toOffset, intervalNanos, deadlineNanos, params, result));
+      });
+  }
+
+  private Future<Void> replayRecord(KafkaConsumerRecord<String, Buffer> consumerRecord, OkapiConnectionParams params,
+                                    DeadLetterReplayResult result) {
+    try {
+      EventRecordCodec.EventRecord eventRecord = EventRecordCodec.decode(consumerRecord);
+      Event event = eventRecord.getEvent();
+      String subscriberModuleId = DeadLetterRecords.getSubscriberModuleId(consumerRecord);
+      if (subscriberModuleId == null || !params.getTenantId().equals(event.getEventMetadata().getTenantId())) {
+        result.setSkipped(result.getSkipped() + 1);
+        return Future.succeededFuture();
+      }
+      return consumerService.redeliver(eventRecord, subscriberModuleId, params)
+        .onSuccess(v -> result.setReplayed(result.getReplayed() + 1))
+        .recover(e -> {
+          LOGGER.warn("replayRecord:: {} event with id '{}' was not replayed to {}",
+            event.getEventType(), event.getId(), subscriberModuleId, e);
+          result.setFailed(result.getFailed() + 1);
+          return Future.succeededFuture();
+        });
+    } catch (Exception e) {
+      LOGGER.warn("replayRecord:: Dead letter record at offset {} cannot be read", consumerRecord.offset(), e);
+      result.setFailed(result.getFailed() + 1);
+      return Future.succeededFuture();
+    }
+  }
+
+  private Future<Void> delay(long nanos) {
+    long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+    if (millis <= 0) {
+      return Future.succeededFuture();
+    }
+    Promise<Void> promise = Promise.promise();
+    vertx.setTimer(millis, id -> promise.complete());
+    return promise.future();
+  }
+}
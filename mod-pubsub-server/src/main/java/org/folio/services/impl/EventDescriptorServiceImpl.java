@@ -11,6 +11,8 @@ import org.folio.rest.jaxrs.model.MessagingModule;
 import org.folio.rest.util.MessagingModuleFilter;
 import org.folio.services.EventDescriptorService;
 import org.folio.services.MessagingModuleService;
+import org.folio.services.cache.EventDescriptorCache;
+import org.folio.services.util.PartitionKeyResolver;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -32,11 +34,14 @@ public class EventDescriptorServiceImpl implements EventDescriptorService {
 
   private EventDescriptorDao eventDescriptorDao;
   private MessagingModuleService messagingModuleService;
+  private EventDescriptorCache eventDescriptorCache;
 
   public EventDescriptorServiceImpl(@Autowired EventDescriptorDao eventDescriptorDao,
-                                    @Autowired MessagingModuleService messagingModuleService) {
+                                    @Autowired MessagingModuleService messagingModuleService,
+                                    @Autowired EventDescriptorCache eventDescriptorCache) {
     this.eventDescriptorDao = eventDescriptorDao;
     this.messagingModuleService = messagingModuleService;
+    this.eventDescriptorCache = eventDescriptorCache;
   }
 
   @Override
@@ -57,6 +62,10 @@ public class EventDescriptorServiceImpl implements EventDescriptorService {
     if (eventDescriptor.getTmp() == null) {
       eventDescriptor.setTmp(false);
     }
+    Future<Void> validation = validate(eventDescriptor);
+    if (validation.failed()) {
+      return validation.mapEmpty();
+    }
     return eventDescriptorDao.getByEventType(eventDescriptor.getEventType())
       .compose(eventDescriptorOptional -> {
         if (eventDescriptorOptional.isPresent()) {
@@ -74,12 +83,15 @@ public class EventDescriptorServiceImpl implements EventDescriptorService {
         } else {
           return eventDescriptorDao.save(eventDescriptor);
         }
-      });
+      })
+      .onSuccess(ar -> eventDescriptorCache.invalidate(eventDescriptor.getEventType()));
   }
 
   @Override
   public Future<EventDescriptor> update(EventDescriptor eventDescriptor) {
-    return eventDescriptorDao.update(eventDescriptor);
+    return validate(eventDescriptor)
+      .compose(v -> eventDescriptorDao.update(eventDescriptor))
+      .onSuccess(ar -> eventDescriptorCache.invalidate(eventDescriptor.getEventType()));
   }
 
   @Override
@@ -98,7 +110,18 @@ public class EventDescriptorServiceImpl implements EventDescriptorService {
             }
           })
         )
-        .orElse(Future.failedFuture(new NotFoundException(format("EventDescriptor with event type name '%s' was not found", eventType)))));
+        .orElse(Future.failedFuture(new NotFoundException(format("EventDescriptor with event type name '%s' was not found", eventType)))))
+      .onSuccess(ar -> eventDescriptorCache.invalidate(eventType));
+  }
+
+  private Future<Void> validate(EventDescriptor eventDescriptor) {
+    try {
+      PartitionKeyResolver.validate(eventDescriptor);
+      return Future.succeededFuture();
+    } catch (IllegalArgumentException e) {
+      return Future.failedFuture(new BadRequestException(
+        format("Invalid partition key of event descriptor for event type '%s': %s", eventDescriptor.getEventType(), e.getMessage())));
+    }
   }
 
 }
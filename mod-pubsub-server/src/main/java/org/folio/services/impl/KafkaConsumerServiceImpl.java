@@ -5,37 +5,60 @@ import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
-import io.vertx.core.json.JsonObject;
+import io.vertx.kafka.client.common.TopicPartition;
 import io.vertx.kafka.client.consumer.KafkaConsumer;
 import io.vertx.kafka.client.consumer.KafkaConsumerRecord;
+import io.vertx.kafka.client.consumer.OffsetAndMetadata;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.record.TimestampType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.HttpStatus;
+import org.folio.kafka.ConsumerGroupHandOver;
+import org.folio.kafka.DeliveryContexts;
+import org.folio.kafka.DeliveryWindow;
+import org.folio.kafka.EventRecordCodec;
 import org.folio.kafka.KafkaConfig;
+import org.folio.kafka.OffsetTracker;
 import org.folio.kafka.PubSubConfig;
 import org.folio.okapi.common.GenericCompositeFuture;
 import org.folio.rest.jaxrs.model.AuditMessage;
 import org.folio.rest.jaxrs.model.Event;
 import org.folio.rest.jaxrs.model.MessagingModule;
-import org.folio.rest.util.MessagingModuleFilter;
 import org.folio.rest.util.OkapiConnectionParams;
 import org.folio.rest.util.RestUtil;
+import org.folio.services.ClaimCheckService;
 import org.folio.services.ConsumerService;
 import org.folio.services.SecurityManager;
 import org.folio.services.audit.AuditService;
 import org.folio.services.cache.Cache;
+import org.folio.services.cache.MessagingModuleIndex;
+import org.folio.services.delivery.CircuitBreakerRegistry;
+import org.folio.services.delivery.DeadLetterPublisher;
+import org.folio.services.delivery.DeliveryLanes;
+import org.folio.services.delivery.DeliveryPayload;
+import org.folio.services.delivery.DeliveryRetry;
+import org.folio.services.delivery.DurableRetryQueue;
+import org.folio.services.delivery.RetryScheduler;
+import org.folio.services.metrics.PubSubMetrics;
+import org.folio.services.util.EventExpiration;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.ws.rs.NotFoundException;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -45,29 +68,84 @@ import static org.folio.rest.jaxrs.model.MessagingModule.ModuleRole.SUBSCRIBER;
 import static org.folio.rest.util.OkapiConnectionParams.USER_ID;
 import static org.folio.rest.util.RestUtil.doRequest;
 import static org.folio.services.util.AuditUtil.constructJsonAuditMessage;
-import static org.folio.services.util.MessagingModulesUtil.filter;
 
 @Component
 public class KafkaConsumerServiceImpl implements ConsumerService {
 
   private static final Logger LOGGER = LogManager.getLogger();
 
+  static final String IN_FLIGHT_GAUGE = "consume.in.flight";
+  static final String PAUSED_CONSUMERS_GAUGE = "consume.paused.consumers";
+  static final String PAUSED_COUNTER = "consume.paused";
+  static final String ACTIVE_LANES_GAUGE = "delivery.lanes.active";
+
   private Vertx vertx;
   private KafkaConfig kafkaConfig;
   private Cache cache;
   private AuditService auditService;
   private SecurityManager securityManager;
+  private ClaimCheckService claimCheckService;
+  private PubSubMetrics metrics;
+  private DeliveryContexts deliveryContexts;
+  private RetryScheduler retryScheduler;
+  private DeadLetterPublisher deadLetterPublisher;
+  private CircuitBreakerRegistry circuitBreakers;
+  private DurableRetryQueue durableRetryQueue;
+  private ConsumerGroupHandOver groupHandOver;
+  private final Map<String, DeliveryWindow> deliveryWindows = new ConcurrentHashMap<>();
+  private final Set<String> multiplexedTopics = new HashSet<>();
+  private final DeliveryLanes receiveOrder = new DeliveryLanes();
+  private final DeliveryLanes deliveryLanes = new DeliveryLanes();
+  private Future<List<KafkaConsumer<String, Buffer>>> consumerPool;
   private static final int RETRY_NUMBER = Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.delivery.retry.number", "5"));
+  private static final boolean EVENT_TTL_ENABLED =
+    Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.getOrDefault("event.ttl.enabled", "true"));
+  private static final long COMMIT_INTERVAL_MS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("kafka.consumer.commit.interval.ms", "1000"));
+  private static final int MAX_IN_FLIGHT =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("kafka.consumer.max.in.flight", "100"));
+  private static final int RESUME_IN_FLIGHT =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("kafka.consumer.resume.in.flight", String.valueOf(MAX_IN_FLIGHT / 2)));
+  private static final boolean MULTIPLEXED =
+    Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.getOrDefault("kafka.consumer.multiplexed", "false"));
+  private static final int POOL_SIZE =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("kafka.consumer.pool.size", "2"));
+  private static final int DEFAULT_LANES =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.delivery.lanes.default", "0"));
+  private static final int MAX_LANES =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("pubsub.delivery.lanes.max", "64"));
 
   public KafkaConsumerServiceImpl(@Autowired Vertx vertx,
                                   @Autowired KafkaConfig kafkaConfig,
                                   @Autowired SecurityManager securityManager,
-                                  @Autowired Cache cache) {
+                                  @Autowired Cache cache,
+                                  @Autowired ClaimCheckService claimCheckService,
+                                  @Autowired PubSubMetrics metrics,
+                                  @Autowired DeliveryContexts deliveryContexts,
+                                  @Autowired RetryScheduler retryScheduler,
+                                  @Autowired DeadLetterPublisher deadLetterPublisher,
+                                  @Autowired CircuitBreakerRegistry circuitBreakers,
+                                  @Autowired DurableRetryQueue durableRetryQueue,
+                                  @Autowired ConsumerGroupHandOver groupHandOver) {
     this.vertx = vertx;
     this.kafkaConfig = kafkaConfig;
     this.cache = cache;
     this.securityManager = securityManager;
+    this.claimCheckService = claimCheckService;
+    this.metrics = metrics;
+    this.deliveryContexts = deliveryContexts;
+    this.retryScheduler = retryScheduler;
+    this.deadLetterPublisher = deadLetterPublisher;
+    this.circuitBreakers = circuitBreakers;
+    this.durableRetryQueue = durableRetryQueue;
+    this.groupHandOver = groupHandOver;
     this.auditService = AuditService.createProxy(vertx);
+    durableRetryQueue.setRetryHandler(this::deliverStoredRetry);
+    metrics.registerGauge(IN_FLIGHT_GAUGE, () -> deliveryWindows.values().stream()
+      .mapToInt(DeliveryWindow::getInFlight).sum());
+    metrics.registerGauge(PAUSED_CONSUMERS_GAUGE, () -> deliveryWindows.values().stream()
+      .filter(DeliveryWindow::isPaused).count());
+    metrics.registerGauge(ACTIVE_LANES_GAUGE, deliveryLanes::size);
   }
 
   @Override
@@ -83,13 +161,18 @@ public class KafkaConsumerServiceImpl implements ConsumerService {
       cache.setKnownOkapiParams(params.getTenantId(), params);
     }
 
+    if (MULTIPLEXED) {
+      return subscribeMultiplexed(topics, consumerProps);
+    }
+
     List<Future<Void>> futures = topics.stream()
       .filter(topic -> !cache.containsSubscription(topic))
       .map(topic -> {
-        consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, topic);
-        return createKafkaConsumer(vertx, consumerProps)
-          .handler(getEventReceivedHandler())
-          .subscribe(topic)
+        Map<String, String> topicConsumerProps = new HashMap<>(consumerProps);
+        topicConsumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, topic);
+        return groupHandOver.toTopicGroup(topic)
+          .compose(v -> createSubscriberConsumer(topic, topicConsumerProps))
+          .compose(consumer -> consumer.subscribe(topic))
           .onSuccess(result -> {
             cache.addSubscription(topic);
             LOGGER.info(format("Subscribed to topic {%s}", topic));
@@ -101,70 +184,520 @@ public class KafkaConsumerServiceImpl implements ConsumerService {
     return GenericCompositeFuture.all(futures).mapEmpty();
   }
 
-  protected KafkaConsumer<String, String> createKafkaConsumer(Vertx vertx,
+  /**
+   * Subscribes the fixed pool of {@code kafka.consumer.pool.size} consumers to the topics in addition to the topics
+   * they already read. All consumers of the pool belong to the same group and subscribe to the same topics,
+   * so Kafka spreads partitions of all tenants and event types among them, records are routed to subscribers
+   * by the tenant and event type of the event, so the number of consumers does not depend on the number of topics.
+   */
+  private Future<Void> subscribeMultiplexed(Set<String> topics, Map<String, String> consumerProps) {
+    Set<String> newTopics = topics.stream()
+      .filter(topic -> !cache.containsSubscription(topic))
+      .collect(Collectors.toSet());
+    if (newTopics.isEmpty()) {
+      return Future.succeededFuture();
+    }
+    Future<Void> subscribed;
+    // subscriptions replace each other, so they are issued in the same order the topic set grows
+    synchronized (multiplexedTopics) {
+      multiplexedTopics.addAll(newTopics);
+      Set<String> allTopics = Set.copyOf(multiplexedTopics);
+      subscribed = getConsumerPool(consumerProps)
+        .compose(consumers -> GenericCompositeFuture.all(consumers.stream()
+          .map(consumer -> consumer.subscribe(allTopics))
+          .toList()))
+        .mapEmpty();
+    }
+    return subscribed
+      .onSuccess(result -> {
+        newTopics.forEach(cache::addSubscription);
+        LOGGER.info("subscribeMultiplexed:: Subscribed to topics {}", newTopics);
+      })
+      .onFailure(e -> LOGGER.error("subscribeMultiplexed:: Could not subscribe to some of the topics {}", newTopics, e))
+      .mapEmpty();
+  }
+
+  private Future<List<KafkaConsumer<String, Buffer>>> getConsumerPool(Map<String, String> consumerProps) {
+    if (consumerPool != null) {
+      return consumerPool;
+    }
+    consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, PubSubConfig.getMultiplexedGroupId(kafkaConfig.getEnvId()));
+    List<Future<KafkaConsumer<String, Buffer>>> consumers = new ArrayList<>();
+    // offsets of the per-topic groups are handed over before the pool joins the group, Kafka rejects them afterwards
+    Future<List<KafkaConsumer<String, Buffer>>> pool = groupHandOver.toMultiplexedGroup()
+      .compose(handedOver -> {
+        for (int i = 0; i < Math.max(1, POOL_SIZE); i++) {
+          consumers.add(createSubscriberConsumer("pool-" + i, consumerProps));
+        }
+        return GenericCompositeFuture.all(consumers);
+      })
+      .map(v -> consumers.stream().map(Future::result).toList());
+    consumerPool = pool;
+    pool.onFailure(e -> {
+      synchronized (multiplexedTopics) {
+        if (consumerPool == pool) {
+          consumerPool = null;
+        }
+      }
+    });
+    return pool;
+  }
+
+  /**
+   * Creates consumer which delivers received events to subscribers, tracks offsets of delivered records
+   * and limits the number of records in flight. The consumer is created on the context of one of the deployed
+   * consumer verticle instances, so records and deliveries of different consumers are handled on different event loops.
+   *
+   * @param name          consumer name used in metrics and logs
+   * @param consumerProps consumer properties
+   * @return future with consumer which is not subscribed to any topic yet
+   */
+  private Future<KafkaConsumer<String, Buffer>> createSubscriberConsumer(String name, Map<String, String> consumerProps) {
+    Map<String, String> props = new HashMap<>(consumerProps);
+    return deliveryContexts.execute(() -> newSubscriberConsumer(name, props));
+  }
+
+  private KafkaConsumer<String, Buffer> newSubscriberConsumer(String name, Map<String, String> consumerProps) {
+    KafkaConsumer<String, Buffer> consumer = createKafkaConsumer(vertx, consumerProps);
+    OffsetTracker offsetTracker = new OffsetTracker();
+    consumer.partitionsRevokedHandler(partitions -> {
+      commitOffsets(consumer, offsetTracker);
+      offsetTracker.revoked(partitions);
+    });
+    DeliveryWindow deliveryWindow = createDeliveryWindow(name, consumer);
+    consumer.handler(getEventReceivedHandler(offsetTracker, deliveryWindow));
+    vertx.setPeriodic(COMMIT_INTERVAL_MS, timerId -> commitOffsets(consumer, offsetTracker));
+    return consumer;
+  }
+
+  protected KafkaConsumer<String, Buffer> createKafkaConsumer(Vertx vertx,
     Map<String, String> consumerProps) {
 
     return KafkaConsumer.create(vertx, consumerProps);
   }
 
-  private Handler<KafkaConsumerRecord<String, String>> getEventReceivedHandler() {
+  /**
+   * Creates window of records in flight of the consumer, the consumer is paused while subscribers
+   * have not finished delivery of {@code kafka.consumer.max.in.flight} records
+   */
+  private DeliveryWindow createDeliveryWindow(String name, KafkaConsumer<String, Buffer> consumer) {
+    DeliveryWindow deliveryWindow = new DeliveryWindow(MAX_IN_FLIGHT, RESUME_IN_FLIGHT,
+      () -> {
+        LOGGER.info("createDeliveryWindow:: {} records of consumer {} are in flight, pausing consumer", MAX_IN_FLIGHT, name);
+        metrics.increment(PAUSED_COUNTER);
+        consumer.pause();
+      },
+      () -> {
+        LOGGER.info("createDeliveryWindow:: Resuming consumer {}", name);
+        consumer.resume();
+      });
+    deliveryWindows.put(name, deliveryWindow);
+    metrics.registerGauge(IN_FLIGHT_GAUGE + "." + name, deliveryWindow::getInFlight);
+    return deliveryWindow;
+  }
+
+  /**
+   * Commits offsets of records which delivery is finished, offsets of records still being delivered are committed
+   * by one of the next commits, so these records are consumed again if the module stops before delivering them
+   */
+  private void commitOffsets(KafkaConsumer<String, Buffer> consumer, OffsetTracker offsetTracker) {
+    Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.getCommittableOffsets();
+    if (offsets.isEmpty()) {
+      return;
+    }
+    consumer.commit(offsets)
+      .onSuccess(offsetTracker::committed)
+      .onFailure(e -> LOGGER.warn("commitOffsets:: Failed to commit offsets {}", offsets, e));
+  }
+
+  private Handler<KafkaConsumerRecord<String, Buffer>> getEventReceivedHandler(OffsetTracker offsetTracker,
+                                                                                DeliveryWindow deliveryWindow) {
     return consumerRecord -> {
-      try {
-        String value = consumerRecord.value();
-        Event event = new JsonObject(value).mapTo(Event.class);
-        String tenantId = event.getEventMetadata().getTenantId();
-        if (StringUtils.isBlank(tenantId)) {
-          LOGGER.error("Kafka record does not contain a tenant id. Event ID {}, published by {}",
-            event.getId(), event.getEventMetadata().getPublishedBy());
-          return;
-        }
-        LOGGER.info("Received {} event with id '{}'", event.getEventType(), event.getId());
-        auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.RECEIVED));
-        OkapiConnectionParams knownOkapiParams = cache.getKnownOkapiParams(tenantId);
-        if (knownOkapiParams == null) {
-          LOGGER.error("Could not find OkapiConnectionParams for tenantId={}", tenantId);
-          return;
-        }
-        deliverEvent(event, knownOkapiParams);
-      } catch (Exception e) {
-        LOGGER.error("Error reading event value", e);
-      }
+      offsetTracker.received(consumerRecord.topic(), consumerRecord.partition(), consumerRecord.offset());
+      deliveryWindow.acquire();
+      processRecord(consumerRecord)
+        .onComplete(ar -> {
+          deliveryWindow.release();
+          offsetTracker.processed(consumerRecord.topic(), consumerRecord.partition(), consumerRecord.offset());
+        });
     };
   }
 
+  /**
+   * Delivers event of the Kafka record to subscribers
+   *
+   * @param consumerRecord Kafka record
+   * @return future completed when the record is processed: delivered, dead-lettered, skipped or its retries are stored
+   * in the durable retry queue, the offset of the record is not committed before, so that an event which retry is
+   * kept only in memory is consumed again if the module stops
+   */
+  private Future<Void> processRecord(KafkaConsumerRecord<String, Buffer> consumerRecord) {
+    DeliveryLanes.Ticket ticket = DeliveryLanes.Ticket.NONE;
+    try {
+      EventRecordCodec.EventRecord eventRecord = EventRecordCodec.decode(consumerRecord);
+      Event event = eventRecord.getEvent();
+      String tenantId = event.getEventMetadata().getTenantId();
+      if (StringUtils.isBlank(tenantId)) {
+        LOGGER.error("Kafka record does not contain a tenant id. Event ID {}, published by {}",
+          event.getId(), event.getEventMetadata().getPublishedBy());
+        return Future.succeededFuture();
+      }
+      if (EVENT_TTL_ENABLED && isExpired(event, consumerRecord)) {
+        skipExpiredEvent(event, eventRecord.getPayloadReference(), tenantId);
+        return Future.succeededFuture();
+      }
+      LOGGER.info("Received {} event with id '{}'", event.getEventType(), event.getId());
+      auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.RECEIVED));
+      OkapiConnectionParams knownOkapiParams = cache.getKnownOkapiParams(tenantId);
+      if (knownOkapiParams == null) {
+        LOGGER.error("Could not find OkapiConnectionParams for tenantId={}", tenantId);
+        return Future.succeededFuture();
+      }
+      DeliveryLanes.Ticket reserved = reserveTicket(tenantId, event, consumerRecord.key());
+      ticket = reserved;
+      Future<Void> processed = eventRecord.getPayloadReference() != null
+        ? deliverClaimedEvent(event, eventRecord.getPayloadReference(), reserved, knownOkapiParams)
+        : deliverEvent(event, DeliveryPayload.inline(eventRecord.getPayload()), reserved, knownOkapiParams);
+      return processed.onComplete(ar -> reserved.release());
+    } catch (Exception e) {
+      ticket.release();
+      LOGGER.error("Error reading event value", e);
+      return Future.succeededFuture();
+    }
+  }
+
+  /**
+   * Reserves the receive-order turn of the event among events of the same tenant, event type and ordering key,
+   * so that events are passed to delivery lanes in the order they are received although subscribers lookup
+   * and payload loading are asynchronous. The ordering key is the record key, which is the partition key
+   * of the event type, or the correlationId if the record has no key.
+   *
+   * @return ticket, {@link DeliveryLanes.Ticket#NONE} if the event has no ordering key
+   */
+  private DeliveryLanes.Ticket reserveTicket(String tenantId, Event event, String recordKey) {
+    String key = StringUtils.isNotBlank(recordKey) ? recordKey : event.getEventMetadata().getCorrelationId();
+    if (MAX_LANES <= 0 || StringUtils.isBlank(key)) {
+      return DeliveryLanes.Ticket.NONE;
+    }
+    return receiveOrder.reserve(new OrderingId(tenantId, event.getEventType(), key), key);
+  }
+
+  /**
+   * Checks if event TTL has elapsed. If event has no publishedDate, it is set to the Kafka record timestamp,
+   * so that the expiration can be checked again before each delivery retry.
+   */
+  private boolean isExpired(Event event, KafkaConsumerRecord<String, Buffer> consumerRecord) {
+    if (event.getEventMetadata().getPublishedDate() == null
+      && consumerRecord.timestampType() != TimestampType.NO_TIMESTAMP_TYPE && consumerRecord.timestamp() > 0) {
+      event.getEventMetadata().setPublishedDate(new Date(consumerRecord.timestamp()));
+    }
+    return EventExpiration.isExpired(event, 0, System.currentTimeMillis());
+  }
+
+  private void skipExpiredEvent(Event event, String payloadReference, String tenantId) {
+    String message = format("%s event with id '%s' expired, TTL of %s minutes elapsed since it was published at %s",
+      event.getEventType(), event.getId(), event.getEventMetadata().getEventTTL(), event.getEventMetadata().getPublishedDate());
+    LOGGER.info("skipExpiredEvent:: {}", message);
+    auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.EXPIRED, message));
+    if (payloadReference != null) {
+      claimCheckService.release(payloadReference, tenantId);
+    }
+  }
+
+  /**
+   * Delivers event which payload is stored in claim-check storage, retries use the already loaded payload.
+   * The payload is deleted from the storage once delivery to all subscribers is finished,
+   * unless a dead letter refers to it, then it is left to expire.
+   */
+  private Future<Void> deliverClaimedEvent(Event event, String payloadReference, DeliveryLanes.Ticket ticket,
+                                           OkapiConnectionParams params) {
+    return loadPayload(event, payloadReference, params.getTenantId())
+      .compose(payload -> deliverEvent(event, payload, ticket, params)
+        .onComplete(ar -> {
+          if (!payload.isRetained()) {
+            claimCheckService.release(payloadReference, params.getTenantId());
+          }
+        }));
+  }
+
+  private Future<DeliveryPayload> loadPayload(Event event, String payloadReference, String tenantId) {
+    return claimCheckService.fetch(payloadReference, tenantId)
+      .onFailure(e -> {
+        LOGGER.error("Payload of {} event with id '{}' cannot be loaded", event.getEventType(), event.getId(), e);
+        auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.REJECTED, e.getMessage()));
+      })
+      .map(content -> DeliveryPayload.claimed(content, payloadReference));
+  }
+
   protected Future<Void> deliverEvent(Event event, OkapiConnectionParams params) {
-    List<Future<RestUtil.WrappedResponse>> futureList = new ArrayList<>(); //NOSONAR
+    Buffer payload = event.getEventPayload() == null ? null : Buffer.buffer(event.getEventPayload());
+    return deliverEvent(event, DeliveryPayload.inline(payload), DeliveryLanes.Ticket.NONE, params);
+  }
+
+  /**
+   * Delivers event to all subscribers of the event type
+   *
+   * @param event   event, its payload is not used
+   * @param payload event payload sent to subscribers
+   * @param ticket  receive-order ticket of the event, delivery lanes are entered when its turn comes
+   * @param params  Okapi connection params
+   * @return future completed when delivery to all subscribers is finished
+   */
+  protected Future<Void> deliverEvent(Event event, DeliveryPayload payload, DeliveryLanes.Ticket ticket,
+                                      OkapiConnectionParams params) {
+    return deliverToSubscribers(event, payload, params, ticket,
+      index -> index.get(params.getTenantId(), event.getEventType(), SUBSCRIBER), Promise.promise());
+  }
+
+  /**
+   * Replays the event to the subscriber module through the same delivery path as received events,
+   * out of delivery lanes, as the event has left its order when it was dead-lettered
+   */
+  @Override
+  public Future<Void> redeliver(EventRecordCodec.EventRecord eventRecord, String subscriberModuleId,
+                                OkapiConnectionParams params) {
+    Event event = eventRecord.getEvent();
+    Promise<Void> attempted = Promise.promise();
+    Future<DeliveryPayload> loaded = eventRecord.getPayloadReference() == null
+      ? Future.succeededFuture(DeliveryPayload.inline(eventRecord.getPayload()))
+      : loadPayload(event, eventRecord.getPayloadReference(), params.getTenantId());
+    loaded
+      .onFailure(attempted::tryFail)
+      .onSuccess(payload -> deliverToSubscribers(event, payload, params, DeliveryLanes.Ticket.NONE,
+        index -> index.get(params.getTenantId(), event.getEventType(), SUBSCRIBER, subscriberModuleId), attempted));
+    return attempted.future();
+  }
+
+  /**
+   * Delivers event to the subscribers found by the lookup
+   *
+   * @param attempted promise completed if the first delivery attempt delivered the event to all subscribers,
+   *                  failed if any first attempt failed or was deferred, or if there are no subscribers
+   * @return future completed when delivery to all subscribers is finished
+   */
+  private Future<Void> deliverToSubscribers(Event event, DeliveryPayload payload, OkapiConnectionParams params,
+                                            DeliveryLanes.Ticket ticket,
+                                            Function<MessagingModuleIndex, List<MessagingModule>> subscribersLookup,
+                                            Promise<Void> attempted) {
     Promise<Void> result = Promise.promise();
-    Map<MessagingModule, AtomicInteger> retry = new ConcurrentHashMap<>();
     return securityManager.getAccessToken(params)
       .onSuccess(params::setToken)
-      .compose(ar -> cache.getMessagingModules())
-      .map(messagingModules -> filter(messagingModules,
-        new MessagingModuleFilter()
-          .withTenantId(params.getTenantId())
-          .withModuleRole(SUBSCRIBER)
-          .withEventType(event.getEventType())))
-      .compose(subscribers -> {
-        if (isEmpty(subscribers)) {
-          String errorMessage = format("There is no SUBSCRIBERS registered for event type %s. Event %s will not be delivered", event.getEventType(), event.getId());
-          LOGGER.error(errorMessage);
-          auditService.saveAuditMessage(constructJsonAuditMessage(event, params.getTenantId(), AuditMessage.State.REJECTED, errorMessage));
-        } else {
-          subscribers
-            .forEach(subscriber -> {
-              retry.put(subscriber, new AtomicInteger(0));
-              LOGGER.info("Start delivering messages to subscriber {}", subscriber.getSubscriberCallback());
-              futureList.add(RestUtil.doRequest(params, subscriber.getSubscriberCallback(), HttpMethod.POST, event.getEventPayload())
-                .onComplete(getEventDeliveredHandler(event, params.getTenantId(), subscriber, params, retry)));
-            });
-        }
+      .compose(ar -> cache.getMessagingModuleIndex())
+      .map(subscribersLookup)
+      .compose(subscribers -> ticket.turn().map(v -> dispatch(event, payload, params, ticket.key(), subscribers, attempted)))
+      .onFailure(attempted::tryFail)
+      .eventually(v -> {
+        ticket.release();
+        return Future.succeededFuture();
+      })
+      .compose(futureList -> {
         GenericCompositeFuture.all(futureList)
           .onComplete(ar -> result.complete());
         return result.future();
       });
   }
 
-  protected Handler<AsyncResult<RestUtil.WrappedResponse>> getEventDeliveredHandler(Event event, String tenantId, MessagingModule subscriber, OkapiConnectionParams params, Map<MessagingModule, AtomicInteger> retry) {
+  /**
+   * Starts delivery of the event to subscribers, subscribers with delivery lanes receive events
+   * with the same ordering key one after another
+   *
+   * @param attempted promise completed with the outcome of the first delivery attempts to all subscribers
+   * @return futures of deliveries to each subscriber
+   */
+  private List<Future<Void>> dispatch(Event event, DeliveryPayload payload, OkapiConnectionParams params, String key,
+                                      List<MessagingModule> subscribers, Promise<Void> attempted) {
+    List<Future<Void>> futureList = new ArrayList<>(); //NOSONAR
+    if (isEmpty(subscribers)) {
+      String errorMessage = format("There is no SUBSCRIBERS registered for event type %s. Event %s will not be delivered", event.getEventType(), event.getId());
+      LOGGER.error(errorMessage);
+      auditService.saveAuditMessage(constructJsonAuditMessage(event, params.getTenantId(), AuditMessage.State.REJECTED, errorMessage));
+      attempted.tryFail(errorMessage);
+      return futureList;
+    }
+    Map<MessagingModule, AtomicInteger> retry = new ConcurrentHashMap<>();
+    List<Future<Void>> attempts = new ArrayList<>();
+    subscribers
+      .forEach(subscriber -> {
+        retry.put(subscriber, new AtomicInteger(0));
+        Promise<Void> attempt = Promise.promise();
+        attempts.add(attempt.future());
+        LOGGER.info("Start delivering messages to subscriber {}", subscriber.getSubscriberCallback());
+        int lanes = getDeliveryLanes(subscriber);
+        if (key == null || lanes == 0) {
+          futureList.add(sendToSubscriber(event, payload, subscriber, params, retry, false, attempt));
+        } else {
+          LaneId laneId = new LaneId(params.getTenantId(), subscriber.getModuleId(), subscriber.getSubscriberCallback(),
+            DeliveryLanes.getLaneIndex(key, lanes));
+          futureList.add(deliveryLanes.execute(laneId, () -> sendToSubscriber(event, payload, subscriber, params, retry, true, attempt)));
+        }
+      });
+    GenericCompositeFuture.join(attempts).<Void>mapEmpty().onComplete(attempted);
+    return futureList;
+  }
+
+  private static int getDeliveryLanes(MessagingModule subscriber) {
+    Integer lanes = subscriber.getDeliveryLanes();
+    int configured = lanes == null || lanes == 0 ? DEFAULT_LANES : lanes;
+    return Math.max(0, Math.min(configured, MAX_LANES));
+  }
+
+  /**
+   * Sends the event to the subscriber
+   *
+   * @param ordered if true, retries of the event are kept in memory instead of the durable retry queue,
+   *                so that the delivery lane is held by the event until it is finally delivered, dead-lettered or dropped
+   * @return future completed when the event is delivered, dead-lettered or dropped, or when its retry is stored
+   * in the durable retry queue
+   */
+  private Future<Void> sendToSubscriber(Event event, DeliveryPayload payload, MessagingModule subscriber,
+                                        OkapiConnectionParams params, Map<MessagingModule, AtomicInteger> retry,
+                                        boolean ordered) {
+    return sendToSubscriber(event, payload, subscriber, params, retry, ordered, Promise.promise());
+  }
+
+  /**
+   * Sends the event to the subscriber and reports the outcome of this attempt
+   *
+   * @param attempt promise completed if the event is delivered by this attempt, failed if the attempt fails
+   *                or the delivery is deferred, failed attempts are retried the same way
+   */
+  private Future<Void> sendToSubscriber(Event event, DeliveryPayload payload, MessagingModule subscriber,
+                                        OkapiConnectionParams params, Map<MessagingModule, AtomicInteger> retry,
+                                        boolean ordered, Promise<Void> attempt) {
+    String tenantId = params.getTenantId();
+    String callback = subscriber.getSubscriberCallback();
+    if (!circuitBreakers.tryAcquire(tenantId, callback)) {
+      attempt.tryFail(format("Circuit breaker of %s is open", callback));
+      return deferDelivery(event, payload, subscriber, params, retry, ordered);
+    }
+    return doRequest(params, callback, HttpMethod.POST, payload.getContent())
+      .onComplete(ar -> circuitBreakers.record(tenantId, callback, ar))
+      .onComplete(ar -> {
+        if (isDelivered(ar)) {
+          attempt.tryComplete();
+        } else {
+          attempt.tryFail(ar.failed() ? ar.cause()
+            : new IllegalStateException(format("Response status code of %s is %s", callback, ar.result().getCode())));
+        }
+      })
+      .transform(getEventDeliveredHandler(event, payload, tenantId, subscriber, params, retry, ordered));
+  }
+
+  private static boolean isDelivered(AsyncResult<RestUtil.WrappedResponse> ar) {
+    if (ar.failed()) {
+      return false;
+    }
+    int statusCode = ar.result().getCode();
+    return statusCode == HttpStatus.HTTP_OK.toInt()
+      || statusCode == HttpStatus.HTTP_CREATED.toInt()
+      || statusCode == HttpStatus.HTTP_NO_CONTENT.toInt();
+  }
+
+  /**
+   * Defers delivery while the circuit breaker of the subscriber callback is open. Unless the event is ordered,
+   * the delivery is stored in the durable retry queue to be retried once the breaker open duration elapses,
+   * so that a stored retry which meets the open breaker is stored again before it is deleted.
+   * Otherwise, or if it cannot be stored, the delivery waits in the deferred queue of the breaker.
+   */
+  private Future<Void> deferDelivery(Event event, DeliveryPayload payload, MessagingModule subscriber, OkapiConnectionParams params,
+                                     Map<MessagingModule, AtomicInteger> retry, boolean ordered) {
+    String callback = subscriber.getSubscriberCallback();
+    if (ordered || !durableRetryQueue.isEnabled()) {
+      return deferDeliveryInMemory(event, payload, subscriber, params, retry, ordered);
+    }
+    String reason = format("Circuit breaker of %s is open", callback);
+    return durableRetryQueue.enqueue(event, payload, subscriber, params.getTenantId(), retry.get(subscriber).get(), reason,
+        circuitBreakers.getOpenDurationMs())
+      .onSuccess(v -> LOGGER.info("deferDelivery:: {}, delivery of {} event with id '{}' is stored for retry",
+        reason, event.getEventType(), event.getId()))
+      .recover(e -> {
+        LOGGER.warn("deferDelivery:: Deferred delivery of {} event with id '{}' to {} cannot be stored, it is kept in memory",
+          event.getEventType(), event.getId(), callback, e);
+        return deferDeliveryInMemory(event, payload, subscriber, params, retry, false);
+      });
+  }
+
+  private Future<Void> deferDeliveryInMemory(Event event, DeliveryPayload payload, MessagingModule subscriber, OkapiConnectionParams params,
+                                             Map<MessagingModule, AtomicInteger> retry, boolean ordered) {
+    String callback = subscriber.getSubscriberCallback();
+    Promise<Void> delivered = Promise.promise();
+    if (circuitBreakers.defer(params.getTenantId(), callback,
+      () -> resendToSubscriber(event, payload, subscriber, params, retry, ordered).onComplete(delivered))) {
+      LOGGER.info("deferDeliveryInMemory:: Circuit breaker of {} is open, delivery of {} event with id '{}' is deferred",
+        callback, event.getEventType(), event.getId());
+      // deferred delivery is kept in memory, so the event is held until it is finished
+      return delivered.future();
+    }
+    String reason = format("Circuit breaker of %s is open and too many deliveries are deferred", callback);
+    LOGGER.warn("deferDeliveryInMemory:: {}, {} event with id '{}' is dead-lettered", reason, event.getEventType(), event.getId());
+    return deadLetter(event, payload, subscriber, params, retry, reason, ordered);
+  }
+
+  private Future<Void> resendToSubscriber(Event event, DeliveryPayload payload, MessagingModule subscriber, OkapiConnectionParams params,
+                                          Map<MessagingModule, AtomicInteger> retry, boolean ordered) {
+    if (isExpiredBeforeRetry(event, subscriber, params)) {
+      return Future.succeededFuture();
+    }
+    return securityManager.getAccessToken(params)
+      .onSuccess(params::setToken)
+      .compose(v -> sendToSubscriber(event, payload, subscriber, params, retry, ordered));
+  }
+
+  /**
+   * Delivers retry loaded from the durable retry queue, the retry is dropped if the subscriber is no longer registered.
+   * Retries stored before a restart are delivered with Okapi url of the module configuration, as done for
+   * subscribers initialized on startup, since no request of the tenant may have been received since then
+   */
+  private Future<Void> deliverStoredRetry(DeliveryRetry storedRetry) {
+    String tenantId = storedRetry.tenantId();
+    OkapiConnectionParams params = cache.getKnownOkapiParams(tenantId);
+    if (params == null) {
+      params = new OkapiConnectionParams(vertx);
+      params.setOkapiUrl(kafkaConfig.getOkapiUrl());
+      params.setTenantId(tenantId);
+      params.setHeaders(new HashMap<>());
+    }
+    OkapiConnectionParams retryParams = params;
+    Event event = storedRetry.event();
+    return cache.getMessagingModuleIndex()
+      .map(index -> index.get(tenantId, event.getEventType(), SUBSCRIBER, storedRetry.subscriberModuleId()).stream()
+        .filter(module -> storedRetry.subscriberCallback().equals(module.getSubscriberCallback()))
+        .findFirst()
+        .orElse(null))
+      .compose(subscriber -> {
+        if (subscriber == null) {
+          LOGGER.info("deliverStoredRetry:: Subscriber {} of {} event with id '{}' is no longer registered, retry is dropped",
+            storedRetry.subscriberModuleId(), event.getEventType(), event.getId());
+          return Future.succeededFuture();
+        }
+        Map<MessagingModule, AtomicInteger> retry = new ConcurrentHashMap<>();
+        retry.put(subscriber, new AtomicInteger(storedRetry.attempt()));
+        return loadStoredPayload(storedRetry)
+          .compose(payload -> payload == null ? Future.<Void>succeededFuture()
+            : resendToSubscriber(event, payload, subscriber, retryParams, retry, false));
+      });
+  }
+
+  /**
+   * @return future with payload of the stored retry or with null if the claim-checked payload no longer exists
+   */
+  private Future<DeliveryPayload> loadStoredPayload(DeliveryRetry storedRetry) {
+    if (storedRetry.payloadReference() == null) {
+      Buffer payload = storedRetry.payload() == null ? null : Buffer.buffer(storedRetry.payload());
+      return Future.succeededFuture(DeliveryPayload.inline(payload));
+    }
+    return loadPayload(storedRetry.event(), storedRetry.payloadReference(), storedRetry.tenantId())
+      .recover(e -> {
+        if (e instanceof NotFoundException) {
+          LOGGER.warn("loadStoredPayload:: Payload of {} event with id '{}' no longer exists, retry is dropped",
+            storedRetry.event().getEventType(), storedRetry.event().getId());
+          return Future.succeededFuture();
+        }
+        return Future.failedFuture(e);
+      });
+  }
+
+  protected Function<AsyncResult<RestUtil.WrappedResponse>, Future<Void>> getEventDeliveredHandler(Event event, DeliveryPayload payload, String tenantId, MessagingModule subscriber, OkapiConnectionParams params, Map<MessagingModule, AtomicInteger> retry, boolean ordered) {
     retry.get(subscriber).incrementAndGet();
     return ar -> {
       LOGGER.info("Delivering was complete. Checking for response...");
@@ -172,38 +705,109 @@ public class KafkaConsumerServiceImpl implements ConsumerService {
         String errorMessage = format("%s event with id '%s' was not delivered to %s", event.getEventType(), event.getId(), subscriber.getSubscriberCallback());
         LOGGER.error(errorMessage, ar.cause());
         auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.REJECTED, errorMessage));
-        retryDelivery(event, subscriber, params, retry);
-      } else {
-        int statusCode = ar.result().getCode();
-        if (statusCode != HttpStatus.HTTP_OK.toInt()
-          && statusCode != HttpStatus.HTTP_CREATED.toInt()
-          && statusCode != HttpStatus.HTTP_NO_CONTENT.toInt()) {
-
-          String error = format("Error delivering %s event with id '%s' to %s, response status code is %s, %s",
-            event.getEventType(), event.getId(), subscriber.getSubscriberCallback(), statusCode, ar.result().getResponse().statusMessage());
-          LOGGER.error(error);
-          auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.REJECTED, error));
-          if (statusCode >= 400 && statusCode < 500) {
-            LOGGER.info("Invalidating token for tenant {}", tenantId);
-            securityManager.invalidateToken(tenantId);
-            params.getHeaders().remove(USER_ID);
-          }
-          retryDelivery(event, subscriber, params, retry);
-        } else {
-          LOGGER.info("Delivered {} event with id '{}' to {}", event.getEventType(), event.getId(), subscriber.getSubscriberCallback());
-          auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.DELIVERED));
+        return retryDelivery(event, payload, subscriber, params, retry, errorMessage, ordered);
+      }
+      int statusCode = ar.result().getCode();
+      if (!isDelivered(ar)) {
+        String error = format("Error delivering %s event with id '%s' to %s, response status code is %s, %s",
+          event.getEventType(), event.getId(), subscriber.getSubscriberCallback(), statusCode, ar.result().getResponse().statusMessage());
+        LOGGER.error(error);
+        auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.REJECTED, error));
+        if (statusCode >= 400 && statusCode < 500) {
+          LOGGER.info("Invalidating token for tenant {}", tenantId);
+          securityManager.invalidateToken(tenantId);
+          params.getHeaders().remove(USER_ID);
         }
+        return retryDelivery(event, payload, subscriber, params, retry, error, ordered);
       }
+      LOGGER.info("Delivered {} event with id '{}' to {}", event.getEventType(), event.getId(), subscriber.getSubscriberCallback());
+      auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.DELIVERED));
+      return Future.succeededFuture();
     };
   }
 
-  private void retryDelivery(Event event, MessagingModule subscriber, OkapiConnectionParams params, Map<MessagingModule, AtomicInteger> retry) {
-    if (retry.get(subscriber).get() <= RETRY_NUMBER) {
-      LOGGER.info("Retry to deliver event {} event with id '{}' to {}", event.getEventType(), event.getId(), subscriber.getSubscriberCallback());
-      securityManager.getAccessToken(params)
-        .onSuccess(params::setToken)
-        .compose(v -> doRequest(params, subscriber.getSubscriberCallback(), HttpMethod.POST, event.getEventPayload())
-          .onComplete(getEventDeliveredHandler(event, params.getTenantId(), subscriber, params, retry)));
+  /**
+   * Schedules the next delivery attempt or sends the event to the dead letter topic if all attempts are made
+   *
+   * @return future completed when the retry is stored or the event is dead-lettered,
+   * or when the retry is finished if it is kept in memory
+   */
+  private Future<Void> retryDelivery(Event event, DeliveryPayload payload, MessagingModule subscriber, OkapiConnectionParams params,
+                                     Map<MessagingModule, AtomicInteger> retry, String reason, boolean ordered) {
+    if (isExpiredBeforeRetry(event, subscriber, params)) {
+      return Future.succeededFuture();
     }
+    int attempt = retry.get(subscriber).get();
+    if (attempt > RETRY_NUMBER) {
+      return deadLetter(event, payload, subscriber, params, retry, reason, ordered);
+    }
+    long delay = retryScheduler.getBackoffDelay(attempt);
+    LOGGER.info("Retry to deliver event {} event with id '{}' to {} in {} ms", event.getEventType(), event.getId(), subscriber.getSubscriberCallback(), delay);
+    return storeRetry(event, payload, subscriber, params, retry, reason, delay, ordered);
+  }
+
+  /**
+   * Sends the event to the dead letter topic. If the dead letter cannot be written, delivery is retried once more
+   * instead and the event is dead-lettered again if that attempt fails, so that the event is not lost
+   * and its record is not completed before it is delivered, dead-lettered or its retry is stored.
+   */
+  private Future<Void> deadLetter(Event event, DeliveryPayload payload, MessagingModule subscriber, OkapiConnectionParams params,
+                                  Map<MessagingModule, AtomicInteger> retry, String reason, boolean ordered) {
+    int attempt = retry.get(subscriber).get();
+    return deadLetterPublisher.publish(event, payload, subscriber, params.getTenantId(), reason, attempt)
+      .recover(e -> {
+        long delay = retryScheduler.getBackoffDelay(attempt);
+        LOGGER.warn("deadLetter:: {} event with id '{}' cannot be dead-lettered, delivery to {} is retried in {} ms",
+          event.getEventType(), event.getId(), subscriber.getSubscriberCallback(), delay, e);
+        return storeRetry(event, payload, subscriber, params, retry, reason, delay, ordered);
+      });
+  }
+
+  /**
+   * Stores retry in the durable retry queue, retries of ordered events and retries which cannot be stored
+   * are kept in memory
+   */
+  private Future<Void> storeRetry(Event event, DeliveryPayload payload, MessagingModule subscriber, OkapiConnectionParams params,
+                                  Map<MessagingModule, AtomicInteger> retry, String reason, long delay, boolean ordered) {
+    if (ordered || !durableRetryQueue.isEnabled()) {
+      // stored retries are delivered out of the lane, so retries of ordered events stay in memory and hold the lane
+      return scheduleRetry(event, payload, subscriber, params, retry, delay, ordered);
+    }
+    return durableRetryQueue.enqueue(event, payload, subscriber, params.getTenantId(),
+        retry.get(subscriber).get(), reason, delay)
+      .recover(e -> {
+        LOGGER.warn("storeRetry:: Retry of {} event with id '{}' to {} cannot be stored, it is kept in memory",
+          event.getEventType(), event.getId(), subscriber.getSubscriberCallback(), e);
+        return scheduleRetry(event, payload, subscriber, params, retry, delay, false);
+      });
+  }
+
+  /**
+   * Schedules retry kept in memory
+   *
+   * @return future completed when the retry is finished, so that the event is held until then
+   */
+  private Future<Void> scheduleRetry(Event event, DeliveryPayload payload, MessagingModule subscriber, OkapiConnectionParams params,
+                                     Map<MessagingModule, AtomicInteger> retry, long delay, boolean ordered) {
+    Promise<Void> retried = Promise.promise();
+    retryScheduler.schedule(delay, () -> resendToSubscriber(event, payload, subscriber, params, retry, ordered).onComplete(retried));
+    return retried.future();
+  }
+
+  private boolean isExpiredBeforeRetry(Event event, MessagingModule subscriber, OkapiConnectionParams params) {
+    if (EVENT_TTL_ENABLED && EventExpiration.isExpired(event, 0, System.currentTimeMillis())) {
+      String message = format("%s event with id '%s' expired, delivery to %s is not retried",
+        event.getEventType(), event.getId(), subscriber.getSubscriberCallback());
+      LOGGER.info("retryDelivery:: {}", message);
+      auditService.saveAuditMessage(constructJsonAuditMessage(event, params.getTenantId(), AuditMessage.State.EXPIRED, message));
+      return true;
+    }
+    return false;
+  }
+
+  private record OrderingId(String tenantId, String eventType, String key) {
+  }
+
+  private record LaneId(String tenantId, String moduleId, String callback, int index) {
   }
 }
@@ -1,30 +1,43 @@
 package org.folio.services.impl;
 
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.folio.okapi.common.GenericCompositeFuture;
 import org.folio.rest.jaxrs.model.AuditMessage;
 import org.folio.rest.jaxrs.model.Event;
-import org.folio.rest.util.MessagingModuleFilter;
+import org.folio.rest.jaxrs.model.PublishResult;
+import org.folio.rest.jaxrs.model.PublishResultCollection;
 import org.folio.services.PublisherService;
 import org.folio.services.audit.AuditService;
 import org.folio.services.cache.Cache;
+import org.folio.services.metrics.PubSubMetrics;
 import org.folio.services.publish.PublishingService;
+import org.folio.services.publish.dedup.EventIdDeduplicator;
+import org.folio.services.ratelimit.PublishRateLimiter;
+import org.folio.services.util.EventExpiration;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.ws.rs.BadRequestException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 import static org.apache.commons.collections4.CollectionUtils.isEmpty;
 import static org.apache.logging.log4j.util.Strings.isNotEmpty;
 import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
 import static org.folio.rest.jaxrs.model.MessagingModule.ModuleRole.PUBLISHER;
+import static org.folio.services.metrics.PubSubMetrics.UNKNOWN_EVENT_TYPE;
 import static org.folio.services.util.AuditUtil.constructJsonAuditMessage;
 import static org.folio.services.util.AuditUtil.constructJsonAuditMessagePayload;
-import static org.folio.services.util.MessagingModulesUtil.filter;
 
 @Component
 public class KafkaPublisherServiceImpl implements PublisherService {
@@ -33,27 +46,177 @@ public class KafkaPublisherServiceImpl implements PublisherService {
 
   private static final boolean EVENT_PAYLOAD_AUDIT_ENABLED =
     Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.getOrDefault("event.payload.audit.enabled", "false"));
+  private static final boolean EVENT_TTL_CHECK_ON_PUBLISH =
+    Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.getOrDefault("event.ttl.check.on.publish", "false"));
+
+  static final String TOTAL_STAGE = "total";
+  static final String RATE_LIMIT_STAGE = "rate-limit";
+  static final String AUDIT_STAGE = "audit";
+  static final String VERIFY_STAGE = "verify";
 
   private Cache cache;
   private AuditService auditService;
   private PublishingService publishingService;
+  private EventIdDeduplicator deduplicator;
+  private PublishRateLimiter rateLimiter;
+  private PubSubMetrics metrics;
 
   public KafkaPublisherServiceImpl(@Autowired Vertx vertx,
                                    @Autowired Cache cache,
-                                   @Autowired PublishingService publishingService) {
+                                   @Autowired PublishingService publishingService,
+                                   @Autowired EventIdDeduplicator deduplicator,
+                                   @Autowired PublishRateLimiter rateLimiter,
+                                   @Autowired PubSubMetrics metrics) {
     this.cache = cache;
     this.auditService = AuditService.createProxy(vertx);
     this.publishingService = publishingService;
+    this.deduplicator = deduplicator;
+    this.rateLimiter = rateLimiter;
+    this.metrics = metrics;
   }
 
+  /**
+   * Publishes event if it is admitted by publish rate limits of the tenant.
+   * A rejected event is neither audited nor sent, so that a publisher exceeding its limit
+   * does not load the audit storage either.
+   */
   @Override
   public Future<Void> publishEvent(Event event, String tenantId) {
+    long start = System.nanoTime();
+    Promise<Void> publisherVerification = Promise.promise();
+    return admit(event, tenantId, publisherVerification.future())
+      .compose(v -> {
+        auditCreatedEvent(event, tenantId, publisherVerification.future());
+        return verify(event, tenantId, () -> verifyPublisher(event, tenantId))
+          .onComplete(publisherVerification);
+      })
+      .compose(ar -> send(event, tenantId))
+      .onComplete(ar -> {
+        publisherVerification.tryFail("Event was not admitted");
+        recordUnverifiedStage(TOTAL_STAGE, tenantId, event, publisherVerification.future(), start);
+      });
+  }
+
+  @Override
+  public Future<PublishResultCollection> publishEvents(List<Event> events, String tenantId) {
+    Map<String, Future<Void>> verifiedPublishers = new HashMap<>();
+    List<Future<PublishResult>> futures = new ArrayList<>();
+    for (Event event : events) {
+      long start = System.nanoTime();
+      String publisherKey = event.getEventMetadata().getPublishedBy() + "|" + event.getEventType();
+      Future<Void> publisherVerification = verifiedPublishers.computeIfAbsent(publisherKey,
+        key -> verify(event, tenantId, () -> checkPublisher(event.getEventMetadata().getPublishedBy(), event.getEventType(), tenantId)));
+
+      futures.add(admit(event, tenantId, publisherVerification)
+        .compose(admitted -> {
+          auditCreatedEvent(event, tenantId, publisherVerification);
+          return publisherVerification
+            .onFailure(e -> auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.REJECTED, e.getMessage())));
+        })
+        .compose(v -> send(event, tenantId))
+        .onComplete(ar -> recordUnverifiedStage(TOTAL_STAGE, tenantId, event, publisherVerification, start))
+        .map(v -> new PublishResult().withEventId(event.getId()).withStatus(PublishResult.Status.PUBLISHED))
+        .otherwise(e -> new PublishResult().withEventId(event.getId()).withStatus(PublishResult.Status.REJECTED)
+          .withErrorMessage(e.getMessage())));
+    }
+    return GenericCompositeFuture.all(futures)
+      .map(ar -> futures.stream().map(Future::result).collect(Collectors.toList()))
+      .map(results -> new PublishResultCollection()
+        .withPublishResults(results)
+        .withTotalRecords(results.size()));
+  }
+
+  /**
+   * Publishes events in one transaction once all of them are admitted by rate limits and their publishers are verified.
+   * Events already published within the deduplication window are excluded from the transaction,
+   * events being published by another request are awaited and included if that publish failed.
+   */
+  @Override
+  public Future<Void> publishEventsInTransaction(List<Event> events, String tenantId) {
+    long start = System.nanoTime();
+    Map<String, Future<Void>> verifiedPublishers = new HashMap<>();
+    List<Future<Void>> futures = new ArrayList<>();
+    List<Future<Void>> publisherVerifications = new ArrayList<>();
+    for (Event event : events) {
+      String publisherKey = event.getEventMetadata().getPublishedBy() + "|" + event.getEventType();
+      Future<Void> publisherVerification = verifiedPublishers.computeIfAbsent(publisherKey,
+        key -> verify(event, tenantId, () -> checkPublisher(event.getEventMetadata().getPublishedBy(), event.getEventType(), tenantId)));
+      publisherVerifications.add(publisherVerification);
+      futures.add(admit(event, tenantId, publisherVerification)
+        .compose(admitted -> {
+          auditCreatedEvent(event, tenantId, publisherVerification);
+          return publisherVerification;
+        }));
+    }
+    return GenericCompositeFuture.all(futures)
+      .recover(e -> {
+        String error = "Events group is rejected: " + e.getMessage();
+        events.forEach(event -> auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.REJECTED, error)));
+        return Future.failedFuture(e);
+      })
+      .compose(v -> deduplicator.publishOnce(tenantId, events, Event::getId,
+        newEvents -> publishingService.sendEventsInTransaction(newEvents, tenantId)))
+      .onComplete(ar -> {
+        for (int i = 0; i < events.size(); i++) {
+          recordUnverifiedStage(TOTAL_STAGE, tenantId, events.get(i), publisherVerifications.get(i), start);
+        }
+      });
+  }
+
+  /**
+   * Sends event unless event with the same id was already published within the deduplication window,
+   * a duplicate is acknowledged without sending. A duplicate of an event which is still being sent waits for
+   * the outcome and is sent again if sending failed, so that the publisher can retry.
+   */
+  private Future<Void> send(Event event, String tenantId) {
+    return deduplicator.publishOnce(tenantId, List.of(event), Event::getId, newEvents -> publishingService.sendEvent(event, tenantId));
+  }
+
+  /**
+   * Admits event for publishing. If {@code event.ttl.check.on.publish} is enabled, an event which TTL has already
+   * elapsed since its publishedDate is audited as EXPIRED and rejected, then publish rate limits are applied.
+   */
+  private Future<Void> admit(Event event, String tenantId, Future<Void> publisherVerification) {
+    if (EVENT_TTL_CHECK_ON_PUBLISH && EventExpiration.isExpired(event, System.currentTimeMillis(), System.currentTimeMillis())) {
+      String error = format("%s event with id '%s' expired, TTL of %s minutes elapsed since it was published at %s",
+        event.getEventType(), event.getId(), event.getEventMetadata().getEventTTL(), event.getEventMetadata().getPublishedDate());
+      LOGGER.warn("admit:: {}", error);
+      auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.EXPIRED, error));
+      return Future.failedFuture(new BadRequestException(error));
+    }
+    long start = System.nanoTime();
+    return rateLimiter.acquire(tenantId, event.getEventMetadata().getPublishedBy(), event.getEventType())
+      .onComplete(ar -> recordUnverifiedStage(RATE_LIMIT_STAGE, tenantId, event, publisherVerification, start));
+  }
+
+  private void auditCreatedEvent(Event event, String tenantId, Future<Void> publisherVerification) {
+    long start = System.nanoTime();
     if (EVENT_PAYLOAD_AUDIT_ENABLED) {
       saveAuditMessagePayload(event, tenantId);
     }
     auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.CREATED));
-    return verifyPublisher(event, tenantId)
-      .compose(ar -> publishingService.sendEvent(event, tenantId));
+    recordUnverifiedStage(AUDIT_STAGE, tenantId, event, publisherVerification, start);
+  }
+
+  private Future<Void> verify(Event event, String tenantId, Supplier<Future<Void>> verification) {
+    long start = System.nanoTime();
+    return verification.get()
+      .onComplete(ar -> metrics.recordStageLatency(VERIFY_STAGE, tenantId, getVerifiedEventType(event, ar), start));
+  }
+
+  /**
+   * Records duration of a stage which started before the publisher of the event was verified. The event type
+   * is supplied by the client, so the duration is tagged with it only if the publisher is verified,
+   * and with {@link PubSubMetrics#UNKNOWN_EVENT_TYPE} otherwise, to keep the number of histograms bounded.
+   */
+  private void recordUnverifiedStage(String stage, String tenantId, Event event, Future<Void> publisherVerification, long startNanos) {
+    long durationNanos = System.nanoTime() - startNanos;
+    publisherVerification.onComplete(ar ->
+      metrics.recordStageDuration(stage, tenantId, getVerifiedEventType(event, ar), durationNanos));
+  }
+
+  private static String getVerifiedEventType(Event event, AsyncResult<Void> publisherVerification) {
+    return publisherVerification.succeeded() ? event.getEventType() : UNKNOWN_EVENT_TYPE;
   }
 
   /**
@@ -64,23 +227,29 @@ public class KafkaPublisherServiceImpl implements PublisherService {
    * @return succeeded future if publisher verified, failed future otherwise
    */
   private Future<Void> verifyPublisher(Event event, String tenantId) {
-    return cache.getMessagingModules()
-      .map(messagingModules -> new ArrayList<>(filter(messagingModules,
-        new MessagingModuleFilter()
-          .withModuleId(event.getEventMetadata().getPublishedBy())
-          .withTenantId(tenantId)
-          .withModuleRole(PUBLISHER)
-          .withEventType(event.getEventType()))))
+    return checkPublisher(event.getEventMetadata().getPublishedBy(), event.getEventType(), tenantId)
+      .onFailure(e -> auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.REJECTED, e.getMessage())));
+  }
+
+  /**
+   * Checks if module is registered as publisher of the event type and event type is activated for the tenant
+   *
+   * @param moduleId  publisher module id
+   * @param eventType event type
+   * @param tenantId  tenant id
+   * @return succeeded future if publisher verified, failed future with {@link BadRequestException} otherwise
+   */
+  private Future<Void> checkPublisher(String moduleId, String eventType, String tenantId) {
+    return cache.getMessagingModuleIndex()
+      .map(index -> index.get(tenantId, eventType, PUBLISHER, moduleId))
       .compose(publishers -> {
         if (isEmpty(publishers)) {
-          String errorMessage = format("%s is not registered as PUBLISHER for event type %s", event.getEventMetadata().getPublishedBy(), event.getEventType());
+          String errorMessage = format("%s is not registered as PUBLISHER for event type %s", moduleId, eventType);
           LOGGER.error(errorMessage);
-          auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.REJECTED, errorMessage));
           return Future.failedFuture(new BadRequestException(errorMessage));
         } else if (Boolean.FALSE.equals(publishers.get(0).getActivated())) {
-          String error = format("Event type %s is not activated for tenant %s", event.getEventType(), tenantId);
+          String error = format("Event type %s is not activated for tenant %s", eventType, tenantId);
           LOGGER.error(error);
-          auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.REJECTED, error));
           return Future.failedFuture(new BadRequestException(error));
         }
         return Future.succeededFuture();
@@ -15,6 +15,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class KafkaTopicServiceImpl implements KafkaTopicService {
@@ -32,7 +33,9 @@ public class KafkaTopicServiceImpl implements KafkaTopicService {
   @Override
   public Future<Void> createTopics(List<String> eventTypes, String tenantId) {
     List<NewTopic> topics = eventTypes.stream()
-      .map(eventType -> new NewTopic(new PubSubConfig(kafkaConfig.getEnvId(), tenantId, eventType).getTopicName(), kafkaConfig.getNumberOfPartitions(), (short) kafkaConfig.getReplicationFactor()))
+      .map(eventType -> new PubSubConfig(kafkaConfig.getEnvId(), tenantId, eventType))
+      .flatMap(config -> Stream.of(config.getTopicName(), config.getDeadLetterTopicName()))
+      .map(topicName -> new NewTopic(topicName, kafkaConfig.getNumberOfPartitions(), (short) kafkaConfig.getReplicationFactor()))
       .collect(Collectors.toList());
     return kafkaAdminClient.createTopics(topics)
       .onSuccess(r -> LOGGER.info("Created topics: [{}]", StringUtils.join(eventTypes, ",")))
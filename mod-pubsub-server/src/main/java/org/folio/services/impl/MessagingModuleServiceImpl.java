@@ -30,6 +30,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.folio.rest.jaxrs.model.MessagingModule.ModuleRole.PUBLISHER;
@@ -132,9 +133,13 @@ public class MessagingModuleServiceImpl implements MessagingModuleService {
       return Future.succeededFuture();
     }
 
-    Map<String, String> subscriberCallbacksMap = subscriberDescriptor.getSubscriptionDefinitions().stream()
-      .collect(Collectors.toMap(SubscriptionDefinition::getEventType, SubscriptionDefinition::getCallbackAddress));
-    messagingModules.forEach(module -> module.setSubscriberCallback(subscriberCallbacksMap.get(module.getEventType())));
+    Map<String, SubscriptionDefinition> subscriptionDefinitionsMap = subscriberDescriptor.getSubscriptionDefinitions().stream()
+      .collect(Collectors.toMap(SubscriptionDefinition::getEventType, Function.identity()));
+    messagingModules.forEach(module -> {
+      SubscriptionDefinition subscriptionDefinition = subscriptionDefinitionsMap.get(module.getEventType());
+      module.setSubscriberCallback(subscriptionDefinition.getCallbackAddress());
+      module.setDeliveryLanes(subscriptionDefinition.getDeliveryLanes());
+    });
 
     return messagingModuleDao.save(messagingModules)
       .onSuccess(ar -> cache.invalidate())
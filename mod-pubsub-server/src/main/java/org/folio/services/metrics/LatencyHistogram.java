@@ -0,0 +1,129 @@
+package org.folio.services.metrics;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets in the manner of HdrHistogram.
+ * Each power-of-two range of nanoseconds is split into {@link #SUB_BUCKETS} linear sub-buckets,
+ * so a recorded value is placed into a bucket at most 1/{@value #SUB_BUCKETS} wider than the value.
+ * Recording is a couple of bit operations and an atomic increment, percentiles are computed on read.
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+  private static final double NANOS_PER_MS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+  void record(long nanos) {
+    long value = Math.max(0, nanos);
+    buckets.incrementAndGet(bucketIndex(value));
+    count.increment();
+    totalNanos.add(value);
+    maxNanos.accumulate(value);
+  }
+
+  long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * @param percentile percentile in range (0, 100]
+   * @return upper bound in nanoseconds of the bucket containing the percentile, 0 if nothing was recorded
+   */
+  long getPercentileNanos(double percentile) {
+    long[] counts = bucketCounts();
+    long total = 0;
+    for (long bucketCount : counts) {
+      total += bucketCount;
+    }
+    long rank = (long) Math.ceil(total * percentile / 100);
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank && seen > 0) {
+        return Math.min(bucketUpperBound(i), maxNanos.get());
+      }
+    }
+    return 0;
+  }
+
+  JsonObject toJson() {
+    long currentCount = count.sum();
+    return new JsonObject()
+      .put("count", currentCount)
+      .put("meanMs", currentCount == 0 ? 0 : totalNanos.sum() / NANOS_PER_MS / currentCount)
+      .put("p50Ms", getPercentileNanos(50) / NANOS_PER_MS)
+      .put("p90Ms", getPercentileNanos(90) / NANOS_PER_MS)
+      .put("p99Ms", getPercentileNanos(99) / NANOS_PER_MS)
+      .put("p999Ms", getPercentileNanos(99.9) / NANOS_PER_MS)
+      .put("maxMs", maxNanos.get() / NANOS_PER_MS);
+  }
+
+  /**
+   * Appends the histogram in Prometheus text exposition format, in seconds
+   *
+   * @param builder      output
+   * @param name         metric name without suffix
+   * @param labels       rendered labels without braces, may be empty
+   * @param boundsSeconds ascending upper bounds of exported buckets
+   */
+  void appendPrometheus(StringBuilder builder, String name, String labels, double[] boundsSeconds) {
+    long[] counts = bucketCounts();
+    String separator = labels.isEmpty() ? "" : ",";
+    long cumulative = 0;
+    int bucket = 0;
+    for (double bound : boundsSeconds) {
+      long boundNanos = (long) (bound * NANOS_PER_SECOND);
+      while (bucket < counts.length && bucketUpperBound(bucket) <= boundNanos) {
+        cumulative += counts[bucket++];
+      }
+      builder.append(name).append("_bucket{").append(labels).append(separator)
+        .append("le=\"").append(bound).append("\"} ").append(cumulative).append('\n');
+    }
+    while (bucket < counts.length) {
+      cumulative += counts[bucket++];
+    }
+    builder.append(name).append("_bucket{").append(labels).append(separator).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+    String braced = labels.isEmpty() ? "" : "{" + labels + "}";
+    builder.append(name).append("_sum").append(braced).append(' ').append(totalNanos.sum() / NANOS_PER_SECOND).append('\n');
+    builder.append(name).append("_count").append(braced).append(' ').append(cumulative).append('\n');
+  }
+
+  private long[] bucketCounts() {
+    long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets.get(i);
+    }
+    return counts;
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> magnitude) - SUB_BUCKETS;
+    return (magnitude + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long bucketUpperBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int magnitude = index / SUB_BUCKETS - 1;
+    long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+    return ((subBucket + 1) << magnitude) - 1;
+  }
+}
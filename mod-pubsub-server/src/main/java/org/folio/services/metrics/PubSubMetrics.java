@@ -0,0 +1,181 @@
+package org.folio.services.metrics;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * In-memory registry of pub-sub runtime metrics: counters, gauges and latency histograms.
+ * Latencies of publishing stages are additionally tagged by tenant and event type, the event type of
+ * an event whose publisher is not verified is replaced with {@link #UNKNOWN_EVENT_TYPE}.
+ * If {@code metrics.log.interval.ms} is set, a snapshot of all metrics is periodically logged,
+ * metrics are also exposed in Prometheus text format by {@link #toPrometheus()}.
+ */
+@Component
+public class PubSubMetrics {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final long LOG_INTERVAL_MS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("metrics.log.interval.ms", "0"));
+  private static final double[] PROMETHEUS_BUCKETS_SECONDS =
+    {0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+  public static final String STAGE_LATENCY = "publish.stage.latency";
+  public static final String UNKNOWN_EVENT_TYPE = "unknown";
+
+  private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+  private final Map<String, Supplier<Number>> gauges = new ConcurrentHashMap<>();
+  private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+  private final Map<StageKey, LatencyHistogram> stageLatencies = new ConcurrentHashMap<>();
+
+  public PubSubMetrics(@Autowired Vertx vertx) {
+    if (LOG_INTERVAL_MS > 0) {
+      vertx.setPeriodic(LOG_INTERVAL_MS, id -> LOGGER.info("Metrics: {}", snapshot().encode()));
+    }
+  }
+
+  public void increment(String name) {
+    increment(name, 1);
+  }
+
+  public void increment(String name, long delta) {
+    counters.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+  }
+
+  /**
+   * Registers gauge, the supplier is invoked each time a snapshot is taken
+   *
+   * @param name     gauge name
+   * @param supplier supplier of the current gauge value
+   */
+  public void registerGauge(String name, Supplier<Number> supplier) {
+    gauges.put(name, supplier);
+  }
+
+  /**
+   * Records duration of an operation
+   *
+   * @param name       latency metric name
+   * @param startNanos value of {@link System#nanoTime()} taken when operation started
+   */
+  public void recordLatency(String name, long startNanos) {
+    latencies.computeIfAbsent(name, k -> new LatencyHistogram()).record(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Records duration of a publishing stage of an event
+   *
+   * @param stage      stage name
+   * @param tenantId   tenant id
+   * @param eventType  event type
+   * @param startNanos value of {@link System#nanoTime()} taken when stage started
+   */
+  public void recordStageLatency(String stage, String tenantId, String eventType, long startNanos) {
+    recordStageDuration(stage, tenantId, eventType, System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Records measured duration of a publishing stage of an event
+   *
+   * @param stage         stage name
+   * @param tenantId      tenant id
+   * @param eventType     event type
+   * @param durationNanos stage duration in nanoseconds
+   */
+  public void recordStageDuration(String stage, String tenantId, String eventType, long durationNanos) {
+    stageLatencies.computeIfAbsent(new StageKey(stage, tenantId, eventType), k -> new LatencyHistogram())
+      .record(durationNanos);
+  }
+
+  /**
+   * Runs asynchronous publishing stage of an event and records its duration once the stage completes
+   *
+   * @param stage     stage name
+   * @param tenantId  tenant id
+   * @param eventType event type
+   * @param operation stage operation
+   * @return future of the stage operation
+   */
+  public <T> Future<T> timeStage(String stage, String tenantId, String eventType, Supplier<Future<T>> operation) {
+    long start = System.nanoTime();
+    return operation.get().onComplete(ar -> recordStageLatency(stage, tenantId, eventType, start));
+  }
+
+  /**
+   * @return number of recorded durations of the publishing stage, 0 if the stage was not recorded
+   */
+  public long getStageLatencyCount(String stage, String tenantId, String eventType) {
+    LatencyHistogram histogram = stageLatencies.get(new StageKey(stage, tenantId, eventType));
+    return histogram == null ? 0 : histogram.getCount();
+  }
+
+  public long getCounter(String name) {
+    LongAdder counter = counters.get(name);
+    return counter == null ? 0 : counter.sum();
+  }
+
+  public JsonObject snapshot() {
+    JsonObject snapshot = new JsonObject();
+    counters.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+    gauges.forEach((name, gauge) -> snapshot.put(name, gauge.get()));
+    latencies.forEach((name, latency) -> snapshot.put(name, latency.toJson()));
+    stageLatencies.forEach((key, latency) ->
+      snapshot.put(STAGE_LATENCY + "." + key.stage() + "{" + key.tenantId() + "," + key.eventType() + "}", latency.toJson()));
+    return snapshot;
+  }
+
+  /**
+   * Renders all metrics in Prometheus text exposition format, latencies are rendered as histograms in seconds
+   *
+   * @return metrics in Prometheus text format
+   */
+  public String toPrometheus() {
+    StringBuilder builder = new StringBuilder();
+    counters.forEach((name, counter) -> {
+      String metricName = prometheusName(name) + "_total";
+      builder.append("# TYPE ").append(metricName).append(" counter\n")
+        .append(metricName).append(' ').append(counter.sum()).append('\n');
+    });
+    gauges.forEach((name, gauge) -> {
+      String metricName = prometheusName(name);
+      builder.append("# TYPE ").append(metricName).append(" gauge\n")
+        .append(metricName).append(' ').append(gauge.get()).append('\n');
+    });
+    latencies.forEach((name, latency) -> {
+      String metricName = prometheusName(name) + "_seconds";
+      builder.append("# TYPE ").append(metricName).append(" histogram\n");
+      latency.appendPrometheus(builder, metricName, "", PROMETHEUS_BUCKETS_SECONDS);
+    });
+    if (!stageLatencies.isEmpty()) {
+      String metricName = prometheusName(STAGE_LATENCY) + "_seconds";
+      builder.append("# TYPE ").append(metricName).append(" histogram\n");
+      stageLatencies.forEach((key, latency) -> latency.appendPrometheus(builder, metricName,
+        "stage=\"" + escapeLabel(key.stage()) + "\",tenant=\"" + escapeLabel(key.tenantId())
+          + "\",event_type=\"" + escapeLabel(key.eventType()) + "\"", PROMETHEUS_BUCKETS_SECONDS));
+    }
+    return builder.toString();
+  }
+
+  private static String prometheusName(String name) {
+    return "pubsub_" + name.replaceAll("[^a-zA-Z0-9_]", "_");
+  }
+
+  private static String escapeLabel(String value) {
+    return String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  private record StageKey(String stage, String tenantId, String eventType) {
+  }
+}
@@ -0,0 +1,220 @@
+package org.folio.services.publish;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventMetadata;
+import org.folio.rest.jaxrs.model.PublishResult;
+import org.folio.rest.jaxrs.model.PublishStreamSummary;
+import org.folio.services.PublisherService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.String.format;
+import static org.apache.commons.lang3.StringUtils.abbreviate;
+import static org.apache.commons.lang3.StringUtils.isAnyBlank;
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Publishes a newline-delimited JSON stream of events received in chunks.
+ * Each complete line is parsed and published as soon as it is received, so only an incomplete
+ * trailing line of the last chunk is buffered. A line longer than the maximum line length is not buffered,
+ * it is reported as rejected and the rest of it is skipped up to the next new line character.
+ * Only counters and first rejected lines are kept to build the publishing summary.
+ * <p>
+ * The stream is paused once {@code event.stream.max.in.flight} events are being published
+ * and resumed when half of them are done, so the number of publishes in flight stays bounded
+ * however large the stream is.
+ */
+public class EventStreamPublisher {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final int MAX_REPORTED_ERRORS =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("event.stream.max.reported.errors", "1000"));
+  private static final int MAX_IN_FLIGHT =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("event.stream.max.in.flight", "100"));
+  private static final int MAX_ERROR_MESSAGE_LENGTH = 200;
+  private static final int MAX_LINE_PREFIX_LENGTH = 100;
+  private static final byte NEW_LINE = '\n';
+
+  private final PublisherService publisherService;
+  private final String tenantId;
+  private final int maxLineLength;
+  private final Runnable pauseHandler;
+  private final Runnable resumeHandler;
+  private final Promise<PublishStreamSummary> completion = Promise.promise();
+  private final List<PublishResult> errors = new ArrayList<>();
+  private Buffer pendingLine = Buffer.buffer();
+  private int lineNumber;
+  private int totalLines;
+  private int published;
+  private int rejected;
+  private int outstanding;
+  private boolean oversizedLine;
+  private boolean completed;
+  private boolean paused;
+
+  /**
+   * @param publisherService publisher service
+   * @param tenantId         tenant id
+   * @param maxLineLength    maximum length of a line in bytes
+   * @param pauseHandler     pauses the stream
+   * @param resumeHandler    resumes the paused stream
+   */
+  public EventStreamPublisher(PublisherService publisherService, String tenantId, int maxLineLength,
+                              Runnable pauseHandler, Runnable resumeHandler) {
+    this.publisherService = publisherService;
+    this.tenantId = tenantId;
+    this.maxLineLength = maxLineLength;
+    this.pauseHandler = pauseHandler;
+    this.resumeHandler = resumeHandler;
+  }
+
+  /**
+   * Publishes all complete lines of the chunk and buffers the incomplete trailing line
+   *
+   * @param chunk chunk of the stream
+   */
+  public void handleChunk(byte[] chunk) {
+    int lineStart = 0;
+    for (int i = 0; i < chunk.length; i++) {
+      if (chunk[i] == NEW_LINE) {
+        appendToLine(chunk, lineStart, i - lineStart);
+        endLine();
+        lineStart = i + 1;
+      }
+    }
+    appendToLine(chunk, lineStart, chunk.length - lineStart);
+  }
+
+  /**
+   * Publishes the last line of the stream if it is not terminated by a new line character
+   *
+   * @return future with summary, completed when all lines of the stream are processed
+   */
+  public Future<PublishStreamSummary> complete() {
+    endLine();
+    synchronized (this) {
+      completed = true;
+      completeIfDone();
+    }
+    return completion.future();
+  }
+
+  private void appendToLine(byte[] chunk, int offset, int length) {
+    if (oversizedLine) {
+      return;
+    }
+    if (pendingLine.length() + length > maxLineLength) {
+      oversizedLine = true;
+      pendingLine = Buffer.buffer();
+      return;
+    }
+    pendingLine.appendBytes(chunk, offset, length);
+  }
+
+  private void endLine() {
+    if (oversizedLine) {
+      oversizedLine = false;
+      rejectOversizedLine();
+    } else {
+      publishLine(pendingLine);
+    }
+    pendingLine = Buffer.buffer();
+  }
+
+  private void rejectOversizedLine() {
+    lineNumber++;
+    int currentLine = lineNumber;
+    startLine();
+    LOGGER.warn("Line {} of the event stream exceeds maximum length of {} bytes", currentLine, maxLineLength);
+    onLineProcessed(new PublishResult().withLineNumber(currentLine).withStatus(PublishResult.Status.REJECTED)
+      .withErrorMessage(format("Line exceeds maximum length of %s bytes", maxLineLength)));
+  }
+
+  private void publishLine(Buffer line) {
+    lineNumber++;
+    if (isBlank(line)) {
+      return;
+    }
+    int currentLine = lineNumber;
+    Event event;
+    startLine();
+    try {
+      event = parseEvent(line);
+    } catch (Exception e) {
+      LOGGER.warn("Line {} of the event stream is not a valid event: {}", currentLine, e.getMessage());
+      onLineProcessed(new PublishResult().withLineNumber(currentLine).withStatus(PublishResult.Status.REJECTED)
+        .withErrorMessage(abbreviate(e.getMessage(), MAX_ERROR_MESSAGE_LENGTH)));
+      return;
+    }
+    publisherService.publishEvent(event, tenantId)
+      .map(v -> new PublishResult().withEventId(event.getId()).withLineNumber(currentLine).withStatus(PublishResult.Status.PUBLISHED))
+      .otherwise(e -> new PublishResult().withEventId(event.getId()).withLineNumber(currentLine)
+        .withStatus(PublishResult.Status.REJECTED).withErrorMessage(abbreviate(e.getMessage(), MAX_ERROR_MESSAGE_LENGTH)))
+      .onSuccess(this::onLineProcessed);
+  }
+
+  private synchronized void startLine() {
+    totalLines++;
+    outstanding++;
+    if (!paused && outstanding >= MAX_IN_FLIGHT) {
+      paused = true;
+      pauseHandler.run();
+    }
+  }
+
+  private Event parseEvent(Buffer line) {
+    Event event = Json.decodeValue(line, Event.class);
+    EventMetadata metadata = event.getEventMetadata();
+    if (metadata == null || isAnyBlank(event.getId(), event.getEventType(), metadata.getTenantId(), metadata.getPublishedBy())
+      || metadata.getEventTTL() == null) {
+      throw new IllegalArgumentException(
+        format("Event must contain id, eventType and eventMetadata with tenantId, eventTTL and publishedBy: %s",
+          abbreviate(line.toString(), MAX_LINE_PREFIX_LENGTH)));
+    }
+    return event;
+  }
+
+  private static boolean isBlank(Buffer line) {
+    for (int i = 0; i < line.length(); i++) {
+      if (!Character.isWhitespace(line.getByte(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private synchronized void onLineProcessed(PublishResult result) {
+    outstanding--;
+    if (paused && outstanding <= MAX_IN_FLIGHT / 2) {
+      paused = false;
+      resumeHandler.run();
+    }
+    if (result.getStatus() == PublishResult.Status.PUBLISHED) {
+      published++;
+    } else {
+      rejected++;
+      if (errors.size() < MAX_REPORTED_ERRORS) {
+        errors.add(result);
+      }
+    }
+    completeIfDone();
+  }
+
+  private void completeIfDone() {
+    if (completed && outstanding == 0) {
+      completion.tryComplete(new PublishStreamSummary()
+        .withTotalLines(totalLines)
+        .withPublished(published)
+        .withRejected(rejected)
+        .withErrors(errors));
+    }
+  }
+}
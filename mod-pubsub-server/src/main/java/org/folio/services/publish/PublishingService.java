@@ -3,6 +3,8 @@ package org.folio.services.publish;
 import io.vertx.core.Future;
 import org.folio.rest.jaxrs.model.Event;
 
+import java.util.List;
+
 /**
  * Publishing Service Interface
  */
@@ -17,4 +19,13 @@ public interface PublishingService { //NOSONAR
    */
   Future<Void> sendEvent(Event event, String tenantId);
 
+  /**
+   * Publishes events to appropriate topics in one Kafka transaction, either all events are published or none of them
+   *
+   * @param events   events to send
+   * @param tenantId tenant id
+   * @return succeeded future if all events are published, failed future otherwise
+   */
+  Future<Void> sendEventsInTransaction(List<Event> events, String tenantId);
+
 }
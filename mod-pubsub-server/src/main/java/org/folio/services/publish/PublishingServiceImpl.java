@@ -2,71 +2,233 @@ package org.folio.services.publish;
 
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
-import io.vertx.core.WorkerExecutor;
-import io.vertx.core.json.Json;
-import io.vertx.kafka.client.producer.KafkaProducer;
-import io.vertx.kafka.client.producer.impl.KafkaProducerRecordImpl;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.kafka.client.producer.KafkaProducerRecord;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.kafka.KafkaConfig;
+import org.folio.kafka.KafkaProducerManager;
 import org.folio.kafka.PubSubConfig;
+import org.folio.okapi.common.GenericCompositeFuture;
 import org.folio.rest.jaxrs.model.AuditMessage;
 import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventDescriptor;
+import org.folio.services.ClaimCheckService;
 import org.folio.services.audit.AuditService;
+import org.folio.services.cache.EventDescriptorCache;
+import org.folio.services.metrics.PubSubMetrics;
+import org.folio.services.publish.dedup.EventIdDeduplicator;
+import org.folio.services.publish.spool.PublishSpool;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.folio.kafka.EventRecordCodec.encode;
 import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
 import static org.folio.services.util.AuditUtil.constructJsonAuditMessage;
+import static org.folio.services.util.PartitionKeyResolver.resolveKey;
 
 @Component
 public class PublishingServiceImpl implements PublishingService {
 
   private static final Logger LOGGER = LogManager.getLogger();
 
-  private static final int THREAD_POOL_SIZE =
-    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("event.publishing.thread.pool.size", "20"));
+  private static final boolean SPOOL_ENABLED =
+    Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.getOrDefault("publish.spool.enabled", "false"));
+  private static final String SPOOL_DIRECTORY = MODULE_SPECIFIC_ARGS.getOrDefault("publish.spool.directory", "pubsub-spool");
+
+  static final String IN_FLIGHT_GAUGE = "publish.kafka.in.flight";
+  static final String ACK_LATENCY = "publish.kafka.ack.latency";
+  static final String SENT_COUNTER = "publish.kafka.sent";
+  static final String FAILED_COUNTER = "publish.kafka.failed";
+  static final String ENCODED_BYTES_COUNTER = "publish.kafka.encoded.bytes";
+  static final String DEFAULT_PROFILE = "default";
+  static final String SPOOL_STAGE = "spool";
+  static final String DESCRIPTOR_STAGE = "descriptor";
+  static final String CLAIM_CHECK_STAGE = "claim-check";
+  static final String ENCODE_STAGE = "encode";
+  static final String KAFKA_ACK_STAGE = "kafka-ack";
+  static final String TRANSACTION_LATENCY = "publish.kafka.transaction.latency";
+  static final String TRANSACTIONS_COMMITTED_COUNTER = "publish.kafka.transactions.committed";
+  static final String TRANSACTIONS_ABORTED_COUNTER = "publish.kafka.transactions.aborted";
 
   private KafkaConfig kafkaConfig;
-  private WorkerExecutor executor;
+  private KafkaProducerManager producerManager;
+  private EventDescriptorCache eventDescriptorCache;
   private AuditService auditService;
-  private Vertx vertx;
+  private PubSubMetrics metrics;
+  private ClaimCheckService claimCheckService;
+  private PublishSpool spool;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Set<String> unknownProfiles = ConcurrentHashMap.newKeySet();
 
   public PublishingServiceImpl(@Autowired Vertx vertx,
-                               @Autowired KafkaConfig kafkaConfig) {
+                               @Autowired KafkaConfig kafkaConfig,
+                               @Autowired KafkaProducerManager producerManager,
+                               @Autowired EventDescriptorCache eventDescriptorCache,
+                               @Autowired PubSubMetrics metrics,
+                               @Autowired ClaimCheckService claimCheckService,
+                               @Autowired EventIdDeduplicator deduplicator) {
     this.kafkaConfig = kafkaConfig;
+    this.producerManager = producerManager;
+    this.eventDescriptorCache = eventDescriptorCache;
+    this.metrics = metrics;
+    this.claimCheckService = claimCheckService;
     this.auditService = AuditService.createProxy(vertx);
-    this.vertx = vertx;
-    this.executor = vertx.createSharedWorkerExecutor("event-publishing-thread-pool", THREAD_POOL_SIZE);
+    metrics.registerGauge(IN_FLIGHT_GAUGE, inFlight::get);
+    if (SPOOL_ENABLED) {
+      try {
+        this.spool = new PublishSpool(vertx, Paths.get(SPOOL_DIRECTORY), metrics, this::sendToKafka,
+          (event, tenantId, cause) -> {
+            deduplicator.forget(tenantId, event.getId());
+            auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId,
+              AuditMessage.State.REJECTED, "Event was not relayed from publish spool: " + cause.getMessage()));
+          });
+      } catch (IOException e) {
+        throw new IllegalStateException("Cannot open publish spool in " + SPOOL_DIRECTORY, e);
+      }
+    }
   }
 
   @Override
   public Future<Void> sendEvent(Event event, String tenantId) {
-    PubSubConfig config = new PubSubConfig(kafkaConfig.getEnvId(), tenantId, event.getEventType());
-    return executor.executeBlocking(promise -> {
-        try {
-          KafkaProducer<String, String> sharedProducer = KafkaProducer.createShared(vertx,
-            config.getTopicName() + "_Producer", kafkaConfig.getProducerProps());
-
-          sharedProducer.write(new KafkaProducerRecordImpl<>(config.getTopicName(), Json.encode(event)), done -> {
-            if (done.succeeded()) {
-              LOGGER.info("Sent {} event with id '{}' to topic {}", event.getEventType(), event.getId(), config.getTopicName());
-              auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.PUBLISHED));
-              promise.complete();
-            } else {
-              String errorMessage = "Event was not sent";
-              LOGGER.error(errorMessage, done.cause());
-              auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.REJECTED, errorMessage));
-              promise.fail(done.cause());
-            }
-            sharedProducer.close();
-          });
-        } catch (Exception e) {
-          String errorMessage = "Error publishing event";
-          LOGGER.error(errorMessage, e);
-          auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.REJECTED, errorMessage));
-          promise.fail(e);
+    if (spool != null) {
+      return metrics.timeStage(SPOOL_STAGE, tenantId, event.getEventType(), () -> spool.append(event, tenantId))
+        .onFailure(e -> {
+          LOGGER.error("Event was not added to publish spool", e);
+          auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.REJECTED, e.getMessage()));
+        });
+    }
+    return sendToKafka(event, tenantId)
+      .onFailure(e -> auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.REJECTED, "Event was not sent")));
+  }
+
+  /**
+   * Encodes all events and writes them in one Kafka transaction. The publish spool is bypassed,
+   * since spooled events are relayed one by one and the group could not be published atomically.
+   * Payloads stored in claim-check storage for the group are released if the transaction is not committed.
+   */
+  @Override
+  public Future<Void> sendEventsInTransaction(List<Event> events, String tenantId) {
+    Set<String> offloadedEventIds = ConcurrentHashMap.newKeySet();
+    List<Future<KafkaProducerRecord<String, Buffer>>> records = events.stream()
+      .map(event -> metrics.timeStage(DESCRIPTOR_STAGE, tenantId, event.getEventType(), () -> eventDescriptorCache.get(event.getEventType()))
+        .compose(descriptor -> encodeRecord(event, tenantId, descriptor.orElse(null), offloadedEventIds)))
+      .collect(Collectors.toList());
+    long start = System.nanoTime();
+    return GenericCompositeFuture.join(records)
+      .compose(v -> producerManager.writeInTransaction(records.stream().map(Future::result).collect(Collectors.toList())))
+      .onComplete(done -> {
+        metrics.recordLatency(TRANSACTION_LATENCY, start);
+        if (done.succeeded()) {
+          LOGGER.info("sendEventsInTransaction:: Sent {} events in one transaction", events.size());
+          metrics.increment(SENT_COUNTER, events.size());
+          metrics.increment(TRANSACTIONS_COMMITTED_COUNTER);
+          events.forEach(event -> auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.PUBLISHED)));
+        } else {
+          LOGGER.error("sendEventsInTransaction:: Transaction of {} events was not committed", events.size(), done.cause());
+          metrics.increment(FAILED_COUNTER, events.size());
+          metrics.increment(TRANSACTIONS_ABORTED_COUNTER);
+          events.forEach(event -> auditService.saveAuditMessage(
+            constructJsonAuditMessage(event, tenantId, AuditMessage.State.REJECTED, "Transaction was not committed")));
+          offloadedEventIds.forEach(eventId -> claimCheckService.release(eventId, tenantId));
         }
-      });
+      })
+      .mapEmpty();
+  }
+
+  private Future<KafkaProducerRecord<String, Buffer>> encodeRecord(Event event, String tenantId, EventDescriptor descriptor,
+                                                                   Set<String> offloadedEventIds) {
+    Future<Boolean> payloadOffloaded = claimCheckService.isOffloadRequired(event)
+      ? metrics.timeStage(CLAIM_CHECK_STAGE, tenantId, event.getEventType(), () -> claimCheckService.store(event, tenantId))
+        .onSuccess(v -> offloadedEventIds.add(event.getId()))
+        .map(true)
+      : Future.succeededFuture(false);
+    return payloadOffloaded.map(offloaded -> {
+      long start = System.nanoTime();
+      String topicName = new PubSubConfig(kafkaConfig.getEnvId(), tenantId, event.getEventType()).getTopicName();
+      KafkaProducerRecord<String, Buffer> kafkaRecord = encode(topicName, resolveKey(event, descriptor), event,
+        descriptor == null ? null : descriptor.getRecordFormat(), offloaded);
+      metrics.recordStageLatency(ENCODE_STAGE, tenantId, event.getEventType(), start);
+      return kafkaRecord;
+    });
+  }
+
+  @PreDestroy
+  public void closeSpool() {
+    if (spool != null) {
+      spool.close();
+    }
+  }
+
+  private Future<Void> sendToKafka(Event event, String tenantId) {
+    return metrics.timeStage(DESCRIPTOR_STAGE, tenantId, event.getEventType(), () -> eventDescriptorCache.get(event.getEventType()))
+      .compose(descriptor -> sendToKafka(event, tenantId, descriptor.orElse(null)));
+  }
+
+  private Future<Void> sendToKafka(Event event, String tenantId, EventDescriptor descriptor) {
+    if (claimCheckService.isOffloadRequired(event)) {
+      return metrics.timeStage(CLAIM_CHECK_STAGE, tenantId, event.getEventType(), () -> claimCheckService.store(event, tenantId))
+        .compose(v -> writeRecord(event, tenantId, descriptor, true));
+    }
+    return writeRecord(event, tenantId, descriptor, false);
+  }
+
+  private Future<Void> writeRecord(Event event, String tenantId, EventDescriptor descriptor, boolean payloadOffloaded) {
+    PubSubConfig config = new PubSubConfig(kafkaConfig.getEnvId(), tenantId, event.getEventType());
+    String profile = resolveProducerProfile(descriptor);
+    String profileName = profile == null ? DEFAULT_PROFILE : profile;
+    long start = System.nanoTime();
+    inFlight.incrementAndGet();
+    try {
+      KafkaProducerRecord<String, Buffer> kafkaRecord = encode(config.getTopicName(), resolveKey(event, descriptor), event,
+        descriptor == null ? null : descriptor.getRecordFormat(), payloadOffloaded);
+      metrics.recordStageLatency(ENCODE_STAGE, tenantId, event.getEventType(), start);
+      long sendStart = System.nanoTime();
+      if (kafkaRecord.value() != null) {
+        metrics.increment(ENCODED_BYTES_COUNTER, kafkaRecord.value().length());
+      }
+      return producerManager.write(profile, config.getTopicName(), kafkaRecord)
+        .onComplete(done -> {
+          inFlight.decrementAndGet();
+          metrics.recordLatency(ACK_LATENCY, start);
+          metrics.recordLatency(ACK_LATENCY + "." + profileName, start);
+          metrics.recordStageLatency(KAFKA_ACK_STAGE, tenantId, event.getEventType(), sendStart);
+          if (done.succeeded()) {
+            LOGGER.info("Sent {} event with id '{}' to topic {}", event.getEventType(), event.getId(), config.getTopicName());
+            metrics.increment(SENT_COUNTER);
+            metrics.increment(SENT_COUNTER + "." + profileName);
+            auditService.saveAuditMessage(constructJsonAuditMessage(event, tenantId, AuditMessage.State.PUBLISHED));
+          } else {
+            LOGGER.error("Event was not sent", done.cause());
+            metrics.increment(FAILED_COUNTER);
+          }
+        });
+    } catch (Exception e) {
+      inFlight.decrementAndGet();
+      LOGGER.error("Error publishing event", e);
+      metrics.increment(FAILED_COUNTER);
+      return Future.failedFuture(e);
+    }
+  }
+
+  private String resolveProducerProfile(EventDescriptor descriptor) {
+    String profile = descriptor == null ? null : descriptor.getProducerProfile();
+    if (profile == null || kafkaConfig.hasProducerProfile(profile)) {
+      return profile;
+    }
+    if (unknownProfiles.add(profile)) {
+      LOGGER.warn("resolveProducerProfile:: Producer profile '{}' of event type '{}' is not configured, default producer settings are used",
+        profile, descriptor.getEventType());
+    }
+    return null;
   }
 }
@@ -0,0 +1,248 @@
+package org.folio.services.publish.dedup;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.okapi.common.GenericCompositeFuture;
+import org.folio.services.metrics.PubSubMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Bounded-window index of published event ids used to drop duplicates of already published events.
+ * Ids are remembered per tenant, the same id published by another tenant is not a duplicate.
+ * <p>
+ * The window of {@code publish.dedup.window.seconds} is split into time buckets, each bucket is a
+ * {@link UuidHashSet} of ids seen during its time slice. When the window moves, the oldest bucket is
+ * cleared and reused, so ids expire without per-entry bookkeeping. The total number of remembered ids
+ * is limited by {@code publish.dedup.max.entries}, ids that do not fit are not deduplicated.
+ * Ids of events being published are kept with the pending publish until Kafka acknowledges them,
+ * or until they are appended to the publish spool, then an event which the spool finally rejects is forgotten.
+ * Deduplication is disabled if the window is 0.
+ */
+@Component
+public class EventIdDeduplicator {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final long WINDOW_SECONDS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("publish.dedup.window.seconds", "0"));
+  private static final int BUCKETS =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("publish.dedup.buckets", "10"));
+  private static final int MAX_ENTRIES =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("publish.dedup.max.entries", "5000000"));
+  private static final int INITIAL_BUCKET_CAPACITY = 1024;
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  static final String CHECKED_COUNTER = "publish.dedup.checked";
+  static final String HITS_COUNTER = "publish.dedup.hits";
+  static final String HIT_RATIO_GAUGE = "publish.dedup.hit.ratio";
+  static final String ENTRIES_GAUGE = "publish.dedup.entries";
+  static final String MEMORY_GAUGE = "publish.dedup.memory.bytes";
+
+  private final PubSubMetrics metrics;
+  private final UuidHashSet[] buckets;
+  private final Map<UUID, Future<Void>> publishing = new HashMap<>();
+  private final long bucketMillis;
+  private int currentBucket;
+  private long currentBucketStart;
+
+  @Autowired
+  public EventIdDeduplicator(PubSubMetrics metrics) {
+    this(metrics, WINDOW_SECONDS, BUCKETS, MAX_ENTRIES);
+  }
+
+  EventIdDeduplicator(PubSubMetrics metrics, long windowSeconds, int bucketCount, int maxEntries) {
+    this.metrics = metrics;
+    if (windowSeconds <= 0) {
+      this.buckets = new UuidHashSet[0];
+      this.bucketMillis = 0;
+      return;
+    }
+    // one extra bucket so that the whole window is covered while the current bucket is being filled
+    this.buckets = new UuidHashSet[bucketCount + 1];
+    int maxBucketEntries = Math.max(1, maxEntries / buckets.length);
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new UuidHashSet(Math.min(INITIAL_BUCKET_CAPACITY, maxBucketEntries), maxBucketEntries);
+    }
+    this.bucketMillis = Math.max(1, TimeUnit.SECONDS.toMillis(windowSeconds) / bucketCount);
+    this.currentBucketStart = System.currentTimeMillis();
+    metrics.registerGauge(ENTRIES_GAUGE, this::size);
+    metrics.registerGauge(MEMORY_GAUGE, this::memoryBytes);
+    metrics.registerGauge(HIT_RATIO_GAUGE, () -> {
+      long checked = metrics.getCounter(CHECKED_COUNTER);
+      return checked == 0 ? 0 : (double) metrics.getCounter(HITS_COUNTER) / checked;
+    });
+    LOGGER.info("EventIdDeduplicator:: Publish deduplication window is {} seconds", windowSeconds);
+  }
+
+  public boolean isEnabled() {
+    return buckets.length > 0;
+  }
+
+  /**
+   * Publishes the events which were not published within the window. Ids of the events are claimed for the time of
+   * publishing and remembered only after publishing succeeds, so a failed publish can be retried. If an event with the
+   * same id is being published at the moment, publishing waits for its outcome and only the events whose previous
+   * publish failed are published again.
+   *
+   * @param tenantId  tenant id
+   * @param events    events to publish
+   * @param idMapper  function returning event id
+   * @param publisher function publishing the given events, the events which were already published are excluded
+   * @return future completed when the events are published or known to be already published
+   */
+  public <T> Future<Void> publishOnce(String tenantId, List<T> events, Function<T, String> idMapper,
+                                      Function<List<T>, Future<Void>> publisher) {
+    if (!isEnabled()) {
+      return publisher.apply(events);
+    }
+    List<T> newEvents = new ArrayList<>();
+    List<UUID> newIds = new ArrayList<>();
+    List<Future<Void>> pending = new ArrayList<>();
+    Promise<Void> promise = Promise.promise();
+    int duplicates = 0;
+    synchronized (this) {
+      rotate(System.currentTimeMillis());
+      for (T event : events) {
+        UUID id = toKey(tenantId, idMapper.apply(event));
+        Future<Void> inFlight = id == null ? null : publishing.get(id);
+        if (inFlight != null) {
+          pending.add(inFlight);
+        } else if (id == null || !contains(id)) {
+          newEvents.add(event);
+          newIds.add(id);
+        } else {
+          duplicates++;
+        }
+      }
+      if (pending.isEmpty()) {
+        newIds.stream().filter(Objects::nonNull).forEach(id -> publishing.put(id, promise.future()));
+      }
+    }
+    if (!pending.isEmpty()) {
+      return GenericCompositeFuture.join(pending)
+        .transform(ar -> publishOnce(tenantId, events, idMapper, publisher));
+    }
+    metrics.increment(CHECKED_COUNTER, (long) newIds.stream().filter(Objects::nonNull).count() + duplicates);
+    if (duplicates > 0) {
+      LOGGER.info("publishOnce:: {} of {} events were already published, duplicates are skipped", duplicates, events.size());
+      metrics.increment(HITS_COUNTER, duplicates);
+    }
+    if (newEvents.isEmpty()) {
+      return Future.succeededFuture();
+    }
+    publisher.apply(newEvents).onComplete(ar -> {
+      synchronized (this) {
+        rotate(System.currentTimeMillis());
+        for (UUID id : newIds) {
+          if (id != null) {
+            publishing.remove(id);
+            if (ar.succeeded()) {
+              buckets[currentBucket].add(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            }
+          }
+        }
+      }
+      promise.handle(ar);
+    });
+    return promise.future();
+  }
+
+  /**
+   * Forgets the published event, so that it is published again when it is sent next time.
+   * Used when an event is remembered once it is appended to the publish spool and the spool later fails to send it.
+   *
+   * @param tenantId tenant id
+   * @param eventId  event id
+   */
+  public synchronized void forget(String tenantId, String eventId) {
+    UUID id = toKey(tenantId, eventId);
+    if (id == null) {
+      return;
+    }
+    for (UuidHashSet bucket : buckets) {
+      bucket.remove(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+  }
+
+  synchronized int size() {
+    int size = 0;
+    for (UuidHashSet bucket : buckets) {
+      size += bucket.size();
+    }
+    return size;
+  }
+
+  synchronized long memoryBytes() {
+    long bytes = 0;
+    for (UuidHashSet bucket : buckets) {
+      bytes += bucket.memoryBytes();
+    }
+    return bytes;
+  }
+
+  /**
+   * Combines the event id with the tenant, the most significant half of the id is mixed with a 64-bit hash
+   * of the tenant id, so that the key still takes two longs in the buckets
+   *
+   * @return key of the event or null if the event id is not a UUID
+   */
+  private static UUID toKey(String tenantId, String eventId) {
+    UUID id;
+    try {
+      id = UUID.fromString(eventId);
+    } catch (Exception e) {
+      LOGGER.debug("toKey:: Event id {} is not a UUID, it is not deduplicated", eventId);
+      return null;
+    }
+    return new UUID(id.getMostSignificantBits() ^ hash(tenantId), id.getLeastSignificantBits());
+  }
+
+  private static long hash(String tenantId) {
+    long hash = FNV_OFFSET_BASIS;
+    if (tenantId != null) {
+      for (int i = 0; i < tenantId.length(); i++) {
+        hash = (hash ^ tenantId.charAt(i)) * FNV_PRIME;
+      }
+    }
+    return hash;
+  }
+
+  private boolean contains(UUID id) {
+    for (UuidHashSet bucket : buckets) {
+      if (bucket.contains(id.getMostSignificantBits(), id.getLeastSignificantBits())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void rotate(long now) {
+    if (now - currentBucketStart >= bucketMillis * buckets.length) {
+      for (UuidHashSet bucket : buckets) {
+        bucket.clear();
+      }
+      currentBucketStart = now;
+      return;
+    }
+    while (now - currentBucketStart >= bucketMillis) {
+      currentBucket = (currentBucket + 1) % buckets.length;
+      buckets[currentBucket].clear();
+      currentBucketStart += bucketMillis;
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package org.folio.services.publish.dedup;
+
+import java.util.Arrays;
+
+/**
+ * Compact hash set of UUIDs. Each UUID is stored as two longs in a single primitive array
+ * with open addressing and linear probing, so an entry takes 16 bytes at full load and no objects
+ * are allocated per entry. Nil UUID (both halves are zero) marks an empty slot and cannot be stored.
+ * The set does not grow beyond the maximum size, {@link #add} returns false when it is full.
+ */
+final class UuidHashSet {
+
+  private static final int LOAD_FACTOR_DIVISOR = 2;
+
+  private final int maxSize;
+  private long[] table;
+  private int mask;
+  private int size;
+
+  UuidHashSet(int initialCapacity, int maxSize) {
+    this.maxSize = maxSize;
+    allocate(Integer.highestOneBit(Math.max(2, initialCapacity - 1) << 1));
+  }
+
+  boolean contains(long msb, long lsb) {
+    return !isNil(msb, lsb) && indexOf(msb, lsb) >= 0;
+  }
+
+  /**
+   * Adds UUID to the set
+   *
+   * @return true if UUID was added, false if it is already present, is nil or the set is full
+   */
+  boolean add(long msb, long lsb) {
+    if (isNil(msb, lsb) || size >= maxSize || contains(msb, lsb)) {
+      return false;
+    }
+    if ((size + 1) * LOAD_FACTOR_DIVISOR > capacity()) {
+      resize(capacity() << 1);
+    }
+    insert(msb, lsb);
+    size++;
+    return true;
+  }
+
+  /**
+   * Removes UUID from the set, entries of the probe sequence after the removed one are shifted back,
+   * so no tombstones are left in the table
+   *
+   * @return true if UUID was removed
+   */
+  boolean remove(long msb, long lsb) {
+    int slot = isNil(msb, lsb) ? -1 : indexOf(msb, lsb);
+    if (slot < 0) {
+      return false;
+    }
+    int next = slot;
+    while (true) {
+      next = (next + 1) & mask;
+      long nextMsb = table[next << 1];
+      long nextLsb = table[(next << 1) + 1];
+      if (isNil(nextMsb, nextLsb)) {
+        break;
+      }
+      int home = home(nextMsb, nextLsb);
+      boolean canMove = slot <= next ? (home <= slot || home > next) : (home <= slot && home > next);
+      if (canMove) {
+        table[slot << 1] = nextMsb;
+        table[(slot << 1) + 1] = nextLsb;
+        slot = next;
+      }
+    }
+    table[slot << 1] = 0;
+    table[(slot << 1) + 1] = 0;
+    size--;
+    return true;
+  }
+
+  void clear() {
+    if (size > 0) {
+      Arrays.fill(table, 0);
+      size = 0;
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  long memoryBytes() {
+    return (long) table.length * Long.BYTES;
+  }
+
+  private int capacity() {
+    return mask + 1;
+  }
+
+  private int indexOf(long msb, long lsb) {
+    int slot = home(msb, lsb);
+    while (true) {
+      long slotMsb = table[slot << 1];
+      long slotLsb = table[(slot << 1) + 1];
+      if (slotMsb == msb && slotLsb == lsb) {
+        return slot;
+      }
+      if (isNil(slotMsb, slotLsb)) {
+        return -1;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private void insert(long msb, long lsb) {
+    int slot = home(msb, lsb);
+    while (!isNil(table[slot << 1], table[(slot << 1) + 1])) {
+      slot = (slot + 1) & mask;
+    }
+    table[slot << 1] = msb;
+    table[(slot << 1) + 1] = lsb;
+  }
+
+  private void resize(int newCapacity) {
+    long[] oldTable = table;
+    allocate(newCapacity);
+    for (int i = 0; i < oldTable.length; i += 2) {
+      if (!isNil(oldTable[i], oldTable[i + 1])) {
+        insert(oldTable[i], oldTable[i + 1]);
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    table = new long[capacity << 1];
+    mask = capacity - 1;
+  }
+
+  private int home(long msb, long lsb) {
+    long hash = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+
+  private static boolean isNil(long msb, long lsb) {
+    return msb == 0 && lsb == 0;
+  }
+}
@@ -0,0 +1,409 @@
+package org.folio.services.publish.spool;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import org.apache.logging.log4j.LogManager;
+import org.apache.kafka.common.KafkaException;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.services.metrics.PubSubMetrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Local write-ahead spool of published events.
+ * <p>
+ * A publish is acknowledged as soon as the event is appended to the spool and flushed to disk.
+ * The relay reads the spool in batches in append order and sends the events to Kafka one after another,
+ * the next event is sent only after Kafka acknowledged the previous one, so events reach Kafka in append order.
+ * An entry is removed from the spool once Kafka acknowledged it, the checkpoint is saved after each batch,
+ * so entries acknowledged after the last checkpoint are sent again after a crash. If Kafka is not available,
+ * draining is retried every {@code publish.spool.relay.interval.ms}, so the events are delivered at least once
+ * when the broker is back.
+ * <p>
+ * An entry which fails {@code publish.spool.max.attempts} times is passed to the rejection handler and removed,
+ * so that it does not block the entries after it. An attempt which failed with a Kafka error before any entry of the
+ * batch was acknowledged is not counted, since the broker is then likely unavailable rather than the entry invalid.
+ * <p>
+ * Events are stored in append-only memory-mapped segment files, see {@link SpoolSegment}.
+ * The position of the first not relayed entry is saved in the checkpoint file, so draining
+ * continues from this position after restart.
+ */
+public class PublishSpool {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final int SEGMENT_SIZE =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("publish.spool.segment.size.bytes", "67108864"));
+  private static final long MAX_SIZE =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("publish.spool.max.size.bytes", "1073741824"));
+  private static final int DRAIN_BATCH_SIZE =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("publish.spool.drain.batch.size", "500"));
+  private static final long RELAY_INTERVAL_MS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("publish.spool.relay.interval.ms", "1000"));
+  private static final int MAX_ATTEMPTS =
+    Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("publish.spool.max.attempts", "10"));
+
+  static final String CHECKPOINT_FILE = "checkpoint";
+  static final String SIZE_GAUGE = "publish.spool.size.bytes";
+  static final String ENTRIES_GAUGE = "publish.spool.entries";
+  static final String DRAIN_RATE_GAUGE = "publish.spool.drain.rate";
+  static final String APPENDED_COUNTER = "publish.spool.appended";
+  static final String DRAINED_COUNTER = "publish.spool.drained";
+  static final String REJECTED_COUNTER = "publish.spool.rejected";
+
+  private final Vertx vertx;
+  private final Path directory;
+  private final PubSubMetrics metrics;
+  private final BiFunction<Event, String, Future<Void>> sender;
+  private final RejectionHandler rejectionHandler;
+  private final int maxAttempts;
+  private final Map<Long, Integer> failedAttempts = new ConcurrentHashMap<>();
+  private final WorkerExecutor executor;
+  private final Deque<SpoolSegment> segments = new ArrayDeque<>();
+  private final List<SpoolSegment> relayedSegments = new ArrayList<>();
+  private final AtomicBoolean draining = new AtomicBoolean();
+  private final AtomicBoolean drainRequested = new AtomicBoolean();
+  private final AtomicLong pendingBytes = new AtomicLong();
+  private final AtomicLong pendingEntries = new AtomicLong();
+  private final AtomicLong drainedEntries = new AtomicLong();
+  private final long relayTimerId;
+  private int readPosition;
+  private long nextSegmentId;
+  private long lastDrainedEntries;
+  private long lastRateCheck = System.currentTimeMillis();
+  private volatile double drainRate;
+
+  /**
+   * Opens the spool in the directory and starts the relay
+   *
+   * @param vertx     vertx instance
+   * @param directory spool directory, created if it does not exist
+   * @param metrics   metrics registry
+   * @param sender           sends event of the tenant to Kafka
+   * @param rejectionHandler handles events which could not be sent within the maximum number of attempts
+   * @throws IOException if existing spool segments cannot be opened
+   */
+  public PublishSpool(Vertx vertx, Path directory, PubSubMetrics metrics,
+                      BiFunction<Event, String, Future<Void>> sender, RejectionHandler rejectionHandler) throws IOException {
+    this(vertx, directory, metrics, sender, rejectionHandler, MAX_ATTEMPTS);
+  }
+
+  PublishSpool(Vertx vertx, Path directory, PubSubMetrics metrics, BiFunction<Event, String, Future<Void>> sender,
+               RejectionHandler rejectionHandler, int maxAttempts) throws IOException {
+    this.vertx = vertx;
+    this.directory = directory;
+    this.metrics = metrics;
+    this.sender = sender;
+    this.rejectionHandler = rejectionHandler;
+    this.maxAttempts = maxAttempts;
+    this.executor = vertx.createSharedWorkerExecutor("pubsub-publish-spool", 1);
+    recover();
+    metrics.registerGauge(SIZE_GAUGE, pendingBytes::get);
+    metrics.registerGauge(ENTRIES_GAUGE, pendingEntries::get);
+    metrics.registerGauge(DRAIN_RATE_GAUGE, () -> drainRate);
+    this.relayTimerId = vertx.setPeriodic(RELAY_INTERVAL_MS, id -> {
+      updateDrainRate();
+      drain();
+    });
+    LOGGER.info("PublishSpool:: Publish spool opened in {}, {} events pending", directory, pendingEntries.get());
+  }
+
+  /**
+   * Appends event to the spool
+   *
+   * @param event    event to publish
+   * @param tenantId tenant id
+   * @return succeeded future when the event is durably stored, failed future if spool is full or cannot be written
+   */
+  public Future<Void> append(Event event, String tenantId) {
+    byte[] entry;
+    try {
+      entry = encode(event, tenantId);
+    } catch (Exception e) {
+      return Future.failedFuture(e);
+    }
+    if (pendingBytes.get() + entry.length > MAX_SIZE) {
+      return Future.failedFuture(new IllegalStateException("Publish spool is full"));
+    }
+    return executor.<Void>executeBlocking(promise -> {
+        try {
+          appendAndForce(entry);
+          promise.complete();
+        } catch (IOException e) {
+          promise.fail(e);
+        }
+      }, true)
+      .onSuccess(v -> {
+        metrics.increment(APPENDED_COUNTER);
+        drain();
+      });
+  }
+
+  /**
+   * Stops the relay and closes segment files, not relayed events stay in the spool
+   */
+  public void close() {
+    vertx.cancelTimer(relayTimerId);
+    synchronized (this) {
+      segments.forEach(SpoolSegment::close);
+      segments.clear();
+      relayedSegments.forEach(SpoolSegment::close);
+      relayedSegments.clear();
+    }
+    executor.close();
+  }
+
+  private synchronized void appendAndForce(byte[] entry) throws IOException {
+    SpoolSegment segment = segments.peekLast();
+    if (segment == null || !segment.append(entry)) {
+      if (segment == null) {
+        readPosition = 0;
+      }
+      segment = SpoolSegment.open(directory, nextSegmentId++, Math.max(SEGMENT_SIZE, SpoolSegment.ENTRY_HEADER_SIZE + entry.length));
+      segments.addLast(segment);
+      segment.append(entry);
+    }
+    segment.force();
+    pendingBytes.addAndGet(entry.length);
+    pendingEntries.incrementAndGet();
+  }
+
+  private void drain() {
+    drainRequested.set(true);
+    if (!draining.compareAndSet(false, true)) {
+      return;
+    }
+    drainRequested.set(false);
+    executor.<List<SpooledEvent>>executeBlocking(promise -> promise.complete(readBatch()), true)
+      .compose(this::relay)
+      .onComplete(ar -> {
+        draining.set(false);
+        if (ar.failed()) {
+          LOGGER.warn("drain:: Error draining publish spool, will retry in {} ms", RELAY_INTERVAL_MS, ar.cause());
+        } else if (Boolean.TRUE.equals(ar.result()) || drainRequested.get()) {
+          drain();
+        }
+      });
+  }
+
+  /**
+   * Sends entries of the batch one after another, each entry is removed once it is acknowledged or rejected
+   * after the maximum number of attempts, sending stops at the first entry which failed and may be retried
+   *
+   * @return true if the whole non-empty batch was relayed and draining can continue
+   */
+  private Future<Boolean> relay(List<SpooledEvent> batch) {
+    if (batch.isEmpty()) {
+      return Future.succeededFuture(false);
+    }
+    return relay(batch, 0)
+      .compose(relayed -> relayed == 0
+        ? Future.succeededFuture(false)
+        : executor.<Boolean>executeBlocking(promise -> {
+          try {
+            saveCheckpoint(batch.get(relayed - 1));
+            promise.complete(relayed == batch.size());
+          } catch (IOException e) {
+            promise.fail(e);
+          }
+        }, true));
+  }
+
+  /**
+   * Sends the entry at the index and the entries after it
+   *
+   * @return future with the number of relayed entries of the batch
+   */
+  private Future<Integer> relay(List<SpooledEvent> batch, int index) {
+    if (index == batch.size()) {
+      return Future.succeededFuture(index);
+    }
+    SpooledEvent spooled = batch.get(index);
+    return sender.apply(spooled.event, spooled.tenantId)
+      .transform(ar -> {
+        if (ar.failed()) {
+          if (index > 0 || !(ar.cause() instanceof KafkaException)) {
+            failedAttempts.merge(spooled.getId(), 1, Integer::sum);
+          }
+          if (failedAttempts.getOrDefault(spooled.getId(), 0) < maxAttempts) {
+            return Future.succeededFuture(index);
+          }
+          reject(spooled, ar.cause());
+        }
+        remove(spooled);
+        return relay(batch, index + 1);
+      });
+  }
+
+  private void reject(SpooledEvent spooled, Throwable cause) {
+    LOGGER.error("reject:: {} event with id '{}' of tenant {} was not sent after {} attempts, it is removed from publish spool",
+      spooled.event.getEventType(), spooled.event.getId(), spooled.tenantId, maxAttempts, cause);
+    metrics.increment(REJECTED_COUNTER);
+    try {
+      rejectionHandler.reject(spooled.event, spooled.tenantId, cause);
+    } catch (Exception e) {
+      LOGGER.warn("reject:: Rejection handler failed for event with id '{}'", spooled.event.getId(), e);
+    }
+  }
+
+  private synchronized List<SpooledEvent> readBatch() {
+    List<SpooledEvent> batch = new ArrayList<>();
+    int position = readPosition;
+    for (SpoolSegment segment : segments) {
+      byte[] entry;
+      while (batch.size() < DRAIN_BATCH_SIZE && (entry = segment.read(position)) != null) {
+        position = SpoolSegment.nextPosition(position, entry);
+        batch.add(decode(entry, segment.getId(), position));
+      }
+      if (batch.size() == DRAIN_BATCH_SIZE) {
+        break;
+      }
+      position = 0;
+    }
+    return batch;
+  }
+
+  /**
+   * Removes the relayed entry, segments before the segment of the entry are no longer read
+   * and their files are deleted once the checkpoint is saved after them
+   */
+  private synchronized void remove(SpooledEvent spooled) {
+    while (!segments.isEmpty() && segments.peekFirst().getId() < spooled.segmentId) {
+      relayedSegments.add(segments.pollFirst());
+    }
+    readPosition = spooled.nextPosition;
+    pendingBytes.addAndGet(-spooled.size);
+    pendingEntries.decrementAndGet();
+    failedAttempts.remove(spooled.getId());
+    drainedEntries.incrementAndGet();
+    metrics.increment(DRAINED_COUNTER);
+  }
+
+  private synchronized void saveCheckpoint(SpooledEvent last) throws IOException {
+    Files.writeString(directory.resolve(CHECKPOINT_FILE), last.segmentId + " " + last.nextPosition);
+    relayedSegments.forEach(SpoolSegment::delete);
+    relayedSegments.clear();
+  }
+
+  private synchronized void recover() throws IOException {
+    Files.createDirectories(directory);
+    long checkpointSegment = 0;
+    int checkpointPosition = 0;
+    Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+    if (Files.exists(checkpoint)) {
+      String[] parts = Files.readString(checkpoint).trim().split(" ");
+      checkpointSegment = Long.parseLong(parts[0]);
+      checkpointPosition = Integer.parseInt(parts[1]);
+    }
+    List<Long> ids;
+    try (Stream<Path> files = Files.list(directory)) {
+      ids = files.map(path -> path.getFileName().toString())
+        .filter(name -> name.endsWith(SpoolSegment.FILE_EXTENSION))
+        .map(name -> Long.parseLong(name.substring(0, name.length() - SpoolSegment.FILE_EXTENSION.length())))
+        .sorted()
+        .toList();
+    }
+    for (Long id : ids) {
+      SpoolSegment segment = SpoolSegment.open(directory, id, SEGMENT_SIZE);
+      if (id < checkpointSegment) {
+        segment.delete();
+        continue;
+      }
+      if (segments.isEmpty()) {
+        readPosition = id == checkpointSegment ? checkpointPosition : 0;
+      }
+      int position = segments.isEmpty() ? readPosition : 0;
+      byte[] entry;
+      while ((entry = segment.read(position)) != null) {
+        position = SpoolSegment.nextPosition(position, entry);
+        pendingBytes.addAndGet(entry.length);
+        pendingEntries.incrementAndGet();
+      }
+      segments.addLast(segment);
+    }
+    nextSegmentId = segments.isEmpty() ? checkpointSegment + 1 : segments.peekLast().getId() + 1;
+  }
+
+  private void updateDrainRate() {
+    long now = System.currentTimeMillis();
+    long drained = drainedEntries.get();
+    if (now > lastRateCheck) {
+      drainRate = (drained - lastDrainedEntries) * 1000.0 / (now - lastRateCheck);
+    }
+    lastDrainedEntries = drained;
+    lastRateCheck = now;
+  }
+
+  private static byte[] encode(Event event, String tenantId) {
+    byte[] tenant = tenantId.getBytes(StandardCharsets.UTF_8);
+    return Buffer.buffer()
+      .appendInt(tenant.length)
+      .appendBytes(tenant)
+      .appendBuffer(Json.encodeToBuffer(event))
+      .getBytes();
+  }
+
+  private static SpooledEvent decode(byte[] entry, long segmentId, int nextPosition) {
+    Buffer buffer = Buffer.buffer(entry);
+    int tenantLength = buffer.getInt(0);
+    String tenantId = buffer.getString(Integer.BYTES, Integer.BYTES + tenantLength, StandardCharsets.UTF_8.name());
+    Event event = Json.decodeValue(buffer.slice(Integer.BYTES + tenantLength, buffer.length()), Event.class);
+    return new SpooledEvent(event, tenantId, segmentId, nextPosition, entry.length);
+  }
+
+  private static class SpooledEvent {
+    private final Event event;
+    private final String tenantId;
+    private final long segmentId;
+    private final int nextPosition;
+    private final int size;
+
+    SpooledEvent(Event event, String tenantId, long segmentId, int nextPosition, int size) {
+      this.event = event;
+      this.tenantId = tenantId;
+      this.segmentId = segmentId;
+      this.nextPosition = nextPosition;
+      this.size = size;
+    }
+
+    /**
+     * @return id of the entry, unique within the spool
+     */
+    long getId() {
+      return (segmentId << Integer.SIZE) | (nextPosition & 0xFFFFFFFFL);
+    }
+  }
+
+  /**
+   * Handler of events removed from the spool without being sent
+   */
+  @FunctionalInterface
+  public interface RejectionHandler {
+
+    /**
+     * @param event    event which was not sent
+     * @param tenantId tenant id
+     * @param cause    cause of the last failed attempt
+     */
+    void reject(Event event, String tenantId, Throwable cause);
+  }
+}
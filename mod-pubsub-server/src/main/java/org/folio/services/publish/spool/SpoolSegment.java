@@ -0,0 +1,152 @@
+package org.folio.services.publish.spool;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only memory-mapped segment file of the publish spool.
+ * Each entry is stored as entry length (int), CRC32 checksum of the entry (long) and entry bytes.
+ * Zero length marks the end of written entries, an entry with a wrong checksum is treated as
+ * an incomplete write and is ignored together with all following entries.
+ */
+class SpoolSegment {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  static final String FILE_EXTENSION = ".spool";
+  static final int ENTRY_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+
+  private final long id;
+  private final Path path;
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private int writePosition;
+  private int forcedPosition;
+
+  private SpoolSegment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+    this.id = id;
+    this.path = path;
+    this.channel = channel;
+    this.buffer = buffer;
+  }
+
+  /**
+   * Opens segment file, the file is created if it does not exist.
+   * Write position of an existing segment is set after its last valid entry.
+   *
+   * @param directory spool directory
+   * @param id        segment id
+   * @param size      size of a new segment file in bytes
+   * @return opened segment
+   * @throws IOException if file cannot be opened or mapped
+   */
+  static SpoolSegment open(Path directory, long id, int size) throws IOException {
+    Path path = directory.resolve(fileName(id));
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    long mappedSize = Files.size(path) > 0 ? Files.size(path) : size;
+    SpoolSegment segment = new SpoolSegment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize));
+    int position = 0;
+    byte[] entry;
+    while ((entry = segment.read(position)) != null) {
+      position = nextPosition(position, entry);
+    }
+    segment.writePosition = position;
+    segment.forcedPosition = position;
+    return segment;
+  }
+
+  static String fileName(long id) {
+    return String.format("%020d%s", id, FILE_EXTENSION);
+  }
+
+  static int nextPosition(int position, byte[] entry) {
+    return position + ENTRY_HEADER_SIZE + entry.length;
+  }
+
+  long getId() {
+    return id;
+  }
+
+  int getWritePosition() {
+    return writePosition;
+  }
+
+  /**
+   * Appends entry to the segment
+   *
+   * @param entry entry bytes
+   * @return false if there is not enough space left in the segment
+   */
+  boolean append(byte[] entry) {
+    if (buffer.capacity() - writePosition < ENTRY_HEADER_SIZE + entry.length) {
+      return false;
+    }
+    CRC32 crc = new CRC32();
+    crc.update(entry);
+    buffer.put(writePosition + ENTRY_HEADER_SIZE, entry);
+    buffer.putLong(writePosition + Integer.BYTES, crc.getValue());
+    buffer.putInt(writePosition, entry.length);
+    writePosition += ENTRY_HEADER_SIZE + entry.length;
+    return true;
+  }
+
+  /**
+   * Flushes entries appended since the previous flush to the storage device
+   */
+  void force() {
+    if (writePosition > forcedPosition) {
+      buffer.force(forcedPosition, writePosition - forcedPosition);
+      forcedPosition = writePosition;
+    }
+  }
+
+  /**
+   * Reads entry at the position
+   *
+   * @param position entry position
+   * @return entry bytes or null if there is no valid entry at the position
+   */
+  byte[] read(int position) {
+    if (buffer.capacity() - position < ENTRY_HEADER_SIZE) {
+      return null;
+    }
+    int length = buffer.getInt(position);
+    if (length <= 0 || length > buffer.capacity() - position - ENTRY_HEADER_SIZE) {
+      return null;
+    }
+    byte[] entry = new byte[length];
+    buffer.get(position + ENTRY_HEADER_SIZE, entry);
+    CRC32 crc = new CRC32();
+    crc.update(entry);
+    if (crc.getValue() != buffer.getLong(position + Integer.BYTES)) {
+      LOGGER.warn("read:: Checksum mismatch in spool segment {} at position {}, entry is ignored", path, position);
+      return null;
+    }
+    return entry;
+  }
+
+  void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      LOGGER.warn("close:: Error closing spool segment {}", path, e);
+    }
+  }
+
+  void delete() {
+    close();
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      LOGGER.warn("delete:: Error deleting spool segment {}", path, e);
+    }
+  }
+}
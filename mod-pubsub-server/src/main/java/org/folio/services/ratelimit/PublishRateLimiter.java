@@ -0,0 +1,156 @@
+package org.folio.services.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.vertx.core.Future;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.dao.RateLimitDao;
+import org.folio.rest.jaxrs.model.RateLimit;
+import org.folio.rest.jaxrs.model.RateLimitCollection;
+import org.folio.services.metrics.PubSubMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Admission control for published events.
+ * <p>
+ * Rate limits are set per tenant, a limit may be narrowed to a publishing module and/or an event type.
+ * Each limit has its own {@link RateLimitBucket}, an event is admitted only if all limits matching
+ * its tenant, publisher and event type have a token. Limits of a tenant are loaded from the database
+ * and cached for {@code publish.rate.limit.cache.expiration.seconds}, so limits updated through another
+ * module instance are picked up without restart.
+ */
+@Component
+public class PublishRateLimiter {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final long CACHE_EXPIRATION_SECONDS =
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault("publish.rate.limit.cache.expiration.seconds", "30"));
+  private static final String ANY = "*";
+
+  static final String REJECTED_COUNTER = "publish.rate.limit.rejected";
+
+  private final RateLimitDao rateLimitDao;
+  private final PubSubMetrics metrics;
+  private final com.github.benmanes.caffeine.cache.Cache<String, Future<List<RateLimit>>> rateLimits;
+  private final Map<String, RateLimitBucket> buckets = new ConcurrentHashMap<>();
+
+  public PublishRateLimiter(@Autowired RateLimitDao rateLimitDao,
+                            @Autowired PubSubMetrics metrics) {
+    this.rateLimitDao = rateLimitDao;
+    this.metrics = metrics;
+    this.rateLimits = Caffeine.newBuilder()
+      .expireAfterWrite(CACHE_EXPIRATION_SECONDS, TimeUnit.SECONDS)
+      .build();
+  }
+
+  /**
+   * Takes a token from each limit matching the event, the event is admitted only if all matching limits admit it,
+   * tokens taken from other limits for a rejected event are given back
+   *
+   * @param tenantId  tenant id
+   * @param moduleId  publisher module id
+   * @param eventType event type
+   * @return succeeded future if event is admitted, failed future with {@link RateLimitExceededException} otherwise
+   */
+  public Future<Void> acquire(String tenantId, String moduleId, String eventType) {
+    return getCachedRateLimits(tenantId).compose(limits -> {
+      long now = System.nanoTime();
+      List<RateLimitBucket> acquired = null;
+      for (RateLimit limit : limits) {
+        if (matches(limit.getModuleId(), moduleId) && matches(limit.getEventType(), eventType)) {
+          RateLimitBucket bucket = getBucket(tenantId, limit, now);
+          long waitNanos = bucket.tryAcquire(now);
+          if (waitNanos > 0) {
+            if (acquired != null) {
+              acquired.forEach(RateLimitBucket::release);
+            }
+            metrics.increment(REJECTED_COUNTER);
+            return Future.failedFuture(new RateLimitExceededException(
+              format("Publish rate limit of %s events per second for tenant %s, publisher %s and event type %s is exceeded",
+                limit.getRatePerSecond(), tenantId, valueOrAny(limit.getModuleId()), valueOrAny(limit.getEventType())),
+              Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1))));
+          }
+          if (acquired == null) {
+            acquired = new ArrayList<>(limits.size());
+          }
+          acquired.add(bucket);
+        }
+      }
+      return Future.succeededFuture();
+    });
+  }
+
+  /**
+   * Returns publish rate limits of the tenant
+   *
+   * @param tenantId tenant id
+   * @return future with rate limits
+   */
+  public Future<RateLimitCollection> getRateLimits(String tenantId) {
+    return rateLimitDao.get(tenantId)
+      .map(collection -> collection.withTotalRecords(collection.getRateLimits().size()));
+  }
+
+  /**
+   * Replaces publish rate limits of the tenant, new limits are applied to the next published event
+   *
+   * @param rateLimits rate limits
+   * @param tenantId   tenant id
+   * @return future completed when limits are saved
+   */
+  public Future<Void> updateRateLimits(RateLimitCollection rateLimits, String tenantId) {
+    return rateLimitDao.save(rateLimits.withTotalRecords(rateLimits.getRateLimits().size()), tenantId)
+      .onSuccess(v -> invalidate(tenantId));
+  }
+
+  /**
+   * Drops cached limits and buckets of the tenant, so updated limits are applied to the next event
+   *
+   * @param tenantId tenant id
+   */
+  public void invalidate(String tenantId) {
+    rateLimits.invalidate(tenantId);
+    buckets.keySet().removeIf(key -> key.startsWith(tenantId + "|"));
+  }
+
+  private Future<List<RateLimit>> getCachedRateLimits(String tenantId) {
+    Future<List<RateLimit>> limits = rateLimits.get(tenantId, tenant -> rateLimitDao.get(tenant)
+      .map(collection -> List.copyOf(collection.getRateLimits())));
+    return limits.otherwise(e -> {
+      LOGGER.warn("getCachedRateLimits:: Error loading rate limits for tenant {}, events are not limited", tenantId, e);
+      rateLimits.asMap().remove(tenantId, limits);
+      return List.of();
+    });
+  }
+
+  private RateLimitBucket getBucket(String tenantId, RateLimit limit, long now) {
+    double rate = limit.getRatePerSecond();
+    int burst = limit.getBurst() != null ? limit.getBurst() : (int) Math.max(1, Math.ceil(rate));
+    String key = tenantId + "|" + valueOrAny(limit.getModuleId()) + "|" + valueOrAny(limit.getEventType());
+    RateLimitBucket bucket = buckets.get(key);
+    if (bucket == null || !bucket.hasSameLimit(rate, burst)) {
+      bucket = buckets.compute(key, (k, current) -> current != null && current.hasSameLimit(rate, burst)
+        ? current : new RateLimitBucket(rate, burst, now));
+    }
+    return bucket;
+  }
+
+  private static boolean matches(String limitValue, String value) {
+    return limitValue == null || limitValue.equals(value);
+  }
+
+  private static String valueOrAny(String value) {
+    return value == null ? ANY : value;
+  }
+}
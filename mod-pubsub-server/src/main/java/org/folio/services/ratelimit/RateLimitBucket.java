@@ -0,0 +1,58 @@
+package org.folio.services.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented as generic cell rate algorithm (GCRA).
+ * The whole bucket state is a single theoretical arrival time updated by compare-and-set,
+ * so an admission check is a few arithmetic operations without locks or allocations.
+ */
+final class RateLimitBucket {
+
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  private final double ratePerSecond;
+  private final int burst;
+  private final long emissionIntervalNanos;
+  private final long burstToleranceNanos;
+  private final AtomicLong theoreticalArrivalNanos;
+
+  RateLimitBucket(double ratePerSecond, int burst, long nowNanos) {
+    this.ratePerSecond = ratePerSecond;
+    this.burst = burst;
+    this.emissionIntervalNanos = Math.max(1, (long) (NANOS_PER_SECOND / ratePerSecond));
+    this.burstToleranceNanos = emissionIntervalNanos * burst;
+    this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+  }
+
+  /**
+   * Takes a token from the bucket
+   *
+   * @param nowNanos current value of {@link System#nanoTime()}
+   * @return 0 if token is taken, otherwise number of nanoseconds after which a token will be available
+   */
+  long tryAcquire(long nowNanos) {
+    while (true) {
+      long theoreticalArrival = theoreticalArrivalNanos.get();
+      long newTheoreticalArrival = Math.max(theoreticalArrival, nowNanos) + emissionIntervalNanos;
+      long allowedAt = newTheoreticalArrival - burstToleranceNanos;
+      if (allowedAt > nowNanos) {
+        return allowedAt - nowNanos;
+      }
+      if (theoreticalArrivalNanos.compareAndSet(theoreticalArrival, newTheoreticalArrival)) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * Gives back a token taken by {@link #tryAcquire(long)}, used when an event is rejected by another limit
+   */
+  void release() {
+    theoreticalArrivalNanos.addAndGet(-emissionIntervalNanos);
+  }
+
+  boolean hasSameLimit(double ratePerSecond, int burst) {
+    return this.ratePerSecond == ratePerSecond && this.burst == burst;
+  }
+}
@@ -0,0 +1,21 @@
+package org.folio.services.ratelimit;
+
+/**
+ * Thrown when an event is not admitted for publishing because a publish rate limit is exceeded
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+  private final long retryAfterSeconds;
+
+  public RateLimitExceededException(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  /**
+   * @return number of seconds after which the publisher may retry
+   */
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
@@ -15,10 +15,17 @@ public final class AuditUtil {
   private AuditUtil() {
   }
 
+  /**
+   * Builds json representation of {@link AuditMessagePayload} directly from the event,
+   * so the payload content is not copied through an intermediate POJO serialization
+   *
+   * @param event event
+   * @return audit message payload json
+   */
   public static JsonObject constructJsonAuditMessagePayload(Event event) {
-    return JsonObject.mapFrom(new AuditMessagePayload()
-      .withEventId(event.getId())
-      .withContent(event.getEventPayload()));
+    return new JsonObject()
+      .put("eventId", event.getId())
+      .put("content", event.getEventPayload());
   }
 
   public static JsonObject constructJsonAuditMessage(Event event, String tenantId, AuditMessage.State state) {
@@ -0,0 +1,47 @@
+package org.folio.services.util;
+
+import org.folio.rest.jaxrs.model.Event;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks expiration of events according to their time-to-live. An event expires {@code eventTTL} minutes
+ * after its {@code publishedDate}, the time the event was written to Kafka is used if publishedDate is not set.
+ */
+public final class EventExpiration {
+
+  public static final long NEVER = Long.MAX_VALUE;
+
+  private EventExpiration() {
+  }
+
+  /**
+   * Calculates expiration time of the event
+   *
+   * @param event              event
+   * @param publishedAtMillis  time the event was published, used if event has no publishedDate, 0 or negative if unknown
+   * @return expiration time in milliseconds since epoch, {@link #NEVER} if event has no TTL or publish time is unknown
+   */
+  public static long getExpirationTime(Event event, long publishedAtMillis) {
+    Integer ttlMinutes = event.getEventMetadata() == null ? null : event.getEventMetadata().getEventTTL();
+    if (ttlMinutes == null || ttlMinutes <= 0) {
+      return NEVER;
+    }
+    long publishedAt = event.getEventMetadata().getPublishedDate() != null
+      ? event.getEventMetadata().getPublishedDate().getTime()
+      : publishedAtMillis;
+    return publishedAt <= 0 ? NEVER : publishedAt + TimeUnit.MINUTES.toMillis(ttlMinutes);
+  }
+
+  /**
+   * Checks if event is expired
+   *
+   * @param event             event
+   * @param publishedAtMillis time the event was published, used if event has no publishedDate, 0 or negative if unknown
+   * @param nowMillis         current time in milliseconds since epoch
+   * @return true if event TTL has elapsed
+   */
+  public static boolean isExpired(Event event, long publishedAtMillis, long nowMillis) {
+    return getExpirationTime(event, publishedAtMillis) <= nowMillis;
+  }
+}
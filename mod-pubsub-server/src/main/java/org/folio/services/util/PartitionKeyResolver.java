@@ -0,0 +1,74 @@
+package org.folio.services.util;
+
+import io.vertx.core.json.Json;
+import io.vertx.core.json.pointer.JsonPointer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventDescriptor;
+
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Resolves Kafka record key of an event according to partition key strategy of the event type
+ */
+public final class PartitionKeyResolver {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private PartitionKeyResolver() {
+  }
+
+  /**
+   * Resolves record key of the event
+   *
+   * @param event      event to publish
+   * @param descriptor descriptor of the event type, may be null
+   * @return record key or null if event should be published without a key
+   */
+  public static String resolveKey(Event event, EventDescriptor descriptor) {
+    if (descriptor == null || descriptor.getPartitionKey() == null) {
+      return null;
+    }
+    switch (descriptor.getPartitionKey()) {
+      case CORRELATION_ID:
+        return event.getEventMetadata().getCorrelationId();
+      case ORIGINAL_EVENT_ID:
+        return event.getEventMetadata().getOriginalEventId();
+      case TENANT_ID:
+        return event.getEventMetadata().getTenantId();
+      case PAYLOAD_POINTER:
+        return resolvePayloadKey(event, descriptor.getPartitionKeyPointer());
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Checks that partition key settings of the event descriptor are consistent
+   *
+   * @param descriptor event descriptor
+   * @throws IllegalArgumentException if PAYLOAD_POINTER strategy is used without a valid JSON pointer
+   */
+  public static void validate(EventDescriptor descriptor) {
+    if (descriptor.getPartitionKey() == EventDescriptor.PartitionKey.PAYLOAD_POINTER) {
+      if (isEmpty(descriptor.getPartitionKeyPointer())) {
+        throw new IllegalArgumentException("partitionKeyPointer is required for PAYLOAD_POINTER partition key");
+      }
+      JsonPointer.from(descriptor.getPartitionKeyPointer());
+    }
+  }
+
+  private static String resolvePayloadKey(Event event, String pointer) {
+    if (isEmpty(event.getEventPayload()) || isEmpty(pointer)) {
+      return null;
+    }
+    try {
+      Object value = JsonPointer.from(pointer).queryJson(Json.decodeValue(event.getEventPayload()));
+      return value == null ? null : value.toString();
+    } catch (Exception e) {
+      LOGGER.debug("resolvePayloadKey:: Cannot resolve key by pointer {} for event {}: {}", pointer, event.getId(), e.getMessage());
+      return null;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package org.folio.kafka;
+
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.kafka.admin.ConsumerGroupListing;
+import io.vertx.kafka.admin.KafkaAdminClient;
+import io.vertx.kafka.client.common.TopicPartition;
+import io.vertx.kafka.client.consumer.OffsetAndMetadata;
+
+public class ConsumerGroupHandOverTest {
+
+  private static final String ENV = "folio";
+
+  private final KafkaAdminClient adminClient = mock(KafkaAdminClient.class);
+  private final KafkaConfig kafkaConfig = mock(KafkaConfig.class);
+  private final ConsumerGroupHandOver groupHandOver = new ConsumerGroupHandOver(adminClient, kafkaConfig);
+  private final String multiplexedGroupId = PubSubConfig.getMultiplexedGroupId(ENV);
+  private final String topic = new PubSubConfig(ENV, "diku", "CREATED_TEST_EVENT").getTopicName();
+
+  @Before
+  public void setUp() {
+    when(kafkaConfig.getEnvId()).thenReturn(ENV);
+    when(adminClient.alterConsumerGroupOffsets(anyString(), anyMap())).thenReturn(succeededFuture());
+  }
+
+  @Test
+  public void shouldCopyOffsetsOfTopicGroupsToMultiplexedGroup() {
+    ConsumerGroupListing topicGroup = mock(ConsumerGroupListing.class);
+    when(topicGroup.getGroupId()).thenReturn(topic);
+    ConsumerGroupListing otherGroup = mock(ConsumerGroupListing.class);
+    when(otherGroup.getGroupId()).thenReturn("other-module");
+    when(adminClient.listConsumerGroups()).thenReturn(succeededFuture(List.of(topicGroup, otherGroup)));
+    when(adminClient.listConsumerGroupOffsets(topic)).thenReturn(succeededFuture(Map.of(
+      new TopicPartition(topic, 0), new OffsetAndMetadata(10, ""),
+      new TopicPartition(topic, 1), new OffsetAndMetadata(20, ""))));
+    when(adminClient.listConsumerGroupOffsets(multiplexedGroupId)).thenReturn(succeededFuture(Map.of(
+      new TopicPartition(topic, 1), new OffsetAndMetadata(25, ""))));
+
+    assertTrue(groupHandOver.toMultiplexedGroup().succeeded());
+
+    verify(adminClient, never()).listConsumerGroupOffsets("other-module");
+    verify(adminClient).alterConsumerGroupOffsets(eq(multiplexedGroupId),
+      argThat(offsets -> offsets.size() == 1 && offsets.get(new TopicPartition(topic, 0)).getOffset() == 10));
+  }
+
+  @Test
+  public void shouldCopyOffsetsOfMultiplexedGroupToTopicGroup() {
+    String otherTopic = new PubSubConfig(ENV, "diku", "UPDATED_TEST_EVENT").getTopicName();
+    when(adminClient.listConsumerGroupOffsets(multiplexedGroupId)).thenReturn(succeededFuture(Map.of(
+      new TopicPartition(topic, 0), new OffsetAndMetadata(10, ""),
+      new TopicPartition(otherTopic, 0), new OffsetAndMetadata(30, ""))));
+    when(adminClient.listConsumerGroupOffsets(topic)).thenReturn(succeededFuture(Map.of()));
+
+    assertTrue(groupHandOver.toTopicGroup(topic).succeeded());
+
+    verify(adminClient).alterConsumerGroupOffsets(eq(topic),
+      argThat(offsets -> offsets.size() == 1 && offsets.get(new TopicPartition(topic, 0)).getOffset() == 10));
+  }
+
+  @Test
+  public void shouldNotOverwriteCommittedOffsets() {
+    when(adminClient.listConsumerGroupOffsets(multiplexedGroupId)).thenReturn(succeededFuture(Map.of(
+      new TopicPartition(topic, 0), new OffsetAndMetadata(10, ""))));
+    when(adminClient.listConsumerGroupOffsets(topic)).thenReturn(succeededFuture(Map.of(
+      new TopicPartition(topic, 0), new OffsetAndMetadata(5, ""))));
+
+    assertTrue(groupHandOver.toTopicGroup(topic).succeeded());
+
+    verify(adminClient, never()).alterConsumerGroupOffsets(anyString(), anyMap());
+  }
+
+  @Test
+  public void shouldIgnoreFailedHandOver() {
+    when(adminClient.listConsumerGroups()).thenReturn(failedFuture("Kafka is not available"));
+    when(adminClient.listConsumerGroupOffsets(any(String.class))).thenReturn(failedFuture("Kafka is not available"));
+
+    assertTrue(groupHandOver.toMultiplexedGroup().succeeded());
+    assertTrue(groupHandOver.toTopicGroup(topic).succeeded());
+  }
+}
@@ -0,0 +1,88 @@
+package org.folio.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventMetadata;
+import org.folio.rest.jaxrs.model.MessagingModule;
+import org.junit.Test;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.kafka.client.consumer.KafkaConsumerRecord;
+import io.vertx.kafka.client.consumer.impl.KafkaConsumerRecordImpl;
+import io.vertx.kafka.client.producer.KafkaHeader;
+import io.vertx.kafka.client.producer.KafkaProducerRecord;
+
+public class DeadLetterRecordsTest {
+
+  private static final String TOPIC = "folio.pub-sub-dlq.diku.record_created";
+  private static final String PAYLOAD = "{\"id\": \"1\"}";
+
+  @Test
+  public void shouldEncodeDeadLetterRecordReadableAsEvent() {
+    Event event = new Event()
+      .withId(UUID.randomUUID().toString())
+      .withEventType("record_created")
+      .withEventMetadata(new EventMetadata()
+        .withTenantId("diku")
+        .withEventTTL(30)
+        .withPublishedBy("mod-very-important-1.0.0"));
+    MessagingModule subscriber = new MessagingModule()
+      .withModuleId("mod-subscriber-1.0.0")
+      .withSubscriberCallback("/callback");
+
+    KafkaProducerRecord<String, Buffer> producerRecord = DeadLetterRecords.encode(TOPIC, event, Buffer.buffer(PAYLOAD), null,
+      subscriber, "response status code is 500", 6, 1000L);
+    KafkaConsumerRecord<String, Buffer> consumerRecord = toConsumerRecord(producerRecord);
+    EventRecordCodec.EventRecord eventRecord = EventRecordCodec.decode(consumerRecord);
+
+    assertEquals(event.getId(), producerRecord.key());
+    assertEquals(event.getId(), eventRecord.getEvent().getId());
+    assertEquals("diku", eventRecord.getEvent().getEventMetadata().getTenantId());
+    assertEquals(PAYLOAD, eventRecord.getPayload().toString());
+    assertEquals("mod-subscriber-1.0.0", DeadLetterRecords.getSubscriberModuleId(consumerRecord));
+    assertEquals("/callback", getHeader(producerRecord, DeadLetterRecords.CALLBACK_HEADER));
+    assertEquals("response status code is 500", getHeader(producerRecord, DeadLetterRecords.REASON_HEADER));
+    assertEquals("6", getHeader(producerRecord, DeadLetterRecords.ATTEMPTS_HEADER));
+    assertEquals("1000", getHeader(producerRecord, DeadLetterRecords.FAILED_AT_HEADER));
+  }
+
+  @Test
+  public void shouldWriteReferenceInsteadOfClaimCheckedPayload() {
+    Event event = new Event()
+      .withId(UUID.randomUUID().toString())
+      .withEventType("record_created")
+      .withEventMetadata(new EventMetadata().withTenantId("diku"));
+    MessagingModule subscriber = new MessagingModule().withModuleId("mod-subscriber-1.0.0");
+
+    KafkaProducerRecord<String, Buffer> producerRecord = DeadLetterRecords.encode(TOPIC, event, Buffer.buffer(PAYLOAD),
+      event.getId(), subscriber, "response status code is 500", 6, 1000L);
+    EventRecordCodec.EventRecord eventRecord = EventRecordCodec.decode(toConsumerRecord(producerRecord));
+
+    assertNull(producerRecord.value());
+    assertEquals(event.getId(), eventRecord.getPayloadReference());
+  }
+
+  private String getHeader(KafkaProducerRecord<String, Buffer> producerRecord, String name) {
+    return producerRecord.headers().stream()
+      .filter(header -> name.equals(header.key()))
+      .map(KafkaHeader::value)
+      .map(Buffer::toString)
+      .findFirst()
+      .orElse(null);
+  }
+
+  private KafkaConsumerRecord<String, Buffer> toConsumerRecord(KafkaProducerRecord<String, Buffer> producerRecord) {
+    RecordHeaders headers = new RecordHeaders();
+    producerRecord.headers().forEach(header -> headers.add(header.key(), header.value().getBytes()));
+    return new KafkaConsumerRecordImpl<>(new ConsumerRecord<>(TOPIC, 0, 0, 0L, TimestampType.NO_TIMESTAMP_TYPE, 0, 0,
+      producerRecord.key(), producerRecord.value(), headers, Optional.empty()));
+  }
+}
@@ -0,0 +1,50 @@
+package org.folio.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class DeliveryWindowTest {
+
+  private final AtomicInteger pauses = new AtomicInteger();
+  private final AtomicInteger resumes = new AtomicInteger();
+  private final DeliveryWindow deliveryWindow =
+    new DeliveryWindow(3, 1, pauses::incrementAndGet, resumes::incrementAndGet);
+
+  @Test
+  public void shouldPauseWhenWindowIsFull() {
+    deliveryWindow.acquire();
+    deliveryWindow.acquire();
+    assertFalse(deliveryWindow.isPaused());
+
+    deliveryWindow.acquire();
+    deliveryWindow.acquire();
+
+    assertTrue(deliveryWindow.isPaused());
+    assertEquals(1, pauses.get());
+    assertEquals(4, deliveryWindow.getInFlight());
+  }
+
+  @Test
+  public void shouldResumeWhenWindowDrainsToThreshold() {
+    for (int i = 0; i < 3; i++) {
+      deliveryWindow.acquire();
+    }
+
+    deliveryWindow.release();
+    assertTrue(deliveryWindow.isPaused());
+    assertEquals(0, resumes.get());
+
+    deliveryWindow.release();
+    assertFalse(deliveryWindow.isPaused());
+    assertEquals(1, resumes.get());
+
+    deliveryWindow.release();
+    assertEquals(1, resumes.get());
+    assertEquals(0, deliveryWindow.getInFlight());
+  }
+}
@@ -0,0 +1,73 @@
+package org.folio.kafka;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventDescriptor.RecordFormat;
+import org.folio.rest.jaxrs.model.EventMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.kafka.client.consumer.KafkaConsumerRecord;
+import io.vertx.kafka.client.producer.KafkaProducerRecord;
+
+/**
+ * Measures encoding of an event into a Kafka record on publish and decoding of the event and its delivery payload
+ * on consume for both record formats. Allocation rate is reported with {@code -prof gc}.
+ * Run after {@code mvn test-compile} with
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main EventRecordCodecBenchmark -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventRecordCodecBenchmark {
+
+  private static final String TOPIC = "folio.Default.diku.record_created";
+
+  @Param({"1024", "65536"})
+  private int payloadSize;
+
+  @Param({"ENVELOPE", "HEADERS"})
+  private RecordFormat format;
+
+  private Event event;
+  private KafkaConsumerRecord<String, Buffer> consumerRecord;
+
+  @Setup
+  public void setUp() {
+    event = new Event()
+      .withId(UUID.randomUUID().toString())
+      .withEventType("record_created")
+      .withEventMetadata(new EventMetadata()
+        .withTenantId("diku")
+        .withEventTTL(30)
+        .withPublishedBy("mod-very-important-1.0.0"))
+      .withEventPayload(new JsonObject().put("content", "x".repeat(payloadSize)).encode());
+    consumerRecord = EventRecordCodecTest.toConsumerRecord(encode());
+  }
+
+  @Benchmark
+  public KafkaProducerRecord<String, Buffer> encode() {
+    return EventRecordCodec.encode(TOPIC, event.getId(), event, format);
+  }
+
+  @Benchmark
+  public Buffer decode() {
+    return EventRecordCodec.decode(consumerRecord).getPayload();
+  }
+}
@@ -0,0 +1,85 @@
+package org.folio.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventDescriptor.RecordFormat;
+import org.folio.rest.jaxrs.model.EventMetadata;
+import org.junit.Test;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import io.vertx.kafka.client.consumer.KafkaConsumerRecord;
+import io.vertx.kafka.client.consumer.impl.KafkaConsumerRecordImpl;
+import io.vertx.kafka.client.producer.KafkaProducerRecord;
+
+public class EventRecordCodecTest {
+
+  private static final String TOPIC = "folio.Default.diku.record_created";
+  private static final String PAYLOAD = "{\"id\": \"1\"}";
+
+  @Test
+  public void shouldEncodeAndDecodeEnvelopeRecord() {
+    Event event = buildEvent();
+
+    EventRecordCodec.EventRecord eventRecord = EventRecordCodec.decode(
+      toConsumerRecord(EventRecordCodec.encode(TOPIC, null, event, null)));
+
+    assertEquals(event.getId(), eventRecord.getEvent().getId());
+    assertEquals(PAYLOAD, eventRecord.getEvent().getEventPayload());
+    assertEquals(PAYLOAD, eventRecord.getPayload().toString());
+  }
+
+  @Test
+  public void shouldEncodeAndDecodeHeadersRecord() {
+    Event event = buildEvent();
+
+    KafkaProducerRecord<String, Buffer> producerRecord = EventRecordCodec.encode(TOPIC, "key", event, RecordFormat.HEADERS);
+    EventRecordCodec.EventRecord eventRecord = EventRecordCodec.decode(toConsumerRecord(producerRecord));
+
+    assertEquals(PAYLOAD, producerRecord.value().toString());
+    assertEquals(event.getId(), eventRecord.getEvent().getId());
+    assertEquals(event.getEventType(), eventRecord.getEvent().getEventType());
+    assertEquals("diku", eventRecord.getEvent().getEventMetadata().getTenantId());
+    assertEquals("mod-very-important-1.0.0", eventRecord.getEvent().getEventMetadata().getPublishedBy());
+    assertNull(eventRecord.getEvent().getEventPayload());
+    assertEquals(PAYLOAD, eventRecord.getPayload().toString());
+  }
+
+  @Test
+  public void shouldDecodeRecordWithoutFormatHeaderAsEnvelope() {
+    Event event = buildEvent();
+    KafkaConsumerRecord<String, Buffer> consumerRecord = new KafkaConsumerRecordImpl<>(
+      new ConsumerRecord<>(TOPIC, 0, 0, null, Buffer.buffer(Json.encode(event))));
+
+    EventRecordCodec.EventRecord eventRecord = EventRecordCodec.decode(consumerRecord);
+
+    assertEquals(event.getId(), eventRecord.getEvent().getId());
+    assertEquals(PAYLOAD, eventRecord.getPayload().toString());
+  }
+
+  static KafkaConsumerRecord<String, Buffer> toConsumerRecord(KafkaProducerRecord<String, Buffer> producerRecord) {
+    RecordHeaders headers = new RecordHeaders();
+    producerRecord.headers().forEach(header -> headers.add(header.key(), header.value().getBytes()));
+    return new KafkaConsumerRecordImpl<>(new ConsumerRecord<>(TOPIC, 0, 0, 0L, TimestampType.NO_TIMESTAMP_TYPE, 0, 0,
+      producerRecord.key(), producerRecord.value(), headers, Optional.empty()));
+  }
+
+  private Event buildEvent() {
+    return new Event()
+      .withId(UUID.randomUUID().toString())
+      .withEventType("record_created")
+      .withEventMetadata(new EventMetadata()
+        .withTenantId("diku")
+        .withEventTTL(30)
+        .withPublishedBy("mod-very-important-1.0.0"))
+      .withEventPayload(PAYLOAD);
+  }
+}
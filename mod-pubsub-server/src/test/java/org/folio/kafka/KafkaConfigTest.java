@@ -1,5 +1,7 @@
 package org.folio.kafka;
 
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
 import java.util.Map;
 
 import org.junit.Assert;
@@ -17,6 +19,7 @@ public class KafkaConfigTest {
     Assert.assertEquals("JKS", producerProps.get("ssl.truststore.type"));
     Assert.assertEquals("JKS", producerProps.get("ssl.keystore.type"));
     Assert.assertNull(producerProps.get("ssl.keystore.password"));
+    Assert.assertEquals("io.vertx.kafka.client.serialization.BufferSerializer", producerProps.get("value.serializer"));
   }
 
   @Test
@@ -28,5 +31,53 @@ public class KafkaConfigTest {
     Assert.assertEquals("JKS", consumerProps.get("ssl.truststore.type"));
     Assert.assertEquals("JKS", consumerProps.get("ssl.keystore.type"));
     Assert.assertNull(consumerProps.get("ssl.keystore.password"));
+    Assert.assertEquals("io.vertx.kafka.client.serialization.BufferDeserializer", consumerProps.get("value.deserializer"));
+    Assert.assertEquals("read_committed", consumerProps.get("isolation.level"));
+    Assert.assertEquals("false", consumerProps.get("enable.auto.commit"));
+  }
+
+  @Test
+  public void shouldOverrideProducerPropertiesByProfile() {
+    MODULE_SPECIFIC_ARGS.put("kafka.producer.profile.bulk.compression.type", "lz4");
+    MODULE_SPECIFIC_ARGS.put("kafka.producer.profile.bulk.linger.ms", "50");
+    MODULE_SPECIFIC_ARGS.put("kafka.producer.profile.bulk.value.serializer", "org.apache.kafka.common.serialization.StringSerializer");
+    try {
+      KafkaConfig kafkaConfig = new KafkaConfig();
+      Map<String, String> producerProps = kafkaConfig.getProducerProps("bulk");
+
+      Assert.assertTrue(kafkaConfig.hasProducerProfile("bulk"));
+      Assert.assertFalse(kafkaConfig.hasProducerProfile("circulation"));
+      Assert.assertEquals("lz4", producerProps.get("compression.type"));
+      Assert.assertEquals("50", producerProps.get("linger.ms"));
+      Assert.assertEquals("true", producerProps.get("enable.idempotence"));
+      Assert.assertEquals("io.vertx.kafka.client.serialization.BufferSerializer", producerProps.get("value.serializer"));
+      Assert.assertNull(kafkaConfig.getProducerProps("circulation").get("compression.type"));
+    } finally {
+      MODULE_SPECIFIC_ARGS.keySet().removeIf(key -> key.startsWith("kafka.producer.profile.bulk."));
+    }
+  }
+
+  @Test
+  public void shouldDisableIdempotenceIfProfileLowersAcks() {
+    MODULE_SPECIFIC_ARGS.put("kafka.producer.profile.fast.acks", "1");
+    try {
+      Map<String, String> producerProps = new KafkaConfig().getProducerProps("fast");
+
+      Assert.assertEquals("1", producerProps.get("acks"));
+      Assert.assertEquals("false", producerProps.get("enable.idempotence"));
+    } finally {
+      MODULE_SPECIFIC_ARGS.keySet().removeIf(key -> key.startsWith("kafka.producer.profile.fast."));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectProfileLoweringAcksWithIdempotence() {
+    MODULE_SPECIFIC_ARGS.put("kafka.producer.profile.fast.acks", "0");
+    MODULE_SPECIFIC_ARGS.put("kafka.producer.profile.fast.enable.idempotence", "true");
+    try {
+      new KafkaConfig().getProducerProps("fast");
+    } finally {
+      MODULE_SPECIFIC_ARGS.keySet().removeIf(key -> key.startsWith("kafka.producer.profile.fast."));
+    }
   }
 }
@@ -0,0 +1,111 @@
+package org.folio.kafka;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.folio.okapi.common.GenericCompositeFuture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.kafka.client.producer.KafkaProducer;
+import io.vertx.kafka.client.producer.KafkaProducerRecord;
+
+/**
+ * Measures events per second published to a Kafka broker started in a Testcontainers container.
+ * {@code PER_EVENT} creates a producer for every event and closes it once the event is acknowledged, which is how
+ * events were published before {@link KafkaProducerManager}; {@code SHARED} writes through the long-lived producers
+ * of {@link KafkaProducerManager}. Each invocation publishes {@code BATCH_SIZE} events concurrently.
+ * Run after {@code mvn test-compile} with
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main KafkaProducerManagerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class KafkaProducerManagerBenchmark {
+
+  private static final String TOPIC = "folio.pub-sub.diku.record_created.mod-pubsub-1.0.0";
+  private static final int BATCH_SIZE = 100;
+
+  @Param({"PER_EVENT", "SHARED"})
+  private String mode;
+
+  @Param({"1024"})
+  private int payloadSize;
+
+  private KafkaContainer kafkaContainer;
+  private Vertx vertx;
+  private Map<String, String> producerProps;
+  private KafkaProducerManager producerManager;
+  private Buffer payload;
+
+  @Setup
+  public void setUp() {
+    kafkaContainer = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.3.1"));
+    kafkaContainer.start();
+    vertx = Vertx.vertx();
+    producerProps = new HashMap<>();
+    producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers());
+    producerProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "true");
+    producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringSerializer");
+    producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, "io.vertx.kafka.client.serialization.BufferSerializer");
+
+    KafkaConfig kafkaConfig = mock(KafkaConfig.class);
+    when(kafkaConfig.getEnvId()).thenReturn("folio");
+    when(kafkaConfig.getProducerProps(any())).thenAnswer(invocation -> new HashMap<>(producerProps));
+    producerManager = new KafkaProducerManager(vertx, kafkaConfig);
+    payload = Buffer.buffer(new JsonObject().put("content", "x".repeat(payloadSize)).encode());
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    producerManager.closeAll();
+    vertx.close().toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS);
+    kafkaContainer.stop();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public Object publish() throws Exception {
+    List<Future<Void>> futures = new ArrayList<>(BATCH_SIZE);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      KafkaProducerRecord<String, Buffer> record = KafkaProducerRecord.create(TOPIC, UUID.randomUUID().toString(), payload);
+      futures.add("SHARED".equals(mode) ? producerManager.write(TOPIC, record) : writeWithNewProducer(record));
+    }
+    return GenericCompositeFuture.all(futures).toCompletionStage().toCompletableFuture().get(60, TimeUnit.SECONDS);
+  }
+
+  private Future<Void> writeWithNewProducer(KafkaProducerRecord<String, Buffer> record) {
+    KafkaProducer<String, Buffer> producer = KafkaProducer.create(vertx, producerProps);
+    return producer.write(record)
+      .eventually(v -> producer.close());
+  }
+}
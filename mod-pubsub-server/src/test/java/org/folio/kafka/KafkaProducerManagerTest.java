@@ -0,0 +1,125 @@
+package org.folio.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.kafka.client.producer.KafkaProducer;
+import io.vertx.kafka.client.producer.KafkaProducerRecord;
+
+public class KafkaProducerManagerTest {
+
+  private static final String TOPIC = "folio.pub-sub.diku.record_created.mod-pubsub-1.0.0";
+  private static final String OTHER_TOPIC = "folio.pub-sub.diku.record_updated.mod-pubsub-1.0.0";
+
+  private final List<KafkaProducer<String, Buffer>> createdProducers = new CopyOnWriteArrayList<>();
+  private final List<Map<String, String>> createdProps = new CopyOnWriteArrayList<>();
+  private Vertx vertx;
+  private KafkaConfig kafkaConfig;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    kafkaConfig = mock(KafkaConfig.class);
+    when(kafkaConfig.getEnvId()).thenReturn("folio");
+    when(kafkaConfig.getProducerProps(isNull())).thenAnswer(invocation -> new HashMap<>());
+    when(kafkaConfig.getProducerProps("bulk")).thenAnswer(invocation -> new HashMap<>(Map.of("linger.ms", "50")));
+  }
+
+  @After
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Test
+  public void shouldCreateProducerOnFirstWriteAndReuseIt() {
+    KafkaProducerManager producerManager = createProducerManager(600000, 60000, Future.succeededFuture());
+    assertTrue(createdProducers.isEmpty());
+
+    assertTrue(producerManager.write(TOPIC, record(TOPIC)).succeeded());
+    assertTrue(producerManager.write(TOPIC, record(TOPIC)).succeeded());
+    assertEquals(1, createdProducers.size());
+
+    assertTrue(producerManager.write(OTHER_TOPIC, record(OTHER_TOPIC)).succeeded());
+    assertTrue(producerManager.write("bulk", TOPIC, record(TOPIC)).succeeded());
+    assertEquals(3, createdProducers.size());
+    assertEquals("50", createdProps.get(2).get("linger.ms"));
+    verify(createdProducers.get(0), never()).close();
+  }
+
+  @Test
+  public void shouldCloseIdleProducer() {
+    KafkaProducerManager producerManager = createProducerManager(1, 10, Future.succeededFuture());
+
+    assertTrue(producerManager.write(TOPIC, record(TOPIC)).succeeded());
+    verify(createdProducers.get(0), timeout(1000)).close();
+
+    assertTrue(producerManager.write(TOPIC, record(TOPIC)).succeeded());
+    assertEquals(2, createdProducers.size());
+  }
+
+  @Test
+  public void shouldNotCloseProducerWithWriteInFlight() {
+    Promise<Void> acknowledged = Promise.promise();
+    KafkaProducerManager producerManager = createProducerManager(1, 10, acknowledged.future());
+
+    Future<Void> write = producerManager.write(TOPIC, record(TOPIC));
+    verify(createdProducers.get(0), after(200).never()).close();
+
+    acknowledged.complete();
+    assertTrue(write.succeeded());
+    verify(createdProducers.get(0), timeout(1000)).close();
+  }
+
+  @Test
+  public void shouldCloseAllProducers() {
+    KafkaProducerManager producerManager = createProducerManager(600000, 60000, Future.succeededFuture());
+    producerManager.write(TOPIC, record(TOPIC));
+    producerManager.write(OTHER_TOPIC, record(OTHER_TOPIC));
+
+    producerManager.closeAll();
+
+    createdProducers.forEach(producer -> verify(producer).close());
+    assertTrue(producerManager.write(TOPIC, record(TOPIC)).succeeded());
+    assertEquals(3, createdProducers.size());
+  }
+
+  @SuppressWarnings("unchecked")
+  private KafkaProducerManager createProducerManager(long idleTimeoutMs, long idleCheckIntervalMs, Future<Void> writeResult) {
+    return new KafkaProducerManager(vertx, kafkaConfig, idleTimeoutMs, idleCheckIntervalMs) {
+      @Override
+      protected KafkaProducer<String, Buffer> createKafkaProducer(Map<String, String> producerProps) {
+        KafkaProducer<String, Buffer> producer = mock(KafkaProducer.class);
+        when(producer.write(any())).thenReturn(writeResult);
+        when(producer.close()).thenReturn(Future.succeededFuture());
+        createdProducers.add(producer);
+        createdProps.add(producerProps);
+        return producer;
+      }
+    };
+  }
+
+  private static KafkaProducerRecord<String, Buffer> record(String topic) {
+    return KafkaProducerRecord.create(topic, "key", Buffer.buffer("{}"));
+  }
+}
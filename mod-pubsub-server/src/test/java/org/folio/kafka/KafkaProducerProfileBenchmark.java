@@ -0,0 +1,127 @@
+package org.folio.kafka;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.folio.okapi.common.GenericCompositeFuture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.kafka.client.producer.KafkaProducerRecord;
+
+/**
+ * Measures throughput and acknowledgement latency of publishing through {@link KafkaProducerManager} with the default
+ * producer settings and with producer profiles, against a Kafka broker started in a Testcontainers container.
+ * {@code bulk} batches and compresses records, {@code fast} lowers {@code acks} to 1, which disables idempotence.
+ * {@code publishBatch} reports events per second for {@code BATCH_SIZE} concurrent events, {@code publishOne} reports
+ * the latency distribution of a single event.
+ * Run after {@code mvn test-compile} with
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main KafkaProducerProfileBenchmark}.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class KafkaProducerProfileBenchmark {
+
+  private static final String TOPIC = "folio.pub-sub.diku.record_created.mod-pubsub-1.0.0";
+  private static final String DEFAULT_PROFILE = "default";
+  private static final int BATCH_SIZE = 500;
+  private static final Map<String, Map<String, String>> PROFILES = Map.of(
+    "bulk", Map.of(
+      ProducerConfig.LINGER_MS_CONFIG, "20",
+      ProducerConfig.BATCH_SIZE_CONFIG, "262144",
+      ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4"),
+    "fast", Map.of(
+      ProducerConfig.ACKS_CONFIG, "1",
+      ProducerConfig.LINGER_MS_CONFIG, "0"));
+
+  @Param({DEFAULT_PROFILE, "bulk", "fast"})
+  private String profile;
+
+  @Param({"1024"})
+  private int payloadSize;
+
+  private KafkaContainer kafkaContainer;
+  private Vertx vertx;
+  private KafkaProducerManager producerManager;
+  private Buffer payload;
+
+  @Setup
+  public void setUp() {
+    kafkaContainer = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.3.1"));
+    kafkaContainer.start();
+    vertx = Vertx.vertx();
+    PROFILES.forEach((name, props) -> props.forEach((property, value) ->
+      MODULE_SPECIFIC_ARGS.put(KafkaConfig.PRODUCER_PROFILE_PREFIX + name + "." + property, value)));
+
+    KafkaConfig profiles = new KafkaConfig();
+    KafkaConfig kafkaConfig = mock(KafkaConfig.class);
+    when(kafkaConfig.getEnvId()).thenReturn("folio");
+    when(kafkaConfig.getProducerProps(any())).thenAnswer(invocation -> {
+      Map<String, String> producerProps = profiles.getProducerProps(invocation.getArgument(0));
+      producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers());
+      return producerProps;
+    });
+    producerManager = new KafkaProducerManager(vertx, kafkaConfig);
+    payload = Buffer.buffer(new JsonObject().put("content", "x".repeat(payloadSize)).encode());
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    producerManager.closeAll();
+    vertx.close().toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS);
+    kafkaContainer.stop();
+    MODULE_SPECIFIC_ARGS.keySet().removeIf(key -> key.startsWith(KafkaConfig.PRODUCER_PROFILE_PREFIX));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @OperationsPerInvocation(BATCH_SIZE)
+  public Object publishBatch() throws Exception {
+    List<Future<Void>> futures = new ArrayList<>(BATCH_SIZE);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      futures.add(write());
+    }
+    return GenericCompositeFuture.all(futures).toCompletionStage().toCompletableFuture().get(60, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public Object publishOne() throws Exception {
+    return write().toCompletionStage().toCompletableFuture().get(60, TimeUnit.SECONDS);
+  }
+
+  private Future<Void> write() {
+    KafkaProducerRecord<String, Buffer> record = KafkaProducerRecord.create(TOPIC, UUID.randomUUID().toString(), payload);
+    return producerManager.write(DEFAULT_PROFILE.equals(profile) ? null : profile, TOPIC, record);
+  }
+}
@@ -0,0 +1,75 @@
+package org.folio.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.vertx.kafka.client.common.TopicPartition;
+import io.vertx.kafka.client.consumer.OffsetAndMetadata;
+
+public class OffsetTrackerTest {
+
+  private static final String TOPIC = "folio.diku.CREATED_TEST_EVENT";
+
+  private final OffsetTracker offsetTracker = new OffsetTracker();
+
+  @Test
+  public void shouldCommitHighestContiguousProcessedOffset() {
+    offsetTracker.received(TOPIC, 0, 10);
+    offsetTracker.received(TOPIC, 0, 11);
+    offsetTracker.received(TOPIC, 0, 12);
+
+    offsetTracker.processed(TOPIC, 0, 12);
+    assertTrue(offsetTracker.getCommittableOffsets().isEmpty());
+
+    offsetTracker.processed(TOPIC, 0, 10);
+    assertEquals(11, getCommittableOffset(0));
+
+    offsetTracker.processed(TOPIC, 0, 11);
+    assertEquals(13, getCommittableOffset(0));
+  }
+
+  @Test
+  public void shouldTrackPartitionsIndependently() {
+    offsetTracker.received(TOPIC, 0, 5);
+    offsetTracker.received(TOPIC, 1, 7);
+
+    offsetTracker.processed(TOPIC, 1, 7);
+
+    Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.getCommittableOffsets();
+    assertEquals(1, offsets.size());
+    assertEquals(8, getCommittableOffset(1));
+  }
+
+  @Test
+  public void shouldNotReturnCommittedOffsetsAgain() {
+    offsetTracker.received(TOPIC, 0, 1);
+    offsetTracker.processed(TOPIC, 0, 1);
+
+    offsetTracker.committed(offsetTracker.getCommittableOffsets());
+    assertTrue(offsetTracker.getCommittableOffsets().isEmpty());
+
+    offsetTracker.received(TOPIC, 0, 2);
+    offsetTracker.processed(TOPIC, 0, 2);
+    assertEquals(3, getCommittableOffset(0));
+  }
+
+  @Test
+  public void shouldForgetRevokedPartitions() {
+    offsetTracker.received(TOPIC, 0, 1);
+    offsetTracker.processed(TOPIC, 0, 1);
+
+    offsetTracker.revoked(List.of(new TopicPartition(TOPIC, 0)));
+    offsetTracker.processed(TOPIC, 0, 2);
+
+    assertTrue(offsetTracker.getCommittableOffsets().isEmpty());
+  }
+
+  private long getCommittableOffset(int partition) {
+    return offsetTracker.getCommittableOffsets().get(new TopicPartition(TOPIC, partition)).getOffset();
+  }
+}
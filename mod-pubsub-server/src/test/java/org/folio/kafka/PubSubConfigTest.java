@@ -1,6 +1,7 @@
 package org.folio.kafka;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.function.Supplier;
@@ -20,6 +21,7 @@ public class PubSubConfigTest {
     assertTrue(pubSubConfig.getTopicName().contains("env.pub-sub.tenant.eventType"));
     assertTrue(pubSubConfig.getTopicName().contains(ENV + ".pub-sub." + TENANT + "." + EVENT_TYPE));
     assertTrue(pubSubConfig.getGroupId().contains(ENV + ".pub-sub." + TENANT + "." + EVENT_TYPE + ".mod-pubsub"));
+    assertEquals(ENV + ".pub-sub-dlq." + TENANT + "." + EVENT_TYPE + ".mod-pubsub", pubSubConfig.getDeadLetterTopicName());
     assertEquals(TENANT, pubSubConfig.getTenant());
     assertEquals(EVENT_TYPE, pubSubConfig.getEventType());
 
@@ -32,6 +34,21 @@ public class PubSubConfigTest {
     assertEquals(EVENT_TYPE, pubSubConfig.getEventType());
   }
 
+  @Test
+  public void checkMultiplexedGroupId() {
+    String groupId = PubSubConfig.getMultiplexedGroupId(ENV);
+    assertTrue(groupId.startsWith(ENV + ".pub-sub.mod-pubsub-"));
+    assertTrue(pubSubConfigSupplier.get().getTopicName().endsWith(groupId.substring((ENV + ".pub-sub").length())));
+  }
+
+  @Test
+  public void checkTopicGroupId() {
+    assertTrue(PubSubConfig.isTopicGroupId(ENV, pubSubConfigSupplier.get().getGroupId()));
+    assertFalse(PubSubConfig.isTopicGroupId(ENV, PubSubConfig.getMultiplexedGroupId(ENV)));
+    assertFalse(PubSubConfig.isTopicGroupId("other", pubSubConfigSupplier.get().getGroupId()));
+    assertFalse(PubSubConfig.isTopicGroupId(ENV, ENV + ".pub-sub." + TENANT + "." + EVENT_TYPE + ".mod-pubsub-1.0.0"));
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void checkQualifierMatchesRegex() {
     PubSubConfig.setTenantCollectionTopicsQualifier("bad_value");
@@ -0,0 +1,233 @@
+package org.folio.rest.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.folio.kafka.ConsumerGroupHandOver;
+import org.folio.kafka.DeliveryContexts;
+import org.folio.kafka.KafkaConfig;
+import org.folio.kafka.PubSubConfig;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventMetadata;
+import org.folio.rest.jaxrs.model.MessagingModule;
+import org.folio.rest.util.OkapiConnectionParams;
+import org.folio.services.ClaimCheckService;
+import org.folio.services.SecurityManager;
+import org.folio.services.cache.Cache;
+import org.folio.services.cache.MessagingModuleIndex;
+import org.folio.services.delivery.CircuitBreakerRegistry;
+import org.folio.services.delivery.DeadLetterPublisher;
+import org.folio.services.delivery.DeliveryLanes;
+import org.folio.services.delivery.DeliveryPayload;
+import org.folio.services.delivery.DurableRetryQueue;
+import org.folio.services.delivery.RetryScheduler;
+import org.folio.services.impl.KafkaConsumerServiceImpl;
+import org.folio.services.metrics.PubSubMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.Context;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+import io.vertx.kafka.client.consumer.KafkaConsumer;
+import io.vertx.kafka.client.consumer.KafkaConsumerRecord;
+import io.vertx.kafka.client.consumer.impl.KafkaConsumerRecordImpl;
+
+/**
+ * Measures throughput of the delivery path of {@link KafkaConsumerServiceImpl} with subscriber consumers spread over
+ * 1, 2, 4 and 8 {@link ConsumerVerticle} instances. Records are passed to the record handlers of stubbed Kafka
+ * consumers on their contexts and delivered by HTTP to a stub callback which answers {@code 204}, so decoding,
+ * subscriber lookup, ordering, circuit breakers and the HTTP round trip are included, Kafka and the database are not.
+ * Run after {@code mvn test-compile} with
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main ConsumerVerticleBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsumerVerticleBenchmark {
+
+  private static final String ENV = "folio";
+  private static final String TENANT = "diku";
+  private static final String CALLBACK = "/callback";
+  private static final int RECORDS_PER_OPERATION = 512;
+  private static final int PAYLOAD_FIELDS = 200;
+  private static final int ORDERING_KEYS = 64;
+
+  @Param({"1", "2", "4", "8"})
+  private int instances;
+
+  private Vertx vertx;
+  private final List<StubConsumer> consumers = new CopyOnWriteArrayList<>();
+  private final Map<String, Buffer> eventsByTopic = new HashMap<>();
+  private final AtomicInteger remaining = new AtomicInteger();
+  private volatile CompletableFuture<Void> delivered;
+
+  @Setup
+  public void setUp() throws Exception {
+    vertx = Vertx.vertx();
+    DeliveryContexts deliveryContexts = new DeliveryContexts();
+    vertx.deployVerticle(() -> new ConsumerVerticle(deliveryContexts), new DeploymentOptions().setInstances(instances))
+      .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    int port = vertx.createHttpServer()
+      .requestHandler(request -> request.response().setStatusCode(204).end())
+      .listen(0)
+      .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS)
+      .actualPort();
+
+    JsonObject payload = new JsonObject();
+    for (int i = 0; i < PAYLOAD_FIELDS; i++) {
+      payload.put("field" + i, UUID.randomUUID().toString());
+    }
+    List<String> eventTypes = new ArrayList<>();
+    List<MessagingModule> subscribers = new ArrayList<>();
+    for (int i = 0; i < instances; i++) {
+      String eventType = "CREATED_TEST_EVENT_" + i;
+      eventTypes.add(eventType);
+      subscribers.add(new MessagingModule()
+        .withId(UUID.randomUUID().toString())
+        .withEventType(eventType)
+        .withModuleId("mod-subscriber-1.0.0")
+        .withTenantId(TENANT)
+        .withModuleRole(MessagingModule.ModuleRole.SUBSCRIBER)
+        .withActivated(true)
+        .withSubscriberCallback(CALLBACK));
+      Event event = new Event()
+        .withId(UUID.randomUUID().toString())
+        .withEventType(eventType)
+        .withEventPayload(payload.encode())
+        .withEventMetadata(new EventMetadata()
+          .withTenantId(TENANT)
+          .withEventTTL(30)
+          .withPublishedBy("mod-publisher-1.0.0"));
+      eventsByTopic.put(new PubSubConfig(ENV, TENANT, eventType).getTopicName(), Buffer.buffer(Json.encode(event)));
+    }
+
+    OkapiConnectionParams params = new OkapiConnectionParams(new HashMap<>(Map.of(
+      "x-okapi-url", "http://localhost:" + port,
+      "x-okapi-tenant", TENANT,
+      "x-okapi-token", "token")), vertx);
+    KafkaConsumerServiceImpl consumerService = createConsumerService(deliveryContexts, params, subscribers);
+    consumerService.subscribe(eventTypes, params)
+      .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public Object deliverRecords() throws Exception {
+    CompletableFuture<Void> operation = new CompletableFuture<>();
+    delivered = operation;
+    remaining.set(RECORDS_PER_OPERATION);
+    for (int i = 0; i < RECORDS_PER_OPERATION; i++) {
+      consumers.get(i % consumers.size()).receive();
+    }
+    return operation.get(10, TimeUnit.SECONDS);
+  }
+
+  @SuppressWarnings("unchecked")
+  private KafkaConsumerServiceImpl createConsumerService(DeliveryContexts deliveryContexts, OkapiConnectionParams params,
+                                                        List<MessagingModule> subscribers) {
+    KafkaConfig kafkaConfig = mock(KafkaConfig.class);
+    when(kafkaConfig.getEnvId()).thenReturn(ENV);
+    when(kafkaConfig.getConsumerProps()).thenAnswer(invocation -> new HashMap<>());
+    SecurityManager securityManager = mock(SecurityManager.class);
+    when(securityManager.getAccessToken(any())).thenReturn(Future.succeededFuture("token"));
+    Cache cache = mock(Cache.class);
+    when(cache.getKnownOkapiParams(TENANT)).thenReturn(params);
+    when(cache.getMessagingModuleIndex()).thenReturn(Future.succeededFuture(new MessagingModuleIndex(subscribers)));
+    ConsumerGroupHandOver groupHandOver = mock(ConsumerGroupHandOver.class);
+    when(groupHandOver.toTopicGroup(anyString())).thenReturn(Future.succeededFuture());
+    PubSubMetrics metrics = new PubSubMetrics(vertx);
+
+    return new KafkaConsumerServiceImpl(vertx, kafkaConfig, securityManager, cache, mock(ClaimCheckService.class),
+      metrics, deliveryContexts, new RetryScheduler(vertx, metrics), mock(DeadLetterPublisher.class),
+      new CircuitBreakerRegistry(vertx, metrics), mock(DurableRetryQueue.class), groupHandOver) {
+
+      @Override
+      protected KafkaConsumer<String, Buffer> createKafkaConsumer(Vertx vertx, Map<String, String> consumerProps) {
+        KafkaConsumer<String, Buffer> consumer = mock(KafkaConsumer.class);
+        StubConsumer stubConsumer = new StubConsumer(Vertx.currentContext(),
+          consumerProps.get(ConsumerConfig.GROUP_ID_CONFIG));
+        doAnswer(invocation -> {
+          stubConsumer.handler = invocation.getArgument(0);
+          return consumer;
+        }).when(consumer).handler(any());
+        when(consumer.subscribe(anyString())).thenReturn(Future.succeededFuture());
+        when(consumer.commit(anyMap())).thenReturn(Future.succeededFuture(Map.of()));
+        consumers.add(stubConsumer);
+        return consumer;
+      }
+
+      @Override
+      protected Future<Void> deliverEvent(Event event, DeliveryPayload payload, DeliveryLanes.Ticket ticket,
+                                          OkapiConnectionParams params) {
+        return super.deliverEvent(event, payload, ticket, params)
+          .onComplete(ar -> {
+            if (remaining.decrementAndGet() == 0) {
+              delivered.complete(null);
+            }
+          });
+      }
+    };
+  }
+
+  /**
+   * Kafka consumer stub which passes records to the record handler on the context the consumer was created on
+   */
+  private class StubConsumer {
+    private final Context context;
+    private final String topic;
+    private Handler<KafkaConsumerRecord<String, Buffer>> handler;
+    private long offset;
+
+    StubConsumer(Context context, String topic) {
+      this.context = context;
+      this.topic = topic;
+    }
+
+    void receive() {
+      context.runOnContext(v -> {
+        long recordOffset = offset++;
+        handler.handle(new KafkaConsumerRecordImpl<>(new ConsumerRecord<>(topic, 0, recordOffset,
+          "key" + recordOffset % ORDERING_KEYS, eventsByTopic.get(topic))));
+      });
+    }
+  }
+}
@@ -35,6 +35,7 @@ import com.github.tomakehurst.wiremock.junit.WireMockRule;
 
 import io.restassured.RestAssured;
 import io.restassured.response.Response;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 
@@ -44,6 +45,8 @@ public class PublishTest extends AbstractRestTest {
   public static WireMockRule wireMockRule = new WireMockRule(
     new WireMockConfiguration().dynamicPort());
   private static final String PUBLISH_PATH = "/pubsub/publish";
+  private static final String PUBLISH_BATCH_PATH = "/pubsub/publish/batch";
+  private static final String PUBLISH_TRANSACTION_PATH = "/pubsub/publish/transaction";
   private static final String CALLBACK_ADDRESS = "/call-me-maybe";
   private static final String LOGIN_URL = "/authn/login-with-expiry";
   private static final String USERS_URL = "/users";
@@ -147,6 +150,60 @@ public class PublishTest extends AbstractRestTest {
     }
   }
 
+  @Test
+  public void shouldReturnResultForEachEventInBatch() {
+    EventDescriptor eventDescriptor = postEventDescriptor(EVENT_DESCRIPTOR);
+    registerPublisher(eventDescriptor);
+    JsonObject unregisteredPublisherEvent = EVENT.copy()
+      .put("id", UUID.randomUUID().toString())
+      .put("eventMetadata", EVENT.getJsonObject("eventMetadata").copy().put("publishedBy", "mod-unknown-1.0.0"));
+
+    Response response = RestAssured.given()
+      .spec(spec)
+      .body(new JsonObject().put("events", new JsonArray().add(EVENT).add(unregisteredPublisherEvent)).encode())
+      .when()
+      .post(PUBLISH_BATCH_PATH);
+
+    assertThat(response.statusCode(), is(HttpStatus.SC_OK));
+    JsonArray results = new JsonObject(response.body().asString()).getJsonArray("publishResults");
+    assertThat(results.size(), is(2));
+    assertThat(results.getJsonObject(0).getString("status"), is("PUBLISHED"));
+    assertThat(results.getJsonObject(1).getString("status"), is("REJECTED"));
+    assertThat(results.getJsonObject(1).getString("eventId"), is(unregisteredPublisherEvent.getString("id")));
+  }
+
+  @Test
+  public void shouldPublishEventsInTransaction() {
+    EventDescriptor eventDescriptor = postEventDescriptor(EVENT_DESCRIPTOR);
+    registerPublisher(eventDescriptor);
+    JsonObject secondEvent = EVENT.copy().put("id", UUID.randomUUID().toString());
+
+    RestAssured.given()
+      .spec(spec)
+      .body(new JsonObject().put("events", new JsonArray().add(EVENT).add(secondEvent)).encode())
+      .when()
+      .post(PUBLISH_TRANSACTION_PATH)
+      .then()
+      .statusCode(HttpStatus.SC_NO_CONTENT);
+  }
+
+  @Test
+  public void shouldRejectAllEventsInTransactionIfOnePublisherIsNotRegistered() {
+    EventDescriptor eventDescriptor = postEventDescriptor(EVENT_DESCRIPTOR);
+    registerPublisher(eventDescriptor);
+    JsonObject unregisteredPublisherEvent = EVENT.copy()
+      .put("id", UUID.randomUUID().toString())
+      .put("eventMetadata", EVENT.getJsonObject("eventMetadata").copy().put("publishedBy", "mod-unknown-1.0.0"));
+
+    RestAssured.given()
+      .spec(spec)
+      .body(new JsonObject().put("events", new JsonArray().add(EVENT).add(unregisteredPublisherEvent)).encode())
+      .when()
+      .post(PUBLISH_TRANSACTION_PATH)
+      .then()
+      .statusCode(HttpStatus.SC_BAD_REQUEST);
+  }
+
   private void registerPublisher(EventDescriptor eventDescriptor) {
     PublisherDescriptor publisherDescriptor = new PublisherDescriptor()
       .withEventDescriptors(Collections.singletonList(eventDescriptor))
@@ -1,10 +1,12 @@
 package org.folio.rest.util;
 
 import org.apache.http.HttpStatus;
+import org.folio.services.ratelimit.RateLimitExceededException;
 import org.junit.Test;
 
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.InternalServerErrorException;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
@@ -31,4 +33,14 @@ public class ExceptionHelperTest {
     assertEquals(MediaType.TEXT_PLAIN, response.getMediaType().toString());
     assertTrue(response.getEntity().toString().contains("Internal Server Error"));
   }
+
+  @Test
+  public void shouldReturnTooManyRequestsResponseWithRetryAfterHeader() {
+    Response response = ExceptionHelper.mapExceptionToResponse(new RateLimitExceededException("Rate limit message", 3));
+    assertNotNull(response);
+    assertEquals(429, response.getStatus());
+    assertEquals(MediaType.TEXT_PLAIN, response.getMediaType().toString());
+    assertEquals("3", response.getHeaderString(HttpHeaders.RETRY_AFTER));
+    assertEquals("Rate limit message", response.getEntity().toString());
+  }
 }
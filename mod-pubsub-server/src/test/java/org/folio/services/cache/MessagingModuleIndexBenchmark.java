@@ -0,0 +1,96 @@
+package org.folio.services.cache;
+
+import static org.folio.rest.jaxrs.model.MessagingModule.ModuleRole.PUBLISHER;
+import static org.folio.rest.jaxrs.model.MessagingModule.ModuleRole.SUBSCRIBER;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.rest.jaxrs.model.MessagingModule;
+import org.folio.rest.util.MessagingModuleFilter;
+import org.folio.services.util.MessagingModulesUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares routing of an event through {@link MessagingModuleIndex} with the linear scan of {@link MessagingModulesUtil#filter}.
+ * Run after {@code mvn test-compile} with
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main MessagingModuleIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessagingModuleIndexBenchmark {
+
+  private static final int SUBSCRIBERS_PER_EVENT_TYPE = 3;
+
+  @Param({"10", "100"})
+  private int tenants;
+
+  @Param({"10", "100"})
+  private int eventTypes;
+
+  private Set<MessagingModule> modules;
+  private MessagingModuleIndex index;
+  private String tenantId;
+  private String eventType;
+  private String publisherId;
+
+  @Setup
+  public void setUp() {
+    modules = new HashSet<>();
+    for (int t = 0; t < tenants; t++) {
+      for (int e = 0; e < eventTypes; e++) {
+        modules.add(MessagingModuleIndexTest.buildModule("tenant_" + t, "EVENT_" + e, "mod-publisher-" + e, PUBLISHER));
+        for (int s = 0; s < SUBSCRIBERS_PER_EVENT_TYPE; s++) {
+          modules.add(MessagingModuleIndexTest.buildModule("tenant_" + t, "EVENT_" + e, "mod-subscriber-" + s, SUBSCRIBER));
+        }
+      }
+    }
+    index = new MessagingModuleIndex(modules);
+    tenantId = "tenant_" + tenants / 2;
+    eventType = "EVENT_" + eventTypes / 2;
+    publisherId = "mod-publisher-" + eventTypes / 2;
+  }
+
+  @Benchmark
+  public Set<MessagingModule> filterSubscribers() {
+    return MessagingModulesUtil.filter(modules, new MessagingModuleFilter()
+      .withTenantId(tenantId)
+      .withModuleRole(SUBSCRIBER)
+      .withEventType(eventType));
+  }
+
+  @Benchmark
+  public List<MessagingModule> indexSubscribers() {
+    return index.get(tenantId, eventType, SUBSCRIBER);
+  }
+
+  @Benchmark
+  public Set<MessagingModule> filterPublisher() {
+    return MessagingModulesUtil.filter(modules, new MessagingModuleFilter()
+      .withModuleId(publisherId)
+      .withTenantId(tenantId)
+      .withModuleRole(PUBLISHER)
+      .withEventType(eventType));
+  }
+
+  @Benchmark
+  public List<MessagingModule> indexPublisher() {
+    return index.get(tenantId, eventType, PUBLISHER, publisherId);
+  }
+}
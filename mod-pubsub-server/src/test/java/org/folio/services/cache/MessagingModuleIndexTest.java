@@ -0,0 +1,80 @@
+package org.folio.services.cache;
+
+import static org.folio.rest.jaxrs.model.MessagingModule.ModuleRole.PUBLISHER;
+import static org.folio.rest.jaxrs.model.MessagingModule.ModuleRole.SUBSCRIBER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.folio.rest.jaxrs.model.MessagingModule;
+import org.folio.rest.util.MessagingModuleFilter;
+import org.folio.services.util.MessagingModulesUtil;
+import org.junit.Test;
+
+public class MessagingModuleIndexTest {
+
+  private static final String TENANT = "diku";
+  private static final String EVENT_TYPE = "record_created";
+
+  private final MessagingModule publisher = buildModule(TENANT, EVENT_TYPE, "mod-publisher-1.0.0", PUBLISHER);
+  private final MessagingModule subscriber = buildModule(TENANT, EVENT_TYPE, "mod-subscriber-1.0.0", SUBSCRIBER);
+  private final MessagingModule secondSubscriber = buildModule(TENANT, EVENT_TYPE, "mod-other-subscriber-1.0.0", SUBSCRIBER);
+  private final MessagingModule otherTenantSubscriber = buildModule("other", EVENT_TYPE, "mod-subscriber-1.0.0", SUBSCRIBER);
+  private final Set<MessagingModule> modules = Set.of(publisher, subscriber, secondSubscriber, otherTenantSubscriber);
+
+  @Test
+  public void shouldReturnModulesOfTenantEventTypeAndRole() {
+    MessagingModuleIndex index = new MessagingModuleIndex(modules);
+
+    List<MessagingModule> subscribers = index.get(TENANT, EVENT_TYPE, SUBSCRIBER);
+
+    assertEquals(Set.of(subscriber, secondSubscriber), Set.copyOf(subscribers));
+    assertEquals(List.of(publisher), index.get(TENANT, EVENT_TYPE, PUBLISHER));
+    assertEquals(List.of(otherTenantSubscriber), index.get("other", EVENT_TYPE, SUBSCRIBER));
+    assertSame(subscribers, index.get(TENANT, EVENT_TYPE, SUBSCRIBER));
+  }
+
+  @Test
+  public void shouldReturnModulesById() {
+    MessagingModuleIndex index = new MessagingModuleIndex(modules);
+
+    assertEquals(List.of(publisher), index.get(TENANT, EVENT_TYPE, PUBLISHER, "mod-publisher-1.0.0"));
+    assertTrue(index.get(TENANT, EVENT_TYPE, PUBLISHER, "mod-subscriber-1.0.0").isEmpty());
+  }
+
+  @Test
+  public void shouldReturnEmptyListIfNoRouteExists() {
+    MessagingModuleIndex index = new MessagingModuleIndex(modules);
+
+    assertTrue(index.get("unknown", EVENT_TYPE, SUBSCRIBER).isEmpty());
+    assertTrue(index.get(TENANT, "unknown_event", SUBSCRIBER).isEmpty());
+    assertTrue(MessagingModuleIndex.EMPTY.get(TENANT, EVENT_TYPE, SUBSCRIBER).isEmpty());
+  }
+
+  @Test
+  public void shouldReturnSameModulesAsFilter() {
+    MessagingModuleIndex index = new MessagingModuleIndex(modules);
+
+    Set<MessagingModule> filtered = MessagingModulesUtil.filter(modules, new MessagingModuleFilter()
+      .withTenantId(TENANT)
+      .withEventType(EVENT_TYPE)
+      .withModuleRole(SUBSCRIBER));
+
+    assertEquals(filtered, Set.copyOf(index.get(TENANT, EVENT_TYPE, SUBSCRIBER)));
+  }
+
+  static MessagingModule buildModule(String tenantId, String eventType, String moduleId, MessagingModule.ModuleRole role) {
+    return new MessagingModule()
+      .withId(UUID.randomUUID().toString())
+      .withTenantId(tenantId)
+      .withEventType(eventType)
+      .withModuleId(moduleId)
+      .withModuleRole(role)
+      .withActivated(true)
+      .withSubscriberCallback(role == SUBSCRIBER ? "/callback/" + moduleId : null);
+  }
+}
@@ -0,0 +1,170 @@
+package org.folio.services.delivery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.folio.rest.jaxrs.model.CircuitBreaker;
+import org.folio.rest.jaxrs.model.CircuitBreakerCollection;
+import org.folio.rest.util.RestUtil;
+import org.folio.services.metrics.PubSubMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class CircuitBreakerRegistryTest {
+
+  private static final String TENANT_ID = "diku";
+  private static final String CALLBACK = "/source-storage/records";
+  private static final long OPEN_DURATION_MS = 50;
+
+  private Vertx vertx;
+  private PubSubMetrics metrics;
+  private final AtomicLong clock = new AtomicLong(1_000);
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    metrics = new PubSubMetrics(vertx);
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void shouldOpenAfterConsecutiveFailures() {
+    CircuitBreakerRegistry registry = createRegistry(10);
+
+    registry.onFailure(TENANT_ID, CALLBACK);
+    registry.onFailure(TENANT_ID, CALLBACK);
+    registry.onSuccess(TENANT_ID, CALLBACK);
+    registry.onFailure(TENANT_ID, CALLBACK);
+    registry.onFailure(TENANT_ID, CALLBACK);
+    assertTrue(registry.tryAcquire(TENANT_ID, CALLBACK));
+
+    registry.onFailure(TENANT_ID, CALLBACK);
+
+    assertFalse(registry.tryAcquire(TENANT_ID, CALLBACK));
+    assertTrue(registry.tryAcquire("other", CALLBACK));
+    CircuitBreaker breaker = registry.getCircuitBreakers(TENANT_ID).getCircuitBreakers().get(0);
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    assertEquals(3, breaker.getConsecutiveFailures().intValue());
+  }
+
+  @Test
+  public void shouldLetLimitedTrialsThroughWhenOpenDurationElapsed() {
+    CircuitBreakerRegistry registry = createRegistry(10);
+    openBreaker(registry);
+
+    clock.addAndGet(OPEN_DURATION_MS);
+
+    assertTrue(registry.tryAcquire(TENANT_ID, CALLBACK));
+    assertFalse(registry.tryAcquire(TENANT_ID, CALLBACK));
+    assertEquals(CircuitBreaker.State.HALF_OPEN, getState(registry));
+
+    registry.onFailure(TENANT_ID, CALLBACK);
+
+    assertEquals(CircuitBreaker.State.OPEN, getState(registry));
+    assertFalse(registry.tryAcquire(TENANT_ID, CALLBACK));
+  }
+
+  @Test
+  public void shouldRunDeferredDeliveriesWhenBreakerCloses(TestContext context) {
+    Async async = context.async(2);
+    CircuitBreakerRegistry registry = createRegistry(10);
+    openBreaker(registry);
+    assertTrue(registry.defer(TENANT_ID, CALLBACK, async::countDown));
+    assertTrue(registry.defer(TENANT_ID, CALLBACK, async::countDown));
+    assertEquals(2, registry.getCircuitBreakers(TENANT_ID).getCircuitBreakers().get(0).getDeferredEvents().intValue());
+
+    clock.addAndGet(OPEN_DURATION_MS);
+    assertTrue(registry.tryAcquire(TENANT_ID, CALLBACK));
+    registry.onSuccess(TENANT_ID, CALLBACK);
+
+    assertEquals(CircuitBreaker.State.CLOSED, getState(registry));
+  }
+
+  @Test
+  public void shouldProbeWithDeferredDeliveryWhenOpenDurationElapsed(TestContext context) {
+    Async async = context.async();
+    CircuitBreakerRegistry registry = new CircuitBreakerRegistry(vertx, metrics, true, 3, OPEN_DURATION_MS, 1, 10,
+      System::currentTimeMillis);
+    openBreaker(registry);
+
+    registry.defer(TENANT_ID, CALLBACK, () -> {
+      context.assertTrue(registry.tryAcquire(TENANT_ID, CALLBACK));
+      context.assertEquals(CircuitBreaker.State.HALF_OPEN, getState(registry));
+      async.complete();
+    });
+  }
+
+  @Test
+  public void shouldRejectDeferralWhenDeferredQueueIsFull() {
+    CircuitBreakerRegistry registry = createRegistry(1);
+    openBreaker(registry);
+
+    assertTrue(registry.defer(TENANT_ID, CALLBACK, () -> { }));
+    assertFalse(registry.defer(TENANT_ID, CALLBACK, () -> { }));
+  }
+
+  @Test
+  public void shouldCountOnlyUnavailabilityAsFailure() {
+    CircuitBreakerRegistry registry = createRegistry(10);
+
+    for (int i = 0; i < 5; i++) {
+      registry.record(TENANT_ID, CALLBACK, Future.succeededFuture(response(404)));
+    }
+    assertEquals(CircuitBreaker.State.CLOSED, getState(registry));
+
+    registry.record(TENANT_ID, CALLBACK, Future.succeededFuture(response(503)));
+    registry.record(TENANT_ID, CALLBACK, Future.succeededFuture(response(429)));
+    registry.record(TENANT_ID, CALLBACK, Future.failedFuture("Connection refused"));
+
+    assertEquals(CircuitBreaker.State.OPEN, getState(registry));
+    assertTrue(metrics.toPrometheus().contains("pubsub_delivery_breaker_opened_total 1\n"));
+  }
+
+  @Test
+  public void shouldAlwaysLetDeliveriesThroughIfDisabled() {
+    CircuitBreakerRegistry registry = new CircuitBreakerRegistry(vertx, metrics, false, 1, OPEN_DURATION_MS, 1, 10,
+      clock::get);
+    registry.onFailure(TENANT_ID, CALLBACK);
+
+    assertTrue(registry.tryAcquire(TENANT_ID, CALLBACK));
+  }
+
+  private CircuitBreakerRegistry createRegistry(int maxDeferred) {
+    return new CircuitBreakerRegistry(vertx, metrics, true, 3, OPEN_DURATION_MS, 1, maxDeferred, clock::get);
+  }
+
+  private void openBreaker(CircuitBreakerRegistry registry) {
+    for (int i = 0; i < 3; i++) {
+      registry.onFailure(TENANT_ID, CALLBACK);
+    }
+  }
+
+  private CircuitBreaker.State getState(CircuitBreakerRegistry registry) {
+    CircuitBreakerCollection collection = registry.getCircuitBreakers(TENANT_ID);
+    return collection.getCircuitBreakers().get(0).getState();
+  }
+
+  private RestUtil.WrappedResponse response(int statusCode) {
+    RestUtil.WrappedResponse response = mock(RestUtil.WrappedResponse.class);
+    when(response.getCode()).thenReturn(statusCode);
+    return response;
+  }
+}
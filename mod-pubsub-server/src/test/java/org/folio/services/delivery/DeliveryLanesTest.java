@@ -0,0 +1,128 @@
+package org.folio.services.delivery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+public class DeliveryLanesTest {
+
+  private final DeliveryLanes deliveryLanes = new DeliveryLanes();
+
+  @Test
+  public void shouldRunTasksOfTheSameLaneOneAfterAnother() {
+    List<String> started = new ArrayList<>();
+    Promise<Void> first = Promise.promise();
+    Promise<Void> second = Promise.promise();
+
+    deliveryLanes.execute("lane", () -> {
+      started.add("first");
+      return first.future();
+    });
+    Future<Void> secondResult = deliveryLanes.execute("lane", () -> {
+      started.add("second");
+      return second.future();
+    });
+
+    assertEquals(List.of("first"), started);
+    first.fail("Subscriber is not available");
+    assertEquals(List.of("first", "second"), started);
+    assertFalse(secondResult.isComplete());
+
+    second.complete();
+    assertTrue(secondResult.succeeded());
+    assertEquals(0, deliveryLanes.size());
+  }
+
+  @Test
+  public void shouldRunTasksOfDifferentLanesConcurrently() {
+    List<String> started = new ArrayList<>();
+
+    deliveryLanes.execute("lane1", () -> {
+      started.add("first");
+      return Promise.<Void>promise().future();
+    });
+    deliveryLanes.execute("lane2", () -> {
+      started.add("second");
+      return Promise.<Void>promise().future();
+    });
+
+    assertEquals(List.of("first", "second"), started);
+    assertEquals(2, deliveryLanes.size());
+  }
+
+  @Test
+  public void shouldHoldLaneUntilTicketIsReleased() {
+    List<String> started = new ArrayList<>();
+    DeliveryLanes.Ticket first = deliveryLanes.reserve("lane", "key");
+    DeliveryLanes.Ticket second = deliveryLanes.reserve("lane", "key");
+
+    assertTrue(first.turn().isComplete());
+    assertFalse(second.turn().isComplete());
+
+    deliveryLanes.execute("other lane", () -> {
+      started.add("other");
+      return Future.succeededFuture();
+    });
+    first.release();
+    assertTrue(second.turn().isComplete());
+    second.release();
+
+    assertEquals(List.of("other"), started);
+    assertEquals(0, deliveryLanes.size());
+  }
+
+  @Test
+  public void shouldStartTaskOnContextItWasSubmittedFrom() throws Exception {
+    Vertx vertx = Vertx.vertx();
+    try {
+      Context firstContext = vertx.getOrCreateContext();
+      Context secondContext = vertx.getOrCreateContext();
+      Promise<Void> first = Promise.promise();
+      CompletableFuture<Void> firstSubmitted = new CompletableFuture<>();
+      CompletableFuture<Void> secondSubmitted = new CompletableFuture<>();
+      CompletableFuture<Context> secondStartedOn = new CompletableFuture<>();
+
+      firstContext.runOnContext(v -> {
+        deliveryLanes.execute("lane", first::future);
+        firstSubmitted.complete(null);
+      });
+      firstSubmitted.get(5, TimeUnit.SECONDS);
+      secondContext.runOnContext(v -> {
+        deliveryLanes.execute("lane", () -> {
+          secondStartedOn.complete(Vertx.currentContext());
+          return Future.succeededFuture();
+        });
+        secondSubmitted.complete(null);
+      });
+      secondSubmitted.get(5, TimeUnit.SECONDS);
+      assertFalse(secondStartedOn.isDone());
+      firstContext.runOnContext(v -> first.complete());
+
+      assertSame(secondContext, secondStartedOn.get(5, TimeUnit.SECONDS));
+    } finally {
+      vertx.close();
+    }
+  }
+
+  @Test
+  public void shouldSpreadKeysAmongLanes() {
+    assertEquals(DeliveryLanes.getLaneIndex("instance-1", 8), DeliveryLanes.getLaneIndex("instance-1", 8));
+    for (int i = 0; i < 100; i++) {
+      int index = DeliveryLanes.getLaneIndex("key" + i, 8);
+      assertTrue(index >= 0 && index < 8);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package org.folio.services.delivery;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.folio.dao.DeliveryRetryDao;
+import org.folio.kafka.DeliveryContexts;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventMetadata;
+import org.folio.rest.jaxrs.model.MessagingModule;
+import org.folio.services.cache.Cache;
+import org.folio.services.metrics.PubSubMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class DurableRetryQueueTest {
+
+  private static final String TENANT_ID = "diku";
+  private static final String CALLBACK = "/source-storage/records";
+
+  @Mock
+  private DeliveryRetryDao deliveryRetryDao;
+  @Mock
+  private Cache cache;
+  private Vertx vertx;
+  private DurableRetryQueue retryQueue;
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.openMocks(this);
+    vertx = Vertx.vertx();
+    retryQueue = new DurableRetryQueue(vertx, deliveryRetryDao, cache, new DeliveryContexts(), new PubSubMetrics(vertx));
+    when(cache.getRegisteredTenants()).thenReturn(Future.succeededFuture(Set.of(TENANT_ID)));
+    when(deliveryRetryDao.delete(any(), eq(TENANT_ID))).thenReturn(Future.succeededFuture(true));
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void shouldStoreRetryDueAfterDelay(TestContext context) {
+    when(deliveryRetryDao.save(any(DeliveryRetry.class), eq(TENANT_ID))).thenReturn(Future.succeededFuture());
+    MessagingModule subscriber = new MessagingModule()
+      .withModuleId("mod-source-record-storage-1.0.0")
+      .withSubscriberCallback(CALLBACK);
+    long startedAt = System.currentTimeMillis();
+
+    retryQueue.enqueue(buildEvent(), DeliveryPayload.inline(Buffer.buffer("payload")), subscriber, TENANT_ID, 2,
+        "Connection refused", 5000)
+      .onComplete(context.asyncAssertSuccess(v -> {
+        ArgumentCaptor<DeliveryRetry> captor = ArgumentCaptor.forClass(DeliveryRetry.class);
+        verify(deliveryRetryDao).save(captor.capture(), eq(TENANT_ID));
+        DeliveryRetry retry = captor.getValue();
+        context.assertEquals("payload", retry.payload());
+        context.assertNull(retry.payloadReference());
+        context.assertEquals(CALLBACK, retry.subscriberCallback());
+        context.assertEquals(2, retry.attempt());
+        context.assertTrue(retry.dueDate().getTime() >= startedAt + 5000);
+      }));
+  }
+
+  @Test
+  public void shouldStoreReferenceOfClaimCheckedPayload(TestContext context) {
+    when(deliveryRetryDao.save(any(DeliveryRetry.class), eq(TENANT_ID))).thenReturn(Future.succeededFuture());
+    MessagingModule subscriber = new MessagingModule()
+      .withModuleId("mod-source-record-storage-1.0.0")
+      .withSubscriberCallback(CALLBACK);
+    Event event = buildEvent();
+    DeliveryPayload payload = DeliveryPayload.claimed(Buffer.buffer("payload"), event.getId());
+
+    retryQueue.enqueue(event, payload, subscriber, TENANT_ID, 1, "Connection refused", 5000)
+      .onComplete(context.asyncAssertSuccess(v -> {
+        ArgumentCaptor<DeliveryRetry> captor = ArgumentCaptor.forClass(DeliveryRetry.class);
+        verify(deliveryRetryDao).save(captor.capture(), eq(TENANT_ID));
+        context.assertNull(captor.getValue().payload());
+        context.assertEquals(event.getId(), captor.getValue().payloadReference());
+        context.assertTrue(payload.isRetained());
+      }));
+  }
+
+  @Test
+  public void shouldDeleteRetryWhenHandled() {
+    DeliveryRetry retry = buildRetry();
+    when(deliveryRetryDao.claimDue(any(Date.class), any(Date.class), anyInt(), eq(TENANT_ID)))
+      .thenReturn(Future.succeededFuture(List.of(retry)));
+    retryQueue.setRetryHandler(r -> Future.succeededFuture());
+
+    retryQueue.poll();
+
+    verify(deliveryRetryDao, timeout(1000)).delete(retry.id(), TENANT_ID);
+  }
+
+  @Test
+  public void shouldKeepRetryWhenHandlingFailed() {
+    DeliveryRetry retry = buildRetry();
+    when(deliveryRetryDao.claimDue(any(Date.class), any(Date.class), anyInt(), eq(TENANT_ID)))
+      .thenReturn(Future.succeededFuture(List.of(retry)));
+    retryQueue.setRetryHandler(r -> Future.failedFuture("Could not find OkapiConnectionParams"));
+
+    retryQueue.poll();
+
+    verify(deliveryRetryDao, timeout(1000)).claimDue(any(Date.class), any(Date.class), anyInt(), eq(TENANT_ID));
+    verify(deliveryRetryDao, never()).delete(any(), any());
+  }
+
+  private DeliveryRetry buildRetry() {
+    return new DeliveryRetry(UUID.randomUUID().toString(), TENANT_ID, buildEvent(), "payload", null,
+      "mod-source-record-storage-1.0.0", CALLBACK, 1, "Connection refused", new Date());
+  }
+
+  private Event buildEvent() {
+    return new Event()
+      .withId(UUID.randomUUID().toString())
+      .withEventType("record_created")
+      .withEventMetadata(new EventMetadata()
+        .withTenantId(TENANT_ID)
+        .withEventTTL(30)
+        .withPublishedBy("mod-very-important-1.0.0"));
+  }
+}
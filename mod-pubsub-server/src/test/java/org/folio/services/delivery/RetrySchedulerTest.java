@@ -0,0 +1,70 @@
+package org.folio.services.delivery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.folio.services.metrics.PubSubMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class RetrySchedulerTest {
+
+  private Vertx vertx;
+  private RetryScheduler retryScheduler;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    retryScheduler = new RetryScheduler(vertx, new PubSubMetrics(vertx));
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void shouldGrowDelayExponentiallyUpToMaxDelay() {
+    assertEquals(1000, RetryScheduler.getBackoffDelay(1, 1000, 60000, 1.0));
+    assertEquals(500, RetryScheduler.getBackoffDelay(1, 1000, 60000, 0.0));
+    assertEquals(8000, RetryScheduler.getBackoffDelay(4, 1000, 60000, 1.0));
+    assertEquals(60000, RetryScheduler.getBackoffDelay(10, 1000, 60000, 1.0));
+    assertEquals(60000, RetryScheduler.getBackoffDelay(100, 1000, 60000, 1.0));
+  }
+
+  @Test
+  public void shouldKeepJitteredDelayWithinBounds() {
+    for (int attempt = 1; attempt <= 10; attempt++) {
+      long delay = retryScheduler.getBackoffDelay(attempt);
+      assertTrue(delay > 0);
+      assertTrue(delay <= 60000);
+    }
+  }
+
+  @Test
+  public void shouldRunRetriesInOrderOfDueTime(TestContext context) {
+    Async async = context.async();
+    List<Integer> executed = new CopyOnWriteArrayList<>();
+    retryScheduler.schedule(300, () -> {
+      executed.add(3);
+      context.assertEquals(List.of(1, 2, 3), executed);
+      context.assertEquals(0, retryScheduler.size());
+      async.complete();
+    });
+    retryScheduler.schedule(200, () -> executed.add(2));
+    retryScheduler.schedule(100, () -> executed.add(1));
+
+    context.assertEquals(3, retryScheduler.size());
+  }
+}
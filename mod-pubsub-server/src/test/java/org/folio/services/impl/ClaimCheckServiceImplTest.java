@@ -0,0 +1,98 @@
+package org.folio.services.impl;
+
+import static io.vertx.core.Future.succeededFuture;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+
+import org.folio.dao.EventPayloadDao;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventMetadata;
+import org.folio.services.cache.Cache;
+import org.folio.services.metrics.PubSubMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.Vertx;
+
+public class ClaimCheckServiceImplTest {
+
+  private static final String TENANT_ID = "diku";
+
+  private Vertx vertx;
+  private EventPayloadDao eventPayloadDao;
+  private Cache cache;
+  private ClaimCheckServiceImpl claimCheckService;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    eventPayloadDao = mock(EventPayloadDao.class);
+    cache = mock(Cache.class);
+    claimCheckService = new ClaimCheckServiceImpl(vertx, eventPayloadDao, new PubSubMetrics(vertx), cache, 100);
+  }
+
+  @After
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Test
+  public void shouldRequireOffloadOnlyForPayloadsAboveThreshold() {
+    assertFalse(claimCheckService.isOffloadRequired(buildEvent("a".repeat(100))));
+    assertTrue(claimCheckService.isOffloadRequired(buildEvent("a".repeat(101))));
+    assertTrue(claimCheckService.isOffloadRequired(buildEvent("é".repeat(51))));
+    assertFalse(claimCheckService.isOffloadRequired(buildEvent(null)));
+  }
+
+  @Test
+  public void shouldNotRequireOffloadWhenThresholdIsNotSet() {
+    ClaimCheckServiceImpl disabled = new ClaimCheckServiceImpl(vertx, eventPayloadDao, new PubSubMetrics(vertx), cache, 0);
+
+    assertFalse(disabled.isOffloadRequired(buildEvent("a".repeat(10_000))));
+  }
+
+  @Test
+  public void shouldStorePayloadUntilEventExpires() {
+    Event event = buildEvent("a".repeat(200));
+    when(eventPayloadDao.save(any(), any(), any(), any())).thenReturn(succeededFuture(true));
+
+    long start = System.currentTimeMillis();
+    assertTrue(claimCheckService.store(event, TENANT_ID).succeeded());
+
+    verify(eventPayloadDao).save(eq(event.getId()), eq(event.getEventPayload()),
+      argThat((Date date) -> date.getTime() >= start + 5 * 60_000), eq(TENANT_ID));
+  }
+
+  @Test
+  public void shouldDeleteExpiredPayloadsOfAllRegisteredTenants() {
+    when(cache.getRegisteredTenants()).thenReturn(succeededFuture(Set.of(TENANT_ID, "college")));
+    when(eventPayloadDao.deleteExpired(any())).thenReturn(succeededFuture(1));
+
+    claimCheckService.deleteExpiredPayloads();
+
+    verify(eventPayloadDao).deleteExpired(TENANT_ID);
+    verify(eventPayloadDao).deleteExpired("college");
+  }
+
+  private Event buildEvent(String payload) {
+    return new Event()
+      .withId(UUID.randomUUID().toString())
+      .withEventType("record_created")
+      .withEventMetadata(new EventMetadata()
+        .withTenantId(TENANT_ID)
+        .withEventTTL(5)
+        .withPublishedBy("mod-very-important-1.0.0"))
+      .withEventPayload(payload);
+  }
+}
@@ -3,9 +3,17 @@ package org.folio.services.impl;
 import static io.vertx.core.Future.succeededFuture;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -13,23 +21,42 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
 import org.folio.config.user.SystemUserConfig;
+import org.folio.kafka.ConsumerGroupHandOver;
+import org.folio.kafka.DeliveryContexts;
+import org.folio.kafka.EventRecordCodec;
 import org.folio.kafka.KafkaConfig;
 import org.folio.rest.jaxrs.model.Event;
 import org.folio.rest.jaxrs.model.EventMetadata;
 import org.folio.rest.jaxrs.model.MessagingModule;
 import org.folio.rest.util.OkapiConnectionParams;
 import org.folio.rest.util.RestUtil;
+import org.folio.services.ClaimCheckService;
 import org.folio.services.SecurityManager;
 import org.folio.services.cache.Cache;
+import org.folio.services.cache.MessagingModuleIndex;
+import org.folio.services.delivery.CircuitBreakerRegistry;
+import org.folio.services.delivery.DeadLetterPublisher;
+import org.folio.services.delivery.DeliveryPayload;
+import org.folio.services.delivery.DeliveryRetry;
+import org.folio.services.delivery.DurableRetryQueue;
+import org.folio.services.delivery.RetryScheduler;
+import org.folio.services.metrics.PubSubMetrics;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Before;
 import org.junit.Rule;
@@ -45,11 +72,16 @@ import com.github.tomakehurst.wiremock.common.Slf4jNotifier;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.github.tomakehurst.wiremock.matching.RequestPatternBuilder;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import com.github.tomakehurst.wiremock.verification.LoggedRequest;
 
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.Json;
+import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import io.vertx.kafka.client.consumer.KafkaConsumer;
@@ -63,6 +95,7 @@ public class ConsumerServiceUnitTest {
   private static final String TOKEN = "token";
   private static final String CALLBACK_ADDRESS = "/source-storage/records";
   private static final String EVENT_TYPE = "record_created";
+  private static final String SUBSCRIBER_MODULE_ID = "mod-source-record-storage-1.0.0";
 
   private static final String OKAPI_URL_HEADER = "x-okapi-url";
   private static final String OKAPI_TENANT_HEADER = "x-okapi-tenant";
@@ -76,7 +109,16 @@ public class ConsumerServiceUnitTest {
   private Cache cache;
   @Mock
   private SystemUserConfig systemUserConfig;
+  @Mock
+  private ClaimCheckService claimCheckService;
+  @Mock
+  private DeadLetterPublisher deadLetterPublisher;
+  @Mock
+  private DurableRetryQueue durableRetryQueue;
+  @Mock
+  private ConsumerGroupHandOver groupHandOver;
   private SecurityManager securityManager;
+  private CircuitBreakerRegistry circuitBreakers;
   private KafkaConsumerServiceImpl consumerService;
   private Map<String, String> headers = new HashMap<>();
 
@@ -91,10 +133,19 @@ public class ConsumerServiceUnitTest {
     MockitoAnnotations.openMocks(this);
     securityManager = spy(new SecurityManagerImpl(cache, systemUserConfig));
 
+    PubSubMetrics metrics = new PubSubMetrics(vertx);
+    circuitBreakers = spy(new CircuitBreakerRegistry(vertx, metrics));
     consumerService = spy(new KafkaConsumerServiceImpl(
-      vertx, kafkaConfig, securityManager, cache));
+      vertx, kafkaConfig, securityManager, cache, claimCheckService, metrics, new DeliveryContexts(),
+      new RetryScheduler(vertx, metrics), deadLetterPublisher, circuitBreakers, durableRetryQueue, groupHandOver));
 
     doReturn(succeededFuture(TOKEN)).when(securityManager).getAccessToken(any(OkapiConnectionParams.class));
+    doReturn(succeededFuture()).when(deadLetterPublisher).publish(any(), any(), any(), any(), any(), anyInt());
+    when(durableRetryQueue.isEnabled()).thenReturn(true);
+    doReturn(succeededFuture()).when(groupHandOver).toTopicGroup(anyString());
+    doReturn(succeededFuture()).when(groupHandOver).toMultiplexedGroup();
+    doReturn(succeededFuture()).when(durableRetryQueue)
+      .enqueue(any(Event.class), any(), any(MessagingModule.class), anyString(), anyInt(), anyString(), anyLong());
 
     headers.put(OKAPI_URL_HEADER, "http://localhost:" + mockServer.port());
     headers.put(OKAPI_TENANT_HEADER, TENANT);
@@ -147,7 +198,7 @@ public class ConsumerServiceUnitTest {
   public void shouldNotSendRequestIfNoSubscribersFound(TestContext context) {
     var event = buildEvent();
     var params = new OkapiConnectionParams(headers, vertx);
-    when(cache.getMessagingModules()).thenReturn(succeededFuture(new HashSet<>()));
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(new HashSet<>())));
 
     consumerService.deliverEvent(event, params)
     .onComplete(context.asyncAssertSuccess(x -> {
@@ -156,6 +207,39 @@ public class ConsumerServiceUnitTest {
     }));
   }
 
+  @Test
+  public void shouldReportDeliveredRedelivery(TestContext context) {
+    WireMock.stubFor(WireMock.post(CALLBACK_ADDRESS)
+      .willReturn(WireMock.noContent()));
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(Set.of(buildSubscriber()))));
+
+    consumerService.redeliver(new EventRecordCodec.EventRecord(buildEvent(), Buffer.buffer("{}"), null), SUBSCRIBER_MODULE_ID,
+        buildOkapiConnectionParams())
+      .onComplete(context.asyncAssertSuccess(v ->
+        assertEquals(1, WireMock.findAll(RequestPatternBuilder.allRequests()).size())));
+  }
+
+  @Test
+  public void shouldReportFailedRedelivery(TestContext context) {
+    WireMock.stubFor(WireMock.post(CALLBACK_ADDRESS)
+      .willReturn(WireMock.serverError()));
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(Set.of(buildSubscriber()))));
+
+    consumerService.redeliver(new EventRecordCodec.EventRecord(buildEvent(), Buffer.buffer("{}"), null), SUBSCRIBER_MODULE_ID,
+        buildOkapiConnectionParams())
+      .onComplete(context.asyncAssertFailure(e -> assertTrue(e.getMessage().contains("500"))));
+  }
+
+  @Test
+  public void shouldReportRedeliveryToUnregisteredSubscriber(TestContext context) {
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(new HashSet<>())));
+
+    consumerService.redeliver(new EventRecordCodec.EventRecord(buildEvent(), Buffer.buffer("{}"), null), SUBSCRIBER_MODULE_ID,
+        buildOkapiConnectionParams())
+      .onComplete(context.asyncAssertFailure(e ->
+        assertEquals(0, WireMock.findAll(RequestPatternBuilder.allRequests()).size())));
+  }
+
   @Test
   public void shouldSendRequestToFoundSubscribers(TestContext context) {
     WireMock.stubFor(WireMock.post(CALLBACK_ADDRESS)
@@ -180,11 +264,11 @@ public class ConsumerServiceUnitTest {
       .withModuleRole(MessagingModule.ModuleRole.SUBSCRIBER)
       .withActivated(true)
       .withSubscriberCallback(CALLBACK_ADDRESS));
-    when(cache.getMessagingModules()).thenReturn(succeededFuture(messagingModuleList));
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(messagingModuleList)));
 
     consumerService.deliverEvent(event, params)
     .onComplete(context.asyncAssertSuccess(x -> {
-      verify(consumerService, times(messagingModuleList.size())).getEventDeliveredHandler(any(Event.class), anyString(), any(MessagingModule.class), any(OkapiConnectionParams.class), any(Map.class));
+      verify(consumerService, times(messagingModuleList.size())).getEventDeliveredHandler(any(Event.class), any(DeliveryPayload.class), anyString(), any(MessagingModule.class), any(OkapiConnectionParams.class), any(Map.class), anyBoolean());
       verify(securityManager, times(0)).invalidateToken(TENANT);
     }));
   }
@@ -213,7 +297,7 @@ public class ConsumerServiceUnitTest {
       .withModuleRole(MessagingModule.ModuleRole.SUBSCRIBER)
       .withActivated(true)
       .withSubscriberCallback(CALLBACK_ADDRESS));
-    when(cache.getMessagingModules()).thenReturn(succeededFuture(messagingModuleList));
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(messagingModuleList)));
 
     consumerService.deliverEvent(event, params)
     .onComplete(context.asyncAssertSuccess(x -> {
@@ -221,6 +305,177 @@ public class ConsumerServiceUnitTest {
     }));
   }
 
+  @Test
+  public void shouldHoldEventWhileDeliveryIsDeferredInMemory(TestContext context) {
+    WireMock.stubFor(WireMock.post(CALLBACK_ADDRESS).willReturn(WireMock.noContent()));
+    doReturn(false).when(circuitBreakers).tryAcquire(TENANT, CALLBACK_ADDRESS);
+    when(durableRetryQueue.isEnabled()).thenReturn(false);
+
+    var event = buildEvent();
+    var params = buildOkapiConnectionParams();
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(buildMessagingModules())));
+
+    var delivered = consumerService.deliverEvent(event, params);
+    Async async = context.async();
+    vertx.setTimer(500, timerId -> {
+      context.assertFalse(delivered.isComplete());
+      assertEquals(0, WireMock.findAll(RequestPatternBuilder.allRequests()).size());
+      verify(circuitBreakers).defer(eq(TENANT), eq(CALLBACK_ADDRESS), any(Runnable.class));
+      verify(consumerService, times(0)).getEventDeliveredHandler(any(Event.class), any(DeliveryPayload.class), anyString(), any(MessagingModule.class), any(OkapiConnectionParams.class), any(Map.class), anyBoolean());
+      async.complete();
+    });
+  }
+
+  @Test
+  public void shouldStoreDeferredDeliveryInDurableRetryQueue(TestContext context) {
+    doReturn(false).when(circuitBreakers).tryAcquire(TENANT, CALLBACK_ADDRESS);
+
+    var event = buildEvent();
+    var params = buildOkapiConnectionParams();
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(buildMessagingModules())));
+
+    long openDurationMs = circuitBreakers.getOpenDurationMs();
+    consumerService.deliverEvent(event, params)
+    .onComplete(context.asyncAssertSuccess(x -> {
+      assertEquals(0, WireMock.findAll(RequestPatternBuilder.allRequests()).size());
+      verify(circuitBreakers, never()).defer(anyString(), anyString(), any(Runnable.class));
+      verify(durableRetryQueue).enqueue(eq(event), any(), any(MessagingModule.class), eq(TENANT), eq(0), anyString(),
+        eq(openDurationMs));
+    }));
+  }
+
+  @Test
+  public void shouldStoreStoredRetryAgainWhileCircuitBreakerIsOpen(TestContext context) {
+    doReturn(false).when(circuitBreakers).tryAcquire(TENANT, CALLBACK_ADDRESS);
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Function<DeliveryRetry, Future<Void>>> retryHandler = ArgumentCaptor.forClass(Function.class);
+    verify(durableRetryQueue).setRetryHandler(retryHandler.capture());
+
+    var event = buildEvent();
+    when(cache.getKnownOkapiParams(TENANT)).thenReturn(buildOkapiConnectionParams());
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(buildMessagingModules())));
+    var storedRetry = new DeliveryRetry(UUID.randomUUID().toString(), TENANT, event, null, null,
+      "mod-source-record-storage-1.0.0", CALLBACK_ADDRESS, 3, "Subscriber is not available", new Date());
+
+    long openDurationMs = circuitBreakers.getOpenDurationMs();
+    retryHandler.getValue().apply(storedRetry)
+    .onComplete(context.asyncAssertSuccess(x -> {
+      assertEquals(0, WireMock.findAll(RequestPatternBuilder.allRequests()).size());
+      verify(durableRetryQueue).enqueue(eq(event), any(), any(MessagingModule.class), eq(TENANT), eq(3), anyString(),
+        eq(openDurationMs));
+    }));
+  }
+
+  @Test
+  public void shouldHoldEventUntilRetryKeptInMemoryIsFinished(TestContext context) {
+    WireMock.stubFor(WireMock.post(CALLBACK_ADDRESS).inScenario("retry")
+      .whenScenarioStateIs(Scenario.STARTED)
+      .willReturn(WireMock.serverError())
+      .willSetStateTo("available"));
+    WireMock.stubFor(WireMock.post(CALLBACK_ADDRESS).inScenario("retry")
+      .whenScenarioStateIs("available")
+      .willReturn(WireMock.noContent()));
+    when(durableRetryQueue.isEnabled()).thenReturn(false);
+
+    var event = buildEvent();
+    var params = buildOkapiConnectionParams();
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(buildMessagingModules())));
+
+    consumerService.deliverEvent(event, params)
+    .onComplete(context.asyncAssertSuccess(x -> {
+      assertEquals(2, WireMock.findAll(RequestPatternBuilder.allRequests()).size());
+      verify(durableRetryQueue, never()).enqueue(any(Event.class), any(), any(MessagingModule.class), anyString(), anyInt(), anyString(), anyLong());
+    }));
+  }
+
+  @Test
+  public void shouldStoreRetryInDurableRetryQueue(TestContext context) {
+    WireMock.stubFor(WireMock.post(CALLBACK_ADDRESS).willReturn(WireMock.serverError()));
+
+    var event = buildEvent();
+    var params = buildOkapiConnectionParams();
+    Set<MessagingModule> messagingModuleList = new HashSet<>();
+    messagingModuleList.add(new MessagingModule()
+      .withId(UUID.randomUUID().toString())
+      .withEventType(EVENT_TYPE)
+      .withModuleId("mod-source-record-storage-1.0.0")
+      .withTenantId(TENANT)
+      .withModuleRole(MessagingModule.ModuleRole.SUBSCRIBER)
+      .withActivated(true)
+      .withSubscriberCallback(CALLBACK_ADDRESS));
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(messagingModuleList)));
+
+    consumerService.deliverEvent(event, params)
+    .onComplete(context.asyncAssertSuccess(x ->
+      verify(durableRetryQueue).enqueue(eq(event), any(), any(MessagingModule.class), eq(TENANT), eq(1), anyString(), anyLong())));
+  }
+
+  @Test
+  public void shouldDeliverStoredRetryOfTenantNotKnownSinceStartup(TestContext context) {
+    WireMock.stubFor(WireMock.post(CALLBACK_ADDRESS).willReturn(WireMock.noContent()));
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Function<DeliveryRetry, Future<Void>>> retryHandler = ArgumentCaptor.forClass(Function.class);
+    verify(durableRetryQueue).setRetryHandler(retryHandler.capture());
+
+    var event = buildEvent();
+    when(kafkaConfig.getOkapiUrl()).thenReturn("http://localhost:" + mockServer.port());
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(buildMessagingModules())));
+    var storedRetry = new DeliveryRetry(UUID.randomUUID().toString(), TENANT, event, null, null,
+      "mod-source-record-storage-1.0.0", CALLBACK_ADDRESS, 2, "Subscriber is not available", new Date());
+
+    retryHandler.getValue().apply(storedRetry)
+    .onComplete(context.asyncAssertSuccess(x -> {
+      List<LoggedRequest> requests = WireMock.findAll(RequestPatternBuilder.allRequests());
+      assertEquals(1, requests.size());
+      assertEquals(TENANT, requests.get(0).getHeader(OKAPI_TENANT_HEADER));
+    }));
+  }
+
+  @Test
+  public void shouldDeliverStoredRetryWithClaimCheckedPayload(TestContext context) {
+    WireMock.stubFor(WireMock.post(CALLBACK_ADDRESS).willReturn(WireMock.noContent()));
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Function<DeliveryRetry, Future<Void>>> retryHandler = ArgumentCaptor.forClass(Function.class);
+    verify(durableRetryQueue).setRetryHandler(retryHandler.capture());
+
+    var event = buildEvent();
+    when(cache.getKnownOkapiParams(TENANT)).thenReturn(buildOkapiConnectionParams());
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(buildMessagingModules())));
+    when(claimCheckService.fetch(event.getId(), TENANT)).thenReturn(succeededFuture(Buffer.buffer("{\"claimed\":true}")));
+    var storedRetry = new DeliveryRetry(UUID.randomUUID().toString(), TENANT, event, null, event.getId(),
+      "mod-source-record-storage-1.0.0", CALLBACK_ADDRESS, 2, "Subscriber is not available", new Date());
+
+    retryHandler.getValue().apply(storedRetry)
+    .onComplete(context.asyncAssertSuccess(x -> {
+      List<LoggedRequest> requests = WireMock.findAll(RequestPatternBuilder.allRequests());
+      assertEquals(1, requests.size());
+      assertEquals("{\"claimed\":true}", requests.get(0).getBodyAsString());
+      verify(claimCheckService, never()).release(any(), any());
+    }));
+  }
+
+  @Test
+  public void shouldStoreRetryIfEventCannotBeDeadLettered(TestContext context) {
+    WireMock.stubFor(WireMock.post(CALLBACK_ADDRESS).willReturn(WireMock.serverError()));
+    doReturn(Future.failedFuture("Kafka is not available")).when(deadLetterPublisher)
+      .publish(any(), any(), any(), any(), any(), anyInt());
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Function<DeliveryRetry, Future<Void>>> retryHandler = ArgumentCaptor.forClass(Function.class);
+    verify(durableRetryQueue).setRetryHandler(retryHandler.capture());
+
+    var event = buildEvent();
+    when(cache.getKnownOkapiParams(TENANT)).thenReturn(buildOkapiConnectionParams());
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(buildMessagingModules())));
+    var storedRetry = new DeliveryRetry(UUID.randomUUID().toString(), TENANT, event, null, null,
+      "mod-source-record-storage-1.0.0", CALLBACK_ADDRESS, 5, "Subscriber is not available", new Date());
+
+    retryHandler.getValue().apply(storedRetry)
+    .onComplete(context.asyncAssertSuccess(x -> {
+      verify(deadLetterPublisher).publish(eq(event), any(), any(MessagingModule.class), eq(TENANT), anyString(), eq(6));
+      verify(durableRetryQueue).enqueue(eq(event), any(), any(MessagingModule.class), eq(TENANT), eq(6), anyString(), anyLong());
+    }));
+  }
+
   @Test
   public void shouldInvalidateCacheBeforeRetryIfBadRequest(TestContext context) {
     WireMock.stubFor(WireMock.post(CALLBACK_ADDRESS).willReturn(WireMock.badRequest()));
@@ -265,14 +520,15 @@ public class ConsumerServiceUnitTest {
 
   @Test
   public void shouldCheckEventMetadataForTenantId() {
-    KafkaConsumer<String, String> consumer =
-      (KafkaConsumer<String, String>) spy(KafkaConsumer.class);
+    KafkaConsumer<String, Buffer> consumer =
+      (KafkaConsumer<String, Buffer>) spy(KafkaConsumer.class);
 
     doReturn(consumer).when(consumer).handler(any());
-    ArgumentCaptor<Handler<KafkaConsumerRecord<String, String>>> captor =
+    ArgumentCaptor<Handler<KafkaConsumerRecord<String, Buffer>>> captor =
       ArgumentCaptor.forClass(Handler.class);
 
     doReturn(succeededFuture()).when(consumer).subscribe(any(String.class));
+    doReturn(succeededFuture(Map.of())).when(consumer).commit(anyMap());
     doReturn(consumer).when(consumerService).createKafkaConsumer(any(), any());
 
     OkapiConnectionParams okapiConnectionParams =
@@ -282,24 +538,116 @@ public class ConsumerServiceUnitTest {
 
     Mockito.verify(consumer, times(2)).handler(captor.capture());
     captor.getValue().handle(new KafkaConsumerRecordImpl<>(
-      new ConsumerRecord<>("topic1", 1, 1, "key", "{\"eventMetadata\": {}}")));
+      new ConsumerRecord<>("topic1", 1, 1, "key", Buffer.buffer("{\"eventMetadata\": {}}"))));
     captor.getValue().handle(new KafkaConsumerRecordImpl<>(
       new ConsumerRecord<>("topic1", 1, 1, "key",
-        "{\"eventMetadata\": {\"tenantId\": \"tenant1\"}}")));
+        Buffer.buffer("{\"eventMetadata\": {\"tenantId\": \"tenant1\"}}"))));
     cache.setKnownOkapiParams(TENANT, okapiConnectionParams);
     when(cache.getKnownOkapiParams(any())).thenReturn(okapiConnectionParams);
     captor.getValue().handle(new KafkaConsumerRecordImpl<>(
       new ConsumerRecord<>("topic1", 1, 1, "key",
-        "{\"eventMetadata\": {\"tenantId\": \"" + TENANT + "\"}}")));
+        Buffer.buffer("{\"eventMetadata\": {\"tenantId\": \"" + TENANT + "\"}}"))));
 
-    verify(consumerService, times(1)).deliverEvent(any(), any());
+    verify(consumerService, times(1)).deliverEvent(any(), any(), any(), any());
+  }
+
+  @Test
+  public void shouldDeliverPayloadLoadedFromClaimCheckStorage() {
+    KafkaConsumer<String, Buffer> consumer =
+      (KafkaConsumer<String, Buffer>) spy(KafkaConsumer.class);
+    doReturn(consumer).when(consumer).handler(any());
+    ArgumentCaptor<Handler<KafkaConsumerRecord<String, Buffer>>> captor =
+      ArgumentCaptor.forClass(Handler.class);
+    doReturn(succeededFuture()).when(consumer).subscribe(any(String.class));
+    doReturn(succeededFuture(Map.of())).when(consumer).commit(anyMap());
+    doReturn(consumer).when(consumerService).createKafkaConsumer(any(), any());
+
+    OkapiConnectionParams okapiConnectionParams = new OkapiConnectionParams(headers, vertx);
+    when(cache.getKnownOkapiParams(any())).thenReturn(okapiConnectionParams);
+    consumerService.subscribe(List.of(EVENT_TYPE), okapiConnectionParams);
+    Mockito.verify(consumer).handler(captor.capture());
+
+    var event = buildEvent();
+    Buffer payload = Buffer.buffer("Very large payload");
+    when(claimCheckService.fetch(event.getId(), TENANT)).thenReturn(succeededFuture(payload));
+    when(claimCheckService.release(event.getId(), TENANT)).thenReturn(succeededFuture());
+    doReturn(succeededFuture()).when(consumerService).deliverEvent(any(), any(DeliveryPayload.class), any(), any());
+    RecordHeaders recordHeaders = new RecordHeaders();
+    recordHeaders.add(EventRecordCodec.PAYLOAD_REFERENCE_HEADER, event.getId().getBytes(StandardCharsets.UTF_8));
+
+    captor.getValue().handle(new KafkaConsumerRecordImpl<>(new ConsumerRecord<>("topic1", 1, 1, 0L,
+      TimestampType.NO_TIMESTAMP_TYPE, 0, 0, "key", Buffer.buffer(Json.encode(event)),
+      recordHeaders, Optional.empty())));
+
+    verify(consumerService).deliverEvent(any(), argThat(delivered -> delivered != null && delivered.getContent() == payload
+      && event.getId().equals(delivered.getReference())), any(), any());
+    verify(claimCheckService).release(event.getId(), TENANT);
+  }
+
+  @Test
+  public void shouldKeepClaimCheckedPayloadReferredToByDeadLetter() {
+    KafkaConsumer<String, Buffer> consumer =
+      (KafkaConsumer<String, Buffer>) spy(KafkaConsumer.class);
+    doReturn(consumer).when(consumer).handler(any());
+    ArgumentCaptor<Handler<KafkaConsumerRecord<String, Buffer>>> captor =
+      ArgumentCaptor.forClass(Handler.class);
+    doReturn(succeededFuture()).when(consumer).subscribe(any(String.class));
+    doReturn(succeededFuture(Map.of())).when(consumer).commit(anyMap());
+    doReturn(consumer).when(consumerService).createKafkaConsumer(any(), any());
+
+    OkapiConnectionParams okapiConnectionParams = new OkapiConnectionParams(headers, vertx);
+    when(cache.getKnownOkapiParams(any())).thenReturn(okapiConnectionParams);
+    consumerService.subscribe(List.of(EVENT_TYPE), okapiConnectionParams);
+    Mockito.verify(consumer).handler(captor.capture());
+
+    var event = buildEvent();
+    when(claimCheckService.fetch(event.getId(), TENANT)).thenReturn(succeededFuture(Buffer.buffer("Very large payload")));
+    doAnswer(invocation -> {
+      invocation.<DeliveryPayload>getArgument(1).retain();
+      return succeededFuture();
+    }).when(consumerService).deliverEvent(any(), any(DeliveryPayload.class), any(), any());
+    RecordHeaders recordHeaders = new RecordHeaders();
+    recordHeaders.add(EventRecordCodec.PAYLOAD_REFERENCE_HEADER, event.getId().getBytes(StandardCharsets.UTF_8));
+
+    captor.getValue().handle(new KafkaConsumerRecordImpl<>(new ConsumerRecord<>("topic1", 1, 1, 0L,
+      TimestampType.NO_TIMESTAMP_TYPE, 0, 0, "key", Buffer.buffer(Json.encode(event)),
+      recordHeaders, Optional.empty())));
+
+    verify(consumerService).deliverEvent(any(), any(DeliveryPayload.class), any(), any());
+    verify(claimCheckService, never()).release(anyString(), anyString());
+  }
+
+  @Test
+  public void shouldSkipExpiredEventWithoutDelivery() {
+    KafkaConsumer<String, Buffer> consumer =
+      (KafkaConsumer<String, Buffer>) spy(KafkaConsumer.class);
+    doReturn(consumer).when(consumer).handler(any());
+    ArgumentCaptor<Handler<KafkaConsumerRecord<String, Buffer>>> captor =
+      ArgumentCaptor.forClass(Handler.class);
+    doReturn(succeededFuture()).when(consumer).subscribe(any(String.class));
+    doReturn(succeededFuture(Map.of())).when(consumer).commit(anyMap());
+    doReturn(consumer).when(consumerService).createKafkaConsumer(any(), any());
+
+    OkapiConnectionParams okapiConnectionParams = new OkapiConnectionParams(headers, vertx);
+    when(cache.getKnownOkapiParams(any())).thenReturn(okapiConnectionParams);
+    consumerService.subscribe(List.of(EVENT_TYPE), okapiConnectionParams);
+    Mockito.verify(consumer).handler(captor.capture());
+
+    var event = buildEvent();
+    long publishedAt = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(event.getEventMetadata().getEventTTL() + 1L);
+
+    captor.getValue().handle(new KafkaConsumerRecordImpl<>(new ConsumerRecord<>("topic1", 1, 1, publishedAt,
+      TimestampType.CREATE_TIME, 0, 0, "key", Buffer.buffer(Json.encode(event)),
+      new RecordHeaders(), Optional.empty())));
+
+    verify(consumerService, never()).deliverEvent(any(), any(DeliveryPayload.class), any(), any());
   }
 
   private void checkThatInvalidateTokenWasInvoked(TestContext context) {
     var event = buildEvent();
     headers.put(USER_ID, UUID.randomUUID().toString());
     var params = buildOkapiConnectionParams();
-    when(cache.getMessagingModules()).thenReturn(succeededFuture(buildMessagingModules()));
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(buildMessagingModules())));
 
     consumerService.deliverEvent(event, params)
     .onComplete(context.asyncAssertSuccess(x -> {
@@ -312,7 +660,7 @@ public class ConsumerServiceUnitTest {
   private void checkThatInvalidateTokenWasNotInvoked(TestContext context) {
     var event = buildEvent();
     var params = buildOkapiConnectionParams();
-    when(cache.getMessagingModules()).thenReturn(succeededFuture(buildMessagingModules()));
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(buildMessagingModules())));
 
     consumerService.deliverEvent(event, params)
     .onComplete(context.asyncAssertSuccess(x -> {
@@ -335,6 +683,17 @@ public class ConsumerServiceUnitTest {
     return messagingModules;
   }
 
+  private MessagingModule buildSubscriber() {
+    return new MessagingModule()
+      .withId(UUID.randomUUID().toString())
+      .withEventType(EVENT_TYPE)
+      .withModuleId(SUBSCRIBER_MODULE_ID)
+      .withTenantId(TENANT)
+      .withModuleRole(MessagingModule.ModuleRole.SUBSCRIBER)
+      .withActivated(true)
+      .withSubscriberCallback(CALLBACK_ADDRESS);
+  }
+
   private Event buildEvent() {
     return new Event()
       .withId(UUID.randomUUID().toString())
@@ -0,0 +1,247 @@
+package org.folio.services.impl;
+
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.BadRequestException;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.folio.dao.MessagingModuleDao;
+import org.folio.kafka.DeadLetterRecords;
+import org.folio.kafka.EventRecordCodec;
+import org.folio.kafka.KafkaConfig;
+import org.folio.kafka.PubSubConfig;
+import org.folio.rest.jaxrs.model.DeadLetterQueue;
+import org.folio.rest.jaxrs.model.DeadLetterQueueCollection;
+import org.folio.rest.jaxrs.model.DeadLetterReplay;
+import org.folio.rest.jaxrs.model.DeadLetterReplayResult;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventMetadata;
+import org.folio.rest.jaxrs.model.MessagingModule;
+import org.folio.rest.util.MessagingModuleFilter;
+import org.folio.rest.util.OkapiConnectionParams;
+import org.folio.services.ConsumerService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatcher;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.kafka.admin.KafkaAdminClient;
+import io.vertx.kafka.admin.ListOffsetsResultInfo;
+import io.vertx.kafka.admin.OffsetSpec;
+import io.vertx.kafka.admin.TopicDescription;
+import io.vertx.kafka.client.common.TopicPartition;
+import io.vertx.kafka.client.common.TopicPartitionInfo;
+import io.vertx.kafka.client.consumer.KafkaConsumer;
+import io.vertx.kafka.client.consumer.KafkaConsumerRecords;
+import io.vertx.kafka.client.consumer.impl.KafkaConsumerRecordsImpl;
+import io.vertx.kafka.client.producer.KafkaProducerRecord;
+
+public class DeadLetterServiceImplTest {
+
+  private static final String TENANT_ID = "diku";
+  private static final String EVENT_TYPE = "record_created";
+  private static final String SUBSCRIBER_MODULE_ID = "mod-subscriber-1.0.0";
+
+  private Vertx vertx;
+  private KafkaConfig kafkaConfig;
+  private KafkaAdminClient kafkaAdminClient;
+  private MessagingModuleDao messagingModuleDao;
+  private ConsumerService consumerService;
+  private DeadLetterServiceImpl deadLetterService;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    kafkaConfig = mock(KafkaConfig.class);
+    kafkaAdminClient = mock(KafkaAdminClient.class);
+    messagingModuleDao = mock(MessagingModuleDao.class);
+    consumerService = mock(ConsumerService.class);
+    when(kafkaConfig.getEnvId()).thenReturn("folio");
+    deadLetterService = new DeadLetterServiceImpl(vertx, kafkaConfig, kafkaAdminClient, messagingModuleDao, consumerService);
+  }
+
+  @After
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Test
+  public void shouldReturnDepthOfDeadLetterQueues() {
+    String topic = new PubSubConfig("folio", TENANT_ID, EVENT_TYPE).getDeadLetterTopicName();
+    when(messagingModuleDao.get(any(MessagingModuleFilter.class))).thenReturn(succeededFuture(List.of(
+      new MessagingModule().withEventType(EVENT_TYPE).withModuleId("mod-subscriber-1.0.0"),
+      new MessagingModule().withEventType(EVENT_TYPE).withModuleId("mod-other-1.0.0"),
+      new MessagingModule().withEventType("record_deleted").withModuleId("mod-subscriber-1.0.0"))));
+    when(kafkaAdminClient.listTopics()).thenReturn(succeededFuture(Set.of(topic)));
+    TopicDescription description = new TopicDescription()
+      .setName(topic)
+      .setPartitions(List.of(new TopicPartitionInfo().setPartition(0), new TopicPartitionInfo().setPartition(1)));
+    when(kafkaAdminClient.describeTopics(anyList())).thenReturn(succeededFuture(Map.of(topic, description)));
+    when(kafkaAdminClient.listOffsets(argThat(request -> request != null && request.containsValue(OffsetSpec.EARLIEST))))
+      .thenReturn(succeededFuture(Map.of(
+        new TopicPartition(topic, 0), offset(2),
+        new TopicPartition(topic, 1), offset(0))));
+    when(kafkaAdminClient.listOffsets(argThat(request -> request != null && request.containsValue(OffsetSpec.LATEST))))
+      .thenReturn(succeededFuture(Map.of(
+        new TopicPartition(topic, 0), offset(5),
+        new TopicPartition(topic, 1), offset(4))));
+
+    Future<DeadLetterQueueCollection> future = deadLetterService.getDeadLetterQueues(TENANT_ID);
+
+    assertTrue(future.succeeded());
+    assertEquals(1, future.result().getTotalRecords().intValue());
+    DeadLetterQueue queue = future.result().getDeadLetterQueues().get(0);
+    assertEquals(EVENT_TYPE, queue.getEventType());
+    assertEquals(topic, queue.getTopic());
+    assertEquals(7L, queue.getDepth().longValue());
+    assertEquals(2, queue.getPartitions().size());
+    assertEquals(2L, queue.getPartitions().get(0).getBeginningOffset().longValue());
+  }
+
+  @Test
+  public void shouldRejectReplayOfInvertedRange() {
+    Future<DeadLetterReplayResult> future = deadLetterService.replay(new DeadLetterReplay()
+      .withEventType(EVENT_TYPE)
+      .withFromOffset(10L)
+      .withToOffset(5L), new OkapiConnectionParams(vertx));
+
+    assertTrue(future.failed());
+    assertTrue(future.cause() instanceof BadRequestException);
+    verify(consumerService, never()).redeliver(any(), any(), any());
+  }
+
+  @Test
+  public void shouldRejectReplayOfTooLargeRange() {
+    Future<DeadLetterReplayResult> future = deadLetterService.replay(new DeadLetterReplay()
+      .withEventType(EVENT_TYPE)
+      .withFromOffset(0L)
+      .withToOffset(1_000_000L), new OkapiConnectionParams(vertx));
+
+    assertTrue(future.failed());
+    assertTrue(future.cause() instanceof BadRequestException);
+  }
+
+  @Test
+  public void shouldCountFailedRedeliveries() throws Exception {
+    Event delivered = buildEvent();
+    Event rejected = buildEvent();
+    DeadLetterServiceImpl service = spy(deadLetterService);
+    doReturn(mockConsumer(List.of(delivered, rejected))).when(service).createKafkaConsumer(anyString());
+    when(consumerService.redeliver(argThat(hasId(delivered)), eq(SUBSCRIBER_MODULE_ID), any()))
+      .thenReturn(succeededFuture());
+    when(consumerService.redeliver(argThat(hasId(rejected)), eq(SUBSCRIBER_MODULE_ID), any()))
+      .thenReturn(failedFuture("Response status code of /callback is 500"));
+
+    DeadLetterReplayResult result = service.replay(buildReplay(), buildParams())
+      .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+    assertEquals(1, result.getReplayed().intValue());
+    assertEquals(1, result.getFailed().intValue());
+    assertEquals(2L, result.getNextOffset().longValue());
+    assertTrue(result.getCompleted());
+  }
+
+  @Test
+  public void shouldStopReplayAfterMaxDuration() throws Exception {
+    DeadLetterServiceImpl service = spy(new DeadLetterServiceImpl(vertx, kafkaConfig, kafkaAdminClient,
+      messagingModuleDao, consumerService, 0));
+    doReturn(mockConsumer(List.of(buildEvent(), buildEvent()))).when(service).createKafkaConsumer(anyString());
+
+    DeadLetterReplayResult result = service.replay(buildReplay(), buildParams())
+      .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+    assertFalse(result.getCompleted());
+    assertEquals(0L, result.getNextOffset().longValue());
+    verify(consumerService, never()).redeliver(any(), any(), any());
+  }
+
+  private ArgumentMatcher<EventRecordCodec.EventRecord> hasId(Event expected) {
+    return eventRecord -> eventRecord != null && expected.getId().equals(eventRecord.getEvent().getId());
+  }
+
+  private DeadLetterReplay buildReplay() {
+    return new DeadLetterReplay()
+      .withEventType(EVENT_TYPE)
+      .withFromOffset(0L)
+      .withToOffset(1L)
+      .withRatePerSecond(1000.0);
+  }
+
+  private OkapiConnectionParams buildParams() {
+    Map<String, String> headers = new HashMap<>();
+    headers.put("x-okapi-tenant", TENANT_ID);
+    return new OkapiConnectionParams(headers, vertx);
+  }
+
+  private Event buildEvent() {
+    return new Event()
+      .withId(UUID.randomUUID().toString())
+      .withEventType(EVENT_TYPE)
+      .withEventMetadata(new EventMetadata()
+        .withTenantId(TENANT_ID)
+        .withEventTTL(30)
+        .withPublishedBy("mod-publisher-1.0.0"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private KafkaConsumer<String, Buffer> mockConsumer(List<Event> events) {
+    String topic = new PubSubConfig("folio", TENANT_ID, EVENT_TYPE).getDeadLetterTopicName();
+    MessagingModule subscriber = new MessagingModule()
+      .withModuleId(SUBSCRIBER_MODULE_ID)
+      .withSubscriberCallback("/callback");
+    List<ConsumerRecord<String, Buffer>> records = new ArrayList<>();
+    for (int i = 0; i < events.size(); i++) {
+      KafkaProducerRecord<String, Buffer> producerRecord = DeadLetterRecords.encode(topic, events.get(i),
+        Buffer.buffer("{}"), null, subscriber, "response status code is 500", 6, 1000L);
+      RecordHeaders headers = new RecordHeaders();
+      producerRecord.headers().forEach(header -> headers.add(header.key(), header.value().getBytes()));
+      records.add(new ConsumerRecord<>(topic, 0, i, 0L, TimestampType.NO_TIMESTAMP_TYPE, 0, 0,
+        producerRecord.key(), producerRecord.value(), headers, Optional.empty()));
+    }
+    KafkaConsumerRecords<String, Buffer> polled = new KafkaConsumerRecordsImpl<>(
+      new ConsumerRecords<>(Map.of(new org.apache.kafka.common.TopicPartition(topic, 0), records)));
+
+    KafkaConsumer<String, Buffer> consumer = mock(KafkaConsumer.class);
+    when(consumer.assign(any(TopicPartition.class))).thenReturn(succeededFuture());
+    when(consumer.seek(any(TopicPartition.class), anyLong())).thenReturn(succeededFuture());
+    when(consumer.poll(any(Duration.class))).thenReturn(succeededFuture(polled));
+    when(consumer.close()).thenReturn(succeededFuture());
+    return consumer;
+  }
+
+  private ListOffsetsResultInfo offset(long offset) {
+    return new ListOffsetsResultInfo(offset, 0, null);
+  }
+}
@@ -0,0 +1,111 @@
+package org.folio.services.impl;
+
+import static io.vertx.core.Future.succeededFuture;
+import static org.folio.services.metrics.PubSubMetrics.UNKNOWN_EVENT_TYPE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventMetadata;
+import org.folio.rest.jaxrs.model.MessagingModule;
+import org.folio.rest.jaxrs.model.MessagingModule.ModuleRole;
+import org.folio.services.cache.Cache;
+import org.folio.services.cache.MessagingModuleIndex;
+import org.folio.services.metrics.PubSubMetrics;
+import org.folio.services.publish.PublishingService;
+import org.folio.services.publish.dedup.EventIdDeduplicator;
+import org.folio.services.ratelimit.PublishRateLimiter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+
+public class KafkaPublisherServiceImplTest {
+
+  private static final String TENANT_ID = "diku";
+  private static final String EVENT_TYPE = "record_created";
+  private static final String PUBLISHER_ID = "mod-very-important-1.0.0";
+
+  private Vertx vertx;
+  private PubSubMetrics metrics;
+  private KafkaPublisherServiceImpl publisherService;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    metrics = new PubSubMetrics(vertx);
+    Cache cache = mock(Cache.class);
+    PublishingService publishingService = mock(PublishingService.class);
+    EventIdDeduplicator deduplicator = mock(EventIdDeduplicator.class);
+    PublishRateLimiter rateLimiter = mock(PublishRateLimiter.class);
+    when(cache.getMessagingModuleIndex()).thenReturn(succeededFuture(new MessagingModuleIndex(List.of(new MessagingModule()
+      .withTenantId(TENANT_ID)
+      .withEventType(EVENT_TYPE)
+      .withModuleId(PUBLISHER_ID)
+      .withModuleRole(ModuleRole.PUBLISHER)
+      .withActivated(true)))));
+    when(rateLimiter.acquire(any(), any(), any())).thenReturn(succeededFuture());
+    when(publishingService.sendEvent(any(), any())).thenReturn(succeededFuture());
+    when(publishingService.sendEventsInTransaction(any(), any())).thenReturn(succeededFuture());
+    when(deduplicator.publishOnce(any(), any(), any(), any())).thenAnswer(invocation ->
+      invocation.<Function<List<Event>, Future<Void>>>getArgument(3).apply(invocation.getArgument(1)));
+    publisherService = new KafkaPublisherServiceImpl(vertx, cache, publishingService, deduplicator, rateLimiter, metrics);
+  }
+
+  @After
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Test
+  public void shouldTagStagesWithEventTypeOfVerifiedPublisher() {
+    assertTrue(publisherService.publishEvent(buildEvent(EVENT_TYPE), TENANT_ID).succeeded());
+
+    for (String stage : List.of(KafkaPublisherServiceImpl.TOTAL_STAGE, KafkaPublisherServiceImpl.RATE_LIMIT_STAGE,
+      KafkaPublisherServiceImpl.AUDIT_STAGE, KafkaPublisherServiceImpl.VERIFY_STAGE)) {
+      assertEquals(stage, 1, metrics.getStageLatencyCount(stage, TENANT_ID, EVENT_TYPE));
+    }
+  }
+
+  @Test
+  public void shouldTagStagesOfUnverifiedEventTypeAsUnknown() {
+    assertTrue(publisherService.publishEvent(buildEvent(UUID.randomUUID().toString()), TENANT_ID).failed());
+    publisherService.publishEvents(List.of(buildEvent(UUID.randomUUID().toString())), TENANT_ID);
+    assertTrue(publisherService.publishEventsInTransaction(List.of(buildEvent(UUID.randomUUID().toString())), TENANT_ID).failed());
+
+    assertEquals(3, metrics.getStageLatencyCount(KafkaPublisherServiceImpl.TOTAL_STAGE, TENANT_ID, UNKNOWN_EVENT_TYPE));
+    assertEquals(3, metrics.getStageLatencyCount(KafkaPublisherServiceImpl.RATE_LIMIT_STAGE, TENANT_ID, UNKNOWN_EVENT_TYPE));
+    assertEquals(3, metrics.getStageLatencyCount(KafkaPublisherServiceImpl.VERIFY_STAGE, TENANT_ID, UNKNOWN_EVENT_TYPE));
+    assertTrue(metrics.snapshot().fieldNames().stream()
+      .filter(name -> name.startsWith(PubSubMetrics.STAGE_LATENCY))
+      .allMatch(name -> name.endsWith("," + UNKNOWN_EVENT_TYPE + "}")));
+  }
+
+  @Test
+  public void shouldTimeEventsOfBatchAndTransaction() {
+    publisherService.publishEvents(List.of(buildEvent(EVENT_TYPE), buildEvent(EVENT_TYPE)), TENANT_ID);
+    publisherService.publishEventsInTransaction(List.of(buildEvent(EVENT_TYPE)), TENANT_ID);
+
+    assertEquals(3, metrics.getStageLatencyCount(KafkaPublisherServiceImpl.TOTAL_STAGE, TENANT_ID, EVENT_TYPE));
+  }
+
+  private Event buildEvent(String eventType) {
+    return new Event()
+      .withId(UUID.randomUUID().toString())
+      .withEventType(eventType)
+      .withEventMetadata(new EventMetadata()
+        .withTenantId(TENANT_ID)
+        .withEventTTL(1)
+        .withPublishedBy(PUBLISHER_ID))
+      .withEventPayload("{\"id\": \"1\"}");
+  }
+}
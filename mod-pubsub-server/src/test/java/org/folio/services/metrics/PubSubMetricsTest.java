@@ -0,0 +1,80 @@
+package org.folio.services.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+
+public class PubSubMetricsTest {
+
+  private static final String TENANT_ID = "diku";
+  private static final String EVENT_TYPE = "CREATED_TEST_EVENT";
+
+  private Vertx vertx;
+  private PubSubMetrics metrics;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    metrics = new PubSubMetrics(vertx);
+  }
+
+  @After
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Test
+  public void histogramShouldPlaceValuesIntoBucketsWithinPrecision() {
+    for (long value : new long[]{0, 7, 8, 15, 16, 1_000, 123_456_789, Long.MAX_VALUE}) {
+      int index = LatencyHistogram.bucketIndex(value);
+      long upperBound = LatencyHistogram.bucketUpperBound(index);
+      assertTrue(upperBound >= value);
+      assertTrue(upperBound - value <= value / 8);
+    }
+  }
+
+  @Test
+  public void histogramShouldReportPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+    }
+
+    assertEquals(100, histogram.getCount());
+    assertEquals(50, TimeUnit.NANOSECONDS.toMillis(histogram.getPercentileNanos(50)), 50 / 8.0);
+    assertEquals(99, TimeUnit.NANOSECONDS.toMillis(histogram.getPercentileNanos(99)), 99 / 8.0);
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(100), histogram.getPercentileNanos(100));
+  }
+
+  @Test
+  public void shouldRecordStageLatencyOnCompletion() {
+    metrics.timeStage("verify", TENANT_ID, EVENT_TYPE, Future::succeededFuture);
+    metrics.timeStage("verify", TENANT_ID, EVENT_TYPE, () -> Future.failedFuture("Publisher is not registered"));
+
+    assertEquals(2, metrics.getStageLatencyCount("verify", TENANT_ID, EVENT_TYPE));
+    assertEquals(0, metrics.getStageLatencyCount("verify", TENANT_ID, "OTHER_EVENT"));
+  }
+
+  @Test
+  public void shouldRenderMetricsInPrometheusFormat() {
+    metrics.increment("publish.kafka.sent");
+    metrics.recordStageLatency("kafka-ack", TENANT_ID, EVENT_TYPE, System.nanoTime());
+
+    String output = metrics.toPrometheus();
+
+    assertTrue(output.contains("pubsub_publish_kafka_sent_total 1\n"));
+    assertTrue(output.contains("# TYPE pubsub_publish_stage_latency_seconds histogram\n"));
+    assertTrue(output.contains(
+      "pubsub_publish_stage_latency_seconds_bucket{stage=\"kafka-ack\",tenant=\"diku\",event_type=\"CREATED_TEST_EVENT\",le=\"+Inf\"} 1\n"));
+    assertTrue(output.contains(
+      "pubsub_publish_stage_latency_seconds_count{stage=\"kafka-ack\",tenant=\"diku\",event_type=\"CREATED_TEST_EVENT\"} 1\n"));
+  }
+}
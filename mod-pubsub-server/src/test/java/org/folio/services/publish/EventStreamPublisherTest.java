@@ -0,0 +1,151 @@
+package org.folio.services.publish;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.PublishResult;
+import org.folio.rest.jaxrs.model.PublishStreamSummary;
+import org.folio.services.PublisherService;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
+
+public class EventStreamPublisherTest {
+
+  private static final String TENANT = "diku";
+  private static final int MAX_LINE_LENGTH = 1048576;
+
+  @Mock
+  private PublisherService publisherService;
+  private EventStreamPublisher streamPublisher;
+  private final AtomicInteger pauses = new AtomicInteger();
+  private final AtomicInteger resumes = new AtomicInteger();
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.openMocks(this);
+    when(publisherService.publishEvent(any(Event.class), eq(TENANT))).thenReturn(Future.succeededFuture());
+    streamPublisher = new EventStreamPublisher(publisherService, TENANT, MAX_LINE_LENGTH, pauses::incrementAndGet,
+      resumes::incrementAndGet);
+  }
+
+  @Test
+  public void shouldPublishLinesSplitAcrossChunks() {
+    String stream = buildEvent() + "\n" + buildEvent() + "\n\n" + buildEvent();
+    int splitIndex = stream.indexOf('\n') + 10;
+
+    streamPublisher.handleChunk(stream.substring(0, splitIndex).getBytes(UTF_8));
+    streamPublisher.handleChunk(stream.substring(splitIndex).getBytes(UTF_8));
+    PublishStreamSummary summary = streamPublisher.complete().result();
+
+    verify(publisherService, times(3)).publishEvent(any(Event.class), eq(TENANT));
+    assertEquals(Integer.valueOf(3), summary.getTotalLines());
+    assertEquals(Integer.valueOf(3), summary.getPublished());
+    assertEquals(Integer.valueOf(0), summary.getRejected());
+  }
+
+  @Test
+  public void shouldReportRejectedLines() {
+    when(publisherService.publishEvent(any(Event.class), eq(TENANT)))
+      .thenReturn(Future.succeededFuture())
+      .thenReturn(Future.failedFuture("Publisher is not registered"));
+    String stream = buildEvent() + "\nnot a json\n" + buildEvent() + "\n";
+
+    streamPublisher.handleChunk(stream.getBytes(UTF_8));
+    PublishStreamSummary summary = streamPublisher.complete().result();
+
+    assertEquals(Integer.valueOf(3), summary.getTotalLines());
+    assertEquals(Integer.valueOf(1), summary.getPublished());
+    assertEquals(Integer.valueOf(2), summary.getRejected());
+    assertEquals(Integer.valueOf(2), summary.getErrors().get(0).getLineNumber());
+    assertEquals(PublishResult.Status.REJECTED, summary.getErrors().get(1).getStatus());
+    assertEquals(Integer.valueOf(3), summary.getErrors().get(1).getLineNumber());
+  }
+
+  @Test
+  public void shouldPauseStreamWhileTooManyEventsAreInFlight() {
+    List<Promise<Void>> publishes = new ArrayList<>();
+    when(publisherService.publishEvent(any(Event.class), eq(TENANT))).thenAnswer(invocation -> {
+      Promise<Void> promise = Promise.promise();
+      publishes.add(promise);
+      return promise.future();
+    });
+    StringBuilder stream = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      stream.append(buildEvent()).append('\n');
+    }
+
+    streamPublisher.handleChunk(stream.toString().getBytes(UTF_8));
+    assertEquals(1, pauses.get());
+    assertEquals(0, resumes.get());
+
+    publishes.subList(0, 49).forEach(Promise::complete);
+    assertEquals(0, resumes.get());
+    publishes.get(49).complete();
+    assertEquals(1, resumes.get());
+
+    Future<PublishStreamSummary> summary = streamPublisher.complete();
+    publishes.subList(50, 100).forEach(Promise::complete);
+    assertEquals(Integer.valueOf(100), summary.result().getPublished());
+    assertEquals(1, pauses.get());
+  }
+
+  @Test
+  public void shouldTruncateRejectedLineInErrorMessage() {
+    String line = "{\"id\": \"" + "x".repeat(10000) + "\"}";
+
+    streamPublisher.handleChunk((line + "\n").getBytes(UTF_8));
+    PublishStreamSummary summary = streamPublisher.complete().result();
+
+    assertEquals(Integer.valueOf(1), summary.getRejected());
+    assertTrue(summary.getErrors().get(0).getErrorMessage().length() <= 200);
+  }
+
+  @Test
+  public void shouldRejectLineExceedingMaxLengthAndSkipToNextLine() {
+    String event = buildEvent();
+    streamPublisher = new EventStreamPublisher(publisherService, TENANT, event.length(), pauses::incrementAndGet,
+      resumes::incrementAndGet);
+    String oversizedLine = "x".repeat(event.length() * 3);
+
+    streamPublisher.handleChunk((event + "\n" + oversizedLine.substring(0, event.length())).getBytes(UTF_8));
+    streamPublisher.handleChunk(oversizedLine.substring(event.length()).getBytes(UTF_8));
+    streamPublisher.handleChunk(("\n" + event + "\n" + oversizedLine).getBytes(UTF_8));
+    PublishStreamSummary summary = streamPublisher.complete().result();
+
+    verify(publisherService, times(2)).publishEvent(any(Event.class), eq(TENANT));
+    assertEquals(Integer.valueOf(4), summary.getTotalLines());
+    assertEquals(Integer.valueOf(2), summary.getPublished());
+    assertEquals(Integer.valueOf(2), summary.getRejected());
+    assertEquals(Integer.valueOf(2), summary.getErrors().get(0).getLineNumber());
+    assertEquals(Integer.valueOf(4), summary.getErrors().get(1).getLineNumber());
+  }
+
+  private String buildEvent() {
+    return new JsonObject()
+      .put("id", UUID.randomUUID().toString())
+      .put("eventType", "record_created")
+      .put("eventMetadata", new JsonObject()
+        .put("tenantId", TENANT)
+        .put("eventTTL", 30)
+        .put("publishedBy", "mod-very-important-1.0.0"))
+      .encode();
+  }
+}
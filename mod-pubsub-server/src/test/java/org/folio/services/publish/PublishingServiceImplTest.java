@@ -0,0 +1,145 @@
+package org.folio.services.publish;
+
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+import static org.folio.kafka.EventRecordCodec.PAYLOAD_REFERENCE_HEADER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.folio.kafka.KafkaConfig;
+import org.folio.kafka.KafkaProducerManager;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventMetadata;
+import org.folio.services.ClaimCheckService;
+import org.folio.services.cache.EventDescriptorCache;
+import org.folio.services.metrics.PubSubMetrics;
+import org.folio.services.publish.dedup.EventIdDeduplicator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.kafka.client.producer.KafkaHeader;
+import io.vertx.kafka.client.producer.KafkaProducerRecord;
+
+public class PublishingServiceImplTest {
+
+  private static final String TENANT_ID = "diku";
+  private static final String EVENT_TYPE = "record_created";
+  private static final String LARGE_PAYLOAD = "{\"content\": \"" + "a".repeat(200) + "\"}";
+
+  private Vertx vertx;
+  private KafkaProducerManager producerManager;
+  private ClaimCheckService claimCheckService;
+  private PublishingServiceImpl publishingService;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    KafkaConfig kafkaConfig = mock(KafkaConfig.class);
+    EventDescriptorCache eventDescriptorCache = mock(EventDescriptorCache.class);
+    producerManager = mock(KafkaProducerManager.class);
+    claimCheckService = mock(ClaimCheckService.class);
+    when(kafkaConfig.getEnvId()).thenReturn("folio");
+    when(eventDescriptorCache.get(EVENT_TYPE)).thenReturn(succeededFuture(Optional.empty()));
+    when(claimCheckService.isOffloadRequired(any())).thenAnswer(invocation ->
+      invocation.<Event>getArgument(0).getEventPayload().length() > 100);
+    when(claimCheckService.store(any(), any())).thenReturn(succeededFuture());
+    when(claimCheckService.release(any(), any())).thenReturn(succeededFuture());
+    publishingService = new PublishingServiceImpl(vertx, kafkaConfig, producerManager, eventDescriptorCache,
+      new PubSubMetrics(vertx), claimCheckService, mock(EventIdDeduplicator.class));
+  }
+
+  @After
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Test
+  public void shouldSendPayloadReferenceInsteadOfPayloadAboveThreshold() {
+    Event event = buildEvent(LARGE_PAYLOAD);
+    when(producerManager.write(any(), any(), any())).thenReturn(succeededFuture());
+
+    assertTrue(publishingService.sendEvent(event, TENANT_ID).succeeded());
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<KafkaProducerRecord<String, Buffer>> recordCaptor = ArgumentCaptor.forClass(KafkaProducerRecord.class);
+    verify(claimCheckService).store(event, TENANT_ID);
+    verify(producerManager).write(any(), any(), recordCaptor.capture());
+    KafkaProducerRecord<String, Buffer> kafkaRecord = recordCaptor.getValue();
+    assertEquals(event.getId(), getHeader(kafkaRecord, PAYLOAD_REFERENCE_HEADER));
+    assertFalse(new JsonObject(kafkaRecord.value()).containsKey("eventPayload"));
+  }
+
+  @Test
+  public void shouldSendPayloadBelowThresholdInRecord() {
+    Event event = buildEvent("{\"id\": \"1\"}");
+    when(producerManager.write(any(), any(), any())).thenReturn(succeededFuture());
+
+    assertTrue(publishingService.sendEvent(event, TENANT_ID).succeeded());
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<KafkaProducerRecord<String, Buffer>> recordCaptor = ArgumentCaptor.forClass(KafkaProducerRecord.class);
+    verify(claimCheckService, never()).store(any(), any());
+    verify(producerManager).write(any(), any(), recordCaptor.capture());
+    assertEquals(null, getHeader(recordCaptor.getValue(), PAYLOAD_REFERENCE_HEADER));
+    assertEquals(event.getEventPayload(), new JsonObject(recordCaptor.getValue().value()).getString("eventPayload"));
+  }
+
+  @Test
+  public void shouldReleaseStoredPayloadsWhenTransactionIsAborted() {
+    Event largeEvent = buildEvent(LARGE_PAYLOAD);
+    Event smallEvent = buildEvent("{\"id\": \"1\"}");
+    when(producerManager.writeInTransaction(anyList())).thenReturn(failedFuture("Transaction aborted"));
+
+    assertTrue(publishingService.sendEventsInTransaction(List.of(largeEvent, smallEvent), TENANT_ID).failed());
+
+    verify(claimCheckService).release(largeEvent.getId(), TENANT_ID);
+    verify(claimCheckService, never()).release(smallEvent.getId(), TENANT_ID);
+  }
+
+  @Test
+  public void shouldKeepStoredPayloadsWhenTransactionIsCommitted() {
+    Event event = buildEvent(LARGE_PAYLOAD);
+    when(producerManager.writeInTransaction(anyList())).thenReturn(succeededFuture());
+
+    assertTrue(publishingService.sendEventsInTransaction(List.of(event), TENANT_ID).succeeded());
+
+    verify(claimCheckService).store(event, TENANT_ID);
+    verify(claimCheckService, never()).release(any(), any());
+  }
+
+  private static String getHeader(KafkaProducerRecord<String, Buffer> kafkaRecord, String name) {
+    return kafkaRecord.headers().stream()
+      .filter(header -> header.key().equals(name))
+      .map(KafkaHeader::value)
+      .map(Buffer::toString)
+      .findFirst()
+      .orElse(null);
+  }
+
+  private Event buildEvent(String payload) {
+    return new Event()
+      .withId(UUID.randomUUID().toString())
+      .withEventType(EVENT_TYPE)
+      .withEventMetadata(new EventMetadata()
+        .withTenantId(TENANT_ID)
+        .withEventTTL(1)
+        .withPublishedBy("mod-very-important-1.0.0"))
+      .withEventPayload(payload);
+  }
+}
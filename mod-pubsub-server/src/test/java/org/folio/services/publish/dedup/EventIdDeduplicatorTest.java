@@ -0,0 +1,180 @@
+package org.folio.services.publish.dedup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.folio.services.metrics.PubSubMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+public class EventIdDeduplicatorTest {
+
+  private static final String TENANT_ID = "diku";
+
+  private Vertx vertx;
+  private PubSubMetrics metrics;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    metrics = new PubSubMetrics(vertx);
+  }
+
+  @After
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Test
+  public void shouldDetectDuplicateWithinWindow() {
+    EventIdDeduplicator deduplicator = new EventIdDeduplicator(metrics, 60, 10, 1000);
+    String eventId = UUID.randomUUID().toString();
+    List<String> published = new ArrayList<>();
+
+    assertTrue(publish(deduplicator, published, eventId).succeeded());
+    assertTrue(publish(deduplicator, published, eventId).succeeded());
+    assertTrue(publish(deduplicator, published, UUID.randomUUID().toString()).succeeded());
+
+    assertEquals(2, published.size());
+    assertEquals(3, metrics.getCounter(EventIdDeduplicator.CHECKED_COUNTER));
+    assertEquals(1, metrics.getCounter(EventIdDeduplicator.HITS_COUNTER));
+    assertEquals(2, metrics.snapshot().getInteger(EventIdDeduplicator.ENTRIES_GAUGE).intValue());
+  }
+
+  @Test
+  public void shouldAllowResendOfEventWhichFailedToPublish() {
+    EventIdDeduplicator deduplicator = new EventIdDeduplicator(metrics, 60, 10, 1000);
+    String eventId = UUID.randomUUID().toString();
+
+    assertTrue(deduplicator.publishOnce(TENANT_ID, List.of(eventId), Function.identity(), ids -> Future.failedFuture("Kafka is not available")).failed());
+
+    List<String> published = new ArrayList<>();
+    assertTrue(publish(deduplicator, published, eventId).succeeded());
+    assertEquals(List.of(eventId), published);
+  }
+
+  @Test
+  public void shouldWaitForPublishOfTheSameEventInProgress() {
+    EventIdDeduplicator deduplicator = new EventIdDeduplicator(metrics, 60, 10, 1000);
+    String eventId = UUID.randomUUID().toString();
+    Promise<Void> original = Promise.promise();
+    List<String> published = new ArrayList<>();
+
+    Future<Void> originalResult = deduplicator.publishOnce(TENANT_ID, List.of(eventId), Function.identity(), ids -> original.future());
+    Future<Void> retryResult = publish(deduplicator, published, eventId);
+
+    assertFalse(retryResult.isComplete());
+    original.fail("Kafka is not available");
+
+    assertTrue(originalResult.failed());
+    assertTrue(retryResult.succeeded());
+    assertEquals(List.of(eventId), published);
+  }
+
+  @Test
+  public void shouldNotExcludeEventBeingPublishedFromGroupUntilItIsPublished() {
+    EventIdDeduplicator deduplicator = new EventIdDeduplicator(metrics, 60, 10, 1000);
+    String eventId = UUID.randomUUID().toString();
+    String otherEventId = UUID.randomUUID().toString();
+    Promise<Void> original = Promise.promise();
+    List<String> published = new ArrayList<>();
+
+    deduplicator.publishOnce(TENANT_ID, List.of(eventId), Function.identity(), ids -> original.future());
+    Future<Void> groupResult = deduplicator.publishOnce(TENANT_ID, List.of(eventId, otherEventId), Function.identity(), ids -> {
+      published.addAll(ids);
+      return Future.succeededFuture();
+    });
+
+    assertTrue(published.isEmpty());
+    original.complete();
+
+    assertTrue(groupResult.succeeded());
+    assertEquals(List.of(otherEventId), published);
+  }
+
+  @Test
+  public void shouldNotDetectDuplicatesOfOtherTenant() {
+    EventIdDeduplicator deduplicator = new EventIdDeduplicator(metrics, 60, 10, 1000);
+    String eventId = UUID.randomUUID().toString();
+    List<String> published = new ArrayList<>();
+
+    assertTrue(publish(deduplicator, published, eventId).succeeded());
+    assertTrue(deduplicator.publishOnce("college", List.of(eventId), Function.identity(), ids -> {
+      published.addAll(ids);
+      return Future.succeededFuture();
+    }).succeeded());
+
+    assertEquals(List.of(eventId, eventId), published);
+  }
+
+  @Test
+  public void shouldPublishForgottenEventAgain() {
+    EventIdDeduplicator deduplicator = new EventIdDeduplicator(metrics, 60, 10, 1000);
+    String eventId = UUID.randomUUID().toString();
+    List<String> published = new ArrayList<>();
+
+    assertTrue(publish(deduplicator, published, eventId).succeeded());
+    deduplicator.forget(TENANT_ID, eventId);
+    assertTrue(publish(deduplicator, published, eventId).succeeded());
+
+    assertEquals(List.of(eventId, eventId), published);
+    assertEquals(1, metrics.snapshot().getInteger(EventIdDeduplicator.ENTRIES_GAUGE).intValue());
+  }
+
+  @Test
+  public void shouldNotDetectDuplicatesWhenDisabled() {
+    EventIdDeduplicator deduplicator = new EventIdDeduplicator(metrics, 0, 10, 1000);
+    String eventId = UUID.randomUUID().toString();
+    List<String> published = new ArrayList<>();
+
+    publish(deduplicator, published, eventId);
+    publish(deduplicator, published, eventId);
+
+    assertEquals(List.of(eventId, eventId), published);
+  }
+
+  @Test
+  public void shouldKeepIdsAfterResizeAndRemoval() {
+    UuidHashSet set = new UuidHashSet(2, 10_000);
+    for (long i = 1; i <= 5000; i++) {
+      assertTrue(set.add(i, -i));
+    }
+    for (long i = 1; i <= 5000; i += 2) {
+      assertTrue(set.remove(i, -i));
+    }
+
+    assertEquals(2500, set.size());
+    for (long i = 1; i <= 5000; i++) {
+      assertEquals(i % 2 == 0, set.contains(i, -i));
+    }
+  }
+
+  @Test
+  public void shouldNotExceedMaxSize() {
+    UuidHashSet set = new UuidHashSet(16, 3);
+
+    assertTrue(set.add(1, 1));
+    assertTrue(set.add(2, 2));
+    assertTrue(set.add(3, 3));
+    assertFalse(set.add(4, 4));
+    assertEquals(3, set.size());
+  }
+
+  private Future<Void> publish(EventIdDeduplicator deduplicator, List<String> published, String eventId) {
+    return deduplicator.publishOnce(TENANT_ID, List.of(eventId), Function.identity(), ids -> {
+      published.addAll(ids);
+      return Future.succeededFuture();
+    });
+  }
+}
@@ -0,0 +1,172 @@
+package org.folio.services.publish.spool;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.kafka.common.errors.TimeoutException;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventMetadata;
+import org.folio.services.metrics.PubSubMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class PublishSpoolTest {
+
+  private static final String TENANT = "diku";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Vertx vertx;
+  private PubSubMetrics metrics;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    metrics = new PubSubMetrics(vertx);
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void shouldRelaySpooledEventsInOrder(TestContext context) throws IOException {
+    Async async = context.async(3);
+    List<String> sent = new CopyOnWriteArrayList<>();
+    PublishSpool spool = new PublishSpool(vertx, folder.getRoot().toPath(), metrics, (event, tenantId) -> {
+      sent.add(event.getId());
+      async.countDown();
+      return Future.succeededFuture();
+    }, (event, tenantId, cause) -> context.fail(cause));
+    List<Event> events = List.of(buildEvent(), buildEvent(), buildEvent());
+
+    events.forEach(event -> spool.append(event, TENANT).onComplete(context.asyncAssertSuccess()));
+
+    async.awaitSuccess(5000);
+    assertEquals(events.stream().map(Event::getId).toList(), sent);
+    spool.close();
+  }
+
+  @Test
+  public void shouldSendNextEventOnlyAfterPreviousIsAcknowledged(TestContext context) throws IOException {
+    Promise<Void> firstAcknowledged = Promise.promise();
+    Async firstSent = context.async();
+    Async secondSent = context.async();
+    List<String> sent = new CopyOnWriteArrayList<>();
+    PublishSpool spool = new PublishSpool(vertx, folder.getRoot().toPath(), metrics, (event, tenantId) -> {
+      sent.add(event.getId());
+      if (sent.size() == 1) {
+        firstSent.complete();
+        return firstAcknowledged.future();
+      }
+      secondSent.complete();
+      return Future.succeededFuture();
+    }, (event, tenantId, cause) -> context.fail(cause));
+    Event first = buildEvent();
+    Event second = buildEvent();
+
+    spool.append(first, TENANT).toCompletionStage().toCompletableFuture().join();
+    spool.append(second, TENANT).toCompletionStage().toCompletableFuture().join();
+    firstSent.awaitSuccess(5000);
+    vertx.setTimer(200, id -> {
+      context.assertEquals(List.of(first.getId()), sent);
+      firstAcknowledged.complete();
+    });
+
+    secondSent.awaitSuccess(5000);
+    assertEquals(List.of(first.getId(), second.getId()), sent);
+    spool.close();
+  }
+
+  @Test
+  public void shouldRelayEventsSpooledBeforeRestart(TestContext context) throws IOException {
+    Event event = buildEvent();
+    PublishSpool spool = new PublishSpool(vertx, folder.getRoot().toPath(), metrics,
+      (e, tenantId) -> Future.failedFuture(new TimeoutException("Kafka is not available")),
+      (e, tenantId, cause) -> context.fail(cause));
+    spool.append(event, TENANT).toCompletionStage().toCompletableFuture().join();
+    spool.close();
+
+    Async async = context.async();
+    PublishSpool reopened = new PublishSpool(vertx, folder.getRoot().toPath(), metrics, (e, tenantId) -> {
+      context.assertEquals(event.getId(), e.getId());
+      context.assertEquals(TENANT, tenantId);
+      async.complete();
+      return Future.succeededFuture();
+    }, (e, tenantId, cause) -> context.fail(cause));
+    async.awaitSuccess(5000);
+    reopened.close();
+  }
+
+  @Test
+  public void shouldRejectEntryFailedMaxAttemptsAndContinueDraining(TestContext context) throws IOException {
+    Event invalidEvent = buildEvent();
+    Event event = buildEvent();
+    Async rejected = context.async();
+    Async sent = context.async();
+    PublishSpool spool = new PublishSpool(vertx, folder.getRoot().toPath(), metrics, (e, tenantId) -> {
+      if (invalidEvent.getId().equals(e.getId())) {
+        return Future.failedFuture("Event descriptor was not found");
+      }
+      if (!sent.isCompleted()) {
+        sent.complete();
+      }
+      return Future.succeededFuture();
+    }, (e, tenantId, cause) -> {
+      context.assertEquals(invalidEvent.getId(), e.getId());
+      rejected.complete();
+    }, 2);
+
+    spool.append(invalidEvent, TENANT).onComplete(context.asyncAssertSuccess());
+    spool.append(event, TENANT).onComplete(context.asyncAssertSuccess());
+
+    rejected.awaitSuccess(10000);
+    sent.awaitSuccess(10000);
+    spool.close();
+  }
+
+  @Test
+  public void shouldNotCountAttemptsWhileKafkaIsNotAvailable(TestContext context) throws IOException {
+    Async attempts = context.async(3);
+    PublishSpool spool = new PublishSpool(vertx, folder.getRoot().toPath(), metrics, (e, tenantId) -> {
+      if (!attempts.isCompleted()) {
+        attempts.countDown();
+      }
+      return Future.failedFuture(new TimeoutException("Kafka is not available"));
+    }, (e, tenantId, cause) -> context.fail("Event must stay in the spool"), 1);
+
+    spool.append(buildEvent(), TENANT).onComplete(context.asyncAssertSuccess());
+
+    attempts.awaitSuccess(10000);
+    spool.close();
+  }
+
+  private Event buildEvent() {
+    return new Event()
+      .withId(UUID.randomUUID().toString())
+      .withEventType("record_created")
+      .withEventMetadata(new EventMetadata()
+        .withTenantId(TENANT)
+        .withEventTTL(30)
+        .withPublishedBy("mod-very-important-1.0.0"))
+      .withEventPayload("{\"id\": \"1\"}");
+  }
+}
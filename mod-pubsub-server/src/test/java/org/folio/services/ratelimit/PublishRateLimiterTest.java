@@ -0,0 +1,130 @@
+package org.folio.services.ratelimit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.dao.RateLimitDao;
+import org.folio.rest.jaxrs.model.RateLimit;
+import org.folio.rest.jaxrs.model.RateLimitCollection;
+import org.folio.services.metrics.PubSubMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+
+public class PublishRateLimiterTest {
+
+  private static final String TENANT_ID = "diku";
+  private static final String MODULE_ID = "mod-publisher";
+  private static final String EVENT_TYPE = "CREATED_TEST_EVENT";
+
+  private Vertx vertx;
+  private PubSubMetrics metrics;
+  private RateLimitDao rateLimitDao;
+  private PublishRateLimiter rateLimiter;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    metrics = new PubSubMetrics(vertx);
+    rateLimitDao = mock(RateLimitDao.class);
+    rateLimiter = new PublishRateLimiter(rateLimitDao, metrics);
+  }
+
+  @After
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Test
+  public void shouldAdmitEventsIfNoLimitsAreSet() {
+    when(rateLimitDao.get(TENANT_ID)).thenReturn(Future.succeededFuture(new RateLimitCollection()));
+
+    for (int i = 0; i < 100; i++) {
+      assertTrue(rateLimiter.acquire(TENANT_ID, MODULE_ID, EVENT_TYPE).succeeded());
+    }
+    verify(rateLimitDao, times(1)).get(TENANT_ID);
+  }
+
+  @Test
+  public void shouldRejectEventsExceedingBurst() {
+    mockLimits(new RateLimit().withModuleId(MODULE_ID).withRatePerSecond(1.0).withBurst(2));
+
+    assertTrue(rateLimiter.acquire(TENANT_ID, MODULE_ID, EVENT_TYPE).succeeded());
+    assertTrue(rateLimiter.acquire(TENANT_ID, MODULE_ID, EVENT_TYPE).succeeded());
+    Future<Void> rejected = rateLimiter.acquire(TENANT_ID, MODULE_ID, EVENT_TYPE);
+
+    assertTrue(rejected.failed());
+    assertTrue(rejected.cause() instanceof RateLimitExceededException);
+    assertEquals(1, ((RateLimitExceededException) rejected.cause()).getRetryAfterSeconds());
+    assertEquals(1, metrics.getCounter(PublishRateLimiter.REJECTED_COUNTER));
+  }
+
+  @Test
+  public void shouldApplyLimitOnlyToMatchingPublisherAndEventType() {
+    mockLimits(new RateLimit().withModuleId(MODULE_ID).withEventType(EVENT_TYPE).withRatePerSecond(1.0).withBurst(1));
+
+    assertTrue(rateLimiter.acquire(TENANT_ID, MODULE_ID, EVENT_TYPE).succeeded());
+    assertTrue(rateLimiter.acquire(TENANT_ID, MODULE_ID, EVENT_TYPE).failed());
+    assertTrue(rateLimiter.acquire(TENANT_ID, "mod-other", EVENT_TYPE).succeeded());
+    assertTrue(rateLimiter.acquire(TENANT_ID, MODULE_ID, "OTHER_EVENT").succeeded());
+  }
+
+  @Test
+  public void shouldGiveBackTokensOfEventRejectedByAnotherLimit() {
+    mockLimits(new RateLimit().withEventType(EVENT_TYPE).withRatePerSecond(1.0).withBurst(2),
+      new RateLimit().withModuleId(MODULE_ID).withEventType(EVENT_TYPE).withRatePerSecond(1.0).withBurst(1));
+
+    assertTrue(rateLimiter.acquire(TENANT_ID, MODULE_ID, EVENT_TYPE).succeeded());
+    assertTrue(rateLimiter.acquire(TENANT_ID, MODULE_ID, EVENT_TYPE).failed());
+    assertTrue(rateLimiter.acquire(TENANT_ID, "mod-other", EVENT_TYPE).succeeded());
+    assertTrue(rateLimiter.acquire(TENANT_ID, "mod-other", EVENT_TYPE).failed());
+  }
+
+  @Test
+  public void shouldApplyUpdatedLimits() {
+    mockLimits(new RateLimit().withRatePerSecond(1.0).withBurst(1));
+    when(rateLimitDao.save(any(RateLimitCollection.class), eq(TENANT_ID))).thenReturn(Future.succeededFuture());
+
+    assertTrue(rateLimiter.acquire(TENANT_ID, MODULE_ID, EVENT_TYPE).succeeded());
+    assertTrue(rateLimiter.acquire(TENANT_ID, MODULE_ID, EVENT_TYPE).failed());
+
+    mockLimits(new RateLimit().withRatePerSecond(100.0));
+    assertTrue(rateLimiter.updateRateLimits(new RateLimitCollection(), TENANT_ID).succeeded());
+
+    assertTrue(rateLimiter.acquire(TENANT_ID, MODULE_ID, EVENT_TYPE).succeeded());
+  }
+
+  @Test
+  public void shouldNotLimitEventsIfLimitsCannotBeLoaded() {
+    when(rateLimitDao.get(TENANT_ID)).thenReturn(Future.failedFuture("Database is unavailable"));
+
+    assertTrue(rateLimiter.acquire(TENANT_ID, MODULE_ID, EVENT_TYPE).succeeded());
+  }
+
+  @Test
+  public void bucketShouldRefillAtConfiguredRate() {
+    long now = 0;
+    RateLimitBucket bucket = new RateLimitBucket(10.0, 1, now);
+
+    assertEquals(0, bucket.tryAcquire(now));
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire(now));
+    assertEquals(0, bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100)));
+  }
+
+  private void mockLimits(RateLimit... limits) {
+    when(rateLimitDao.get(TENANT_ID))
+      .thenReturn(Future.succeededFuture(new RateLimitCollection().withRateLimits(List.of(limits))));
+  }
+}
@@ -0,0 +1,52 @@
+package org.folio.services.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventMetadata;
+import org.junit.Test;
+
+public class EventExpirationTest {
+
+  private static final long NOW = System.currentTimeMillis();
+
+  @Test
+  public void shouldExpireEventAfterTtlSincePublishedDate() {
+    Event event = buildEvent(10, new Date(NOW - TimeUnit.MINUTES.toMillis(11)));
+
+    assertTrue(EventExpiration.isExpired(event, NOW, NOW));
+    assertEquals(NOW - TimeUnit.MINUTES.toMillis(1), EventExpiration.getExpirationTime(event, NOW));
+  }
+
+  @Test
+  public void shouldUsePublishTimeIfPublishedDateIsNotSet() {
+    Event event = buildEvent(10, null);
+
+    assertFalse(EventExpiration.isExpired(event, NOW - TimeUnit.MINUTES.toMillis(9), NOW));
+    assertTrue(EventExpiration.isExpired(event, NOW - TimeUnit.MINUTES.toMillis(10), NOW));
+  }
+
+  @Test
+  public void shouldNotExpireEventWithoutTtlOrPublishTime() {
+    assertFalse(EventExpiration.isExpired(buildEvent(null, new Date(0)), NOW, NOW));
+    assertFalse(EventExpiration.isExpired(buildEvent(0, new Date(0)), NOW, NOW));
+    assertEquals(EventExpiration.NEVER, EventExpiration.getExpirationTime(buildEvent(10, null), -1));
+  }
+
+  private Event buildEvent(Integer ttlMinutes, Date publishedDate) {
+    return new Event()
+      .withId(UUID.randomUUID().toString())
+      .withEventType("record_created")
+      .withEventMetadata(new EventMetadata()
+        .withTenantId("diku")
+        .withEventTTL(ttlMinutes)
+        .withPublishedDate(publishedDate)
+        .withPublishedBy("mod-very-important-1.0.0"));
+  }
+}
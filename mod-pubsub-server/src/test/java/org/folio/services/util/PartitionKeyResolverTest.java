@@ -0,0 +1,62 @@
+package org.folio.services.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.UUID;
+
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.jaxrs.model.EventDescriptor;
+import org.folio.rest.jaxrs.model.EventMetadata;
+import org.junit.Test;
+
+public class PartitionKeyResolverTest {
+
+  private static final String CORRELATION_ID = UUID.randomUUID().toString();
+  private static final String RECORD_ID = UUID.randomUUID().toString();
+
+  @Test
+  public void shouldReturnNullKeyIfStrategyIsNotSet() {
+    assertNull(PartitionKeyResolver.resolveKey(buildEvent(), new EventDescriptor()));
+    assertNull(PartitionKeyResolver.resolveKey(buildEvent(), null));
+  }
+
+  @Test
+  public void shouldResolveKeyByCorrelationId() {
+    EventDescriptor descriptor = new EventDescriptor().withPartitionKey(EventDescriptor.PartitionKey.CORRELATION_ID);
+    assertEquals(CORRELATION_ID, PartitionKeyResolver.resolveKey(buildEvent(), descriptor));
+  }
+
+  @Test
+  public void shouldResolveKeyByPayloadPointer() {
+    EventDescriptor descriptor = new EventDescriptor()
+      .withPartitionKey(EventDescriptor.PartitionKey.PAYLOAD_POINTER)
+      .withPartitionKeyPointer("/record/id");
+    assertEquals(RECORD_ID, PartitionKeyResolver.resolveKey(buildEvent(), descriptor));
+  }
+
+  @Test
+  public void shouldReturnNullKeyIfPayloadIsNotJson() {
+    EventDescriptor descriptor = new EventDescriptor()
+      .withPartitionKey(EventDescriptor.PartitionKey.PAYLOAD_POINTER)
+      .withPartitionKeyPointer("/record/id");
+    assertNull(PartitionKeyResolver.resolveKey(buildEvent().withEventPayload("not a json"), descriptor));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldFailValidationIfPointerIsMissing() {
+    PartitionKeyResolver.validate(new EventDescriptor().withPartitionKey(EventDescriptor.PartitionKey.PAYLOAD_POINTER));
+  }
+
+  private Event buildEvent() {
+    return new Event()
+      .withId(UUID.randomUUID().toString())
+      .withEventType("record_created")
+      .withEventMetadata(new EventMetadata()
+        .withTenantId("diku")
+        .withEventTTL(30)
+        .withCorrelationId(CORRELATION_ID)
+        .withPublishedBy("mod-very-important-1.0.0"))
+      .withEventPayload("{\"record\": {\"id\": \"" + RECORD_ID + "\"}}");
+  }
+}